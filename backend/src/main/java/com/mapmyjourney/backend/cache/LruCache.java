@@ -0,0 +1,131 @@
+package com.mapmyjourney.backend.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria acotada con expulsión LRU y caducidad opcional.
+ * Pensada para resultados pequeños y muy consultados (estadísticas, pertenencias, códigos),
+ * donde añadir una dependencia de caché externa no compensa.
+ * Es segura entre hilos; las operaciones están sincronizadas porque son O(1).
+ *
+ * @param <K> Tipo de la clave
+ * @param <V> Tipo del valor
+ */
+public class LruCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /**
+     * Crea una caché sin caducidad.
+     *
+     * @param maxEntries Número máximo de entradas antes de expulsar la menos usada
+     */
+    public LruCache(int maxEntries) {
+        this(maxEntries, null, Clock.systemUTC());
+    }
+
+    /**
+     * Crea una caché con caducidad.
+     *
+     * @param maxEntries Número máximo de entradas antes de expulsar la menos usada
+     * @param ttl Tiempo de vida de cada entrada desde que se guarda (null = sin caducidad)
+     */
+    public LruCache(int maxEntries, Duration ttl) {
+        this(maxEntries, ttl, Clock.systemUTC());
+    }
+
+    LruCache(int maxEntries, Duration ttl, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries debe ser mayor a 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl != null ? ttl.toMillis() : 0;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > LruCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Obtiene el valor de una clave, o null si no está o ha caducado.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Guarda un valor (sustituye el anterior y reinicia su caducidad).
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.millis()));
+    }
+
+    /**
+     * Obtiene el valor de una clave o lo calcula y guarda si no está.
+     * El cálculo se hace fuera del bloqueo: dos hilos pueden calcular el mismo valor a la vez,
+     * pero una consulta lenta nunca bloquea al resto de claves.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Elimina una clave.
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Elimina todas las entradas.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Número de entradas guardadas (incluidas las caducadas que aún no se han consultado).
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlMillis > 0 && clock.millis() - entry.storedAt >= ttlMillis;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long storedAt;
+
+        private Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+}
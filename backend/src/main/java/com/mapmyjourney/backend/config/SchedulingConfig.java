@@ -0,0 +1,13 @@
+package com.mapmyjourney.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Activa las tareas programadas (@Scheduled), como la reconciliación nocturna
+ * del total gastado de los viajes.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,7 @@
 package com.mapmyjourney.backend.config;
 
+import com.mapmyjourney.backend.security.TripAccessInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -7,6 +9,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,9 +20,13 @@ import java.util.List;
  * 
  * Este filtro CORS se ejecuta ANTES de todos los filtros de seguridad,
  * asegurando que el preflight (OPTIONS) sea procesado correctamente.
+ * También registra el interceptor que aplica @TripAccess.
  */
 @Configuration
-public class WebConfig {
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final TripAccessInterceptor tripAccessInterceptor;
 
     @Value("${spring.web.cors.allowed-origins:https://mapmyjourney-4w93.onrender.com,http://localhost:4200,http://localhost:3000,http://127.0.0.1:4200,https://mapmyjourney-frontend.onrender.com,https://mapmyjourney.onrender.com}")
     private String allowedOrigins;
@@ -62,4 +70,12 @@ public class WebConfig {
         
         return new CorsFilter(source);
     }
+
+    /**
+     * Comprueba la pertenencia al viaje de los endpoints anotados con @TripAccess.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tripAccessInterceptor);
+    }
 }
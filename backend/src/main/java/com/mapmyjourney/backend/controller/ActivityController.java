@@ -3,6 +3,8 @@ package com.mapmyjourney.backend.controller;
 import com.mapmyjourney.backend.dto.ActivityDTO;
 import com.mapmyjourney.backend.dto.CreateActivityRequestDTO;
 import com.mapmyjourney.backend.dto.UpdateActivityRequestDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
 import com.mapmyjourney.backend.service.ActivityService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,6 +27,7 @@ import java.util.List;
  * DELETE /api/trips/{tripId}/activities/{activityId} - Eliminar una actividad
  */
 @RestController
+@TripAccess
 @RequestMapping("/api/trips/{tripId}/activities")
 @RequiredArgsConstructor
 @Slf4j
@@ -84,6 +87,7 @@ public class ActivityController {
      * @param dto Datos de la nueva actividad
      * @return Actividad creada
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PostMapping
     public ResponseEntity<ActivityDTO> createActivity(
             @PathVariable Long tripId,
@@ -101,6 +105,7 @@ public class ActivityController {
      * @param dto Datos a actualizar
      * @return Actividad actualizada
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PutMapping("/{activityId}")
     public ResponseEntity<ActivityDTO> updateActivity(
             @PathVariable Long tripId,
@@ -118,6 +123,7 @@ public class ActivityController {
      * @param activityId ID de la actividad a eliminar
      * @return Respuesta sin contenido
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @DeleteMapping("/{activityId}")
     public ResponseEntity<Void> deleteActivity(
             @PathVariable Long tripId,
@@ -135,6 +141,7 @@ public class ActivityController {
      * @param activityIds Lista de IDs de actividades en el nuevo orden
      * @return Respuesta sin contenido
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PutMapping("/reorder")
     public ResponseEntity<Void> reorderActivities(
             @PathVariable Long tripId,
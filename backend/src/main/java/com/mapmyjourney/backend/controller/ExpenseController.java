@@ -1,13 +1,28 @@
 package com.mapmyjourney.backend.controller;
 
+import com.mapmyjourney.backend.dto.ExpenseBatchRequestDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchResponseDTO;
 import com.mapmyjourney.backend.dto.ExpenseCreateRequestDTO;
 import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.dto.ExpenseImportResultDTO;
+import com.mapmyjourney.backend.dto.ExpensePageDTO;
+import com.mapmyjourney.backend.dto.ExpenseStatsDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
+import com.mapmyjourney.backend.service.ExpenseCsvService;
 import com.mapmyjourney.backend.service.ExpenseService;
+import com.mapmyjourney.backend.service.ExpenseStatsService;
 import com.mapmyjourney.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -17,24 +32,44 @@ import jakarta.validation.Valid;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
  * Controlador REST para gestionar gastos en viajes.
  */
 @RestController
+@TripAccess
 @RequestMapping("/trips/{tripId}/expenses")
 @RequiredArgsConstructor
 @Tag(name = "Expenses", description = "API de gestión de gastos - Registrar, actualizar, dividir gastos")
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseStatsService expenseStatsService;
+    private final ExpenseCsvService expenseCsvService;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Tipo de contenido del listado en streaming: un JSON por línea.
+     */
+    private static final String NDJSON = "application/x-ndjson";
+
+    /**
+     * Tipo de contenido de la exportación a hoja de cálculo.
+     */
+    private static final String CSV = "text/csv";
 
     /**
      * 1. Crea un nuevo gasto en el viaje.
      * POST /api/trips/{tripId}/expenses
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PostMapping
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Registrar nuevo gasto", 
@@ -54,6 +89,69 @@ public class ExpenseController {
         return ResponseEntity.status(201).body(createdExpense);
     }
 
+    /**
+     * 1b. Registra varios gastos en el viaje con una sola petición.
+     * POST /api/trips/{tripId}/expenses/batch
+     * Pensado para el cliente móvil, que acumula gastos sin conexión y los envía juntos.
+     */
+    @TripAccess(role = TripMemberRole.EDITOR)
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Registrar gastos por lotes", 
+               description = "Registra varios gastos a la vez y devuelve el resultado de cada uno. " +
+                             "Un gasto inválido no impide registrar el resto, salvo con atomic = true")
+    @ApiResponse(responseCode = "201", description = "Todos los gastos registrados")
+    @ApiResponse(responseCode = "207", description = "Algunos gastos rechazados (ver resultados por gasto)")
+    @ApiResponse(responseCode = "400", description = "Lote atómico con gastos inválidos: no se registró ninguno")
+    @ApiResponse(responseCode = "403", description = "El usuario no es miembro del viaje")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<ExpenseBatchResponseDTO> createExpenses(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId,
+            @Valid @org.springframework.web.bind.annotation.RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Gastos a registrar") 
+            ExpenseBatchRequestDTO request) {
+        Long userId = extractUserIdFromContext();
+        ExpenseBatchResponseDTO response = expenseService.createExpenses(tripId, request, userId);
+
+        HttpStatus status = HttpStatus.CREATED;
+        if (response.getFailed() > 0) {
+            status = response.getCreated() == 0 && response.isAtomic()
+                    ? HttpStatus.BAD_REQUEST
+                    : HttpStatus.MULTI_STATUS;
+        }
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * 1c. Importa gastos desde un fichero CSV.
+     * POST /api/trips/{tripId}/expenses/import
+     * El cuerpo es el CSV (text/csv) y se procesa en streaming por bloques.
+     */
+    @TripAccess(role = TripMemberRole.EDITOR)
+    @PostMapping(value = "/import", consumes = {CSV, MediaType.TEXT_PLAIN_VALUE})
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Importar gastos desde CSV", 
+               description = "Importa gastos desde un CSV UTF-8 con cabecera date, description, amount, participants " +
+                             "y opcionalmente currency, paid_by, split_type y split_amounts. Pagador y participantes se indican por email " +
+                             "(varios separados por ';') y deben ser miembros del viaje. Las líneas inválidas se omiten y se " +
+                             "devuelven en el informe de errores")
+    @ApiResponse(responseCode = "201", description = "Todas las líneas importadas")
+    @ApiResponse(responseCode = "207", description = "Algunas líneas rechazadas (ver errores por línea)")
+    @ApiResponse(responseCode = "400", description = "Fichero vacío, sin las columnas obligatorias o mal formado")
+    @ApiResponse(responseCode = "403", description = "El usuario no es miembro del viaje")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<ExpenseImportResultDTO> importExpenses(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId,
+            InputStream body) throws IOException {
+        Long userId = extractUserIdFromContext();
+        ExpenseImportResultDTO result = expenseCsvService.importTripExpenses(tripId, body, userId);
+
+        HttpStatus status = result.getFailed() > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(result);
+    }
+
     /**
      * 2. Obtiene todos los gastos del viaje (con paginación).
      * GET /api/trips/{tripId}/expenses?page=0&amp;size=20&amp;sort=expenseDate,desc
@@ -75,6 +173,103 @@ public class ExpenseController {
         return ResponseEntity.ok(expenses);
     }
 
+    /**
+     * 2b. Obtiene una página de gastos del viaje usando un cursor.
+     * GET /api/trips/{tripId}/expenses/page?limit=50&amp;after={cursor}
+     */
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Listar gastos por cursor", 
+               description = "Obtiene los gastos del viaje del más reciente al más antiguo en páginas de tamaño limit. " +
+                             "Para la página siguiente se envía en after el nextCursor de la respuesta anterior")
+    @ApiResponse(responseCode = "200", description = "Página de gastos y cursor de la siguiente (null si no hay más)")
+    @ApiResponse(responseCode = "400", description = "Límite o cursor inválido")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<ExpensePageDTO> getTripExpensesPage(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId,
+            @Parameter(description = "Cantidad máxima de gastos por página (1-200)", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Cursor devuelto por la página anterior")
+            @RequestParam(required = false) String after) {
+        ExpensePageDTO page = expenseService.getTripExpensesPage(tripId, limit, after);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * 2c. Obtiene todos los gastos del viaje en streaming NDJSON.
+     * GET /api/trips/{tripId}/expenses/stream
+     * Los gastos se escriben a medida que se leen de la base de datos.
+     */
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Exportar gastos en streaming", 
+               description = "Devuelve todos los gastos del viaje como NDJSON (un gasto por línea), " +
+                             "del más reciente al más antiguo, sin cargarlos todos en memoria")
+    @ApiResponse(responseCode = "200", description = "Gastos del viaje, uno por línea")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<StreamingResponseBody> streamTripExpenses(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        expenseService.checkTripExists(tripId);
+
+        StreamingResponseBody body = out -> {
+            try {
+                expenseService.streamTripExpenses(tripId, expense -> writeLine(out, expense));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * 2d. Exporta los gastos del viaje a CSV en streaming.
+     * GET /api/trips/{tripId}/expenses/export.csv
+     * Una fila por división, leída de un cursor JDBC sin cargar entidades.
+     */
+    @GetMapping(value = "/export.csv", produces = CSV)
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Exportar gastos a CSV", 
+               description = "Descarga los gastos del viaje y sus divisiones como CSV (UTF-8, una fila por división), " +
+                             "del más reciente al más antiguo, sin cargarlos todos en memoria")
+    @ApiResponse(responseCode = "200", description = "Fichero CSV con los gastos del viaje")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<StreamingResponseBody> exportTripExpensesCsv(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        expenseService.checkTripExists(tripId);
+
+        StreamingResponseBody body = out -> expenseCsvService.exportTripExpenses(tripId, out);
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("trip-" + tripId + "-expenses.csv")
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * 2e. Obtiene las estadísticas de gastos del viaje.
+     * GET /api/trips/{tripId}/expenses/stats
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Estadísticas de gastos", 
+               description = "Obtiene el gasto por día, por pagador, la parte de cada miembro y la media por persona. " +
+                             "Los resultados se reutilizan mientras no cambien los gastos del viaje")
+    @ApiResponse(responseCode = "200", description = "Estadísticas de gastos del viaje")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<ExpenseStatsDTO> getTripExpenseStats(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        ExpenseStatsDTO stats = expenseStatsService.getTripStats(tripId);
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * 3. Obtiene un gasto por ID.
      * GET /api/trips/{tripId}/expenses/{expenseId}
@@ -99,6 +294,7 @@ public class ExpenseController {
      * PUT /api/trips/{tripId}/expenses/{expenseId}
      * Solo quien lo pagó puede actualizarlo.
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PutMapping("/{expenseId}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Actualizar gasto", 
@@ -125,6 +321,7 @@ public class ExpenseController {
      * DELETE /api/trips/{tripId}/expenses/{expenseId}
      * Solo quien lo pagó puede eliminarlo.
      */
+    @TripAccess(role = TripMemberRole.EDITOR)
     @DeleteMapping("/{expenseId}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Eliminar gasto", 
@@ -142,6 +339,18 @@ public class ExpenseController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Escribe un gasto como una línea JSON.
+     */
+    private void writeLine(OutputStream out, ExpenseDTO expense) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(expense));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Extrae el userId del contexto de seguridad de Spring Security.
      */
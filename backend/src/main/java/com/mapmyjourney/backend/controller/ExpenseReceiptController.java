@@ -0,0 +1,184 @@
+package com.mapmyjourney.backend.controller;
+
+import com.mapmyjourney.backend.dto.ExpenseReceiptDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
+import com.mapmyjourney.backend.service.ExpenseReceiptService;
+import com.mapmyjourney.backend.service.UserService;
+import com.mapmyjourney.backend.service.receipt.ReceiptStore;
+import com.mapmyjourney.backend.service.receipt.StoredReceipt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Controlador REST para los recibos de los gastos guardados en el backend.
+ */
+@RestController
+@TripAccess
+@RequestMapping("/expenses")
+@RequiredArgsConstructor
+@Tag(name = "ExpenseReceipts", description = "API de recibos de gastos - Subir y descargar tickets")
+public class ExpenseReceiptController {
+
+    private final ExpenseReceiptService expenseReceiptService;
+    private final UserService userService;
+
+    /**
+     * 1. Sube el recibo de un gasto.
+     * POST /api/expenses/{expenseId}/receipt
+     * El cuerpo es el fichero (JPEG, PNG o PDF) y se escribe a disco en streaming.
+     */
+    @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
+    @PostMapping(value = "/{expenseId}/receipt",
+                 consumes = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_PDF_VALUE,
+                             MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Subir recibo",
+               description = "Guarda el recibo del gasto (JPEG, PNG o PDF) y actualiza su receiptUrl. " +
+                             "Solo quien pagó el gasto puede subirlo")
+    @ApiResponse(responseCode = "201", description = "Recibo guardado")
+    @ApiResponse(responseCode = "400", description = "Fichero vacío, demasiado grande, de formato no admitido o usuario sin permisos")
+    @ApiResponse(responseCode = "404", description = "Gasto no encontrado")
+    public ResponseEntity<ExpenseReceiptDTO> uploadReceipt(
+            @Parameter(description = "ID del gasto", example = "1")
+            @PathVariable Long expenseId,
+            InputStream body) {
+        Long userId = extractUserIdFromContext();
+        String receiptUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/expenses/{expenseId}/receipt")
+                .buildAndExpand(expenseId)
+                .getPath();
+        ExpenseReceiptDTO receipt = expenseReceiptService.uploadReceipt(expenseId, body, receiptUrl, userId);
+        return ResponseEntity.status(201).body(receipt);
+    }
+
+    /**
+     * 2. Descarga el recibo de un gasto.
+     * GET /api/expenses/{expenseId}/receipt
+     * Admite If-None-Match (ETag = hash del contenido) y peticiones Range de un tramo.
+     */
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/{expenseId}/receipt")
+    @Operation(summary = "Descargar recibo",
+               description = "Descarga el recibo del gasto. Admite ETag/If-None-Match y Range para descargas parciales")
+    @ApiResponse(responseCode = "200", description = "Recibo completo")
+    @ApiResponse(responseCode = "206", description = "Tramo del recibo pedido con Range")
+    @ApiResponse(responseCode = "304", description = "El recibo no ha cambiado")
+    @ApiResponse(responseCode = "403", description = "El usuario no es miembro del viaje")
+    @ApiResponse(responseCode = "404", description = "Gasto no encontrado o sin recibo subido")
+    @ApiResponse(responseCode = "416", description = "Range fuera del tamaño del recibo")
+    public ResponseEntity<StreamingResponseBody> downloadReceipt(
+            @Parameter(description = "ID del gasto", example = "1")
+            @PathVariable Long expenseId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long userId = extractUserIdFromContext();
+        StoredReceipt receipt = expenseReceiptService.getReceipt(expenseId, userId);
+        return serve(receipt, range, ifNoneMatch);
+    }
+
+    /**
+     * 3. Descarga la miniatura del recibo de un gasto.
+     * GET /api/expenses/{expenseId}/receipt/thumbnail
+     */
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/{expenseId}/receipt/thumbnail")
+    @Operation(summary = "Descargar miniatura del recibo",
+               description = "Miniatura JPEG del recibo si es una imagen. Se genera en segundo plano tras la subida")
+    @ApiResponse(responseCode = "200", description = "Miniatura del recibo")
+    @ApiResponse(responseCode = "304", description = "La miniatura no ha cambiado")
+    @ApiResponse(responseCode = "403", description = "El usuario no es miembro del viaje")
+    @ApiResponse(responseCode = "404", description = "Gasto sin recibo, recibo que no es imagen o miniatura aún no generada")
+    public ResponseEntity<StreamingResponseBody> downloadReceiptThumbnail(
+            @Parameter(description = "ID del gasto", example = "1")
+            @PathVariable Long expenseId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Long userId = extractUserIdFromContext();
+        StoredReceipt thumbnail = expenseReceiptService.getThumbnail(expenseId, userId);
+        return serve(thumbnail, null, ifNoneMatch);
+    }
+
+    /**
+     * Responde con un fichero del almacén aplicando ETag y, si se pide, un único tramo Range.
+     */
+    private ResponseEntity<StreamingResponseBody> serve(StoredReceipt file, String range, String ifNoneMatch) {
+        String etag = "\"" + file.getHash() + "\"";
+        long length = file.getSize();
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*") || ifNoneMatch.contains(etag))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .build();
+        }
+
+        long start = 0;
+        long end = length - 1;
+        HttpStatus status = HttpStatus.OK;
+        if (range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                // Varios tramos (multipart/byteranges) no se admiten: se envía el fichero completo
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                    status = HttpStatus.PARTIAL_CONTENT;
+                }
+            } catch (IllegalArgumentException e) {
+                return rangeNotSatisfiable(length);
+            }
+            // HttpRange no comprueba que el inicio caiga dentro del fichero (p. ej. bytes=500- con 100 bytes)
+            if (status == HttpStatus.PARTIAL_CONTENT && (start >= length || start > end)) {
+                return rangeNotSatisfiable(length);
+            }
+        }
+
+        long position = start;
+        long count = end - start + 1;
+        StreamingResponseBody body = out -> ReceiptStore.transferTo(file.getPath(), position, count, out);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(MediaType.parseMediaType(file.getContentType()))
+                .contentLength(count)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (status == HttpStatus.PARTIAL_CONTENT) {
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Respuesta 416 con el tamaño real del fichero, como exige RFC 9110.
+     */
+    private ResponseEntity<StreamingResponseBody> rangeNotSatisfiable(long length) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+    }
+
+    /**
+     * Extrae el userId del contexto de seguridad de Spring Security.
+     */
+    private Long extractUserIdFromContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        return userService.getUserIdByEmail(email);
+    }
+}
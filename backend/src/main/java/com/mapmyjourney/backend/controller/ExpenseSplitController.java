@@ -1,12 +1,21 @@
 package com.mapmyjourney.backend.controller;
 
 import com.mapmyjourney.backend.dto.CreateSplitRequestDTO;
+import com.mapmyjourney.backend.dto.DebtSummaryDTO;
 import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
+import com.mapmyjourney.backend.dto.ReplaceSplitsRequestDTO;
+import com.mapmyjourney.backend.dto.SettleResultDTO;
+import com.mapmyjourney.backend.dto.SettleSplitsRequestDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
 import com.mapmyjourney.backend.service.ExpenseSplitService;
+import com.mapmyjourney.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,6 +25,7 @@ import jakarta.validation.Valid;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controlador REST para gestionar divisiones de gastos.
@@ -27,12 +37,14 @@ import java.util.List;
 public class ExpenseSplitController {
 
     private final ExpenseSplitService expenseSplitService;
+    private final UserService userService;
 
     /**
      * 1. Crea una nueva división de gasto.
      * POST /api/expenses/{expenseId}/splits
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PostMapping("/{expenseId}/splits")
     @Operation(summary = "Crear división de gasto", 
                description = "Crea una nueva división para que un participante deba pagar su parte del gasto")
@@ -55,6 +67,7 @@ public class ExpenseSplitController {
      * GET /api/expenses/{expenseId}/splits
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess
     @GetMapping("/{expenseId}/splits")
     @Operation(summary = "Listar divisiones del gasto", 
                description = "Obtiene todas las divisiones de un gasto específico")
@@ -67,11 +80,36 @@ public class ExpenseSplitController {
         return ResponseEntity.ok(splits);
     }
 
+    /**
+     * 2b. Sustituye todas las divisiones de un gasto en una sola operación.
+     * PUT /api/expenses/{expenseId}/splits
+     */
+    @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
+    @PutMapping("/{expenseId}/splits")
+    @Operation(summary = "Reemplazar divisiones del gasto", 
+               description = "Recibe el conjunto completo de divisiones: crea las nuevas, actualiza las que cambian "
+                       + "y elimina las que ya no aparecen. Solo quien pagó el gasto puede hacerlo")
+    @ApiResponse(responseCode = "200", description = "Divisiones resultantes del gasto")
+    @ApiResponse(responseCode = "400", description = "Participantes repetidos o ajenos al viaje, o la suma no coincide con el monto")
+    @ApiResponse(responseCode = "404", description = "Gasto no encontrado")
+    public ResponseEntity<List<ExpenseSplitDTO>> replaceSplits(
+            @Parameter(description = "ID del gasto", example = "1")
+            @PathVariable Long expenseId,
+            @Valid @org.springframework.web.bind.annotation.RequestBody
+            @RequestBody(description = "Conjunto completo de divisiones del gasto")
+            ReplaceSplitsRequestDTO request) {
+        Long userId = extractUserIdFromContext();
+        List<ExpenseSplitDTO> splits = expenseSplitService.replaceSplits(expenseId, request.getSplits(), userId);
+        return ResponseEntity.ok(splits);
+    }
+
     /**
      * 3. Obtiene una división específica.
      * GET /api/expenses/{expenseId}/splits/{splitId}
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess
     @GetMapping("/{expenseId}/splits/{splitId}")
     @Operation(summary = "Obtener división específica", 
                description = "Recupera los detalles de una división de gasto")
@@ -91,6 +129,7 @@ public class ExpenseSplitController {
      * PUT /api/expenses/{expenseId}/splits/{splitId}/pay
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PutMapping("/{expenseId}/splits/{splitId}/pay")
     @Operation(summary = "Marcar división como pagada", 
                description = "Marca una deuda como saldada")
@@ -110,6 +149,7 @@ public class ExpenseSplitController {
      * PUT /api/expenses/{expenseId}/splits/{splitId}/unpay
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
     @PutMapping("/{expenseId}/splits/{splitId}/unpay")
     @Operation(summary = "Marcar división como no pagada", 
                description = "Revierte el estado de pagado de una deuda")
@@ -129,6 +169,7 @@ public class ExpenseSplitController {
      * DELETE /api/expenses/{expenseId}/splits/{splitId}
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.EDITOR)
     @DeleteMapping("/{expenseId}/splits/{splitId}")
     @Operation(summary = "Eliminar división", 
                description = "Elimina una división de gasto")
@@ -167,13 +208,60 @@ public class ExpenseSplitController {
     @PreAuthorize("hasRole('USER')")
     @GetMapping("/users/{userId}/total-debt")
     @Operation(summary = "Calcular deuda total", 
-               description = "Calcula la cantidad total que un usuario debe en todos sus viajes")
-    @ApiResponse(responseCode = "200", description = "Deuda total del usuario")
+               description = "Calcula la cantidad total que un usuario debe en todos sus viajes, por moneda base")
+    @ApiResponse(responseCode = "200", description = "Deuda total del usuario por moneda")
     @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
-    public ResponseEntity<BigDecimal> getTotalPendingDebt(
+    public ResponseEntity<Map<String, BigDecimal>> getTotalPendingDebt(
             @Parameter(description = "ID del usuario", example = "1")
             @PathVariable Long userId) {
-        BigDecimal totalDebt = expenseSplitService.getTotalPendingDebt(userId);
+        Map<String, BigDecimal> totalDebt = expenseSplitService.getTotalPendingDebt(userId);
         return ResponseEntity.ok(totalDebt);
     }
+
+    /**
+     * 9. Resume las deudas pendientes de un usuario por viaje y por acreedor.
+     * GET /api/expenses/users/{userId}/debt-summary
+     */
+    @PreAuthorize("hasRole('USER')")
+    @GetMapping("/users/{userId}/debt-summary")
+    @Operation(summary = "Resumen de deudas", 
+               description = "Totales de lo que un usuario debe, agrupados por viaje y por acreedor")
+    @ApiResponse(responseCode = "200", description = "Resumen de deudas del usuario")
+    @ApiResponse(responseCode = "404", description = "Usuario no encontrado")
+    public ResponseEntity<DebtSummaryDTO> getDebtSummary(
+            @Parameter(description = "ID del usuario", example = "1")
+            @PathVariable Long userId) {
+        DebtSummaryDTO summary = expenseSplitService.getDebtSummary(userId);
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * 10. Marca varias divisiones como pagadas en una sola operación.
+     * PUT /api/expenses/splits/pay
+     */
+    @PreAuthorize("hasRole('USER')")
+    @PutMapping("/splits/pay")
+    @Operation(summary = "Liquidar varias divisiones", 
+               description = "Marca como pagadas todas las divisiones indicadas y devuelve los saldos resultantes. " +
+                             "Cada división debe ser del usuario (como pagador o participante) o de un viaje donde sea EDITOR")
+    @ApiResponse(responseCode = "200", description = "Divisiones liquidadas y saldos de los viajes afectados")
+    @ApiResponse(responseCode = "400", description = "Lista vacía o divisiones modificadas durante la operación")
+    @ApiResponse(responseCode = "403", description = "Alguna división no es del usuario (como pagador o participante) ni de un viaje donde sea EDITOR")
+    public ResponseEntity<SettleResultDTO> settleSplits(
+            @Valid @org.springframework.web.bind.annotation.RequestBody
+            @RequestBody(description = "IDs de las divisiones a liquidar")
+            SettleSplitsRequestDTO request) {
+        Long userId = extractUserIdFromContext();
+        SettleResultDTO result = expenseSplitService.settleSplits(request.getSplitIds(), userId);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Extrae el userId del contexto de seguridad de Spring Security.
+     */
+    private Long extractUserIdFromContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        return userService.getUserIdByEmail(email);
+    }
 }
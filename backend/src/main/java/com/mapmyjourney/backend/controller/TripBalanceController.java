@@ -0,0 +1,125 @@
+package com.mapmyjourney.backend.controller;
+
+import com.mapmyjourney.backend.dto.SettleResultDTO;
+import com.mapmyjourney.backend.dto.SettlementTransferDTO;
+import com.mapmyjourney.backend.dto.TripBalanceDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
+import com.mapmyjourney.backend.service.ExpenseSplitService;
+import com.mapmyjourney.backend.service.SettlementService;
+import com.mapmyjourney.backend.service.TripBalanceService;
+import com.mapmyjourney.backend.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+/**
+ * Controlador REST para consultar y liquidar los saldos de un viaje.
+ */
+@RestController
+@TripAccess
+@RequestMapping("/trips/{tripId}")
+@RequiredArgsConstructor
+@Tag(name = "Balances", description = "API de saldos - Quién debe a quién dentro de un viaje")
+public class TripBalanceController {
+
+    private final TripBalanceService tripBalanceService;
+    private final SettlementService settlementService;
+    private final ExpenseSplitService expenseSplitService;
+    private final UserService userService;
+
+    /**
+     * 1. Obtiene el saldo neto de cada miembro del viaje.
+     * GET /api/trips/{tripId}/balances
+     */
+    @GetMapping("/balances")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Obtener saldos del viaje",
+               description = "Devuelve el saldo neto de cada miembro (lo que le deben menos lo que debe)")
+    @ApiResponse(responseCode = "200", description = "Saldos de los miembros del viaje")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<List<TripBalanceDTO>> getTripBalances(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        List<TripBalanceDTO> balances = tripBalanceService.getTripBalances(tripId);
+        return ResponseEntity.ok(balances);
+    }
+
+    /**
+     * 2. Calcula cómo liquidar todas las deudas del viaje con el mínimo de pagos.
+     * GET /api/trips/{tripId}/settlement
+     */
+    @GetMapping("/settlement")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Liquidar viaje",
+               description = "Propone la lista casi mínima de transferencias que deja a cero todos los saldos")
+    @ApiResponse(responseCode = "200", description = "Transferencias propuestas")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<List<SettlementTransferDTO>> getTripSettlement(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        List<SettlementTransferDTO> transfers = settlementService.getTripSettlement(tripId);
+        return ResponseEntity.ok(transfers);
+    }
+
+    /**
+     * 3. Liquida todo lo que un miembro debe a otro en el viaje.
+     * PUT /api/trips/{tripId}/settle/{debtorId}/{creditorId}
+     */
+    @PutMapping("/settle/{debtorId}/{creditorId}")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Liquidar deuda entre dos miembros",
+               description = "Marca como pagado todo lo que el deudor debe al acreedor en el viaje (solo deudor o acreedor)")
+    @ApiResponse(responseCode = "200", description = "Divisiones liquidadas y saldos resultantes")
+    @ApiResponse(responseCode = "400", description = "Sin permisos o divisiones modificadas durante la operación")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<SettleResultDTO> settleBetween(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId,
+            @Parameter(description = "ID del usuario que debe", example = "2")
+            @PathVariable Long debtorId,
+            @Parameter(description = "ID del usuario al que se debe", example = "1")
+            @PathVariable Long creditorId) {
+        Long userId = extractUserIdFromContext();
+        SettleResultDTO result = expenseSplitService.settleBetween(tripId, debtorId, creditorId, userId);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * 4. Liquida todas las deudas del viaje.
+     * PUT /api/trips/{tripId}/settle
+     */
+    @TripAccess(role = TripMemberRole.OWNER)
+    @PutMapping("/settle")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Liquidar todo el viaje",
+               description = "Marca como pagadas todas las divisiones del viaje y deja los saldos a cero (solo OWNER)")
+    @ApiResponse(responseCode = "200", description = "Divisiones liquidadas y saldos resultantes")
+    @ApiResponse(responseCode = "400", description = "Sin permisos o divisiones modificadas durante la operación")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<SettleResultDTO> settleTrip(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        Long userId = extractUserIdFromContext();
+        SettleResultDTO result = expenseSplitService.settleTrip(tripId, userId);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Extrae el userId del contexto de seguridad de Spring Security.
+     */
+    private Long extractUserIdFromContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        return userService.getUserIdByEmail(email);
+    }
+}
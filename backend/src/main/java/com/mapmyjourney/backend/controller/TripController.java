@@ -1,7 +1,13 @@
 package com.mapmyjourney.backend.controller;
 
+import com.mapmyjourney.backend.dto.TripBudgetDTO;
+import com.mapmyjourney.backend.dto.TripCloneRequestDTO;
 import com.mapmyjourney.backend.dto.TripCreateRequestDTO;
 import com.mapmyjourney.backend.dto.TripDTO;
+import com.mapmyjourney.backend.dto.TripSummaryPageDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
+import com.mapmyjourney.backend.service.TripBudgetService;
 import com.mapmyjourney.backend.service.TripService;
 import com.mapmyjourney.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +35,7 @@ import java.util.List;
 public class TripController {
 
     private final TripService tripService;
+    private final TripBudgetService tripBudgetService;
     private final UserService userService;
 
     /**
@@ -51,15 +58,43 @@ public class TripController {
         return ResponseEntity.status(201).body(createdTrip);
     }
 
+    /**
+     * 1b. Crea un viaje nuevo copiando otro (itinerario y, opcionalmente, miembros).
+     * POST /api/trips/{tripId}/clone
+     * Solo EDITOR u OWNER del viaje original pueden clonarlo.
+     */
+    @TripAccess(role = TripMemberRole.EDITOR)
+    @PostMapping("/{tripId}/clone")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Clonar viaje", 
+               description = "Crea un viaje nuevo con las actividades del original desplazadas a la nueva fecha de inicio. " +
+                             "El usuario autenticado será el OWNER")
+    @ApiResponse(responseCode = "201", description = "Viaje clonado exitosamente")
+    @ApiResponse(responseCode = "400", description = "Datos inválidos")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    @ApiResponse(responseCode = "403", description = "No tiene permisos (se requiere EDITOR u OWNER)")
+    public ResponseEntity<TripDTO> cloneTrip(
+            @Parameter(description = "ID del viaje a clonar", example = "1")
+            @PathVariable Long tripId,
+            @Valid @org.springframework.web.bind.annotation.RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Fecha de inicio y opciones del viaje nuevo") 
+            TripCloneRequestDTO request) {
+        Long userId = extractUserIdFromContext();
+        TripDTO clonedTrip = tripService.cloneTrip(tripId, request, userId);
+        return ResponseEntity.status(201).body(clonedTrip);
+    }
+
     /**
      * 2. Obtiene un viaje por ID.
      * GET /api/trips/{tripId}
      */
     @GetMapping("/{tripId}")
     @PreAuthorize("hasRole('USER')")
+    @TripAccess
     @Operation(summary = "Obtener viaje por ID", 
                description = "Recupera los detalles completos de un viaje específico")
     @ApiResponse(responseCode = "200", description = "Viaje encontrado con sus datos")
+    @ApiResponse(responseCode = "403", description = "El usuario no es miembro del viaje")
     @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
     public ResponseEntity<TripDTO> getTripById(
             @Parameter(description = "ID único del viaje", example = "1")
@@ -88,6 +123,28 @@ public class TripController {
         return ResponseEntity.ok(trips);
     }
 
+    /**
+     * 3b. Obtiene los resúmenes de los viajes del usuario logueado (con paginación).
+     * GET /api/trips/my-trips/summary?page=0&amp;size=10
+     */
+    @GetMapping("/my-trips/summary")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Resumen de mis viajes", 
+               description = "Lista los viajes del usuario autenticado con número de miembros, total gastado, " +
+                             "saldo del usuario y próxima actividad, del más reciente al más antiguo")
+    @ApiResponse(responseCode = "200", description = "Página de resúmenes de viajes")
+    @ApiResponse(responseCode = "400", description = "Página o tamaño inválido")
+    @ApiResponse(responseCode = "401", description = "No autenticado")
+    public ResponseEntity<TripSummaryPageDTO> getMyTripSummaries(
+            @Parameter(description = "Número de página (comienza en 0)", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Cantidad de viajes por página (1-100)", example = "10")
+            @RequestParam(defaultValue = "10") int size) {
+        Long userId = extractUserIdFromContext();
+        TripSummaryPageDTO summaries = tripService.getUserTripSummaries(userId, page, size);
+        return ResponseEntity.ok(summaries);
+    }
+
     /**
      * 4. Obtiene un viaje por código (para invitaciones).
      * GET /api/trips/code/{tripCode}
@@ -110,6 +167,7 @@ public class TripController {
      * PUT /api/trips/{tripId}
      * Solo el OWNER puede actualizar.
      */
+    @TripAccess(role = TripMemberRole.OWNER)
     @PutMapping("/{tripId}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Actualizar viaje", 
@@ -132,6 +190,7 @@ public class TripController {
      * DELETE /api/trips/{tripId}
      * Solo el OWNER puede eliminar.
      */
+    @TripAccess(role = TripMemberRole.OWNER)
     @DeleteMapping("/{tripId}")
     @PreAuthorize("hasRole('USER')")
     @Operation(summary = "Eliminar viaje", 
@@ -147,6 +206,24 @@ public class TripController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * 7. Obtiene el estado del presupuesto del viaje.
+     * GET /api/trips/{tripId}/budget
+     */
+    @TripAccess
+    @GetMapping("/{tripId}/budget")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Obtener presupuesto del viaje", 
+               description = "Devuelve lo gastado, lo que queda, el porcentaje usado y el ritmo de gasto diario")
+    @ApiResponse(responseCode = "200", description = "Estado del presupuesto")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    public ResponseEntity<TripBudgetDTO> getTripBudget(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId) {
+        TripBudgetDTO budget = tripBudgetService.getTripBudget(tripId);
+        return ResponseEntity.ok(budget);
+    }
+
     /**
      * Extrae el userId del contexto de seguridad de Spring Security.
      * El nombre de usuario en el token JWT es el email del usuario.
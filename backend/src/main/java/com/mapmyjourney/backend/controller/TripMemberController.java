@@ -2,10 +2,15 @@ package com.mapmyjourney.backend.controller;
 
 import com.mapmyjourney.backend.dto.AddMemberRequestDTO;
 import com.mapmyjourney.backend.dto.ChangeMemberRoleRequestDTO;
+import com.mapmyjourney.backend.dto.MemberInviteBatchRequestDTO;
+import com.mapmyjourney.backend.dto.MemberInviteBatchResponseDTO;
 import com.mapmyjourney.backend.dto.TripMemberDTO;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.security.TripAccess;
 import com.mapmyjourney.backend.service.TripMemberService;
 import com.mapmyjourney.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,6 +29,7 @@ import java.util.List;
  * Controlador REST para gestionar miembros de viajes.
  */
 @RestController
+@TripAccess
 @RequestMapping("/trips/{tripId}/members")
 @RequiredArgsConstructor
 @Tag(name = "TripMembers", description = "API de gestión de miembros - Agregar, remover, cambiar roles")
@@ -37,6 +43,7 @@ public class TripMemberController {
      * POST /api/trips/{tripId}/members
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.OWNER)
     @PostMapping
     @Operation(summary = "Agregar miembro al viaje", 
                description = "Agrega un usuario al viaje con un rol específico (OWNER, EDITOR, VIEWER)")
@@ -54,6 +61,32 @@ public class TripMemberController {
         return ResponseEntity.status(201).body(newMember);
     }
 
+    /**
+     * 1b. Agrega varios miembros al viaje a partir de sus emails.
+     * POST /api/trips/{tripId}/members/batch
+     */
+    @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.OWNER)
+    @PostMapping("/batch")
+    @Operation(summary = "Agregar miembros por email",
+               description = "Agrega a la vez varios usuarios, identificados por email, y devuelve el resultado de cada uno. " +
+                             "Un email desconocido o que ya es miembro no impide agregar el resto")
+    @ApiResponse(responseCode = "201", description = "Todos los miembros agregados")
+    @ApiResponse(responseCode = "207", description = "Algunas invitaciones rechazadas (ver resultados por email)")
+    @ApiResponse(responseCode = "400", description = "Datos inválidos")
+    @ApiResponse(responseCode = "404", description = "Viaje no encontrado")
+    @ApiResponse(responseCode = "403", description = "No tiene permisos (solo OWNER puede agregar)")
+    public ResponseEntity<MemberInviteBatchResponseDTO> inviteMembers(
+            @Parameter(description = "ID del viaje", example = "1")
+            @PathVariable Long tripId,
+            @Valid @org.springframework.web.bind.annotation.RequestBody
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Emails y roles de los miembros a agregar")
+            MemberInviteBatchRequestDTO request) {
+        MemberInviteBatchResponseDTO response = tripMemberService.inviteMembers(tripId, request);
+        HttpStatus status = response.getFailed() > 0 ? HttpStatus.MULTI_STATUS : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(response);
+    }
+
     /**
      * 2. Obtiene todos los miembros del viaje.
      * GET /api/trips/{tripId}/members
@@ -96,6 +129,7 @@ public class TripMemberController {
      * Solo OWNER puede cambiar roles.
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.OWNER)
     @PutMapping("/{userId}/role")
     @Operation(summary = "Cambiar rol del miembro", 
                description = "Cambia el rol de un miembro en el viaje (solo OWNER puede hacerlo)")
@@ -118,6 +152,7 @@ public class TripMemberController {
      * Solo OWNER puede remover miembros.
      */
     @PreAuthorize("hasRole('USER')")
+    @TripAccess(role = TripMemberRole.OWNER)
     @DeleteMapping("/{userId}")
     @Operation(summary = "Remover miembro del viaje", 
                description = "Elimina un miembro del viaje (solo OWNER puede hacerlo)")
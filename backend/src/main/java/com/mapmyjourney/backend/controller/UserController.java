@@ -1,16 +1,20 @@
 package com.mapmyjourney.backend.controller;
 
+import com.mapmyjourney.backend.dto.UserBalancesDTO;
 import com.mapmyjourney.backend.dto.UserCreateRequestDTO;
 import com.mapmyjourney.backend.dto.UserDTO;
 import com.mapmyjourney.backend.dto.UserUpdateRequestDTO;
 import com.mapmyjourney.backend.dto.LoginRequestDTO;
 import com.mapmyjourney.backend.dto.LoginResponseDTO;
+import com.mapmyjourney.backend.service.UserBalanceService;
 import com.mapmyjourney.backend.service.UserService;
 import com.mapmyjourney.backend.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import jakarta.validation.Valid;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
@@ -28,6 +32,7 @@ import io.swagger.v3.oas.annotations.Parameter;
 public class UserController {
 
     private final UserService userService;
+    private final UserBalanceService userBalanceService;
 
     /**
      * 1. Registra un nuevo usuario.
@@ -107,6 +112,21 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    /**
+     * 4b. Obtiene la posición neta del usuario autenticado en todos sus viajes.
+     * GET /api/users/me/balances
+     */
+    @GetMapping("/me/balances")
+    @PreAuthorize("hasRole('USER')")
+    @Operation(summary = "Saldos globales del usuario", 
+               description = "Quién le debe al usuario y a quién debe él, sumando las divisiones pendientes de todos sus viajes")
+    @ApiResponse(responseCode = "200", description = "Saldos por persona y moneda, y neto por moneda")
+    public ResponseEntity<UserBalancesDTO> getMyBalances() {
+        Long userId = extractUserIdFromContext();
+        UserBalancesDTO balances = userBalanceService.getUserBalances(userId);
+        return ResponseEntity.ok(balances);
+    }
+
     /**
      * 5. Actualiza un usuario existente.
      * PUT /api/users/{userId}
@@ -168,4 +188,13 @@ public class UserController {
         userService.deleteUser(userId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Extrae el userId del contexto de seguridad de Spring Security.
+     */
+    private Long extractUserIdFromContext() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication.getName();
+        return userService.getUserIdByEmail(email);
+    }
+}
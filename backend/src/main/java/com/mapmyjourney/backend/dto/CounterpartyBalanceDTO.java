@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para lo pendiente entre el usuario y otra persona, sumando todos sus viajes
+ * con la misma moneda base.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CounterpartyBalanceDTO {
+
+    private UserDTO user;
+
+    private String currency;
+
+    private BigDecimal amount;
+}
@@ -0,0 +1,24 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con lo que un usuario debe a un acreedor (quien pagó los gastos).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreditorDebtDTO {
+
+    private UserDTO creditor;
+
+    private String currency;
+
+    private BigDecimal amount;
+}
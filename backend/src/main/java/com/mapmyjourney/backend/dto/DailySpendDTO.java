@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO con el gasto de un viaje en un día.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySpendDTO {
+
+    private LocalDate date;
+
+    private BigDecimal total;
+
+    private long expenseCount;
+}
@@ -0,0 +1,38 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con el resumen de deudas pendientes de un usuario.
+ * Solo cuenta lo que debe a otros: su parte de los gastos que pagó él mismo no es deuda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DebtSummaryDTO {
+
+    private Long userId;
+
+    /**
+     * Deuda total por moneda base de los viajes.
+     */
+    private Map<String, BigDecimal> totalByCurrency;
+
+    /**
+     * Deuda por viaje, con el desglose por acreedor dentro de cada viaje.
+     */
+    private List<TripDebtDTO> trips;
+
+    /**
+     * Deuda por acreedor y moneda sumando todos los viajes, de mayor a menor dentro de cada moneda.
+     */
+    private List<CreditorDebtDTO> creditors;
+}
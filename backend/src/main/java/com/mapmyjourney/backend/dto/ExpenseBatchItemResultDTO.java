@@ -0,0 +1,33 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de un gasto dentro de una petición por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseBatchItemResultDTO {
+
+    /**
+     * Posición del gasto en la petición (comienza en 0).
+     */
+    private int index;
+
+    private boolean created;
+
+    /**
+     * Gasto registrado, si created es true.
+     */
+    private ExpenseDTO expense;
+
+    /**
+     * Motivo del rechazo, si created es false.
+     */
+    private String error;
+}
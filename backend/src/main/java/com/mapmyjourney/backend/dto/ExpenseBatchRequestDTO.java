@@ -0,0 +1,34 @@
+package com.mapmyjourney.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para registrar varios gastos de un viaje en una sola petición.
+ * Pensado para la cola de gastos que el cliente móvil acumula sin conexión.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseBatchRequestDTO {
+
+    /**
+     * Gastos a registrar. Cada uno se valida por separado con ExpenseValidator (no con @Valid),
+     * de modo que un gasto inválido se informa en su resultado sin rechazar la petición.
+     */
+    @NotEmpty(message = "Debe haber al menos un gasto")
+    @Size(max = 500, message = "No se pueden registrar más de 500 gastos por petición")
+    private List<ExpenseCreateRequestDTO> expenses;
+
+    /**
+     * Si es true, basta un gasto inválido para no registrar ninguno (todo o nada).
+     */
+    private boolean atomic;
+}
@@ -0,0 +1,29 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una petición de gastos por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseBatchResponseDTO {
+
+    private int created;
+
+    private int failed;
+
+    private boolean atomic;
+
+    /**
+     * Un resultado por gasto, en el mismo orden que la petición.
+     */
+    private List<ExpenseBatchItemResultDTO> results;
+}
@@ -3,6 +3,7 @@ package com.mapmyjourney.backend.dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -51,8 +52,15 @@ public class ExpenseCreateRequestDTO {
     private List<Long> participantUserIds;
 
     /**
-     * Si splitType es MANUAL o PERCENTAGE, proporciona los montos o porcentajes.
-     * Formato: {userId: monto/porcentaje}
+     * Si splitType es MANUAL, PERCENTAGE o CUSTOM, proporciona los montos, porcentajes o partes.
+     * Formato: {userId: monto/porcentaje/partes}
+     * Los montos deben sumar el total del gasto y los porcentajes deben sumar 100.
      */
     private java.util.Map<Long, BigDecimal> splitAmounts;
+
+    /**
+     * Moneda del monto (ISO 4217). Si no se indica, la moneda base del viaje.
+     */
+    @Pattern(regexp = "^[A-Za-z]{3}$", message = "La moneda debe ser un código ISO 4217 de 3 letras")
+    private String currency;
 }
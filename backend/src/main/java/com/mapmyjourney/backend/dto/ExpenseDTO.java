@@ -34,6 +34,21 @@ public class ExpenseDTO {
     @DecimalMin(value = "0.01")
     private BigDecimal amount;
 
+    /**
+     * Moneda del monto (ISO 4217).
+     */
+    private String currency;
+
+    /**
+     * Tipo de cambio aplicado a la moneda base del viaje.
+     */
+    private BigDecimal fxRate;
+
+    /**
+     * Monto en la moneda base del viaje.
+     */
+    private BigDecimal baseAmount;
+
     @NotNull(message = "La fecha del gasto es obligatoria")
     private LocalDate expenseDate;
 
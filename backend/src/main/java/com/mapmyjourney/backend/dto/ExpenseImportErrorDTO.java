@@ -0,0 +1,23 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el error de una línea de un fichero de importación de gastos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseImportErrorDTO {
+
+    /**
+     * Línea del fichero en la que empieza el registro (la cabecera es la línea 1).
+     */
+    private long line;
+
+    private String error;
+}
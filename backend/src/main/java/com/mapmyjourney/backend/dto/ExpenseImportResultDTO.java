@@ -0,0 +1,37 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una importación de gastos desde CSV.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseImportResultDTO {
+
+    /**
+     * Registros leídos, sin contar la cabecera ni las líneas vacías.
+     */
+    private long rows;
+
+    private long imported;
+
+    private long failed;
+
+    /**
+     * Errores por línea, en el orden del fichero.
+     */
+    private List<ExpenseImportErrorDTO> errors;
+
+    /**
+     * Indica que hubo más errores de los que se incluyen en errors.
+     */
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,28 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con una página de gastos obtenida por cursor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpensePageDTO {
+
+    /**
+     * Gastos de la página, del más reciente al más antiguo.
+     */
+    private List<ExpenseDTO> items;
+
+    /**
+     * Cursor para pedir la página siguiente (parámetro after), o null si no hay más.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,29 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con los datos del recibo subido a un gasto.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseReceiptDTO {
+
+    private Long expenseId;
+
+    private String receiptUrl;
+
+    private String contentType;
+
+    private Long size;
+
+    /**
+     * Hash SHA-256 del contenido (se usa también como ETag).
+     */
+    private String hash;
+}
@@ -28,6 +28,11 @@ public class ExpenseSplitDTO {
     @DecimalMin(value = "0.01")
     private BigDecimal amount;
 
+    /**
+     * Monto en la moneda base del viaje.
+     */
+    private BigDecimal baseAmount;
+
     private BigDecimal percentage;
 
     private boolean paid;
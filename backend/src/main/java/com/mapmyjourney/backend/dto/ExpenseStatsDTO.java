@@ -0,0 +1,50 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con las estadísticas de gastos de un viaje.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class ExpenseStatsDTO {
+
+    private Long tripId;
+
+    /**
+     * Versión de los gastos del viaje con la que se calcularon las estadísticas.
+     */
+    private Long version;
+
+    private BigDecimal total;
+
+    private long expenseCount;
+
+    private long memberCount;
+
+    /**
+     * Total dividido entre los miembros del viaje. Los miembros no forman parte de la versión
+     * de gastos, así que este campo y memberCount se actualizan en cada consulta.
+     */
+    private BigDecimal averagePerPerson;
+
+    private List<DailySpendDTO> perDay;
+
+    /**
+     * Lo que ha pagado cada miembro, de mayor a menor.
+     */
+    private List<MemberSpendDTO> perPayer;
+
+    /**
+     * La parte de los gastos que corresponde a cada miembro según las divisiones, de mayor a menor.
+     */
+    private List<MemberSpendDTO> perMemberShare;
+}
@@ -0,0 +1,29 @@
+package com.mapmyjourney.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para agregar varios miembros a un viaje por email en una sola petición.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberInviteBatchRequestDTO {
+
+    /**
+     * Invitaciones a procesar. Un email desconocido o que ya es miembro se informa
+     * en su resultado sin rechazar la petición.
+     */
+    @NotEmpty(message = "Debe haber al menos una invitación")
+    @Size(max = 500, message = "No se pueden enviar más de 500 invitaciones por petición")
+    private List<@Valid MemberInviteDTO> invitations;
+}
@@ -0,0 +1,27 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de una petición de invitaciones por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberInviteBatchResponseDTO {
+
+    private int added;
+
+    private int failed;
+
+    /**
+     * Un resultado por invitación, en el mismo orden que la petición.
+     */
+    private List<MemberInviteResultDTO> results;
+}
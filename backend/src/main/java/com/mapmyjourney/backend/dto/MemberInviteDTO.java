@@ -0,0 +1,24 @@
+package com.mapmyjourney.backend.dto;
+
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con una invitación de la petición de invitaciones por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberInviteDTO {
+
+    @NotBlank(message = "El email es requerido")
+    private String email;
+
+    /**
+     * Rol inicial del usuario (por defecto VIEWER).
+     */
+    private TripMemberRole role;
+}
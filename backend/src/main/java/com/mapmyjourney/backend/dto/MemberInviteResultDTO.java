@@ -0,0 +1,35 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de una invitación dentro de una petición por lotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberInviteResultDTO {
+
+    /**
+     * Posición de la invitación en la petición (comienza en 0).
+     */
+    private int index;
+
+    private String email;
+
+    private boolean added;
+
+    /**
+     * Miembro creado, si added es true.
+     */
+    private TripMemberDTO member;
+
+    /**
+     * Motivo del rechazo, si added es false.
+     */
+    private String error;
+}
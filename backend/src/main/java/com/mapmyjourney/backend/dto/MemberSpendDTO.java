@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con lo que corresponde a un miembro en las estadísticas de un viaje
+ * (lo que ha pagado o la parte de los gastos que le toca, según la lista).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MemberSpendDTO {
+
+    private UserDTO user;
+
+    private BigDecimal total;
+
+    private long count;
+}
@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el conjunto completo de divisiones que debe tener un gasto.
+ * Las divisiones actuales que no aparezcan se eliminan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReplaceSplitsRequestDTO {
+
+    @NotEmpty(message = "Debe indicar al menos una división")
+    @Size(max = 1000, message = "Un gasto no puede tener más de 1000 divisiones")
+    private List<CreateSplitRequestDTO> splits;
+}
@@ -0,0 +1,34 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con el resultado de una liquidación masiva de divisiones.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettleResultDTO {
+
+    /**
+     * Número de divisiones marcadas como pagadas.
+     */
+    private int settledSplits;
+
+    /**
+     * Suma de los montos liquidados.
+     */
+    private BigDecimal settledAmount;
+
+    /**
+     * Saldos resultantes de los viajes afectados.
+     */
+    private List<TripBalanceDTO> balances;
+}
@@ -0,0 +1,24 @@
+package com.mapmyjourney.backend.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para marcar varias divisiones como pagadas en una sola petición.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettleSplitsRequestDTO {
+
+    @NotEmpty(message = "Debe indicar al menos una división")
+    @Size(max = 1000, message = "No se pueden liquidar más de 1000 divisiones por petición")
+    private List<Long> splitIds;
+}
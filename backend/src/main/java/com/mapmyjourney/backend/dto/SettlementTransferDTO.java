@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para una transferencia propuesta al liquidar un viaje.
+ * Ejemplo: "from paga a to 42.10".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SettlementTransferDTO {
+
+    private UserDTO from;
+
+    private UserDTO to;
+
+    private BigDecimal amount;
+}
@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO para el saldo neto de un miembro en un viaje.
+ * Positivo: le deben dinero. Negativo: debe dinero.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripBalanceDTO {
+
+    private Long tripId;
+
+    private UserDTO user;
+
+    private BigDecimal balance;
+}
@@ -0,0 +1,60 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con el estado del presupuesto de un viaje.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripBudgetDTO {
+
+    private Long tripId;
+
+    /**
+     * Moneda base del viaje, en la que se expresan todos los montos.
+     */
+    private String currency;
+
+    private BigDecimal budget;
+
+    private BigDecimal spent;
+
+    /**
+     * Presupuesto restante (negativo si se ha superado). Null si el viaje no tiene presupuesto.
+     */
+    private BigDecimal remaining;
+
+    /**
+     * Porcentaje del presupuesto gastado. Null si el viaje no tiene presupuesto.
+     */
+    private BigDecimal percentageUsed;
+
+    /**
+     * Días del viaje (inicio y fin incluidos).
+     */
+    private long totalDays;
+
+    /**
+     * Días transcurridos hasta hoy, entre 0 y totalDays.
+     */
+    private long elapsedDays;
+
+    /**
+     * Gasto medio por día transcurrido.
+     */
+    private BigDecimal dailyBurnRate;
+
+    /**
+     * Gasto diario que permitiría el presupuesto restante en los días que quedan.
+     * Null si el viaje no tiene presupuesto o ya ha terminado.
+     */
+    private BigDecimal dailyAllowance;
+}
@@ -0,0 +1,38 @@
+package com.mapmyjourney.backend.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para crear un viaje nuevo a partir de otro (por ejemplo, un itinerario que
+ * se repite con varios grupos).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripCloneRequestDTO {
+
+    /**
+     * Fecha de inicio del viaje nuevo. La de fin se calcula con la misma duración que el original.
+     */
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDate startDate;
+
+    /**
+     * Título del viaje nuevo (por defecto, el del original).
+     */
+    @Size(min = 1, max = 20, message = "El título debe tener entre 1 y 20 caracteres")
+    private String title;
+
+    /**
+     * Si es true, también se copian los miembros del original con sus roles.
+     */
+    private boolean copyMembers;
+}
@@ -2,6 +2,7 @@ package com.mapmyjourney.backend.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.DecimalMin;
 
@@ -43,6 +44,13 @@ public class TripCreateRequestDTO {
     @DecimalMin(value = "0.01", message = "El presupuesto debe ser mayor a 0")
     @JsonProperty("budget")
     private BigDecimal budget;
+
+    /**
+     * Moneda base del viaje (ISO 4217). Si no se indica, EUR.
+     */
+    @Pattern(regexp = "^[A-Za-z]{3}$", message = "La moneda debe ser un código ISO 4217 de 3 letras")
+    @JsonProperty("baseCurrency")
+    private String baseCurrency;
     
     public TripCreateRequestDTO() {
     }
@@ -123,4 +131,12 @@ public class TripCreateRequestDTO {
     public void setBudget(BigDecimal budget) {
         this.budget = budget;
     }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
 }
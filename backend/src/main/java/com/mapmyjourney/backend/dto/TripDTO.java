@@ -36,6 +36,8 @@ public class TripDTO {
 
     private BigDecimal budget;
 
+    private String baseCurrency;
+
     private String tripCode;
 
     private LocalDateTime createdAt;
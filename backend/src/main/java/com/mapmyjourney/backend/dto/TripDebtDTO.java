@@ -0,0 +1,32 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO con la deuda pendiente de un usuario en un viaje, desglosada por acreedor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripDebtDTO {
+
+    private Long tripId;
+
+    private String tripTitle;
+
+    /**
+     * Moneda base del viaje, en la que están todos sus montos.
+     */
+    private String currency;
+
+    private BigDecimal total;
+
+    private List<CreditorDebtDTO> creditors;
+}
@@ -0,0 +1,56 @@
+package com.mapmyjourney.backend.dto;
+
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO con el resumen de un viaje para el listado de viajes del usuario:
+ * datos básicos y los agregados que muestra cada tarjeta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripSummaryDTO {
+
+    private Long id;
+
+    private String title;
+
+    private String destination;
+
+    private String imageUrl;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private BigDecimal budget;
+
+    private String baseCurrency;
+
+    private TripMemberRole currentUserRole;
+
+    private long memberCount;
+
+    /**
+     * Total gastado en el viaje, en su moneda base.
+     */
+    private BigDecimal totalSpent;
+
+    /**
+     * Saldo neto del usuario en el viaje. Positivo: le deben dinero. Negativo: debe dinero.
+     */
+    private BigDecimal balance;
+
+    /**
+     * Próxima actividad no completada (desde hoy), o null si no hay ninguna.
+     */
+    private ActivityDTO nextActivity;
+}
@@ -0,0 +1,38 @@
+package com.mapmyjourney.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con la posición neta de un usuario en todos sus viajes:
+ * quién le debe, a quién debe y el neto por moneda.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserBalancesDTO {
+
+    private Long userId;
+
+    /**
+     * Personas que deben dinero al usuario, de mayor a menor.
+     */
+    private List<CounterpartyBalanceDTO> owedToMe;
+
+    /**
+     * Personas a las que el usuario debe dinero (montos en positivo), de mayor a menor.
+     */
+    private List<CounterpartyBalanceDTO> owedByMe;
+
+    /**
+     * Neto por moneda: positivo si en total le deben, negativo si debe.
+     */
+    private Map<String, BigDecimal> netByCurrency;
+}
@@ -5,7 +5,10 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
 
 import java.math.BigDecimal;
@@ -32,10 +35,14 @@ public class Expense {
     @SequenceGenerator(name = "expenses_id_gen", sequenceName = "expenses_id_seq", allocationSize = 1)
     private Long id;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "trip_id", nullable = false)
     private Trip trip;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "paid_by_user_id", nullable = false)
     private User paidBy;
@@ -50,6 +57,27 @@ public class Expense {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
+    /**
+     * Moneda del monto (ISO 4217).
+     */
+    @Column(nullable = false, length = 3)
+    @ColumnDefault("'EUR'")
+    private String currency;
+
+    /**
+     * Tipo de cambio de la moneda del gasto a la moneda base del viaje en la fecha del gasto.
+     */
+    @Column(nullable = false, precision = 18, scale = 10)
+    @ColumnDefault("1")
+    private BigDecimal fxRate;
+
+    /**
+     * Monto en la moneda base del viaje, calculado al escribir el gasto.
+     * Es null en los gastos anteriores a la multimoneda, que ya estaban en la moneda base.
+     */
+    @Column(precision = 12, scale = 2)
+    private BigDecimal baseAmount;
+
     @NotNull(message = "La fecha del gasto es obligatoria")
     @Column(nullable = false)
     private LocalDate expenseDate;
@@ -65,6 +93,18 @@ public class Expense {
     @Column(columnDefinition = "TEXT")
     private String receiptUrl;
 
+    /**
+     * Hash SHA-256 del recibo subido al almacén local (null si no hay fichero propio).
+     */
+    @Column(length = 64)
+    private String receiptHash;
+
+    /**
+     * Tipo de contenido del recibo subido (image/jpeg, image/png o application/pdf).
+     */
+    @Column(length = 100)
+    private String receiptContentType;
+
     @Column(nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
@@ -73,15 +113,37 @@ public class Expense {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @Builder.Default
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ExpenseSplit> splits = new HashSet<>();
 
+    @PrePersist
+    protected void onCreate() {
+        if (currency == null && trip != null) {
+            currency = trip.getBaseCurrency();
+        }
+        if (fxRate == null) {
+            fxRate = BigDecimal.ONE;
+        }
+        if (baseAmount == null && fxRate.compareTo(BigDecimal.ONE) == 0) {
+            baseAmount = amount;
+        }
+    }
+
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Monto en la moneda base del viaje.
+     */
+    public BigDecimal getAmountInBase() {
+        return baseAmount != null ? baseAmount : amount;
+    }
+
     /**
      * Calcula el total de los splits. Debe coincidir con el amount.
      */
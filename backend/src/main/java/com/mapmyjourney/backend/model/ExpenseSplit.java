@@ -6,9 +6,12 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 
 /**
@@ -28,10 +31,14 @@ public class ExpenseSplit {
     @SequenceGenerator(name = "expense_splits_id_gen", sequenceName = "expense_splits_id_seq", allocationSize = 1)
     private Long id;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "expense_id", nullable = false)
     private Expense expense;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "participant_user_id", nullable = false)
     private User participant;
@@ -41,6 +48,13 @@ public class ExpenseSplit {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
+    /**
+     * Monto en la moneda base del viaje, calculado al escribir la división.
+     * Es null en las divisiones anteriores a la multimoneda, que ya estaban en la moneda base.
+     */
+    @Column(precision = 12, scale = 2)
+    private BigDecimal baseAmount;
+
     /**
      * Porcentaje que representa este monto en el gasto total.
      * Útil para divisiones por porcentaje.
@@ -58,4 +72,21 @@ public class ExpenseSplit {
     @Column(nullable = false)
     @Builder.Default
     private boolean paid = false;
+
+    @PrePersist
+    protected void onCreate() {
+        if (baseAmount == null && amount != null && expense != null) {
+            BigDecimal rate = expense.getFxRate();
+            baseAmount = rate == null || rate.compareTo(BigDecimal.ONE) == 0
+                    ? amount
+                    : amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+
+    /**
+     * Monto en la moneda base del viaje.
+     */
+    public BigDecimal getAmountInBase() {
+        return baseAmount != null ? baseAmount : amount;
+    }
 }
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -17,8 +19,10 @@ import java.util.Set;
  * Entidad que representa un viaje colaborativo.
  * Actúa como contenedor principal de toda la información del viaje:
  * itinerario, gastos, miembros, chat, documentos y votaciones.
+ * Los viajes eliminados (deleted_at con valor) no aparecen en ninguna consulta sobre la entidad.
  */
 @Entity
+@SQLRestriction("deleted_at IS NULL")
 @Table(name = "trips", indexes = {
     @Index(name = "idx_trip_code", columnList = "trip_code", unique = true)
 })
@@ -63,6 +67,34 @@ public class Trip {
     @Column(precision = 10, scale = 2)
     private BigDecimal budget;
 
+    /**
+     * Moneda base del viaje (ISO 4217). Presupuesto, saldos y estadísticas se expresan en ella.
+     * No se puede cambiar después de crear el viaje: los montos base de los gastos ya convertidos dependen de ella.
+     */
+    @Column(nullable = false, length = 3, updatable = false)
+    @ColumnDefault("'EUR'")
+    @Builder.Default
+    private String baseCurrency = "EUR";
+
+    /**
+     * Total gastado en el viaje (suma de los montos de sus gastos).
+     * Se mantiene con UPDATE atómicos desde TripBudgetService, nunca al guardar la entidad.
+     */
+    @Column(nullable = false, precision = 12, scale = 2, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private BigDecimal spent = BigDecimal.ZERO;
+
+    /**
+     * Versión de los gastos del viaje.
+     * Aumenta con cada cambio en sus gastos o divisiones (ver TripRepository.addToSpent)
+     * y sirve de clave para las cachés de resultados calculados, como las estadísticas.
+     */
+    @Column(name = "expense_version", nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long expenseVersion = 0L;
+
     /**
      * Código único para invitar a otros usuarios al viaje.
      * Generado automáticamente.
@@ -78,6 +110,11 @@ public class Trip {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    /**
+     * Momento en que se eliminó el viaje. Sus datos los borra después PurgeService.
+     */
+    private LocalDateTime deletedAt;
+
     @Builder.Default
     @OneToMany(mappedBy = "trip", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<TripMember> members = new HashSet<>();
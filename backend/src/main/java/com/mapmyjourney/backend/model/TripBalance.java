@@ -0,0 +1,54 @@
+package com.mapmyjourney.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa el saldo neto de un miembro dentro de un viaje.
+ * Saldo positivo: le deben dinero. Saldo negativo: debe dinero.
+ * Se mantiene de forma incremental con cada cambio en gastos y divisiones.
+ */
+@Entity
+@Table(name = "trip_balances", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_trip_balance_member", columnNames = {"trip_id", "user_id"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TripBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trip_balances_id_gen")
+    @SequenceGenerator(name = "trip_balances_id_gen", sequenceName = "trip_balances_id_seq", allocationSize = 1)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "trip_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Trip trip;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    /**
+     * Lo que le deben al miembro menos lo que debe (divisiones pendientes).
+     */
+    @Column(nullable = false, precision = 12, scale = 2)
+    @Builder.Default
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
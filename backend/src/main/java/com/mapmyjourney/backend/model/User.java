@@ -64,6 +64,12 @@ public class User {
     @Column(columnDefinition = "TEXT")
     private String profilePicture; // URL o path a imagen
 
+    /**
+     * Momento en que se eliminó el usuario. Sus datos personales se anonimizan al eliminarlo
+     * y PurgeService borra la fila cuando ya no la referencia ningún gasto.
+     */
+    private LocalDateTime deletedAt;
+
     @Builder.Default
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<TripMember> tripMemberships = new HashSet<>();
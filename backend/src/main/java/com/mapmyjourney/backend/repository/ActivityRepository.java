@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -57,4 +58,17 @@ public interface ActivityRepository extends JpaRepository<Activity, String> {
      */
     @Query("SELECT a FROM Activity a WHERE a.id = :id AND a.trip.id = :tripId")
     Optional<Activity> findByIdAndTripId(@Param("id") String id, @Param("tripId") Long tripId);
+
+    /**
+     * Obtiene la próxima actividad no completada, desde una fecha, de cada uno de los viajes
+     * indicados con una sola consulta (como mucho una fila por viaje).
+     * El orden es el mismo que el del itinerario: fecha, hora de inicio e id para desempatar.
+     */
+    @Query("SELECT a FROM Activity a WHERE a.trip.id IN :tripIds AND a.isCompleted = false " +
+           "AND a.activityDate >= :from AND NOT EXISTS (" +
+           "SELECT a2.id FROM Activity a2 WHERE a2.trip = a.trip AND a2.isCompleted = false " +
+           "AND a2.activityDate >= :from AND (a2.activityDate < a.activityDate " +
+           "OR (a2.activityDate = a.activityDate AND (a2.startTime < a.startTime " +
+           "OR (a2.startTime = a.startTime AND a2.id < a.id)))))")
+    List<Activity> findNextByTripIds(@Param("tripIds") Collection<Long> tripIds, @Param("from") LocalDate from);
 }
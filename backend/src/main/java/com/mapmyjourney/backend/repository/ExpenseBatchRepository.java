@@ -0,0 +1,220 @@
+package com.mapmyjourney.backend.repository;
+
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras masivas de gastos y divisiones con JDBC batching.
+ * Evita el save() por fila de JPA, que con secuencias de allocationSize = 1
+ * supone además un nextval por fila: aquí el id se genera dentro del propio INSERT
+ * y todas las filas viajan en un único lote.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExpenseBatchRepository {
+
+    /**
+     * Número máximo de filas por lote JDBC.
+     */
+    public static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialectSupport sqlDialectSupport;
+
+    /**
+     * Inserta los gastos en lotes JDBC y asigna a cada uno el id generado.
+     * Después de esta llamada las divisiones de esos gastos ya pueden insertarse
+     * con {@link #batchInsertSplits(List)}.
+     *
+     * @param expenses Gastos a insertar (con viaje y pagador asignados)
+     * @return Número de filas insertadas
+     */
+    public int batchInsertExpenses(List<Expense> expenses) {
+        String sql = "INSERT INTO expenses "
+                + "(id, trip_id, paid_by_user_id, description, amount, currency, fx_rate, base_amount, "
+                + "expense_date, split_type, receipt_url, created_at, updated_at) "
+                + "VALUES (" + sqlDialectSupport.nextSequenceValue("expenses_id_seq") + ", ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        int total = 0;
+        for (int from = 0; from < expenses.size(); from += BATCH_SIZE) {
+            List<Expense> chunk = expenses.subList(from, Math.min(from + BATCH_SIZE, expenses.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            int[] counts = jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(sql, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Expense expense = chunk.get(i);
+                            ps.setLong(1, expense.getTrip().getId());
+                            ps.setLong(2, expense.getPaidBy().getId());
+                            ps.setString(3, expense.getDescription());
+                            ps.setBigDecimal(4, expense.getAmount());
+                            ps.setString(5, expense.getCurrency() != null
+                                    ? expense.getCurrency()
+                                    : expense.getTrip().getBaseCurrency());
+                            ps.setBigDecimal(6, expense.getFxRate() != null ? expense.getFxRate() : BigDecimal.ONE);
+                            ps.setBigDecimal(7, expense.getAmountInBase());
+                            ps.setDate(8, Date.valueOf(expense.getExpenseDate()));
+                            ps.setString(9, expense.getSplitType().name());
+                            ps.setString(10, expense.getReceiptUrl());
+                            LocalDateTime now = LocalDateTime.now();
+                            ps.setTimestamp(11, Timestamp.valueOf(
+                                    expense.getCreatedAt() != null ? expense.getCreatedAt() : now));
+                            ps.setTimestamp(12, Timestamp.valueOf(
+                                    expense.getUpdatedAt() != null ? expense.getUpdatedAt() : now));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != chunk.size()) {
+                throw new IllegalStateException("El driver no devolvió los ids de todos los gastos insertados");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                // Una sola columna pedida: el nombre de la clave depende del driver (id / ID)
+                Number id = (Number) keys.get(i).values().iterator().next();
+                chunk.get(i).setId(id.longValue());
+            }
+            total += countRows(new int[][] {counts});
+        }
+        return total;
+    }
+
+    /**
+     * Inserta las divisiones en lotes JDBC y asigna a cada una el id generado.
+     * El gasto al que pertenecen debe estar ya escrito en la base de datos.
+     *
+     * @param splits Divisiones a insertar (con gasto y participante asignados)
+     * @return Número de filas insertadas
+     */
+    public int batchInsertSplits(List<ExpenseSplit> splits) {
+        String sql = "INSERT INTO expense_splits "
+                + "(id, expense_id, participant_user_id, amount, base_amount, percentage, paid, created_at) "
+                + "VALUES (" + sqlDialectSupport.nextSequenceValue("expense_splits_id_seq") + ", ?, ?, ?, ?, ?, ?, ?)";
+
+        int total = 0;
+        for (int from = 0; from < splits.size(); from += BATCH_SIZE) {
+            List<ExpenseSplit> chunk = splits.subList(from, Math.min(from + BATCH_SIZE, splits.size()));
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+
+            int[] counts = jdbcTemplate.batchUpdate(
+                    con -> con.prepareStatement(sql, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            ExpenseSplit split = chunk.get(i);
+                            ps.setLong(1, split.getExpense().getId());
+                            ps.setLong(2, split.getParticipant().getId());
+                            ps.setBigDecimal(3, split.getAmount());
+                            ps.setBigDecimal(4, split.getAmountInBase());
+                            setPercentage(ps, 5, split);
+                            ps.setBoolean(6, split.isPaid());
+                            LocalDateTime createdAt = split.getCreatedAt() != null ? split.getCreatedAt() : LocalDateTime.now();
+                            ps.setTimestamp(7, Timestamp.valueOf(createdAt));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != chunk.size()) {
+                throw new IllegalStateException("El driver no devolvió los ids de todas las divisiones insertadas");
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Number id = (Number) keys.get(i).values().iterator().next();
+                chunk.get(i).setId(id.longValue());
+            }
+            total += countRows(new int[][] {counts});
+        }
+        return total;
+    }
+
+    /**
+     * Actualiza monto, monto base y porcentaje de varias divisiones en un único lote JDBC.
+     * El estado de pago no se toca.
+     *
+     * @param splits Divisiones con id y los nuevos valores
+     * @return Número de filas actualizadas
+     */
+    public int batchUpdateSplits(List<ExpenseSplit> splits) {
+        if (splits.isEmpty()) {
+            return 0;
+        }
+
+        String sql = "UPDATE expense_splits SET amount = ?, base_amount = ?, percentage = ? WHERE id = ?";
+
+        int[][] counts = jdbcTemplate.batchUpdate(sql, splits, BATCH_SIZE, (ps, split) -> {
+            ps.setBigDecimal(1, split.getAmount());
+            ps.setBigDecimal(2, split.getAmountInBase());
+            setPercentage(ps, 3, split);
+            ps.setLong(4, split.getId());
+        });
+
+        return countRows(counts);
+    }
+
+    /**
+     * Elimina varias divisiones por id en un único lote JDBC.
+     *
+     * @param splitIds IDs de las divisiones
+     * @return Número de filas eliminadas
+     */
+    public int batchDeleteSplits(List<Long> splitIds) {
+        if (splitIds.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate("DELETE FROM expense_splits WHERE id = ?", splitIds, BATCH_SIZE,
+                (ps, id) -> ps.setLong(1, id));
+
+        return countRows(counts);
+    }
+
+    private void setPercentage(PreparedStatement ps, int index, ExpenseSplit split) throws SQLException {
+        if (split.getPercentage() != null) {
+            ps.setBigDecimal(index, split.getPercentage());
+        } else {
+            ps.setNull(index, Types.DECIMAL);
+        }
+    }
+
+    /**
+     * Suma las filas afectadas de todos los lotes.
+     * Algunos drivers devuelven SUCCESS_NO_INFO (-2) en lugar del número de filas.
+     */
+    private int countRows(int[][] counts) {
+        int total = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                total += count >= 0 ? count : 1;
+            }
+        }
+        return total;
+    }
+}
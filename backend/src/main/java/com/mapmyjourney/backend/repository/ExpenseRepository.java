@@ -1,10 +1,21 @@
 package com.mapmyjourney.backend.repository;
 
 import com.mapmyjourney.backend.model.Expense;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
@@ -13,4 +24,95 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
      * Obtiene todos los gastos de un viaje.
      */
     List<Expense> findByTripId(Long tripId);
+
+    /**
+     * Obtiene un gasto con su pagador y su viaje bloqueando la fila (SELECT ... FOR UPDATE)
+     * hasta el final de la transacción, para serializar los cambios de sus divisiones.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Expense e JOIN FETCH e.paidBy JOIN FETCH e.trip WHERE e.id = :id")
+    Optional<Expense> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Obtiene solo el ID del viaje al que pertenece un gasto.
+     */
+    @Query("SELECT e.trip.id FROM Expense e WHERE e.id = :id")
+    Optional<Long> findTripIdById(@Param("id") Long id);
+
+    /**
+     * Asocia a un gasto el recibo subido al almacén local, sin tocar el resto de columnas.
+     *
+     * @return número de filas actualizadas (0 si el gasto ya no existe)
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Expense e SET e.receiptHash = :hash, e.receiptContentType = :contentType, " +
+           "e.receiptUrl = :url, e.updatedAt = :now WHERE e.id = :id")
+    int updateReceipt(@Param("id") Long id, @Param("hash") String hash, @Param("contentType") String contentType,
+                      @Param("url") String url, @Param("now") LocalDateTime now);
+
+    /**
+     * Obtiene los gastos de un viaje con su pagador, sus divisiones y los
+     * participantes de cada división en una sola consulta (evita el N+1 al mapear).
+     * Ordenados del más reciente al más antiguo.
+     */
+    @Query("SELECT DISTINCT e FROM Expense e " +
+           "JOIN FETCH e.paidBy " +
+           "LEFT JOIN FETCH e.splits s " +
+           "LEFT JOIN FETCH s.participant " +
+           "WHERE e.trip.id = :tripId " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<Expense> findByTripIdWithDetails(@Param("tripId") Long tripId);
+
+    /**
+     * Primera página de IDs de gastos de un viaje, del más reciente al más antiguo.
+     * El tamaño de página lo marca el Pageable (se ignora su ordenación).
+     */
+    @Query("SELECT e.id FROM Expense e WHERE e.trip.id = :tripId " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<Long> findIdsByTripId(@Param("tripId") Long tripId, Pageable pageable);
+
+    /**
+     * Página siguiente de IDs por keyset: gastos posteriores en el orden
+     * (expenseDate DESC, id DESC) al último gasto ya devuelto.
+     */
+    @Query("SELECT e.id FROM Expense e WHERE e.trip.id = :tripId " +
+           "AND (e.expenseDate < :expenseDate OR (e.expenseDate = :expenseDate AND e.id < :expenseId)) " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<Long> findIdsByTripIdAfter(@Param("tripId") Long tripId,
+                                    @Param("expenseDate") LocalDate expenseDate,
+                                    @Param("expenseId") Long expenseId,
+                                    Pageable pageable);
+
+    /**
+     * Obtiene los gastos indicados con su pagador, divisiones y participantes en una sola consulta.
+     */
+    @Query("SELECT DISTINCT e FROM Expense e " +
+           "JOIN FETCH e.paidBy " +
+           "LEFT JOIN FETCH e.splits s " +
+           "LEFT JOIN FETCH s.participant " +
+           "WHERE e.id IN :ids " +
+           "ORDER BY e.expenseDate DESC, e.id DESC")
+    List<Expense> findByIdInWithDetails(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Agrupa los gastos de un viaje por día.
+     * Cada fila: [expenseDate, total, numGastos].
+     */
+    @Query("SELECT e.expenseDate, SUM(COALESCE(e.baseAmount, e.amount)), COUNT(e) FROM Expense e " +
+           "WHERE e.trip.id = :tripId " +
+           "GROUP BY e.expenseDate " +
+           "ORDER BY e.expenseDate")
+    List<Object[]> sumByTripIdGroupByDate(@Param("tripId") Long tripId);
+
+    /**
+     * Agrupa los gastos de un viaje por pagador.
+     * Cada fila: [payerId, payerName, payerEmail, total, numGastos].
+     */
+    @Query("SELECT p.id, p.name, p.email, SUM(COALESCE(e.baseAmount, e.amount)), COUNT(e) " +
+           "FROM Expense e JOIN e.paidBy p " +
+           "WHERE e.trip.id = :tripId " +
+           "GROUP BY p.id, p.name, p.email " +
+           "ORDER BY SUM(COALESCE(e.baseAmount, e.amount)) DESC, p.id")
+    List<Object[]> sumByTripIdGroupByPayer(@Param("tripId") Long tripId);
 }
@@ -2,9 +2,14 @@ package com.mapmyjourney.backend.repository;
 
 import com.mapmyjourney.backend.model.ExpenseSplit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseSplitRepository extends JpaRepository<ExpenseSplit, Long> {
@@ -15,7 +20,143 @@ public interface ExpenseSplitRepository extends JpaRepository<ExpenseSplit, Long
     List<ExpenseSplit> findByExpenseId(Long expenseId);
 
     /**
-     * Obtiene todas las divisiones no pagadas de un usuario.
+     * Obtiene solo el ID del gasto al que pertenece una división.
      */
-    List<ExpenseSplit> findByParticipantIdAndPaidFalse(Long userId);
+    @Query("SELECT s.expense.id FROM ExpenseSplit s WHERE s.id = :id")
+    Optional<Long> findExpenseIdById(@Param("id") Long id);
+
+    /**
+     * Obtiene todas las divisiones no pagadas de un usuario (en viajes no eliminados).
+     */
+    @Query("SELECT s FROM ExpenseSplit s JOIN s.expense e JOIN e.trip t " +
+           "WHERE s.participant.id = :userId AND s.paid = false AND t.deletedAt IS NULL")
+    List<ExpenseSplit> findByParticipantIdAndPaidFalse(@Param("userId") Long userId);
+
+    /**
+     * Suma las divisiones no pagadas de un usuario en viajes no eliminados (usa el índice idx_user_debt).
+     * Excluye las divisiones de los gastos que pagó el propio usuario, que no son deuda.
+     * Se agrupa por moneda base del viaje, porque los montos de viajes con monedas distintas
+     * no se pueden sumar.
+     * Cada fila: [currency, total].
+     */
+    @Query("SELECT t.baseCurrency, SUM(COALESCE(s.baseAmount, s.amount)) FROM ExpenseSplit s " +
+           "JOIN s.expense e JOIN e.trip t " +
+           "WHERE s.participant.id = :userId AND s.paid = false AND e.paidBy.id <> :userId AND t.deletedAt IS NULL " +
+           "GROUP BY t.baseCurrency")
+    List<Object[]> sumPendingDebtByCurrency(@Param("userId") Long userId);
+
+    /**
+     * Agrupa las divisiones no pagadas de un usuario por viaje y por quien pagó el gasto.
+     * Excluye las divisiones de los gastos que pagó el propio usuario.
+     * Cada fila: [tripId, tripTitle, currency, creditorId, creditorName, creditorEmail, total].
+     */
+    @Query("SELECT t.id, t.title, t.baseCurrency, p.id, p.name, p.email, SUM(COALESCE(s.baseAmount, s.amount)) " +
+           "FROM ExpenseSplit s JOIN s.expense e JOIN e.trip t JOIN e.paidBy p " +
+           "WHERE s.participant.id = :userId AND s.paid = false AND p.id <> :userId AND t.deletedAt IS NULL " +
+           "GROUP BY t.id, t.title, t.baseCurrency, p.id, p.name, p.email " +
+           "ORDER BY t.id, p.id")
+    List<Object[]> sumPendingDebtByTripAndCreditor(@Param("userId") Long userId);
+
+    /**
+     * Saldo neto pendiente de un usuario con cada persona con la que comparte gastos,
+     * sumando todos sus viajes en una sola consulta agregada.
+     * Positivo: la otra persona le debe. Negativo: el usuario le debe.
+     * Se agrupa también por moneda base del viaje, porque los montos de viajes con
+     * monedas distintas no se pueden sumar.
+     * Cada fila: [counterpartyId, counterpartyName, counterpartyEmail, currency, net].
+     */
+    @Query("SELECT c.id, c.name, c.email, t.baseCurrency, " +
+           "SUM(CASE WHEN e.paidBy.id = :userId THEN COALESCE(s.baseAmount, s.amount) " +
+           "ELSE -COALESCE(s.baseAmount, s.amount) END) " +
+           "FROM ExpenseSplit s JOIN s.expense e JOIN e.trip t " +
+           "JOIN User c ON c.id = CASE WHEN e.paidBy.id = :userId THEN s.participant.id ELSE e.paidBy.id END " +
+           "WHERE s.paid = false AND s.participant.id <> e.paidBy.id AND t.deletedAt IS NULL " +
+           "AND (e.paidBy.id = :userId OR s.participant.id = :userId) " +
+           "GROUP BY c.id, c.name, c.email, t.baseCurrency")
+    List<Object[]> sumNetPendingByCounterparty(@Param("userId") Long userId);
+
+    /**
+     * Agrupa las divisiones no pagadas de la lista por viaje, pagador y participante.
+     * Cada fila: [tripId, payerId, participantId, total, numDivisiones].
+     */
+    @Query("SELECT e.trip.id, e.paidBy.id, s.participant.id, SUM(COALESCE(s.baseAmount, s.amount)), COUNT(s) " +
+           "FROM ExpenseSplit s JOIN s.expense e " +
+           "WHERE s.id IN :splitIds AND s.paid = false " +
+           "GROUP BY e.trip.id, e.paidBy.id, s.participant.id")
+    List<Object[]> sumUnpaidByIds(@Param("splitIds") Collection<Long> splitIds);
+
+    /**
+     * Marca como pagadas las divisiones no pagadas de la lista en una sola sentencia.
+     * @return número de divisiones actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExpenseSplit s SET s.paid = true WHERE s.id IN :splitIds AND s.paid = false")
+    int markPaidByIds(@Param("splitIds") Collection<Long> splitIds);
+
+    /**
+     * Cambia el estado de pago de una división solo si aún tiene el estado contrario.
+     * Así, de dos peticiones concurrentes solo una ve el cambio y lo aplica al libro de saldos.
+     * @return 1 si la división ha cambiado de estado, 0 si ya lo tenía o no existe
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ExpenseSplit s SET s.paid = :paid WHERE s.id = :splitId AND s.paid <> :paid")
+    int updatePaidIfChanged(@Param("splitId") Long splitId, @Param("paid") boolean paid);
+
+    /**
+     * Bloquea (SELECT ... FOR UPDATE) las divisiones no pagadas de la lista, en orden de id,
+     * hasta el final de la transacción. Las que estén pagadas o no existan no se devuelven.
+     * @return IDs de las divisiones bloqueadas
+     */
+    @Query(value = "SELECT s.id FROM expense_splits s WHERE s.id IN (:splitIds) AND s.paid = FALSE " +
+                   "ORDER BY s.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnpaidByIds(@Param("splitIds") Collection<Long> splitIds);
+
+    /**
+     * Bloquea las divisiones no pagadas de lo que un deudor debe a un acreedor en un viaje.
+     * @return IDs de las divisiones bloqueadas
+     */
+    @Query(value = "SELECT s.id FROM expense_splits s WHERE s.paid = FALSE AND s.participant_user_id = :debtorId " +
+                   "AND s.expense_id IN (SELECT e.id FROM expenses e WHERE e.trip_id = :tripId " +
+                   "AND e.paid_by_user_id = :creditorId) ORDER BY s.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnpaidBetween(@Param("tripId") Long tripId,
+                                 @Param("debtorId") Long debtorId,
+                                 @Param("creditorId") Long creditorId);
+
+    /**
+     * Bloquea las divisiones no pagadas de un viaje.
+     * @return IDs de las divisiones bloqueadas
+     */
+    @Query(value = "SELECT s.id FROM expense_splits s WHERE s.paid = FALSE " +
+                   "AND s.expense_id IN (SELECT e.id FROM expenses e WHERE e.trip_id = :tripId) " +
+                   "ORDER BY s.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockUnpaidByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Suma las divisiones no pagadas de un viaje.
+     * Una sola fila: [total, numDivisiones].
+     */
+    @Query("SELECT COALESCE(SUM(COALESCE(s.baseAmount, s.amount)), 0), COUNT(s) " +
+           "FROM ExpenseSplit s JOIN s.expense e " +
+           "WHERE e.trip.id = :tripId AND s.paid = false")
+    List<Object[]> sumUnpaidByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Marca como pagadas todas las divisiones de un viaje.
+     * @return número de divisiones actualizadas
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ExpenseSplit s SET s.paid = true " +
+           "WHERE s.paid = false AND s.expense.id IN (SELECT e.id FROM Expense e WHERE e.trip.id = :tripId)")
+    int markPaidByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Agrupa las divisiones de los gastos de un viaje por participante (parte que le corresponde a cada uno).
+     * Cada fila: [participantId, participantName, participantEmail, total, numDivisiones].
+     */
+    @Query("SELECT u.id, u.name, u.email, SUM(COALESCE(s.baseAmount, s.amount)), COUNT(s) " +
+           "FROM ExpenseSplit s JOIN s.participant u JOIN s.expense e " +
+           "WHERE e.trip.id = :tripId " +
+           "GROUP BY u.id, u.name, u.email " +
+           "ORDER BY SUM(COALESCE(s.baseAmount, s.amount)) DESC, u.id")
+    List<Object[]> sumByTripIdGroupByParticipant(@Param("tripId") Long tripId);
 }
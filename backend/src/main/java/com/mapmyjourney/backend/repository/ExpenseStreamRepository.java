@@ -0,0 +1,184 @@
+package com.mapmyjourney.backend.repository;
+
+import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
+import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.function.Consumer;
+
+/**
+ * Lectura en streaming de los gastos de un viaje con un cursor JDBC.
+ * Cada gasto se entrega en cuanto se han leído todas sus filas, de modo que
+ * la memoria usada no depende del tamaño del viaje.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExpenseStreamRepository {
+
+    /**
+     * Filas que el driver trae de la base de datos en cada viaje de red.
+     * En PostgreSQL solo se respeta dentro de una transacción (autocommit desactivado).
+     */
+    public static final int FETCH_SIZE = 500;
+
+    private static final String SQL = "SELECT e.id, e.description, e.amount, e.currency, e.fx_rate, "
+            + "COALESCE(e.base_amount, e.amount) AS base_amount, e.expense_date, e.split_type, "
+            + "e.receipt_url, e.created_at, e.updated_at, "
+            + "p.id AS payer_id, p.name AS payer_name, p.email AS payer_email, "
+            + "s.id AS split_id, s.amount AS split_amount, "
+            + "COALESCE(s.base_amount, s.amount) AS split_base_amount, s.percentage, s.paid, "
+            + "u.id AS participant_id, u.name AS participant_name, u.email AS participant_email "
+            + "FROM expenses e "
+            + "JOIN users p ON p.id = e.paid_by_user_id "
+            + "LEFT JOIN expense_splits s ON s.expense_id = e.id "
+            + "LEFT JOIN users u ON u.id = s.participant_user_id "
+            + "WHERE e.trip_id = ? "
+            + "ORDER BY e.expense_date DESC, e.id DESC, s.id";
+
+    /**
+     * Columnas de cada fila plana devuelta por streamFlatRows, en orden.
+     */
+    public static final String[] FLAT_COLUMNS = {
+            "expense_id", "expense_date", "description", "amount", "currency", "base_amount", "split_type",
+            "paid_by_id", "paid_by_name", "paid_by_email",
+            "split_id", "participant_id", "participant_name", "participant_email",
+            "split_amount", "split_base_amount", "percentage", "paid", "created_at"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recorre los gastos de un viaje, del más reciente al más antiguo,
+     * entregando cada uno con sus divisiones.
+     *
+     * @param tripId ID del viaje
+     * @param consumer Recibe cada gasto en orden
+     */
+    public void streamByTripId(Long tripId, Consumer<ExpenseDTO> consumer) {
+        ExpenseDTO[] current = new ExpenseDTO[1];
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, tripId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long expenseId = rs.getLong("id");
+            if (current[0] == null || !current[0].getId().equals(expenseId)) {
+                if (current[0] != null) {
+                    consumer.accept(current[0]);
+                }
+                current[0] = mapExpense(rs);
+            }
+
+            long splitId = rs.getLong("split_id");
+            if (!rs.wasNull()) {
+                current[0].getSplits().add(mapSplit(rs, splitId, expenseId));
+            }
+        });
+
+        if (current[0] != null) {
+            consumer.accept(current[0]);
+        }
+    }
+
+    /**
+     * Recorre los gastos de un viaje como filas planas de texto (una por división,
+     * o una sola con las columnas de división vacías si el gasto no tiene divisiones).
+     * No crea DTOs ni entidades: cada fila se entrega y se descarta.
+     *
+     * @param tripId ID del viaje
+     * @param consumer Recibe cada fila con los valores de FLAT_COLUMNS (null si no hay valor)
+     */
+    public void streamFlatRows(Long tripId, Consumer<String[]> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, tripId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            consumer.accept(new String[] {
+                    rs.getString("id"),
+                    rs.getDate("expense_date").toLocalDate().toString(),
+                    rs.getString("description"),
+                    plain(rs.getBigDecimal("amount")),
+                    rs.getString("currency"),
+                    plain(rs.getBigDecimal("base_amount")),
+                    rs.getString("split_type"),
+                    rs.getString("payer_id"),
+                    rs.getString("payer_name"),
+                    rs.getString("payer_email"),
+                    rs.getString("split_id"),
+                    rs.getString("participant_id"),
+                    rs.getString("participant_name"),
+                    rs.getString("participant_email"),
+                    plain(rs.getBigDecimal("split_amount")),
+                    plain(rs.getBigDecimal("split_base_amount")),
+                    plain(rs.getBigDecimal("percentage")),
+                    rs.getObject("split_id") != null ? String.valueOf(rs.getBoolean("paid")) : null,
+                    createdAt != null ? createdAt.toLocalDateTime().toString() : null
+            });
+        });
+    }
+
+    private ExpenseDTO mapExpense(ResultSet rs) throws SQLException {
+        UserDTO paidBy = new UserDTO();
+        paidBy.setId(rs.getLong("payer_id"));
+        paidBy.setName(rs.getString("payer_name"));
+        paidBy.setEmail(rs.getString("payer_email"));
+
+        ExpenseDTO dto = new ExpenseDTO();
+        dto.setId(rs.getLong("id"));
+        dto.setDescription(rs.getString("description"));
+        dto.setAmount(rs.getBigDecimal("amount"));
+        dto.setCurrency(rs.getString("currency"));
+        dto.setFxRate(rs.getBigDecimal("fx_rate"));
+        dto.setBaseAmount(rs.getBigDecimal("base_amount"));
+        dto.setExpenseDate(rs.getDate("expense_date").toLocalDate());
+        dto.setSplitType(ExpenseSplitType.valueOf(rs.getString("split_type")));
+        dto.setReceiptUrl(rs.getString("receipt_url"));
+        dto.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        dto.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        dto.setPaidBy(paidBy);
+        dto.setSplits(new LinkedHashSet<>());
+        return dto;
+    }
+
+    private ExpenseSplitDTO mapSplit(ResultSet rs, long splitId, long expenseId) throws SQLException {
+        UserDTO participant = new UserDTO();
+        participant.setId(rs.getLong("participant_id"));
+        participant.setName(rs.getString("participant_name"));
+        participant.setEmail(rs.getString("participant_email"));
+
+        ExpenseSplitDTO split = new ExpenseSplitDTO();
+        split.setId(splitId);
+        split.setExpenseId(expenseId);
+        split.setParticipant(participant);
+        split.setAmount(rs.getBigDecimal("split_amount"));
+        split.setBaseAmount(rs.getBigDecimal("split_base_amount"));
+        split.setPercentage(rs.getBigDecimal("percentage"));
+        split.setPaid(rs.getBoolean("paid"));
+        return split;
+    }
+
+    private String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.mapmyjourney.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Borrado físico por tramos de los viajes y usuarios eliminados.
+ * Cada método es una única sentencia DELETE basada en conjuntos que borra como mucho
+ * un tramo de filas; fuera de una transacción cada tramo se confirma por separado,
+ * así que los bloqueos duran poco y un viaje enorme no satura el registro de transacciones.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PurgeRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Obtiene IDs de viajes eliminados, del más antiguo al más reciente.
+     */
+    public List<Long> findDeletedTripIds(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM trips WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id LIMIT ?",
+                Long.class, limit);
+    }
+
+    /**
+     * Borra un tramo de divisiones de los gastos de un viaje.
+     * @return número de filas borradas (0 cuando ya no queda ninguna)
+     */
+    public int deleteTripSplits(Long tripId, int chunkSize) {
+        return jdbcTemplate.update(
+                "DELETE FROM expense_splits WHERE id IN (" +
+                "SELECT s.id FROM expense_splits s JOIN expenses e ON e.id = s.expense_id " +
+                "WHERE e.trip_id = ? LIMIT ?)",
+                tripId, chunkSize);
+    }
+
+    /**
+     * Borra un tramo de filas de una tabla hija de trips (gastos, actividades, miembros, saldos).
+     * @return número de filas borradas (0 cuando ya no queda ninguna)
+     */
+    public int deleteTripChildren(TripChildTable table, Long tripId, int chunkSize) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + table.tableName + " WHERE id IN (" +
+                "SELECT id FROM " + table.tableName + " WHERE trip_id = ? LIMIT ?)",
+                tripId, chunkSize);
+    }
+
+    /**
+     * Borra la fila de un viaje eliminado (sus tablas hijas ya deben estar vacías).
+     */
+    public int deleteTrip(Long tripId) {
+        return jdbcTemplate.update("DELETE FROM trips WHERE id = ? AND deleted_at IS NOT NULL", tripId);
+    }
+
+    /**
+     * Obtiene IDs de usuarios eliminados que ya no pagan ni participan en ningún gasto.
+     * Los que sí siguen como filas anonimizadas para no romper los gastos de los demás.
+     */
+    public List<Long> findPurgeableUserIds(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT u.id FROM users u WHERE u.deleted_at IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM expenses e WHERE e.paid_by_user_id = u.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM expense_splits s WHERE s.participant_user_id = u.id) " +
+                "ORDER BY u.deleted_at, u.id LIMIT ?",
+                Long.class, limit);
+    }
+
+    /**
+     * Borra un usuario eliminado junto con sus filas del libro de saldos y pertenencias
+     * que pudieran quedar. Comprueba de nuevo que ningún gasto lo referencia.
+     * @return 1 si se ha borrado el usuario
+     */
+    public int deleteUser(Long userId) {
+        jdbcTemplate.update("DELETE FROM trip_balances WHERE user_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM trip_members WHERE user_id = ?", userId);
+        return jdbcTemplate.update(
+                "DELETE FROM users WHERE id = ? AND deleted_at IS NOT NULL " +
+                "AND NOT EXISTS (SELECT 1 FROM expenses e WHERE e.paid_by_user_id = users.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM expense_splits s WHERE s.participant_user_id = users.id)",
+                userId);
+    }
+
+    /**
+     * Tablas que cuelgan de trips mediante trip_id, en el orden en que deben vaciarse.
+     */
+    public enum TripChildTable {
+        EXPENSES("expenses"),
+        ACTIVITIES("activities"),
+        TRIP_MEMBERS("trip_members"),
+        TRIP_BALANCES("trip_balances");
+
+        private final String tableName;
+
+        TripChildTable(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+}
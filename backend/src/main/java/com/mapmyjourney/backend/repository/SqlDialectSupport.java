@@ -0,0 +1,118 @@
+package com.mapmyjourney.backend.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fragmentos SQL que dependen del motor de base de datos (H2 en desarrollo,
+ * PostgreSQL en producción) para las consultas JDBC escritas a mano.
+ * Se apoya en el dialecto que ya usa Hibernate.
+ */
+@Component
+public class SqlDialectSupport {
+
+    private final Dialect dialect;
+
+    public SqlDialectSupport(EntityManagerFactory entityManagerFactory) {
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+    }
+
+    /**
+     * Expresión que obtiene el siguiente valor de una secuencia dentro de un INSERT.
+     * Ej: nextval('expenses_id_seq') en PostgreSQL, next value for expenses_id_seq en H2.
+     */
+    public String nextSequenceValue(String sequenceName) {
+        return dialect.getSequenceSupport().getSelectSequenceNextValString(sequenceName);
+    }
+
+    /**
+     * Expresión que genera un UUID en texto para cada fila de un INSERT ... SELECT.
+     * Ej: CAST(gen_random_uuid() AS VARCHAR) en PostgreSQL, CAST(RANDOM_UUID() AS VARCHAR) en H2.
+     */
+    public String randomUuid() {
+        if (dialect instanceof H2Dialect) {
+            return "CAST(RANDOM_UUID() AS VARCHAR(36))";
+        }
+        return "CAST(gen_random_uuid() AS VARCHAR(36))";
+    }
+
+    /**
+     * Expresión que suma un número de días a una fecha.
+     * Ej: (? + day_index) en PostgreSQL, DATEADD(DAY, day_index, ?) en H2.
+     *
+     * @param dateExpression Expresión de tipo fecha (una columna o un parámetro ?)
+     * @param daysExpression Expresión entera con los días a sumar
+     */
+    public String addDays(String dateExpression, String daysExpression) {
+        if (dialect instanceof H2Dialect) {
+            return "DATEADD(DAY, " + daysExpression + ", " + dateExpression + ")";
+        }
+        return "(CAST(" + dateExpression + " AS DATE) + " + daysExpression + ")";
+    }
+
+    /**
+     * Cláusula para bloquear filas que se van a modificar sin tocar su clave.
+     * En PostgreSQL es FOR NO KEY UPDATE, que no choca con el FOR KEY SHARE que toman los INSERT
+     * de filas hijas (p. ej. un gasto nuevo bloquea así su viaje): con FOR UPDATE, dos transacciones
+     * que insertan un gasto y luego bloquean el viaje se quedarían esperando la una a la otra.
+     * En H2 es FOR UPDATE.
+     */
+    public String forNoKeyUpdate() {
+        if (dialect instanceof H2Dialect) {
+            return "FOR UPDATE";
+        }
+        return "FOR NO KEY UPDATE";
+    }
+
+    /**
+     * Sentencia que suma un incremento a una fila identificada por sus columnas clave
+     * y la crea si no existe, en un único paso atómico (sin carrera entre UPDATE e INSERT).
+     * Ej: INSERT ... ON CONFLICT ... DO UPDATE en PostgreSQL, MERGE INTO ... USING en H2.
+     * Las columnas clave son BIGINT y necesitan una restricción UNIQUE.
+     * Parámetros, en orden: las columnas clave, el incremento y la fecha de actualización.
+     *
+     * @param table Tabla a actualizar
+     * @param sequenceName Secuencia del id para las filas nuevas
+     * @param keyColumns Columnas que identifican la fila
+     * @param amountColumn Columna numérica a incrementar
+     * @param timestampColumn Columna con la fecha de la última actualización
+     */
+    public String upsertIncrement(String table, String sequenceName, List<String> keyColumns,
+                                  String amountColumn, String timestampColumn) {
+        String keys = String.join(", ", keyColumns);
+        String placeholders = String.join(", ", Collections.nCopies(keyColumns.size() + 2, "?"));
+        String nextId = nextSequenceValue(sequenceName);
+
+        if (dialect instanceof H2Dialect) {
+            StringBuilder on = new StringBuilder();
+            StringBuilder sourceKeys = new StringBuilder();
+            for (String key : keyColumns) {
+                on.append(on.length() == 0 ? "" : " AND ").append("t.").append(key).append(" = v.").append(key);
+                sourceKeys.append("v.").append(key).append(", ");
+            }
+            // H2 no deduce el tipo de los parámetros de VALUES: se indican con CAST
+            String typedPlaceholders = String.join(", ",
+                    Collections.nCopies(keyColumns.size(), "CAST(? AS BIGINT)"))
+                    + ", CAST(? AS DECIMAL(19, 2)), CAST(? AS TIMESTAMP)";
+            return "MERGE INTO " + table + " t USING (VALUES (" + typedPlaceholders + ")) "
+                    + "AS v(" + keys + ", " + amountColumn + ", " + timestampColumn + ") ON " + on + " "
+                    + "WHEN MATCHED THEN UPDATE SET " + amountColumn + " = t." + amountColumn + " + v." + amountColumn
+                    + ", " + timestampColumn + " = v." + timestampColumn + " "
+                    + "WHEN NOT MATCHED THEN INSERT (id, " + keys + ", " + amountColumn + ", " + timestampColumn + ") "
+                    + "VALUES (" + nextId + ", " + sourceKeys + "v." + amountColumn + ", v." + timestampColumn + ")";
+        }
+        return "INSERT INTO " + table + " (id, " + keys + ", " + amountColumn + ", " + timestampColumn + ") "
+                + "VALUES (" + nextId + ", " + placeholders + ") "
+                + "ON CONFLICT (" + keys + ") DO UPDATE SET "
+                + amountColumn + " = " + table + "." + amountColumn + " + EXCLUDED." + amountColumn
+                + ", " + timestampColumn + " = EXCLUDED." + timestampColumn;
+    }
+}
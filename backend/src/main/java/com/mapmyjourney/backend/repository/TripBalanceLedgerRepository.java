@@ -0,0 +1,135 @@
+package com.mapmyjourney.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Escrituras del libro de saldos (tabla trip_balances) que no se pueden expresar en JPQL,
+ * con JDBC y los fragmentos de SqlDialectSupport para funcionar en H2 y en PostgreSQL.
+ *
+ * Toda escritura de saldos de un viaje se hace con la fila del viaje bloqueada (lockTrip),
+ * de modo que la reconciliación y los cambios de gastos y divisiones no se pisan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TripBalanceLedgerRepository {
+
+    /**
+     * Divisiones pendientes que cuentan en el libro: no pagadas y de alguien distinto del pagador.
+     */
+    private static final String PENDING_SPLITS =
+            "FROM expense_splits s JOIN expenses e ON e.id = s.expense_id "
+            + "WHERE s.paid = FALSE AND s.participant_user_id <> e.paid_by_user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialectSupport sqlDialectSupport;
+
+    /**
+     * Bloquea la fila del viaje hasta el final de la transacción (ver SqlDialectSupport.forNoKeyUpdate).
+     * También bloquea viajes eliminados, que aún pueden tener saldos hasta que se purgan.
+     */
+    public void lockTrip(Long tripId) {
+        jdbcTemplate.queryForList("SELECT id FROM trips WHERE id = ? " + sqlDialectSupport.forNoKeyUpdate(),
+                Long.class, tripId);
+    }
+
+    /**
+     * Suma a cada miembro su incremento de saldo con un upsert por fila, enviados en un único lote.
+     * Las filas que no existan se crean con el incremento como saldo inicial.
+     * Bloquea antes la fila del viaje (ver lockTrip).
+     *
+     * @param tripId ID del viaje
+     * @param deltas Incremento por ID de usuario (los incrementos cero se ignoran)
+     * @param now Fecha de actualización
+     * @return Número de filas escritas
+     */
+    public int addToBalances(Long tripId, Map<Long, BigDecimal> deltas, LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : new TreeMap<>(deltas).entrySet()) {
+            if (entry.getValue().signum() != 0) {
+                rows.add(new Object[] {tripId, entry.getKey(), entry.getValue(), updatedAt});
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        lockTrip(tripId);
+        String sql = sqlDialectSupport.upsertIncrement("trip_balances", "trip_balances_id_seq",
+                List.of("trip_id", "user_id"), "balance", "updated_at");
+        int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+        int total = 0;
+        for (int count : counts) {
+            // Algunos drivers devuelven SUCCESS_NO_INFO (-2) en lugar del número de filas
+            total += count >= 0 ? count : 1;
+        }
+        return total;
+    }
+
+    /**
+     * Saldos registrados en el libro para un viaje, por ID de usuario.
+     */
+    public Map<Long, BigDecimal> findBalances(Long tripId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query("SELECT user_id, balance FROM trip_balances WHERE trip_id = ?",
+                rs -> {
+                    balances.put(rs.getLong(1), rs.getBigDecimal(2));
+                },
+                tripId);
+        return balances;
+    }
+
+    /**
+     * Saldos que corresponden a las divisiones pendientes de un viaje, por ID de usuario,
+     * calculados con una única agregación: quien pagó suma el monto y el participante lo resta.
+     */
+    public Map<Long, BigDecimal> sumPendingBalances(Long tripId) {
+        String sql = "SELECT m.user_id, SUM(m.amount) FROM ("
+                + "SELECT e.paid_by_user_id AS user_id, COALESCE(s.base_amount, s.amount) AS amount "
+                + PENDING_SPLITS + " AND e.trip_id = ? "
+                + "UNION ALL "
+                + "SELECT s.participant_user_id AS user_id, -COALESCE(s.base_amount, s.amount) AS amount "
+                + PENDING_SPLITS + " AND e.trip_id = ?"
+                + ") m GROUP BY m.user_id";
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        jdbcTemplate.query(sql,
+                rs -> {
+                    balances.put(rs.getLong(1), rs.getBigDecimal(2));
+                },
+                tripId, tripId);
+        return balances;
+    }
+
+    /**
+     * IDs de los viajes que pueden necesitar reconciliación: los que tienen divisiones
+     * pendientes o algún saldo distinto de cero en el libro.
+     */
+    public List<Long> findTripIdsToReconcile() {
+        return jdbcTemplate.queryForList(
+                "SELECT e.trip_id " + PENDING_SPLITS + " "
+                + "UNION SELECT b.trip_id FROM trip_balances b WHERE b.balance <> 0",
+                Long.class);
+    }
+
+    /**
+     * Indica si el libro de saldos está vacío pese a haber divisiones pendientes,
+     * como ocurre la primera vez que arranca una base de datos anterior al libro.
+     */
+    public boolean isLedgerMissing() {
+        List<Long> pending = jdbcTemplate.queryForList(
+                "SELECT s.id " + PENDING_SPLITS + " AND NOT EXISTS (SELECT 1 FROM trip_balances) LIMIT 1",
+                Long.class);
+        return !pending.isEmpty();
+    }
+}
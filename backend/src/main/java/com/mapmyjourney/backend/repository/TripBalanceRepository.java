@@ -0,0 +1,43 @@
+package com.mapmyjourney.backend.repository;
+
+import com.mapmyjourney.backend.model.TripBalance;
+import com.mapmyjourney.backend.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TripBalanceRepository extends JpaRepository<TripBalance, Long> {
+
+    /**
+     * Obtiene los saldos de un viaje junto con el usuario (una sola consulta).
+     */
+    @Query("SELECT b FROM TripBalance b JOIN FETCH b.user WHERE b.trip.id = :tripId ORDER BY b.balance DESC")
+    List<TripBalance> findByTripIdWithUser(@Param("tripId") Long tripId);
+
+    /**
+     * Obtiene los miembros del viaje que todavía no tienen fila en el libro de saldos.
+     */
+    @Query("SELECT m.user FROM TripMember m WHERE m.trip.id = :tripId AND NOT EXISTS " +
+           "(SELECT b.id FROM TripBalance b WHERE b.trip.id = :tripId AND b.user = m.user)")
+    List<User> findMembersWithoutBalance(@Param("tripId") Long tripId);
+
+    /**
+     * IDs de los usuarios con fila en el libro de saldos de un viaje.
+     */
+    @Query("SELECT b.user.id FROM TripBalance b WHERE b.trip.id = :tripId")
+    List<Long> findUserIdsByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Pone a cero todos los saldos de un viaje (tras liquidar todas sus deudas).
+     * @return número de filas actualizadas
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TripBalance b SET b.balance = 0, b.updatedAt = :now WHERE b.trip.id = :tripId")
+    int resetBalances(@Param("tripId") Long tripId, @Param("now") LocalDateTime now);
+}
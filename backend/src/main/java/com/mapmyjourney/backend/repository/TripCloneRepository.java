@@ -0,0 +1,71 @@
+package com.mapmyjourney.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Copia el contenido de un viaje a otro dentro de la base de datos con INSERT ... SELECT,
+ * sin cargar las filas en memoria: clonar un itinerario de cientos de actividades
+ * cuesta una sola sentencia.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TripCloneRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialectSupport sqlDialectSupport;
+
+    /**
+     * Copia las actividades de un viaje a otro. Cada copia conserva su día dentro del viaje
+     * (day_index) y su fecha se recalcula a partir del inicio del viaje nuevo; ninguna
+     * queda marcada como completada.
+     *
+     * @param sourceTripId ID del viaje original
+     * @param targetTripId ID del viaje nuevo (ya escrito en la base de datos)
+     * @param targetStartDate Fecha de inicio del viaje nuevo
+     * @return Número de actividades copiadas
+     */
+    public int copyActivities(Long sourceTripId, Long targetTripId, LocalDate targetStartDate) {
+        String sql = "INSERT INTO activities "
+                + "(id, title, type, start_time, duration, location, notes, is_completed, day_index, "
+                + "activity_date, order_index, category, trip_id, created_at, updated_at) "
+                + "SELECT " + sqlDialectSupport.randomUuid() + ", title, type, start_time, duration, location, notes, "
+                + "FALSE, day_index, " + sqlDialectSupport.addDays("?", "day_index") + ", order_index, category, ?, ?, ? "
+                + "FROM activities WHERE trip_id = ?";
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(sql, Date.valueOf(targetStartDate), targetTripId, now, now, sourceTripId);
+    }
+
+    /**
+     * Copia los miembros de un viaje a otro con sus roles, salvo el usuario indicado
+     * (quien clona, que ya es OWNER del viaje nuevo).
+     *
+     * @param sourceTripId ID del viaje original
+     * @param targetTripId ID del viaje nuevo (ya escrito en la base de datos)
+     * @param excludedUserId ID del usuario que no se copia
+     * @return Número de miembros copiados
+     */
+    public int copyMembers(Long sourceTripId, Long targetTripId, Long excludedUserId) {
+        String sql = "INSERT INTO trip_members (id, trip_id, user_id, role, joined_at) "
+                + "SELECT " + sqlDialectSupport.nextSequenceValue("trip_members_id_seq") + ", ?, user_id, role, ? "
+                + "FROM trip_members WHERE trip_id = ? AND user_id <> ?";
+
+        return jdbcTemplate.update(sql, targetTripId, Timestamp.valueOf(LocalDateTime.now()),
+                sourceTripId, excludedUserId);
+    }
+
+    /**
+     * Obtiene los IDs de los usuarios miembros de un viaje.
+     */
+    public List<Long> findMemberUserIds(Long tripId) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM trip_members WHERE trip_id = ?", Long.class, tripId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.mapmyjourney.backend.repository;
+
+import com.mapmyjourney.backend.model.TripMember;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras masivas de miembros de viajes con JDBC batching, como ExpenseBatchRepository:
+ * el id se genera dentro del propio INSERT y todas las filas viajan en un único lote.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TripMemberBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SqlDialectSupport sqlDialectSupport;
+
+    /**
+     * Inserta los miembros en un lote JDBC y asigna a cada uno el id generado.
+     *
+     * @param members Miembros a insertar (con viaje, usuario y rol asignados)
+     * @return Número de filas insertadas
+     */
+    public int batchInsertMembers(List<TripMember> members) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+
+        String sql = "INSERT INTO trip_members (id, trip_id, user_id, role, joined_at) "
+                + "VALUES (" + sqlDialectSupport.nextSequenceValue("trip_members_id_seq") + ", ?, ?, ?, ?)";
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        int[] counts = jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(sql, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TripMember member = members.get(i);
+                        ps.setLong(1, member.getTrip().getId());
+                        ps.setLong(2, member.getUser().getId());
+                        ps.setString(3, member.getRole().name());
+                        LocalDateTime joinedAt = member.getJoinedAt() != null ? member.getJoinedAt() : LocalDateTime.now();
+                        ps.setTimestamp(4, Timestamp.valueOf(joinedAt));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return members.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != members.size()) {
+            throw new IllegalStateException("El driver no devolvió los ids de todos los miembros insertados");
+        }
+        int total = 0;
+        for (int i = 0; i < members.size(); i++) {
+            // Una sola columna pedida: el nombre de la clave depende del driver (id / ID)
+            Number id = (Number) keys.get(i).values().iterator().next();
+            members.get(i).setId(id.longValue());
+            // Algunos drivers devuelven SUCCESS_NO_INFO (-2) en lugar del número de filas
+            total += counts[i] >= 0 ? counts[i] : 1;
+        }
+        return total;
+    }
+}
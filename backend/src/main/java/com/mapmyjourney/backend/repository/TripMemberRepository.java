@@ -1,9 +1,15 @@
 package com.mapmyjourney.backend.repository;
 
 import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,8 +21,56 @@ public interface TripMemberRepository extends JpaRepository<TripMember, Long> {
      */
     Optional<TripMember> findByTripIdAndUserId(Long tripId, Long userId);
 
+    /**
+     * Obtiene solo el rol de un usuario en un viaje, sin cargar el miembro ni sus relaciones.
+     * En un viaje eliminado nadie tiene rol.
+     */
+    @Query("SELECT tm.role FROM TripMember tm JOIN tm.trip t " +
+           "WHERE t.id = :tripId AND tm.user.id = :userId AND t.deletedAt IS NULL")
+    Optional<TripMemberRole> findRoleByTripIdAndUserId(@Param("tripId") Long tripId, @Param("userId") Long userId);
+
     /**
      * Obtiene todos los miembros de un viaje.
      */
     List<TripMember> findAllByTripId(Long tripId);
+
+    /**
+     * Obtiene los usuarios miembros de un viaje con una sola consulta.
+     */
+    @Query("SELECT tm.user FROM TripMember tm WHERE tm.trip.id = :tripId")
+    List<User> findUsersByTripId(@Param("tripId") Long tripId);
+
+    /**
+     * Cuenta los miembros de un viaje.
+     */
+    long countByTripId(Long tripId);
+
+    /**
+     * Cuenta los miembros de un viaje con un rol (usa el índice idx_trip_member_role).
+     */
+    long countByTripIdAndRole(Long tripId, TripMemberRole role);
+
+    /**
+     * Obtiene, de entre los usuarios indicados, los que ya son miembros del viaje.
+     */
+    @Query("SELECT tm.user.id FROM TripMember tm WHERE tm.trip.id = :tripId AND tm.user.id IN :userIds")
+    List<Long> findUserIdsByTripIdAndUserIdIn(@Param("tripId") Long tripId, @Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Obtiene los IDs de los viajes de los que es miembro un usuario.
+     */
+    @Query("SELECT tm.trip.id FROM TripMember tm WHERE tm.user.id = :userId")
+    List<Long> findTripIdsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Obtiene el miembro con un rol que lleva más tiempo en un viaje, sin contar a un usuario
+     * (candidato a propietario cuando se elimina la cuenta del único propietario).
+     */
+    Optional<TripMember> findFirstByTripIdAndUserIdNotAndRoleOrderByJoinedAtAscIdAsc(
+            Long tripId, Long userId, TripMemberRole role);
+
+    /**
+     * Obtiene el miembro que lleva más tiempo en un viaje, sin contar a un usuario.
+     */
+    Optional<TripMember> findFirstByTripIdAndUserIdNotOrderByJoinedAtAscIdAsc(Long tripId, Long userId);
 }
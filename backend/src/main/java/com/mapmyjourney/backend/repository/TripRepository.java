@@ -1,25 +1,117 @@
 package com.mapmyjourney.backend.repository;
 
 import com.mapmyjourney.backend.model.Trip;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
 
+    /**
+     * Obtiene un viaje no eliminado por ID. Se declara como consulta para que la carga por ID
+     * aplique siempre el filtro de viajes eliminados.
+     */
+    @Override
+    @Query("SELECT t FROM Trip t WHERE t.id = :id AND t.deletedAt IS NULL")
+    Optional<Trip> findById(@Param("id") Long id);
+
+    /**
+     * Verifica si existe un viaje no eliminado con ese ID.
+     */
+    @Override
+    @Query("SELECT COUNT(t) > 0 FROM Trip t WHERE t.id = :id AND t.deletedAt IS NULL")
+    boolean existsById(@Param("id") Long id);
+
+    /**
+     * Obtiene un viaje no eliminado bloqueando su fila (SELECT ... FOR UPDATE) hasta el final
+     * de la transacción, para serializar los cambios de sus miembros.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM Trip t WHERE t.id = :id AND t.deletedAt IS NULL")
+    Optional<Trip> findByIdForUpdate(@Param("id") Long id);
+
     /**
      * Busca un viaje por su código único (para invitaciones).
      */
     Optional<Trip> findByTripCode(String tripCode);
 
+    /**
+     * Obtiene todos los códigos de invitación (para construir el filtro de códigos).
+     */
+    @Query("SELECT t.tripCode FROM Trip t")
+    List<String> findAllTripCodes();
+
+    /**
+     * Obtiene los códigos de los viajes creados desde una fecha (para añadir al filtro de códigos
+     * los viajes creados por otras instancias).
+     */
+    @Query("SELECT t.tripCode FROM Trip t WHERE t.createdAt >= :since")
+    List<String> findTripCodesCreatedSince(@Param("since") LocalDateTime since);
+
     /**
      * Obtiene todos los viajes donde el usuario es miembro.
      */
     @Query("SELECT t FROM Trip t JOIN t.members m WHERE m.user.id = :userId")
     List<Trip> findAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Obtiene una página de resúmenes de los viajes del usuario con una sola consulta:
+     * datos del viaje, rol del usuario, número de miembros y saldo del usuario.
+     * Del más reciente al más antiguo.
+     * Cada fila: [id, title, destination, imageUrl, startDate, endDate, budget, baseCurrency,
+     * spent, role, memberCount, balance (null si el usuario aún no tiene saldo)].
+     */
+    @Query(value = "SELECT t.id, t.title, t.destination, t.imageUrl, t.startDate, t.endDate, t.budget, " +
+                   "t.baseCurrency, t.spent, m.role, " +
+                   "(SELECT COUNT(m2) FROM TripMember m2 WHERE m2.trip = t), " +
+                   "(SELECT b.balance FROM TripBalance b WHERE b.trip = t AND b.user.id = :userId) " +
+                   "FROM TripMember m JOIN m.trip t WHERE m.user.id = :userId AND t.deletedAt IS NULL " +
+                   "ORDER BY t.createdAt DESC, t.id DESC",
+           countQuery = "SELECT COUNT(m) FROM TripMember m JOIN m.trip t " +
+                        "WHERE m.user.id = :userId AND t.deletedAt IS NULL")
+    Page<Object[]> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Suma un incremento al total gastado del viaje de forma atómica
+     * y avanza su versión de gastos.
+     * @return número de filas actualizadas (0 si el viaje no existe)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Trip t SET t.spent = t.spent + :delta, t.expenseVersion = t.expenseVersion + 1 WHERE t.id = :tripId")
+    int addToSpent(@Param("tripId") Long tripId, @Param("delta") BigDecimal delta);
+
+    /**
+     * Avanza la versión de gastos del viaje sin cambiar el total gastado.
+     * @return número de filas actualizadas (0 si el viaje no existe)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Trip t SET t.expenseVersion = t.expenseVersion + 1 WHERE t.id = :tripId")
+    int bumpExpenseVersion(@Param("tripId") Long tripId);
+
+    /**
+     * Obtiene la versión de gastos de un viaje sin cargar la entidad.
+     */
+    @Query("SELECT t.expenseVersion FROM Trip t WHERE t.id = :tripId")
+    Optional<Long> findExpenseVersionById(@Param("tripId") Long tripId);
+
+    /**
+     * Recalcula el total gastado a partir de los gastos en los viajes donde no coincide.
+     * @return número de viajes corregidos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Trip t SET t.spent = COALESCE((SELECT SUM(COALESCE(e.baseAmount, e.amount)) FROM Expense e WHERE e.trip.id = t.id), 0) " +
+           "WHERE t.spent <> COALESCE((SELECT SUM(COALESCE(e.baseAmount, e.amount)) FROM Expense e WHERE e.trip.id = t.id), 0)")
+    int reconcileSpent();
 }
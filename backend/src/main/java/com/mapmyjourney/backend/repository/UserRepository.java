@@ -2,13 +2,26 @@ package com.mapmyjourney.backend.repository;
 
 import com.mapmyjourney.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Busca un usuario no eliminado por ID.
+     * @param id el ID del usuario
+     * @return Optional con el usuario si existe y no se ha eliminado
+     */
+    @Override
+    @Query("SELECT u FROM User u WHERE u.id = :id AND u.deletedAt IS NULL")
+    Optional<User> findById(@Param("id") Long id);
+
     /**
      * Busca un usuario por su email.
      * @param email el email del usuario
@@ -22,4 +35,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true si existe, false si no
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Busca los usuarios no eliminados con alguno de los emails indicados, en una sola consulta.
+     * @param emails emails a buscar
+     * @return usuarios encontrados (los emails desconocidos no aparecen)
+     */
+    @Query("SELECT u FROM User u WHERE u.email IN :emails AND u.deletedAt IS NULL")
+    List<User> findAllByEmailIn(@Param("emails") Collection<String> emails);
 }
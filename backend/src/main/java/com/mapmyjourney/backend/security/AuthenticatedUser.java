@@ -0,0 +1,25 @@
+package com.mapmyjourney.backend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Usuario autenticado de Spring Security que además lleva el ID del usuario,
+ * para no tener que buscarlo por email en cada comprobación de permisos.
+ */
+public class AuthenticatedUser extends User {
+
+    private final Long id;
+
+    public AuthenticatedUser(Long id, String email, String passwordHash,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(email, passwordHash, authorities);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,29 @@
+package com.mapmyjourney.backend.security;
+
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exige que el usuario autenticado sea miembro del viaje con, como mínimo, el rol indicado.
+ *
+ * El viaje se obtiene de las variables de ruta {tripId}, {expenseId} y {splitId}; si hay varias,
+ * deben concordar (la división es del gasto y el gasto del viaje) o la petición responde 404.
+ * Lo comprueba TripAccessInterceptor antes de llamar al controlador, con la caché de pertenencias,
+ * así que una petición rechazada no llega a cargar ninguna entidad.
+ * En una clase se aplica a todos sus endpoints; en un método sustituye a la de la clase.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface TripAccess {
+
+    /**
+     * Rol mínimo en el viaje (OWNER incluye EDITOR y EDITOR incluye VIEWER).
+     */
+    TripMemberRole role() default TripMemberRole.VIEWER;
+}
@@ -0,0 +1,66 @@
+package com.mapmyjourney.backend.security;
+
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.TripMembershipCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Comprobaciones de pertenencia a un viaje para usar en @PreAuthorize, por ejemplo:
+ * {@code @PreAuthorize("hasRole('USER') and @tripAccess.isMember(#tripId)")} o
+ * {@code @PreAuthorize("@tripAccess.hasPermission(#tripId, 'EDITOR')")}.
+ * Usa la caché de pertenencias, así que normalmente no lanza ninguna consulta.
+ */
+@Component("tripAccess")
+@RequiredArgsConstructor
+public class TripAccessEvaluator {
+
+    private final TripMembershipCache tripMembershipCache;
+    private final UserRepository userRepository;
+
+    /**
+     * Verifica si el usuario autenticado es miembro del viaje.
+     */
+    public boolean isMember(Long tripId) {
+        Long userId = currentUserId();
+        return userId != null && tripMembershipCache.isMember(tripId, userId);
+    }
+
+    /**
+     * Verifica si el usuario autenticado tiene en el viaje, como mínimo, el rol indicado.
+     *
+     * @param tripId ID del viaje
+     * @param role Nombre del rol mínimo (OWNER, EDITOR o VIEWER)
+     */
+    public boolean hasPermission(Long tripId, String role) {
+        return hasPermission(tripId, TripMemberRole.valueOf(role));
+    }
+
+    /**
+     * Verifica si el usuario autenticado tiene en el viaje, como mínimo, el rol indicado.
+     */
+    public boolean hasPermission(Long tripId, TripMemberRole role) {
+        Long userId = currentUserId();
+        return userId != null && tripMembershipCache.hasPermission(tripId, userId, role);
+    }
+
+    /**
+     * Obtiene el ID del usuario autenticado. El filtro JWT deja un AuthenticatedUser con el ID;
+     * para otros tipos de autenticación se busca por email.
+     */
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser) {
+            return ((AuthenticatedUser) authentication.getPrincipal()).getId();
+        }
+        return userRepository.findByEmail(authentication.getName())
+                .map(user -> user.getId())
+                .orElse(null);
+    }
+}
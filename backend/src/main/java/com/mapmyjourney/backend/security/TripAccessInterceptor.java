@@ -0,0 +1,101 @@
+package com.mapmyjourney.backend.security;
+
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.service.TripIdResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Aplica @TripAccess: resuelve el viaje de la ruta y comprueba el rol del usuario
+ * antes de que se ejecute el controlador.
+ */
+@Component
+@RequiredArgsConstructor
+public class TripAccessInterceptor implements HandlerInterceptor {
+
+    private final TripAccessEvaluator tripAccessEvaluator;
+    private final TripIdResolver tripIdResolver;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        TripAccess access = findAnnotation((HandlerMethod) handler);
+        if (access == null) {
+            return true;
+        }
+
+        Long tripId = resolveTripId(request);
+        if (!tripAccessEvaluator.hasPermission(tripId, access.role())) {
+            throw new AccessDeniedException("No tienes permisos en este viaje");
+        }
+        return true;
+    }
+
+    /**
+     * La anotación del método tiene prioridad sobre la de la clase.
+     */
+    private TripAccess findAnnotation(HandlerMethod handler) {
+        TripAccess access = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), TripAccess.class);
+        if (access == null) {
+            access = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), TripAccess.class);
+        }
+        return access;
+    }
+
+    /**
+     * Obtiene el viaje a partir de todas las variables de ruta y comprueba que concuerdan:
+     * la división debe ser del gasto de la ruta y el gasto del viaje de la ruta. Si no,
+     * responde 404 como si no existiera, para que nadie pueda leer ni cambiar un gasto
+     * de otro viaje poniendo en la ruta un viaje propio.
+     */
+    @SuppressWarnings("unchecked")
+    private Long resolveTripId(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null) {
+            variables = Map.of();
+        }
+
+        Long tripId = variables.containsKey("tripId") ? parseId(variables.get("tripId")) : null;
+        Long expenseId = variables.containsKey("expenseId") ? parseId(variables.get("expenseId")) : null;
+
+        if (variables.containsKey("splitId")) {
+            Long splitExpenseId = tripIdResolver.getExpenseIdForSplit(parseId(variables.get("splitId")));
+            if (splitExpenseId == null || (expenseId != null && !expenseId.equals(splitExpenseId))) {
+                throw new ResourceNotFoundException("División de gasto no encontrada");
+            }
+            expenseId = splitExpenseId;
+        }
+        if (expenseId != null) {
+            Long expenseTripId = tripIdResolver.getTripIdForExpense(expenseId);
+            if (expenseTripId == null || (tripId != null && !tripId.equals(expenseTripId))) {
+                throw new ResourceNotFoundException("Gasto no encontrado");
+            }
+            tripId = expenseTripId;
+        }
+        if (tripId == null) {
+            throw new IllegalStateException("@TripAccess requiere una variable de ruta tripId, expenseId o splitId");
+        }
+        return tripId;
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Identificador inválido: " + value);
+        }
+    }
+}
@@ -189,7 +189,7 @@ public class ActivityService {
     /**
      * Convierte una entidad Activity a DTO.
      */
-    private ActivityDTO convertToDTO(Activity activity) {
+    static ActivityDTO convertToDTO(Activity activity) {
         return ActivityDTO.builder()
             .id(activity.getId())
             .title(activity.getTitle())
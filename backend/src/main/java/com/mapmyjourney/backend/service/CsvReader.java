@@ -0,0 +1,134 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector CSV en streaming (RFC 4180): lee un registro cada vez con un búfer fijo,
+ * admite campos entre comillas con comas, comillas dobles y saltos de línea,
+ * y finales de línea LF o CRLF.
+ */
+final class CsvReader {
+
+    /**
+     * Longitud máxima de un registro, para que unas comillas sin cerrar
+     * no hagan leer el fichero entero en memoria.
+     */
+    static final int MAX_RECORD_LENGTH = 65536;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Línea del fichero (comienza en 1) en la que empieza el último registro leído.
+     */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return Campos del registro, o null al final del fichero
+     * @throws ValidationException si el registro tiene comillas sin cerrar o es demasiado largo
+     */
+    String[] readRecord() throws IOException {
+        int c = next();
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean inQuotes = false;
+        boolean atFieldStart = true;
+        int length = 0;
+
+        while (true) {
+            if (c == -1) {
+                if (inQuotes) {
+                    throw new ValidationException("Línea " + recordLine + ": comillas sin cerrar");
+                }
+                fields.add(field.toString());
+                break;
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        next();
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                atFieldStart = true;
+                c = next();
+                continue;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    next();
+                }
+                line++;
+                fields.add(field.toString());
+                break;
+            } else if (c == '"' && atFieldStart) {
+                inQuotes = true;
+            } else {
+                field.append((char) c);
+            }
+            atFieldStart = false;
+
+            if (++length > MAX_RECORD_LENGTH) {
+                throw new ValidationException("Línea " + recordLine + ": registro demasiado largo");
+            }
+            c = next();
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    private int next() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,506 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseCreateRequestDTO;
+import com.mapmyjourney.backend.dto.ExpenseImportErrorDTO;
+import com.mapmyjourney.backend.dto.ExpenseImportResultDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
+import com.mapmyjourney.backend.repository.ExpenseStreamRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.split.SplitAllocationEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para exportar e importar los gastos de los viajes en CSV.
+ * La exportación lee las filas de un cursor JDBC y las escribe directamente en la respuesta,
+ * sin cargar entidades. La importación lee el fichero por bloques, valida cada bloque en
+ * paralelo y lo inserta con lotes JDBC, de modo que en ambos casos la memoria usada
+ * no depende del tamaño del fichero.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseCsvService {
+
+    /**
+     * Marca de orden de bytes UTF-8, para que las hojas de cálculo detecten la codificación.
+     */
+    static final char BOM = '\uFEFF';
+
+    private static final char SEPARATOR = ',';
+
+    /**
+     * Columnas del fichero de importación. Las obligatorias son date, description, amount y participants.
+     */
+    static final String COLUMN_DATE = "date";
+    static final String COLUMN_DESCRIPTION = "description";
+    static final String COLUMN_AMOUNT = "amount";
+    static final String COLUMN_CURRENCY = "currency";
+    static final String COLUMN_PAID_BY = "paid_by";
+    static final String COLUMN_PARTICIPANTS = "participants";
+    static final String COLUMN_SPLIT_TYPE = "split_type";
+    static final String COLUMN_SPLIT_AMOUNTS = "split_amounts";
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of(COLUMN_DATE, COLUMN_DESCRIPTION, COLUMN_AMOUNT, COLUMN_PARTICIPANTS);
+
+    /**
+     * Separador de la lista de participantes y de los datos de la división dentro de una celda.
+     */
+    private static final String LIST_SEPARATOR = ";";
+
+    /**
+     * Máximo de errores por línea que se devuelven en el informe.
+     */
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ExpenseStreamRepository expenseStreamRepository;
+    private final ExpenseBatchRepository expenseBatchRepository;
+    private final TripRepository tripRepository;
+    private final TripMemberRepository tripMemberRepository;
+    private final TripBalanceService tripBalanceService;
+    private final TripBudgetService tripBudgetService;
+    private final ExpenseValidator expenseValidator;
+    private final SplitAllocationEngine splitAllocationEngine;
+    private final FxRateService fxRateService;
+
+    /**
+     * Registros que se validan e insertan juntos al importar (se puede cambiar con app.import.batch-size).
+     */
+    @Value("${app.import.batch-size:1000}")
+    private int importBatchSize = 1000;
+
+    /**
+     * Escribe los gastos de un viaje en CSV, una fila por división.
+     * La transacción mantiene el cursor abierto mientras dura la escritura.
+     *
+     * @param tripId ID del viaje
+     * @param out Flujo de salida (no se cierra)
+     * @throws IOException si falla la escritura
+     */
+    @Transactional(readOnly = true)
+    public void exportTripExpenses(Long tripId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(BOM);
+        writeRow(writer, ExpenseStreamRepository.FLAT_COLUMNS);
+
+        try {
+            expenseStreamRepository.streamFlatRows(tripId, row -> {
+                try {
+                    writeRow(writer, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Escribe una fila CSV terminada en CRLF (RFC 4180).
+     */
+    static void writeRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(SEPARATOR);
+            }
+            writeField(writer, values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Escribe un campo, entre comillas si contiene separadores, comillas o saltos de línea.
+     * Los textos que empiezan por =, +, - o @ se prefijan con una comilla simple
+     * para que las hojas de cálculo no los interpreten como fórmulas.
+     */
+    static void writeField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (isFormulaPrefix(value.charAt(0)) && !isNumber(value)) {
+            value = "'" + value;
+        }
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == SEPARATOR || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean isFormulaPrefix(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@';
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            new BigDecimal(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Importa gastos de un viaje desde un CSV con cabecera:
+     * date, description, amount, currency, paid_by, participants, split_type, split_amounts.
+     * Los participantes y el pagador se indican por email (varios separados por ';') y se
+     * resuelven contra los miembros del viaje con una sola consulta. Sin paid_by paga quien importa;
+     * sin currency el monto está en la moneda base del viaje; sin split_type la división es equitativa;
+     * split_amounts lleva un valor por participante, en el mismo orden.
+     * <p>
+     * Los registros se procesan en bloques de app.import.batch-size: cada bloque se valida en paralelo
+     * con las mismas reglas que la creación de un gasto y se inserta con lotes JDBC. Las líneas inválidas
+     * se omiten y se informan; el libro de saldos y el total gastado se actualizan una vez al final.
+     *
+     * @param tripId ID del viaje
+     * @param in Contenido CSV en UTF-8 (no se cierra)
+     * @param importerUserId ID del usuario que importa
+     * @return Registros leídos, importados, fallidos y errores por línea
+     * @throws ResourceNotFoundException si el viaje no existe
+     * @throws AccessDeniedException si el usuario no es miembro del viaje
+     * @throws ValidationException si el fichero está vacío o le faltan columnas obligatorias
+     */
+    @Transactional
+    public ExpenseImportResultDTO importTripExpenses(Long tripId, InputStream in, Long importerUserId) throws IOException {
+        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        if (!tripOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        Trip trip = tripOptional.get();
+
+        // Miembros del viaje indexados por ID y por email, con una sola consulta
+        Map<Long, User> members = new HashMap<>();
+        Map<String, User> membersByEmail = new HashMap<>();
+        for (User member : tripMemberRepository.findUsersByTripId(tripId)) {
+            members.put(member.getId(), member);
+            membersByEmail.put(member.getEmail().toLowerCase(Locale.ROOT), member);
+        }
+        User importer = members.get(importerUserId);
+        if (importer == null) {
+            throw new AccessDeniedException("No eres miembro de este viaje");
+        }
+
+        CsvReader reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Map<String, Integer> columns = readHeader(reader);
+        ImportContext context = new ImportContext(trip, members, membersByEmail, importer, columns);
+
+        ExpenseImportResultDTO result = new ExpenseImportResultDTO(0, 0, 0, new ArrayList<>(), false);
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+        BigDecimal[] spent = {BigDecimal.ZERO};
+
+        List<CsvRecord> chunk = new ArrayList<>(importBatchSize);
+        String[] fields;
+        while ((fields = reader.readRecord()) != null) {
+            if (fields.length == 1 && fields[0].isBlank()) {
+                continue;
+            }
+            chunk.add(new CsvRecord(reader.getRecordLine(), fields));
+            if (chunk.size() == importBatchSize) {
+                importChunk(chunk, context, result, balanceDeltas, spent);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, context, result, balanceDeltas, spent);
+        }
+
+        if (result.getImported() > 0) {
+            tripBalanceService.applyDeltas(tripId, balanceDeltas);
+            tripBudgetService.addSpent(tripId, spent[0]);
+        }
+        return result;
+    }
+
+    /**
+     * Lee la cabecera y devuelve la posición de cada columna por nombre.
+     */
+    private Map<String, Integer> readHeader(CsvReader reader) throws IOException {
+        String[] header = reader.readRecord();
+        if (header == null) {
+            throw new ValidationException("El fichero CSV está vacío");
+        }
+        if (header[0].startsWith(String.valueOf(BOM))) {
+            header[0] = header[0].substring(1);
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.putIfAbsent(header[i].trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = new ArrayList<>();
+        for (String column : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new ValidationException("Faltan columnas obligatorias en el CSV: " + missing);
+        }
+        return columns;
+    }
+
+    /**
+     * Valida un bloque de registros en paralelo e inserta los válidos con lotes JDBC.
+     * La validación no accede a la base de datos, así que puede repartirse entre hilos;
+     * las inserciones y la acumulación de saldos se hacen en el hilo de la transacción.
+     */
+    private void importChunk(List<CsvRecord> chunk, ImportContext context, ExpenseImportResultDTO result,
+                             Map<Long, BigDecimal> balanceDeltas, BigDecimal[] spent) {
+        List<ParsedExpense> parsed = chunk.parallelStream()
+                .map(record -> parseRecord(record, context))
+                .collect(Collectors.toList());
+
+        List<Expense> expenses = new ArrayList<>(parsed.size());
+        List<ExpenseSplit> splits = new ArrayList<>();
+        for (ParsedExpense item : parsed) {
+            result.setRows(result.getRows() + 1);
+            if (item.error != null) {
+                result.setFailed(result.getFailed() + 1);
+                if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+                    result.getErrors().add(new ExpenseImportErrorDTO(item.line, item.error));
+                } else {
+                    result.setErrorsTruncated(true);
+                }
+                continue;
+            }
+            expenses.add(item.expense);
+            splits.addAll(item.splits);
+            tripBalanceService.accumulateExpense(balanceDeltas, item.expense, item.splits, 1);
+            spent[0] = spent[0].add(item.expense.getAmountInBase());
+        }
+
+        if (!expenses.isEmpty()) {
+            expenseBatchRepository.batchInsertExpenses(expenses);
+            expenseBatchRepository.batchInsertSplits(splits);
+            result.setImported(result.getImported() + expenses.size());
+        }
+    }
+
+    /**
+     * Convierte un registro en un gasto con sus divisiones, o en un mensaje de error.
+     * No lanza excepciones: cualquier fallo del registro se devuelve como error de su línea.
+     */
+    private ParsedExpense parseRecord(CsvRecord record, ImportContext context) {
+        try {
+            String dateValue = context.value(record, COLUMN_DATE);
+            if (dateValue == null) {
+                return ParsedExpense.failed(record.line, "La fecha del gasto es obligatoria");
+            }
+            LocalDate date;
+            try {
+                date = LocalDate.parse(dateValue);
+            } catch (DateTimeParseException e) {
+                return ParsedExpense.failed(record.line, "Fecha inválida (formato AAAA-MM-DD): " + dateValue);
+            }
+
+            String amountValue = context.value(record, COLUMN_AMOUNT);
+            BigDecimal amount;
+            try {
+                amount = amountValue != null ? new BigDecimal(amountValue) : null;
+            } catch (NumberFormatException e) {
+                return ParsedExpense.failed(record.line, "Monto inválido: " + amountValue);
+            }
+
+            ExpenseSplitType splitType = ExpenseSplitType.EQUAL;
+            String splitTypeValue = context.value(record, COLUMN_SPLIT_TYPE);
+            if (splitTypeValue != null) {
+                try {
+                    splitType = ExpenseSplitType.valueOf(splitTypeValue.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    return ParsedExpense.failed(record.line, "Tipo de división inválido: " + splitTypeValue);
+                }
+            }
+
+            User payer = context.importer;
+            String payerEmail = context.value(record, COLUMN_PAID_BY);
+            if (payerEmail != null) {
+                payer = context.membersByEmail.get(payerEmail.toLowerCase(Locale.ROOT));
+                if (payer == null) {
+                    return ParsedExpense.failed(record.line, "El pagador no es miembro del viaje: " + payerEmail);
+                }
+            }
+
+            List<String> emails = splitList(context.value(record, COLUMN_PARTICIPANTS));
+            List<Long> participantIds = new ArrayList<>(emails.size());
+            List<String> nonMembers = new ArrayList<>();
+            for (String email : emails) {
+                User participant = context.membersByEmail.get(email.toLowerCase(Locale.ROOT));
+                if (participant == null) {
+                    nonMembers.add(email);
+                } else {
+                    participantIds.add(participant.getId());
+                }
+            }
+            if (!nonMembers.isEmpty()) {
+                return ParsedExpense.failed(record.line, "Participantes que no son miembros del viaje: " + nonMembers);
+            }
+
+            Map<Long, BigDecimal> splitAmounts = null;
+            List<String> splitValues = splitList(context.value(record, COLUMN_SPLIT_AMOUNTS));
+            if (!splitValues.isEmpty()) {
+                if (splitValues.size() != participantIds.size()) {
+                    return ParsedExpense.failed(record.line,
+                            "split_amounts debe tener un valor por participante (" + participantIds.size() + ")");
+                }
+                splitAmounts = new HashMap<>();
+                for (int i = 0; i < splitValues.size(); i++) {
+                    try {
+                        splitAmounts.put(participantIds.get(i), new BigDecimal(splitValues.get(i)));
+                    } catch (NumberFormatException e) {
+                        return ParsedExpense.failed(record.line, "Valor de división inválido: " + splitValues.get(i));
+                    }
+                }
+            }
+
+            ExpenseCreateRequestDTO request = new ExpenseCreateRequestDTO();
+            request.setCurrency(context.value(record, COLUMN_CURRENCY));
+            request.setExpenseDate(date);
+            request.setDescription(context.value(record, COLUMN_DESCRIPTION));
+            request.setAmount(amount);
+            request.setSplitType(splitType);
+            request.setParticipantUserIds(participantIds);
+            request.setSplitAmounts(splitAmounts);
+
+            // Mismas reglas que la creación de un gasto
+            Optional<String> error = expenseValidator.validate(request, context.trip);
+            if (error.isPresent()) {
+                return ParsedExpense.failed(record.line, error.get());
+            }
+            List<Long> distinctIds = ExpenseService.distinctIds(participantIds);
+            long[] cents = splitAllocationEngine.allocate(splitType, amount, distinctIds, splitAmounts);
+
+            Expense expense = ExpenseService.buildExpense(context.trip, payer, request);
+            List<ExpenseSplit> splits = ExpenseService.createSplits(expense, distinctIds, context.members, cents, splitAmounts);
+            fxRateService.applyBaseAmounts(expense, splits);
+            return new ParsedExpense(record.line, expense, splits, null);
+        } catch (ValidationException e) {
+            return ParsedExpense.failed(record.line, e.getMessage());
+        }
+    }
+
+    /**
+     * Separa una celda con varios valores separados por ';', descartando los vacíos.
+     */
+    private static List<String> splitList(String value) {
+        List<String> values = new ArrayList<>();
+        if (value == null) {
+            return values;
+        }
+        for (String part : value.split(LIST_SEPARATOR)) {
+            String trimmed = part.trim();
+            if (!trimmed.isEmpty()) {
+                values.add(trimmed);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Registro leído del fichero con la línea en la que empieza.
+     */
+    static final class CsvRecord {
+        private final long line;
+        private final String[] fields;
+
+        CsvRecord(long line, String[] fields) {
+            this.line = line;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Datos compartidos (de solo lectura) por los hilos que validan un bloque.
+     */
+    static final class ImportContext {
+        private final Trip trip;
+        private final Map<Long, User> members;
+        private final Map<String, User> membersByEmail;
+        private final User importer;
+        private final Map<String, Integer> columns;
+
+        ImportContext(Trip trip, Map<Long, User> members, Map<String, User> membersByEmail,
+                      User importer, Map<String, Integer> columns) {
+            this.trip = trip;
+            this.members = members;
+            this.membersByEmail = membersByEmail;
+            this.importer = importer;
+            this.columns = columns;
+        }
+
+        /**
+         * Valor de una columna en un registro, sin espacios alrededor; null si no existe o está vacío.
+         */
+        private String value(CsvRecord record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.fields.length) {
+                return null;
+            }
+            String value = record.fields[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    /**
+     * Resultado de validar un registro: el gasto con sus divisiones o el error.
+     */
+    static final class ParsedExpense {
+        private final long line;
+        private final Expense expense;
+        private final List<ExpenseSplit> splits;
+        private final String error;
+
+        ParsedExpense(long line, Expense expense, List<ExpenseSplit> splits, String error) {
+            this.line = line;
+            this.expense = expense;
+            this.splits = splits;
+            this.error = error;
+        }
+
+        static ParsedExpense failed(long line, String error) {
+            return new ParsedExpense(line, null, null, error);
+        }
+    }
+}
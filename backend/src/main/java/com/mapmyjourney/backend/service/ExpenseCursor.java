@@ -0,0 +1,50 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de un gasto en el orden (expenseDate DESC, id DESC) usada como
+ * cursor de paginación. Se envía al cliente como texto opaco en Base64.
+ */
+@Getter
+@AllArgsConstructor
+public class ExpenseCursor {
+
+    private final LocalDate expenseDate;
+
+    private final Long expenseId;
+
+    /**
+     * Codifica el cursor como texto opaco (Base64 URL-safe de "fecha|id").
+     */
+    public String encode() {
+        String raw = expenseDate + "|" + expenseId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @throws ValidationException si el cursor no tiene el formato esperado
+     */
+    public static ExpenseCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new ValidationException("Cursor de paginación inválido");
+            }
+            return new ExpenseCursor(LocalDate.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Cursor de paginación inválido");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseReceiptDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.service.receipt.ReceiptStore;
+import com.mapmyjourney.backend.service.receipt.ReceiptThumbnailer;
+import com.mapmyjourney.backend.service.receipt.StoredReceipt;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Servicio para los recibos de los gastos guardados en el almacén local.
+ * Los métodos no son transaccionales a propósito: la subida puede tardar y no debe
+ * tener una conexión a la base de datos ocupada mientras se escribe el fichero.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseReceiptService {
+
+    private final ExpenseRepository expenseRepository;
+    private final TripMembershipCache tripMembershipCache;
+    private final ReceiptStore receiptStore;
+    private final ReceiptThumbnailer receiptThumbnailer;
+
+    /**
+     * Sube el recibo de un gasto. Solo quien pagó el gasto puede hacerlo.
+     * Si ya tenía uno, se sustituye (el fichero anterior sigue en el almacén
+     * porque otros gastos pueden compartir el mismo contenido).
+     *
+     * @param expenseId ID del gasto
+     * @param content Contenido del recibo
+     * @param receiptUrl URL con la que se descargará el recibo
+     * @param userId ID del usuario que sube el recibo
+     * @return Datos del recibo guardado
+     * @throws ResourceNotFoundException si el gasto no existe
+     * @throws ValidationException si el usuario no es quien pagó o el fichero no es válido
+     */
+    public ExpenseReceiptDTO uploadReceipt(Long expenseId, InputStream content, String receiptUrl, Long userId) {
+        Expense expense = findExpense(expenseId);
+        if (!expense.getPaidBy().getId().equals(userId)) {
+            throw new ValidationException("No tienes permisos para subir el recibo de este gasto");
+        }
+
+        StoredReceipt stored = receiptStore.store(content);
+        int updated = expenseRepository.updateReceipt(expenseId, stored.getHash(), stored.getContentType(),
+                receiptUrl, LocalDateTime.now());
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Gasto no encontrado");
+        }
+        receiptThumbnailer.submit(stored.getHash(), stored.getContentType());
+
+        return new ExpenseReceiptDTO(expenseId, receiptUrl, stored.getContentType(), stored.getSize(), stored.getHash());
+    }
+
+    /**
+     * Obtiene el fichero del recibo de un gasto. Solo pueden verlo los miembros del viaje.
+     *
+     * @param expenseId ID del gasto
+     * @param userId ID del usuario que lo pide
+     * @return Fichero del recibo
+     * @throws ResourceNotFoundException si el gasto no existe o no tiene recibo subido
+     * @throws AccessDeniedException si el usuario no es miembro del viaje
+     */
+    public StoredReceipt getReceipt(Long expenseId, Long userId) {
+        Expense expense = findReadableExpense(expenseId, userId);
+        return toStoredReceipt(expense.getReceiptHash(), expense.getReceiptContentType(),
+                receiptStore.path(expense.getReceiptHash()));
+    }
+
+    /**
+     * Obtiene la miniatura del recibo de un gasto. Si todavía no existe se encola su generación.
+     *
+     * @param expenseId ID del gasto
+     * @param userId ID del usuario que la pide
+     * @return Miniatura JPEG del recibo
+     * @throws ResourceNotFoundException si el gasto no existe, el recibo no es una imagen
+     *         o la miniatura aún no se ha generado
+     * @throws AccessDeniedException si el usuario no es miembro del viaje
+     */
+    public StoredReceipt getThumbnail(Long expenseId, Long userId) {
+        Expense expense = findReadableExpense(expenseId, userId);
+        String hash = expense.getReceiptHash();
+        if (!ReceiptThumbnailer.isImage(expense.getReceiptContentType())) {
+            throw new ResourceNotFoundException("El recibo no tiene miniatura");
+        }
+        Path thumbnail = receiptStore.thumbnailPath(hash);
+        if (!Files.exists(thumbnail)) {
+            receiptThumbnailer.submit(hash, expense.getReceiptContentType());
+            throw new ResourceNotFoundException("La miniatura del recibo todavía no está disponible");
+        }
+        return toStoredReceipt(hash, "image/jpeg", thumbnail);
+    }
+
+    private Expense findExpense(Long expenseId) {
+        Optional<Expense> expenseOptional = expenseRepository.findById(expenseId);
+        if (!expenseOptional.isPresent()) {
+            throw new ResourceNotFoundException("Gasto no encontrado");
+        }
+        return expenseOptional.get();
+    }
+
+    /**
+     * Obtiene un gasto con recibo subido comprobando que el usuario es miembro del viaje.
+     */
+    private Expense findReadableExpense(Long expenseId, Long userId) {
+        Expense expense = findExpense(expenseId);
+        if (!tripMembershipCache.isMember(expense.getTrip().getId(), userId)) {
+            throw new AccessDeniedException("No eres miembro de este viaje");
+        }
+        if (expense.getReceiptHash() == null) {
+            throw new ResourceNotFoundException("El gasto no tiene recibo subido");
+        }
+        return expense;
+    }
+
+    private StoredReceipt toStoredReceipt(String hash, String contentType, Path file) {
+        try {
+            return new StoredReceipt(hash, contentType, Files.size(file), file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el recibo " + hash, e);
+        }
+    }
+}
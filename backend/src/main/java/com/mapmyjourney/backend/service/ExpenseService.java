@@ -1,9 +1,14 @@
 package com.mapmyjourney.backend.service;
 
+import com.mapmyjourney.backend.dto.ExpenseBatchItemResultDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchRequestDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchResponseDTO;
 import com.mapmyjourney.backend.dto.ExpenseCreateRequestDTO;
 import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.dto.ExpensePageDTO;
 import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
 import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
 import com.mapmyjourney.backend.exception.ValidationException;
 import com.mapmyjourney.backend.exception.ResourceNotFoundException;
 import com.mapmyjourney.backend.model.Expense;
@@ -11,28 +16,55 @@ import com.mapmyjourney.backend.model.ExpenseSplit;
 import com.mapmyjourney.backend.model.Trip;
 import com.mapmyjourney.backend.model.User;
 import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
 import com.mapmyjourney.backend.repository.ExpenseRepository;
 import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import com.mapmyjourney.backend.repository.ExpenseStreamRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.TripRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.split.SplitAllocationEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class ExpenseService {
 
+    /**
+     * Tamaño máximo de página en el listado por cursor.
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final ExpenseRepository expenseRepository;
     private final ExpenseSplitRepository expenseSplitRepository;
+    private final ExpenseBatchRepository expenseBatchRepository;
+    private final ExpenseStreamRepository expenseStreamRepository;
     private final TripRepository tripRepository;
+    private final TripMemberRepository tripMemberRepository;
     private final UserRepository userRepository;
+    private final TripBalanceService tripBalanceService;
+    private final TripBudgetService tripBudgetService;
+    private final ExpenseValidator expenseValidator;
+    private final SplitAllocationEngine splitAllocationEngine;
+    private final FxRateService fxRateService;
 
     /**
      * 1. Crea un nuevo gasto y divide entre participantes.
@@ -61,60 +93,159 @@ public class ExpenseService {
         }
         User creator = userOptional.get();
 
-        // Validar monto
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ValidationException("El monto debe ser mayor a 0");
+        // Validar monto, participantes, fecha y tipo de división
+        Optional<String> error = expenseValidator.validate(request, trip);
+        if (error.isPresent()) {
+            throw new ValidationException(error.get());
         }
 
-        // Validar participantes
-        if (request.getParticipantUserIds() == null || request.getParticipantUserIds().isEmpty()) {
-            throw new ValidationException("Debe haber al menos un participante");
+        // Obtener participantes (un participante repetido solo cuenta una vez)
+        List<Long> participantIds = distinctIds(request.getParticipantUserIds());
+        Map<Long, User> participants = findParticipants(participantIds);
+
+        // Repartir el monto según el tipo de división (la suma es exactamente el monto)
+        long[] cents = splitAllocationEngine.allocate(
+                request.getSplitType(), request.getAmount(), participantIds, request.getSplitAmounts());
+
+        // Crear divisiones y convertir los montos a la moneda base del viaje
+        Expense expense = buildExpense(trip, creator, request);
+        List<ExpenseSplit> splits = createSplits(expense, participantIds, participants, cents,
+                request.getSplitAmounts());
+        fxRateService.applyBaseAmounts(expense, splits);
+
+        // Se escribe ya el gasto: las divisiones se insertan por JDBC y lo referencian
+        Expense savedExpense = expenseRepository.saveAndFlush(expense);
+        expenseBatchRepository.batchInsertSplits(splits);
+        tripBalanceService.applyExpense(savedExpense, splits, 1);
+        tripBudgetService.addSpent(tripId, savedExpense.getAmountInBase());
+
+        // Las divisiones se insertan por JDBC: la colección del gasto no las contiene
+        return mapToDTO(savedExpense, splits);
+    }
+
+    /**
+     * 1b. Registra varios gastos de un viaje en una sola operación.
+     * El viaje, el creador y los miembros se cargan una única vez; gastos y
+     * divisiones se escriben en lotes JDBC y el libro de saldos se actualiza
+     * una vez por miembro afectado.
+     * Un gasto inválido no impide registrar el resto, salvo que la petición sea atómica.
+     *
+     * @param tripId ID del viaje donde se registran los gastos
+     * @param request DTO con los gastos y el modo (atómico o no)
+     * @param creatorUserId ID del usuario que registra los gastos (quien paga)
+     * @return Resultado por gasto, en el orden de la petición
+     * @throws ResourceNotFoundException si el viaje o usuario no existe
+     * @throws AccessDeniedException si el usuario no es miembro del viaje
+     */
+    @Transactional
+    public ExpenseBatchResponseDTO createExpenses(Long tripId, ExpenseBatchRequestDTO request, Long creatorUserId) {
+        // Obtener viaje
+        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        if (!tripOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        Trip trip = tripOptional.get();
+
+        // Obtener miembros del viaje (incluye al creador)
+        Map<Long, User> members = new HashMap<>();
+        for (User member : tripMemberRepository.findUsersByTripId(tripId)) {
+            members.put(member.getId(), member);
+        }
+        User creator = members.get(creatorUserId);
+        if (creator == null) {
+            throw new AccessDeniedException("No eres miembro de este viaje");
         }
 
-        // Validar fecha del gasto dentro del rango del viaje
-        if (request.getExpenseDate() != null) {
-            LocalDate expenseDate = request.getExpenseDate();
-            LocalDate tripStartDate = trip.getStartDate();
-            LocalDate tripEndDate = trip.getEndDate();
-            
-            if (expenseDate.isBefore(tripStartDate) || expenseDate.isAfter(tripEndDate)) {
-                throw new ValidationException("La fecha del gasto debe estar dentro del período del viaje (" + 
-                    tripStartDate + " a " + tripEndDate + ")");
+        // Validar todos los gastos antes de escribir nada
+        List<ExpenseCreateRequestDTO> items = request.getExpenses();
+        List<ExpenseBatchItemResultDTO> results = new ArrayList<>(items.size());
+        List<Expense> expenses = new ArrayList<>();
+        List<List<ExpenseSplit>> splitsPerExpense = new ArrayList<>();
+        List<ExpenseBatchItemResultDTO> pending = new ArrayList<>();
+        int failed = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            ExpenseCreateRequestDTO item = items.get(i);
+            ExpenseBatchItemResultDTO result = new ExpenseBatchItemResultDTO();
+            result.setIndex(i);
+            results.add(result);
+
+            Optional<String> error = expenseValidator.validate(item, trip);
+            List<Long> participantIds = error.isPresent() ? List.of() : distinctIds(item.getParticipantUserIds());
+            if (!error.isPresent()) {
+                error = findNonMembers(participantIds, members);
             }
+            Expense expense = null;
+            List<ExpenseSplit> splits = null;
+            if (!error.isPresent()) {
+                try {
+                    long[] cents = splitAllocationEngine.allocate(
+                            item.getSplitType(), item.getAmount(), participantIds, item.getSplitAmounts());
+                    expense = buildExpense(trip, creator, item);
+                    splits = createSplits(expense, participantIds, members, cents, item.getSplitAmounts());
+                    fxRateService.applyBaseAmounts(expense, splits);
+                } catch (ValidationException e) {
+                    error = Optional.of(e.getMessage());
+                }
+            }
+            if (error.isPresent()) {
+                result.setError(error.get());
+                failed++;
+                continue;
+            }
+
+            expenses.add(expense);
+            splitsPerExpense.add(splits);
+            pending.add(result);
         }
 
-        // Crear gasto
-        Expense expense = new Expense();
-        expense.setTrip(trip);
-        expense.setPaidBy(creator);
-        expense.setDescription(request.getDescription());
-        expense.setAmount(request.getAmount());
-        expense.setExpenseDate(request.getExpenseDate());
-        expense.setSplitType(request.getSplitType());
-        expense.setReceiptUrl(request.getReceiptUrl());
+        // Todo o nada: con un solo gasto inválido no se registra ninguno
+        if (request.isAtomic() && failed > 0) {
+            for (ExpenseBatchItemResultDTO result : pending) {
+                result.setError("No registrado: el lote es atómico y contiene gastos inválidos");
+            }
+            return new ExpenseBatchResponseDTO(0, items.size(), true, results);
+        }
 
-        Expense savedExpense = expenseRepository.save(expense);
+        if (!expenses.isEmpty()) {
+            expenseBatchRepository.batchInsertExpenses(expenses);
+
+            List<ExpenseSplit> allSplits = new ArrayList<>();
+            Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+            BigDecimal spent = BigDecimal.ZERO;
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                List<ExpenseSplit> splits = splitsPerExpense.get(i);
+                allSplits.addAll(splits);
+                spent = spent.add(expense.getAmountInBase());
+                tripBalanceService.accumulateExpense(balanceDeltas, expense, splits, 1);
+            }
+            expenseBatchRepository.batchInsertSplits(allSplits);
 
-        // Crear divisiones (solo división equitativa por ahora)
-        if (request.getSplitType() == ExpenseSplitType.EQUAL) {
-            createEqualSplit(savedExpense, request.getParticipantUserIds());
-        } else {
-            throw new ValidationException("Solo se soporta división equitativa por ahora");
+            // Los resultados se construyen después de insertar las divisiones, que ya tienen su id
+            for (int i = 0; i < expenses.size(); i++) {
+                ExpenseBatchItemResultDTO result = pending.get(i);
+                result.setCreated(true);
+                result.setExpense(mapToDTO(expenses.get(i), splitsPerExpense.get(i)));
+            }
+            tripBalanceService.applyDeltas(tripId, balanceDeltas);
+            tripBudgetService.addSpent(tripId, spent);
         }
 
-        return mapToDTO(savedExpense);
+        return new ExpenseBatchResponseDTO(expenses.size(), failed, request.isAtomic(), results);
     }
 
     /**
      * 2. Obtiene todos los gastos de un viaje.
+     * Gastos, pagadores, divisiones y participantes se cargan con una sola consulta.
      * 
      * @param tripId ID del viaje
-     * @return Lista de DTOs de gastos del viaje
+     * @return Lista de DTOs de gastos del viaje, del más reciente al más antiguo
      */
     @Transactional(readOnly = true)
     public List<ExpenseDTO> getTripExpenses(Long tripId) {
-        List<Expense> expenses = expenseRepository.findByTripId(tripId);
-        List<ExpenseDTO> result = new ArrayList<>();
+        List<Expense> expenses = expenseRepository.findByTripIdWithDetails(tripId);
+        List<ExpenseDTO> result = new ArrayList<>(expenses.size());
         
         for (Expense expense : expenses) {
             result.add(mapToDTO(expense));
@@ -123,6 +254,84 @@ public class ExpenseService {
         return result;
     }
 
+    /**
+     * 2b. Obtiene una página de gastos de un viaje usando paginación por cursor (keyset)
+     * sobre (expenseDate, id), del más reciente al más antiguo.
+     * A diferencia de un OFFSET, el coste de cada página no crece con su posición.
+     * 
+     * @param tripId ID del viaje
+     * @param limit Número máximo de gastos de la página (1..MAX_PAGE_SIZE)
+     * @param after Cursor devuelto por la página anterior, o null para la primera
+     * @return Gastos de la página y cursor de la siguiente
+     * @throws ResourceNotFoundException si el viaje no existe
+     * @throws ValidationException si el límite o el cursor no son válidos
+     */
+    @Transactional(readOnly = true)
+    public ExpensePageDTO getTripExpensesPage(Long tripId, int limit, String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ValidationException("El límite debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+
+        // Se pide un gasto de más para saber si existe una página siguiente
+        Pageable pageable = PageRequest.of(0, limit + 1);
+        List<Long> ids;
+        if (after == null || after.isBlank()) {
+            ids = expenseRepository.findIdsByTripId(tripId, pageable);
+        } else {
+            ExpenseCursor cursor = ExpenseCursor.decode(after);
+            ids = expenseRepository.findIdsByTripIdAfter(
+                    tripId, cursor.getExpenseDate(), cursor.getExpenseId(), pageable);
+        }
+
+        boolean hasMore = ids.size() > limit;
+        if (hasMore) {
+            ids = ids.subList(0, limit);
+        }
+
+        List<ExpenseDTO> items = new ArrayList<>(ids.size());
+        if (!ids.isEmpty()) {
+            for (Expense expense : expenseRepository.findByIdInWithDetails(ids)) {
+                items.add(mapToDTO(expense));
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            ExpenseDTO last = items.get(items.size() - 1);
+            nextCursor = new ExpenseCursor(last.getExpenseDate(), last.getId()).encode();
+        }
+        return new ExpensePageDTO(items, nextCursor);
+    }
+
+    /**
+     * 2c. Recorre todos los gastos de un viaje sin cargarlos en memoria a la vez:
+     * cada gasto se entrega al consumidor en cuanto se lee del cursor JDBC.
+     * La transacción mantiene el cursor abierto mientras dura el recorrido.
+     * 
+     * @param tripId ID del viaje
+     * @param consumer Recibe cada gasto, del más reciente al más antiguo
+     */
+    @Transactional(readOnly = true)
+    public void streamTripExpenses(Long tripId, Consumer<ExpenseDTO> consumer) {
+        expenseStreamRepository.streamByTripId(tripId, consumer);
+    }
+
+    /**
+     * Comprueba que el viaje existe antes de empezar a responder en streaming.
+     * 
+     * @param tripId ID del viaje
+     * @throws ResourceNotFoundException si el viaje no existe
+     */
+    @Transactional(readOnly = true)
+    public void checkTripExists(Long tripId) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+    }
+
     /**
      * 3. Obtiene un gasto por ID.
      * 
@@ -152,40 +361,115 @@ public class ExpenseService {
             throw new ResourceNotFoundException("División no encontrada");
         }
         
+        // Solo la petición que cambia el estado retira la deuda del libro de saldos
         ExpenseSplit split = splitOptional.get();
+        if (expenseSplitRepository.updatePaidIfChanged(splitId, true) == 1) {
+            split.setPaid(false);
+            tripBalanceService.applySplit(split, -1);
+        }
         split.setPaid(true);
-        expenseSplitRepository.save(split);
     }
 
     /**
-     * Divide un gasto equitativamente entre los participantes.
-     * Ejemplo: 100€ entre 4 personas = 25€ cada una
+     * Crea la entidad de un gasto nuevo a partir de la petición.
+     * Es estático y sin estado para poder usarse también desde la importación CSV,
+     * que construye los gastos en paralelo.
+     */
+    static Expense buildExpense(Trip trip, User creator, ExpenseCreateRequestDTO request) {
+        Expense expense = new Expense();
+        expense.setTrip(trip);
+        expense.setPaidBy(creator);
+        expense.setDescription(request.getDescription());
+        expense.setCurrency(request.getCurrency() != null
+                ? FxRateService.normalizeCurrency(request.getCurrency())
+                : null);
+        expense.setAmount(request.getAmount());
+        expense.setExpenseDate(request.getExpenseDate());
+        expense.setSplitType(request.getSplitType());
+        expense.setReceiptUrl(request.getReceiptUrl());
+        return expense;
+    }
+
+    /**
+     * Crea las divisiones de un gasto a partir del reparto en céntimos.
+     * Las divisiones se devuelven sin escribir: quien llama las inserta en lote.
      * 
      * @param expense Gasto a dividir
-     * @param participantIds IDs de los usuarios participantes
+     * @param participantIds IDs de los usuarios participantes, sin repetir
+     * @param participants Usuarios indexados por ID (debe contener todos los participantes)
+     * @param cents Céntimos de cada participante, en el orden de participantIds
+     * @param splitAmounts Datos de la división de la petición (porcentajes si el tipo es PERCENTAGE)
+     * @return Divisiones creadas
+     */
+    static List<ExpenseSplit> createSplits(Expense expense, List<Long> participantIds,
+                                           Map<Long, User> participants, long[] cents,
+                                           Map<Long, BigDecimal> splitAmounts) {
+        boolean byPercentage = expense.getSplitType() == ExpenseSplitType.PERCENTAGE;
+
+        List<ExpenseSplit> splits = new ArrayList<>(participantIds.size());
+        for (int i = 0; i < participantIds.size(); i++) {
+            Long userId = participantIds.get(i);
+            ExpenseSplit split = new ExpenseSplit();
+            split.setExpense(expense);
+            split.setParticipant(participants.get(userId));
+            split.setAmount(BigDecimal.valueOf(cents[i], 2));
+            split.setPercentage(byPercentage ? splitAmounts.get(userId) : null);
+            split.setPaid(false);
+            splits.add(split);
+        }
+        return splits;
+    }
+
+    /**
+     * Elimina los IDs repetidos conservando el orden.
      */
-    private void createEqualSplit(Expense expense, List<Long> participantIds) {
-        // Calcular monto por persona
-        int numParticipants = participantIds.size();
-        BigDecimal splitAmount = expense.getAmount().divide(
-                BigDecimal.valueOf(numParticipants), 2, java.math.RoundingMode.HALF_UP);
+    static List<Long> distinctIds(List<Long> ids) {
+        return new ArrayList<>(new LinkedHashSet<>(ids));
+    }
 
-        // Crear una división para cada participante
+    /**
+     * Comprueba que todos los participantes sean miembros del viaje.
+     *
+     * @return Mensaje de error con los IDs que no son miembros, o vacío
+     */
+    private Optional<String> findNonMembers(List<Long> participantIds, Map<Long, User> members) {
+        List<Long> nonMembers = new ArrayList<>();
         for (Long userId : participantIds) {
-            Optional<User> userOptional = userRepository.findById(userId);
-            if (!userOptional.isPresent()) {
-                throw new ResourceNotFoundException("Usuario no encontrado");
+            if (!members.containsKey(userId)) {
+                nonMembers.add(userId);
             }
-            User user = userOptional.get();
+        }
+        if (nonMembers.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of("Participantes que no son miembros del viaje: " + nonMembers);
+    }
 
-            ExpenseSplit split = new ExpenseSplit();
-            split.setExpense(expense);
-            split.setParticipant(user);
-            split.setAmount(splitAmount);
-            split.setPaid(false);
+    /**
+     * Carga los participantes con una sola consulta y rechaza de una vez
+     * todos los IDs que no existen.
+     *
+     * @param participantIds IDs sin repetir
+     * @return Usuarios indexados por ID
+     * @throws ResourceNotFoundException si algún usuario no existe
+     */
+    private Map<Long, User> findParticipants(List<Long> participantIds) {
+        Map<Long, User> participants = new HashMap<>();
+        for (User user : userRepository.findAllById(participantIds)) {
+            participants.put(user.getId(), user);
+        }
 
-            expenseSplitRepository.save(split);
+        if (participants.size() != participantIds.size()) {
+            List<Long> missing = new ArrayList<>();
+            for (Long userId : participantIds) {
+                if (!participants.containsKey(userId)) {
+                    missing.add(userId);
+                }
+            }
+            throw new ResourceNotFoundException("Usuarios no encontrados: " + missing);
         }
+
+        return participants;
     }
 
     /**
@@ -195,14 +479,29 @@ public class ExpenseService {
      * @return DTO del gasto con todas sus divisiones
      */
     private ExpenseDTO mapToDTO(Expense expense) {
+        return mapToDTO(expense, expense.getSplits());
+    }
+
+    /**
+     * Mapea un Expense a ExpenseDTO con las divisiones indicadas.
+     * Solo lee relaciones ya cargadas: el ID del gasto se toma del propio gasto
+     * y no de split.getExpense().
+     * 
+     * @param expense Entidad de gasto
+     * @param expenseSplits Divisiones del gasto
+     * @return DTO del gasto con sus divisiones
+     */
+    private ExpenseDTO mapToDTO(Expense expense, Collection<ExpenseSplit> expenseSplits) {
         // Convertir splits
-        List<ExpenseSplitDTO> splits = new ArrayList<>();
+        Set<ExpenseSplitDTO> splits = new LinkedHashSet<>();
         
-        for (ExpenseSplit split : expense.getSplits()) {
+        for (ExpenseSplit split : expenseSplits) {
             ExpenseSplitDTO splitDTO = new ExpenseSplitDTO();
             splitDTO.setId(split.getId());
-            splitDTO.setExpenseId(split.getExpense().getId());
+            splitDTO.setExpenseId(expense.getId());
             splitDTO.setAmount(split.getAmount());
+            splitDTO.setBaseAmount(split.getAmountInBase());
+            splitDTO.setPercentage(split.getPercentage());
             splitDTO.setPaid(split.isPaid());
             
             UserDTO userDTO = new UserDTO();
@@ -219,8 +518,13 @@ public class ExpenseService {
         dto.setId(expense.getId());
         dto.setDescription(expense.getDescription());
         dto.setAmount(expense.getAmount());
+        dto.setCurrency(expense.getCurrency());
+        dto.setFxRate(expense.getFxRate());
+        dto.setBaseAmount(expense.getAmountInBase());
         dto.setExpenseDate(expense.getExpenseDate());
         dto.setSplitType(expense.getSplitType());
+        dto.setReceiptUrl(expense.getReceiptUrl());
+        dto.setSplits(splits);
         
         UserDTO paidByDTO = new UserDTO();
         paidByDTO.setId(expense.getPaidBy().getId());
@@ -229,6 +533,7 @@ public class ExpenseService {
         dto.setPaidBy(paidByDTO);
         
         dto.setCreatedAt(expense.getCreatedAt());
+        dto.setUpdatedAt(expense.getUpdatedAt());
 
         return dto;
     }
@@ -236,6 +541,7 @@ public class ExpenseService {
     /**
      * Actualiza un gasto existente.
      * Solo quien pagó el gasto puede actualizarlo.
+     * El nuevo monto se vuelve a repartir entre los participantes actuales según el tipo de división.
      * 
      * @param expenseId ID del gasto a actualizar
      * @param request DTO con los nuevos datos
@@ -268,13 +574,57 @@ public class ExpenseService {
             throw new ValidationException("La fecha del gasto no puede ser en el futuro");
         }
 
+        // Volver a repartir el monto entre los participantes actuales del gasto
+        ExpenseSplitType splitType = request.getSplitType() != null ? request.getSplitType() : expense.getSplitType();
+        List<ExpenseSplit> currentSplits = new ArrayList<>(expense.getSplits());
+        currentSplits.sort(Comparator.comparing(ExpenseSplit::getId));
+        List<Long> participantIds = new ArrayList<>(currentSplits.size());
+        for (ExpenseSplit split : currentSplits) {
+            participantIds.add(split.getParticipant().getId());
+        }
+        long[] cents = currentSplits.isEmpty()
+                ? new long[0]
+                : splitAllocationEngine.allocate(splitType, request.getAmount(), participantIds, request.getSplitAmounts());
+
+        // Revertir la contribución actual al libro de saldos
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+        tripBalanceService.accumulateExpense(balanceDeltas, expense, expense.getSplits(), -1);
+        BigDecimal previousBaseAmount = expense.getAmountInBase();
+
         // Actualizar campos
         expense.setDescription(request.getDescription());
+        if (request.getCurrency() != null) {
+            expense.setCurrency(FxRateService.normalizeCurrency(request.getCurrency()));
+        }
         expense.setAmount(request.getAmount());
         expense.setExpenseDate(request.getExpenseDate());
+        expense.setSplitType(splitType);
+        if (!Objects.equals(expense.getReceiptUrl(), request.getReceiptUrl())) {
+            // El recibo ya no es el fichero subido al almacén
+            expense.setReceiptHash(null);
+            expense.setReceiptContentType(null);
+        }
         expense.setReceiptUrl(request.getReceiptUrl());
 
+        for (int i = 0; i < currentSplits.size(); i++) {
+            ExpenseSplit split = currentSplits.get(i);
+            split.setAmount(BigDecimal.valueOf(cents[i], 2));
+            split.setPercentage(splitType == ExpenseSplitType.PERCENTAGE
+                    ? request.getSplitAmounts().get(participantIds.get(i))
+                    : null);
+        }
+
+        // Volver a convertir con el tipo de cambio de la (posible) nueva fecha o moneda
+        fxRateService.applyBaseAmounts(expense, currentSplits);
+        BigDecimal spentDelta = expense.getAmountInBase().subtract(previousBaseAmount);
+
         Expense updatedExpense = expenseRepository.save(expense);
+
+        // Aplicar la nueva contribución (solo se escriben los miembros cuyo saldo cambia)
+        tripBalanceService.accumulateExpense(balanceDeltas, updatedExpense, updatedExpense.getSplits(), 1);
+        tripBalanceService.applyDeltas(updatedExpense.getTrip().getId(), balanceDeltas);
+        tripBudgetService.addSpent(updatedExpense.getTrip().getId(), spentDelta);
+
         return mapToDTO(updatedExpense);
     }
 
@@ -301,6 +651,8 @@ public class ExpenseService {
             throw new ValidationException("No tienes permisos para eliminar este gasto");
         }
 
+        tripBalanceService.applyExpense(expense, expense.getSplits(), -1);
+        tripBudgetService.addSpent(expense.getTrip().getId(), expense.getAmountInBase().negate());
         expenseRepository.delete(expense);
     }
 }
@@ -1,15 +1,29 @@
 package com.mapmyjourney.backend.service;
 
+import com.mapmyjourney.backend.dto.CreateSplitRequestDTO;
+import com.mapmyjourney.backend.dto.CreditorDebtDTO;
+import com.mapmyjourney.backend.dto.DebtSummaryDTO;
 import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
+import com.mapmyjourney.backend.dto.SettleResultDTO;
+import com.mapmyjourney.backend.dto.TripBalanceDTO;
+import com.mapmyjourney.backend.dto.TripDebtDTO;
 import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
 import com.mapmyjourney.backend.exception.ValidationException;
 import com.mapmyjourney.backend.exception.ResourceNotFoundException;
 import com.mapmyjourney.backend.model.Expense;
 import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.TripMember;
 import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
 import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
 import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.split.CentsAllocation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,8 +31,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Servicio para gestionar las divisiones de gastos.
@@ -31,6 +53,13 @@ public class ExpenseSplitService {
     private final ExpenseSplitRepository expenseSplitRepository;
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
+    private final TripRepository tripRepository;
+    private final TripMemberRepository tripMemberRepository;
+    private final TripBalanceService tripBalanceService;
+    private final TripBudgetService tripBudgetService;
+    private final ExpenseBatchRepository expenseBatchRepository;
+    private final FxRateService fxRateService;
+    private final TripMembershipCache tripMembershipCache;
 
     /**
      * Crea una nueva división de gasto.
@@ -75,12 +104,15 @@ public class ExpenseSplitService {
                 .expense(expense)
                 .participant(participant)
                 .amount(amount)
+                .baseAmount(FxRateService.toBase(amount, expense.getFxRate()))
                 .percentage(percentage)
                 .paid(false)
                 .createdAt(LocalDateTime.now())
                 .build();
 
         ExpenseSplit savedSplit = expenseSplitRepository.save(split);
+        tripBalanceService.applySplit(savedSplit, 1);
+        tripBudgetService.markExpensesChanged(expense.getTrip().getId());
         return mapToDTO(savedSplit);
     }
 
@@ -144,9 +176,14 @@ public class ExpenseSplitService {
         }
 
         ExpenseSplit split = splitOptional.get();
+        if (expenseSplitRepository.updatePaidIfChanged(splitId, true) == 1) {
+            // La deuda queda saldada: se retira su contribución al libro de saldos.
+            // Solo la petición que ha cambiado el estado lo hace, aunque la entidad leída esté desfasada
+            split.setPaid(false);
+            tripBalanceService.applySplit(split, -1);
+        }
         split.setPaid(true);
-        ExpenseSplit updatedSplit = expenseSplitRepository.save(split);
-        return mapToDTO(updatedSplit);
+        return mapToDTO(split);
     }
 
     /**
@@ -164,8 +201,11 @@ public class ExpenseSplitService {
 
         ExpenseSplit split = splitOptional.get();
         split.setPaid(false);
-        ExpenseSplit updatedSplit = expenseSplitRepository.save(split);
-        return mapToDTO(updatedSplit);
+        if (expenseSplitRepository.updatePaidIfChanged(splitId, false) == 1) {
+            // La deuda vuelve a estar pendiente
+            tripBalanceService.applySplit(split, 1);
+        }
+        return mapToDTO(split);
     }
 
     /**
@@ -196,25 +236,347 @@ public class ExpenseSplitService {
             throw new ResourceNotFoundException("División de gasto no encontrada");
         }
 
+        tripBalanceService.applySplit(splitOptional.get(), -1);
+        tripBudgetService.markExpensesChanged(splitOptional.get().getExpense().getTrip().getId());
         expenseSplitRepository.delete(splitOptional.get());
     }
 
     /**
-     * Calcula el total de deudas pendientes de un usuario.
+     * Sustituye todas las divisiones de un gasto por el conjunto indicado.
+     * Compara en memoria con las divisiones actuales y aplica las altas, los cambios y las bajas
+     * con un lote JDBC cada uno, bloqueando el gasto durante la transacción para que dos
+     * ediciones simultáneas no se mezclen. Las divisiones que se mantienen conservan su estado de pago.
+     * 
+     * @param expenseId ID del gasto
+     * @param requested Divisiones deseadas (participante, monto y porcentaje opcional)
+     * @param userId ID del usuario que hace el cambio
+     * @return Divisiones resultantes, en el orden de la petición
+     * @throws ResourceNotFoundException si el gasto no existe
+     * @throws ValidationException si el usuario no es quien pagó, hay participantes repetidos
+     *         o que no son miembros del viaje, o la suma no coincide con el monto del gasto
+     */
+    @Transactional
+    public List<ExpenseSplitDTO> replaceSplits(Long expenseId, List<CreateSplitRequestDTO> requested, Long userId) {
+        Optional<Expense> expenseOptional = expenseRepository.findByIdForUpdate(expenseId);
+        if (!expenseOptional.isPresent()) {
+            throw new ResourceNotFoundException("Gasto no encontrado");
+        }
+        Expense expense = expenseOptional.get();
+
+        // Verificar que el usuario es quien pagó
+        if (!expense.getPaidBy().getId().equals(userId)) {
+            throw new ValidationException("No tienes permisos para modificar las divisiones de este gasto");
+        }
+
+        Long tripId = expense.getTrip().getId();
+        Map<Long, User> members = new HashMap<>();
+        for (User member : tripMemberRepository.findUsersByTripId(tripId)) {
+            members.put(member.getId(), member);
+        }
+
+        // Validar el conjunto pedido: participantes únicos y miembros del viaje, montos positivos
+        long totalCents = 0;
+        Set<Long> seen = new HashSet<>();
+        for (CreateSplitRequestDTO item : requested) {
+            if (item.getParticipantUserId() == null || item.getAmount() == null) {
+                throw new ValidationException("Cada división necesita participante y monto");
+            }
+            if (!seen.add(item.getParticipantUserId())) {
+                throw new ValidationException("El participante " + item.getParticipantUserId() + " está repetido");
+            }
+            if (!members.containsKey(item.getParticipantUserId())) {
+                throw new ValidationException("El usuario " + item.getParticipantUserId() + " no es miembro del viaje");
+            }
+            if (item.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new ValidationException("El monto debe ser mayor a 0");
+            }
+            totalCents += CentsAllocation.toCents(item.getAmount());
+        }
+        if (totalCents != CentsAllocation.toCents(expense.getAmount())) {
+            throw new ValidationException("La suma de las divisiones (" + BigDecimal.valueOf(totalCents, 2)
+                    + ") debe ser igual al monto del gasto (" + expense.getAmount() + ")");
+        }
+
+        Map<Long, ExpenseSplit> current = new HashMap<>();
+        for (ExpenseSplit split : expenseSplitRepository.findByExpenseId(expenseId)) {
+            current.put(split.getParticipant().getId(), split);
+        }
+
+        // Estado final en copias: las entidades cargadas no se modifican y Hibernate no las vuelve a escribir
+        List<ExpenseSplit> result = new ArrayList<>(requested.size());
+        for (CreateSplitRequestDTO item : requested) {
+            ExpenseSplit existing = current.get(item.getParticipantUserId());
+            result.add(ExpenseSplit.builder()
+                    .id(existing != null ? existing.getId() : null)
+                    .expense(expense)
+                    .participant(members.get(item.getParticipantUserId()))
+                    .amount(item.getAmount())
+                    .percentage(item.getPercentage())
+                    .paid(existing != null && existing.isPaid())
+                    .createdAt(existing != null ? existing.getCreatedAt() : LocalDateTime.now())
+                    .build());
+        }
+        fxRateService.applySplitBaseAmounts(expense, result);
+
+        // Diferencias con lo actual y su efecto en el libro de saldos
+        Long payerId = expense.getPaidBy().getId();
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+        List<ExpenseSplit> inserts = new ArrayList<>();
+        List<ExpenseSplit> updates = new ArrayList<>();
+        for (ExpenseSplit split : result) {
+            Long participantId = split.getParticipant().getId();
+            ExpenseSplit existing = current.remove(participantId);
+            if (existing == null) {
+                inserts.add(split);
+                tripBalanceService.accumulate(balanceDeltas, payerId, participantId, split.getAmountInBase(), false, 1);
+            } else if (isChanged(existing, split)) {
+                updates.add(split);
+                tripBalanceService.accumulate(balanceDeltas, payerId, participantId, existing.getAmountInBase(), existing.isPaid(), -1);
+                tripBalanceService.accumulate(balanceDeltas, payerId, participantId, split.getAmountInBase(), split.isPaid(), 1);
+            }
+        }
+        List<Long> deletes = new ArrayList<>(current.size());
+        for (ExpenseSplit removed : current.values()) {
+            deletes.add(removed.getId());
+            tripBalanceService.accumulate(balanceDeltas, payerId, removed.getParticipant().getId(),
+                    removed.getAmountInBase(), removed.isPaid(), -1);
+        }
+
+        if (!inserts.isEmpty() || !updates.isEmpty() || !deletes.isEmpty()) {
+            expenseBatchRepository.batchDeleteSplits(deletes);
+            expenseBatchRepository.batchUpdateSplits(updates);
+            expenseBatchRepository.batchInsertSplits(inserts);
+            tripBalanceService.applyDeltas(tripId, balanceDeltas);
+            tripBudgetService.markExpensesChanged(tripId);
+        }
+
+        List<ExpenseSplitDTO> dtos = new ArrayList<>(result.size());
+        for (ExpenseSplit split : result) {
+            dtos.add(mapToDTO(split));
+        }
+        return dtos;
+    }
+
+    /**
+     * Indica si una división cambia respecto a la guardada (monto, monto base o porcentaje).
+     */
+    private boolean isChanged(ExpenseSplit existing, ExpenseSplit split) {
+        if (existing.getAmount().compareTo(split.getAmount()) != 0
+                || existing.getAmountInBase().compareTo(split.getAmountInBase()) != 0) {
+            return true;
+        }
+        if (existing.getPercentage() == null || split.getPercentage() == null) {
+            return existing.getPercentage() != split.getPercentage();
+        }
+        return existing.getPercentage().compareTo(split.getPercentage()) != 0;
+    }
+
+    /**
+     * Marca como pagadas varias divisiones con una sola sentencia UPDATE.
+     * Las divisiones ya pagadas o inexistentes se ignoran.
+     * El usuario debe ser el pagador o el participante de cada división, o EDITOR de su viaje;
+     * si falla en una sola, no se liquida ninguna.
+     * 
+     * @param splitIds IDs de las divisiones
+     * @param userId ID del usuario que hace la liquidación
+     * @return Divisiones liquidadas y saldos resultantes de los viajes afectados
+     * @throws AccessDeniedException si el usuario no puede liquidar alguna de las divisiones
+     * @throws ValidationException si las divisiones cambian durante la operación
+     */
+    @Transactional
+    public SettleResultDTO settleSplits(Collection<Long> splitIds, Long userId) {
+        // Se bloquean primero las divisiones pendientes: suma y UPDATE ven exactamente las mismas
+        List<Long> lockedIds = expenseSplitRepository.lockUnpaidByIds(splitIds);
+        if (lockedIds.isEmpty()) {
+            return new SettleResultDTO(0, BigDecimal.ZERO, new ArrayList<>());
+        }
+
+        List<Object[]> rows = expenseSplitRepository.sumUnpaidByIds(lockedIds);
+        for (Object[] row : rows) {
+            Long tripId = (Long) row[0];
+            if (!userId.equals(row[1]) && !userId.equals(row[2])
+                    && !tripMembershipCache.hasPermission(tripId, userId, TripMemberRole.EDITOR)) {
+                throw new AccessDeniedException("No tienes permisos para liquidar estas divisiones");
+            }
+        }
+
+        return settleLocked(lockedIds, rows);
+    }
+
+    /**
+     * Liquida todo lo que un deudor debe a un acreedor en un viaje con una sola sentencia UPDATE.
+     * Solo pueden hacerlo el propio deudor o el acreedor.
+     * 
+     * @param tripId ID del viaje
+     * @param debtorId ID del usuario que debe
+     * @param creditorId ID del usuario al que se debe (quien pagó los gastos)
+     * @param userId ID del usuario que hace la liquidación
+     * @return Divisiones liquidadas y saldos resultantes del viaje
+     * @throws ResourceNotFoundException si el viaje no existe
+     * @throws ValidationException si el usuario no es el deudor ni el acreedor
+     */
+    @Transactional
+    public SettleResultDTO settleBetween(Long tripId, Long debtorId, Long creditorId, Long userId) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        if (!userId.equals(debtorId) && !userId.equals(creditorId)) {
+            throw new ValidationException("Solo el deudor o el acreedor pueden liquidar esta deuda");
+        }
+        if (debtorId.equals(creditorId)) {
+            throw new ValidationException("El deudor y el acreedor deben ser usuarios distintos");
+        }
+
+        List<Long> lockedIds = expenseSplitRepository.lockUnpaidBetween(tripId, debtorId, creditorId);
+        if (lockedIds.isEmpty()) {
+            return new SettleResultDTO(0, BigDecimal.ZERO, tripBalanceService.getTripBalances(tripId));
+        }
+        return settleLocked(lockedIds, expenseSplitRepository.sumUnpaidByIds(lockedIds));
+    }
+
+    /**
+     * Liquida todas las deudas de un viaje con una sola sentencia UPDATE.
+     * Solo el OWNER puede hacerlo. Todos los saldos del viaje quedan a cero.
+     * 
+     * @param tripId ID del viaje
+     * @param userId ID del usuario que hace la liquidación
+     * @return Divisiones liquidadas y saldos resultantes del viaje
+     * @throws ResourceNotFoundException si el viaje no existe
+     * @throws ValidationException si el usuario no es OWNER del viaje
+     */
+    @Transactional
+    public SettleResultDTO settleTrip(Long tripId, Long userId) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        Optional<TripMember> memberOptional = tripMemberRepository.findByTripIdAndUserId(tripId, userId);
+        if (!memberOptional.isPresent() || !memberOptional.get().isOwner()) {
+            throw new ValidationException("No tienes permisos para liquidar este viaje");
+        }
+
+        // Mismo orden de bloqueo que al pagar una división: primero las divisiones y después el viaje.
+        // Con el viaje bloqueado, un cambio de pago en curso no puede tocar el libro hasta que
+        // se confirme esta liquidación, así que poner los saldos a cero no pisa su incremento
+        expenseSplitRepository.lockUnpaidByTripId(tripId);
+        tripBalanceService.lockTrip(tripId);
+
+        Object[] row = expenseSplitRepository.sumUnpaidByTripId(tripId).get(0);
+        BigDecimal amount = (BigDecimal) row[0];
+        long expectedSplits = (Long) row[1];
+
+        int settled = expenseSplitRepository.markPaidByTripId(tripId);
+        checkSettledCount(settled, expectedSplits);
+
+        // Sin divisiones pendientes, nadie debe nada a nadie
+        tripBalanceService.resetTrip(tripId);
+
+        return new SettleResultDTO(settled, amount, tripBalanceService.getTripBalances(tripId));
+    }
+
+    /**
+     * Marca como pagadas divisiones ya bloqueadas y retira su contribución al libro de saldos.
+     *
+     * @param lockedIds IDs de las divisiones bloqueadas y pendientes
+     * @param rows Suma de esas divisiones por viaje, pagador y participante (sumUnpaidByIds)
+     */
+    private SettleResultDTO settleLocked(List<Long> lockedIds, List<Object[]> rows) {
+        Map<Long, Map<Long, BigDecimal>> deltasByTrip = new LinkedHashMap<>();
+        long expectedSplits = 0;
+        BigDecimal settledAmount = BigDecimal.ZERO;
+
+        for (Object[] row : rows) {
+            BigDecimal amount = (BigDecimal) row[3];
+            Map<Long, BigDecimal> deltas = deltasByTrip.computeIfAbsent((Long) row[0], id -> new HashMap<>());
+            tripBalanceService.accumulate(deltas, (Long) row[1], (Long) row[2], amount, false, -1);
+            expectedSplits += (Long) row[4];
+            settledAmount = settledAmount.add(amount);
+        }
+
+        int settled = expenseSplitRepository.markPaidByIds(lockedIds);
+        checkSettledCount(settled, expectedSplits);
+
+        List<TripBalanceDTO> balances = new ArrayList<>();
+        for (Map.Entry<Long, Map<Long, BigDecimal>> entry : deltasByTrip.entrySet()) {
+            tripBalanceService.applyDeltas(entry.getKey(), entry.getValue());
+            balances.addAll(tripBalanceService.getTripBalances(entry.getKey()));
+        }
+
+        return new SettleResultDTO(settled, settledAmount, balances);
+    }
+
+    /**
+     * Comprueba que el UPDATE ha tocado exactamente las divisiones agregadas antes.
+     * Con las divisiones bloqueadas no debería fallar; si lo hace, se revierte la transacción
+     * para no dejar el libro de saldos descuadrado.
+     */
+    private void checkSettledCount(int settled, long expected) {
+        if (settled != expected) {
+            throw new ValidationException("Las divisiones han cambiado durante la liquidación, inténtalo de nuevo");
+        }
+    }
+
+    /**
+     * Calcula el total de deudas pendientes de un usuario por moneda base de sus viajes.
      * 
      * @param userId ID del usuario
-     * @return Total de deudas pendientes
+     * @return Total de deudas pendientes por moneda
      */
     @Transactional(readOnly = true)
-    public BigDecimal getTotalPendingDebt(Long userId) {
-        List<ExpenseSplit> pendingSplits = expenseSplitRepository.findByParticipantIdAndPaidFalse(userId);
-        
-        BigDecimal total = BigDecimal.ZERO;
-        for (ExpenseSplit split : pendingSplits) {
-            total = total.add(split.getAmount());
-        }
-        
-        return total;
+    public Map<String, BigDecimal> getTotalPendingDebt(Long userId) {
+        Map<String, BigDecimal> totalByCurrency = new TreeMap<>();
+        for (Object[] row : expenseSplitRepository.sumPendingDebtByCurrency(userId)) {
+            totalByCurrency.put((String) row[0], (BigDecimal) row[1]);
+        }
+        return totalByCurrency;
+    }
+
+    /**
+     * Resume las deudas pendientes de un usuario por viaje y por acreedor
+     * con una única consulta agregada. Los totales se dan por moneda base del viaje,
+     * porque los montos de viajes con monedas distintas no se pueden sumar.
+     * 
+     * @param userId ID del usuario
+     * @return Resumen de deudas (total por moneda, por viaje y por acreedor)
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    @Transactional(readOnly = true)
+    public DebtSummaryDTO getDebtSummary(Long userId) {
+        // Validar que el usuario existe
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("Usuario no encontrado");
+        }
+
+        Map<Long, TripDebtDTO> trips = new LinkedHashMap<>();
+        Map<String, CreditorDebtDTO> creditors = new HashMap<>();
+        Map<String, BigDecimal> totalByCurrency = new TreeMap<>();
+
+        for (Object[] row : expenseSplitRepository.sumPendingDebtByTripAndCreditor(userId)) {
+            Long tripId = (Long) row[0];
+            String currency = (String) row[2];
+            BigDecimal amount = (BigDecimal) row[6];
+
+            UserDTO creditor = new UserDTO();
+            creditor.setId((Long) row[3]);
+            creditor.setName((String) row[4]);
+            creditor.setEmail((String) row[5]);
+
+            TripDebtDTO trip = trips.computeIfAbsent(tripId,
+                    id -> new TripDebtDTO(id, (String) row[1], currency, BigDecimal.ZERO, new ArrayList<>()));
+            trip.setTotal(trip.getTotal().add(amount));
+            trip.getCreditors().add(new CreditorDebtDTO(creditor, currency, amount));
+
+            CreditorDebtDTO overall = creditors.computeIfAbsent(creditor.getId() + ":" + currency,
+                    key -> new CreditorDebtDTO(creditor, currency, BigDecimal.ZERO));
+            overall.setAmount(overall.getAmount().add(amount));
+
+            totalByCurrency.merge(currency, amount, BigDecimal::add);
+        }
+
+        List<CreditorDebtDTO> byCreditor = new ArrayList<>(creditors.values());
+        byCreditor.sort(Comparator.comparing(CreditorDebtDTO::getCurrency)
+                .thenComparing(CreditorDebtDTO::getAmount, Comparator.reverseOrder()));
+
+        return new DebtSummaryDTO(userId, totalByCurrency, new ArrayList<>(trips.values()), byCreditor);
     }
 
     /**
@@ -236,7 +598,19 @@ public class ExpenseSplitService {
         }
 
         ExpenseSplit split = splitOptional.get();
+        Expense expense = split.getExpense();
+        Long payerId = expense.getPaidBy().getId();
+        Long participantId = split.getParticipant().getId();
+
+        // Revertir el monto anterior y aplicar el nuevo en una sola pasada
+        Map<Long, BigDecimal> balanceDeltas = new HashMap<>();
+        tripBalanceService.accumulate(balanceDeltas, payerId, participantId, split.getAmountInBase(), split.isPaid(), -1);
         split.setAmount(newAmount);
+        split.setBaseAmount(FxRateService.toBase(newAmount, expense.getFxRate()));
+        tripBalanceService.accumulate(balanceDeltas, payerId, participantId, split.getBaseAmount(), split.isPaid(), 1);
+        tripBalanceService.applyDeltas(expense.getTrip().getId(), balanceDeltas);
+        tripBudgetService.markExpensesChanged(expense.getTrip().getId());
+
         ExpenseSplit updatedSplit = expenseSplitRepository.save(split);
         return mapToDTO(updatedSplit);
     }
@@ -249,6 +623,7 @@ public class ExpenseSplitService {
         dto.setId(split.getId());
         dto.setExpenseId(split.getExpense().getId());
         dto.setAmount(split.getAmount());
+        dto.setBaseAmount(split.getAmountInBase());
         dto.setPercentage(split.getPercentage());
         dto.setPaid(split.isPaid());
 
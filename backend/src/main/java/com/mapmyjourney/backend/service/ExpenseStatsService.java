@@ -0,0 +1,140 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.cache.LruCache;
+import com.mapmyjourney.backend.dto.DailySpendDTO;
+import com.mapmyjourney.backend.dto.ExpenseStatsDTO;
+import com.mapmyjourney.backend.dto.MemberSpendDTO;
+import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio para las estadísticas de gastos de los viajes.
+ * Las estadísticas se calculan con consultas GROUP BY y se guardan en una caché
+ * asociadas a la versión de gastos del viaje (trips.expense_version). Mientras la versión
+ * no cambie, cada consulta cuesta solo leer esa versión y contar los miembros: las altas y bajas
+ * de miembros no cambian la versión, así que la media por persona se ajusta aparte.
+ */
+@Service
+public class ExpenseStatsService {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final TripRepository tripRepository;
+    private final TripMemberRepository tripMemberRepository;
+    private final LruCache<Long, ExpenseStatsDTO> cache;
+
+    public ExpenseStatsService(ExpenseRepository expenseRepository,
+                               ExpenseSplitRepository expenseSplitRepository,
+                               TripRepository tripRepository,
+                               TripMemberRepository tripMemberRepository,
+                               @Value("${app.cache.expense-stats.max-entries:1000}") int maxEntries) {
+        this.expenseRepository = expenseRepository;
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.tripRepository = tripRepository;
+        this.tripMemberRepository = tripMemberRepository;
+        this.cache = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Obtiene las estadísticas de gastos de un viaje.
+     *
+     * @param tripId ID del viaje
+     * @return Gasto por día, por pagador, parte de cada miembro y media por persona
+     * @throws ResourceNotFoundException si el viaje no existe
+     */
+    @Transactional(readOnly = true)
+    public ExpenseStatsDTO getTripStats(Long tripId) {
+        Optional<Long> versionOptional = tripRepository.findExpenseVersionById(tripId);
+        if (!versionOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        Long version = versionOptional.get();
+        long memberCount = tripMemberRepository.countByTripId(tripId);
+
+        ExpenseStatsDTO cached = cache.get(tripId);
+        if (cached != null && cached.getVersion().equals(version)) {
+            if (cached.getMemberCount() == memberCount) {
+                return cached;
+            }
+            // Han cambiado los miembros pero no los gastos: solo se recalcula la media
+            ExpenseStatsDTO updated = cached.toBuilder()
+                    .memberCount(memberCount)
+                    .averagePerPerson(averagePerPerson(cached.getTotal(), memberCount))
+                    .build();
+            cache.put(tripId, updated);
+            return updated;
+        }
+
+        // Si un gasto cambia mientras se calcula, la versión guardada ya es antigua
+        // y la siguiente consulta vuelve a calcular
+        ExpenseStatsDTO stats = computeStats(tripId, version, memberCount);
+        cache.put(tripId, stats);
+        return stats;
+    }
+
+    /**
+     * Calcula las estadísticas de un viaje con consultas agregadas.
+     */
+    private ExpenseStatsDTO computeStats(Long tripId, Long version, long memberCount) {
+        BigDecimal total = BigDecimal.ZERO;
+        long expenseCount = 0;
+        List<DailySpendDTO> perDay = new ArrayList<>();
+        for (Object[] row : expenseRepository.sumByTripIdGroupByDate(tripId)) {
+            BigDecimal dayTotal = (BigDecimal) row[1];
+            long dayCount = ((Number) row[2]).longValue();
+            perDay.add(new DailySpendDTO((LocalDate) row[0], dayTotal, dayCount));
+            total = total.add(dayTotal);
+            expenseCount += dayCount;
+        }
+
+        List<MemberSpendDTO> perPayer = mapMemberRows(expenseRepository.sumByTripIdGroupByPayer(tripId));
+        List<MemberSpendDTO> perMemberShare = mapMemberRows(expenseSplitRepository.sumByTripIdGroupByParticipant(tripId));
+
+        return ExpenseStatsDTO.builder()
+                .tripId(tripId)
+                .version(version)
+                .total(total)
+                .expenseCount(expenseCount)
+                .memberCount(memberCount)
+                .averagePerPerson(averagePerPerson(total, memberCount))
+                .perDay(perDay)
+                .perPayer(perPayer)
+                .perMemberShare(perMemberShare)
+                .build();
+    }
+
+    private static BigDecimal averagePerPerson(BigDecimal total, long memberCount) {
+        return memberCount > 0
+                ? total.divide(BigDecimal.valueOf(memberCount), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+    }
+
+    /**
+     * Mapea filas [userId, name, email, total, count] a MemberSpendDTO.
+     */
+    private List<MemberSpendDTO> mapMemberRows(List<Object[]> rows) {
+        List<MemberSpendDTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            UserDTO user = new UserDTO();
+            user.setId((Long) row[0]);
+            user.setName((String) row[1]);
+            user.setEmail((String) row[2]);
+            result.add(new MemberSpendDTO(user, (BigDecimal) row[3], ((Number) row[4]).longValue()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseCreateRequestDTO;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Reglas de validación de un gasto nuevo, compartidas por la creación individual
+ * y la ingesta por lotes.
+ * Devuelve el mensaje de error en lugar de lanzar la excepción para que el lote
+ * pueda informar del fallo de cada elemento sin abortar el resto.
+ */
+@Component
+public class ExpenseValidator {
+
+    /**
+     * Valida un gasto contra el viaje en el que se registra.
+     *
+     * @param request Datos del gasto
+     * @param trip Viaje del gasto
+     * @return Mensaje de error, o vacío si el gasto es válido
+     */
+    public Optional<String> validate(ExpenseCreateRequestDTO request, Trip trip) {
+        if (request == null) {
+            return Optional.of("El gasto no puede estar vacío");
+        }
+
+        // Validar descripción
+        if (request.getDescription() == null || request.getDescription().isBlank()) {
+            return Optional.of("La descripción del gasto no puede estar vacía");
+        }
+        if (request.getDescription().length() > 150) {
+            return Optional.of("La descripción debe tener entre 1 y 150 caracteres");
+        }
+
+        // Validar monto
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            return Optional.of("El monto debe ser mayor a 0");
+        }
+
+        // Validar participantes
+        if (request.getParticipantUserIds() == null || request.getParticipantUserIds().isEmpty()) {
+            return Optional.of("Debe haber al menos un participante");
+        }
+        if (request.getParticipantUserIds().contains(null)) {
+            return Optional.of("Los IDs de participantes no pueden ser nulos");
+        }
+
+        // Validar fecha del gasto dentro del rango del viaje
+        if (request.getExpenseDate() == null) {
+            return Optional.of("La fecha del gasto es obligatoria");
+        }
+        LocalDate expenseDate = request.getExpenseDate();
+        LocalDate tripStartDate = trip.getStartDate();
+        LocalDate tripEndDate = trip.getEndDate();
+
+        if (expenseDate.isBefore(tripStartDate) || expenseDate.isAfter(tripEndDate)) {
+            return Optional.of("La fecha del gasto debe estar dentro del período del viaje (" +
+                tripStartDate + " a " + tripEndDate + ")");
+        }
+
+        // Validar moneda (si no se indica se usa la del viaje)
+        if (request.getCurrency() != null) {
+            try {
+                FxRateService.normalizeCurrency(request.getCurrency());
+            } catch (ValidationException e) {
+                return Optional.of(e.getMessage());
+            }
+        }
+
+        // Los datos de cada tipo de división los valida el motor de reparto
+        if (request.getSplitType() == null) {
+            return Optional.of("El tipo de división es obligatorio");
+        }
+
+        return Optional.empty();
+    }
+}
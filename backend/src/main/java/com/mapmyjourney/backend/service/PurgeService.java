@@ -0,0 +1,88 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.repository.PurgeRepository;
+import com.mapmyjourney.backend.repository.PurgeRepository.TripChildTable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Borrado físico en segundo plano de los viajes y usuarios eliminados.
+ * TripService.deleteTrip y UserService.deleteUser solo marcan deleted_at, así que la petición
+ * responde enseguida aunque el viaje tenga miles de gastos; esta tarea vacía después sus tablas
+ * con sentencias DELETE por tramos de app.purge.chunk-size filas.
+ *
+ * No es transaccional a propósito: cada tramo se confirma solo. Si la tarea se interrumpe,
+ * la siguiente ejecución continúa donde se quedó, porque el viaje sigue marcado hasta que
+ * se borra su propia fila, que es lo último.
+ */
+@Slf4j
+@Service
+public class PurgeService {
+
+    private final PurgeRepository purgeRepository;
+    private final int chunkSize;
+
+    public PurgeService(PurgeRepository purgeRepository,
+                        @Value("${app.purge.chunk-size:1000}") int chunkSize) {
+        this.purgeRepository = purgeRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Purga un lote de viajes y usuarios eliminados.
+     * El intervalo entre ejecuciones se puede cambiar con app.purge.delay.
+     */
+    @Scheduled(fixedDelayString = "${app.purge.delay:PT1M}", initialDelayString = "${app.purge.delay:PT1M}")
+    public void purge() {
+        int trips = purgeDeletedTrips();
+        int users = purgeDeletedUsers();
+        if (trips > 0 || users > 0) {
+            log.info("Purgados {} viajes y {} usuarios eliminados", trips, users);
+        }
+    }
+
+    /**
+     * Borra por completo los viajes eliminados (como mucho un tramo de viajes por llamada).
+     *
+     * @return Número de viajes borrados
+     */
+    public int purgeDeletedTrips() {
+        int purged = 0;
+        for (Long tripId : purgeRepository.findDeletedTripIds(chunkSize)) {
+            long rows = 0;
+            int deleted;
+            // Primero las divisiones, que cuelgan de los gastos y no del viaje
+            do {
+                deleted = purgeRepository.deleteTripSplits(tripId, chunkSize);
+                rows += deleted;
+            } while (deleted == chunkSize);
+            for (TripChildTable table : TripChildTable.values()) {
+                do {
+                    deleted = purgeRepository.deleteTripChildren(table, tripId, chunkSize);
+                    rows += deleted;
+                } while (deleted == chunkSize);
+            }
+            purged += purgeRepository.deleteTrip(tripId);
+            log.debug("Viaje {} purgado ({} filas dependientes)", tripId, rows);
+        }
+        return purged;
+    }
+
+    /**
+     * Borra los usuarios eliminados que ya no aparecen en ningún gasto.
+     * Los demás se quedan anonimizados hasta que se purguen los viajes de esos gastos.
+     *
+     * @return Número de usuarios borrados
+     */
+    public int purgeDeletedUsers() {
+        int purged = 0;
+        for (Long userId : purgeRepository.findPurgeableUserIds(chunkSize)) {
+            purged += purgeRepository.deleteUser(userId);
+        }
+        return purged;
+    }
+}
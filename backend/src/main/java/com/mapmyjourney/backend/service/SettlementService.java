@@ -0,0 +1,208 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.SettlementTransferDTO;
+import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.model.TripBalance;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripBalanceRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Servicio para calcular cómo liquidar las deudas de un viaje ("settle up").
+ * Parte de los saldos netos del libro de saldos y propone una lista casi mínima
+ * de transferencias, en lugar de pagar cada división por separado.
+ */
+@Service
+@RequiredArgsConstructor
+public class SettlementService {
+
+    private final TripBalanceRepository tripBalanceRepository;
+    private final TripRepository tripRepository;
+
+    /**
+     * Calcula las transferencias necesarias para dejar a cero los saldos de un viaje.
+     *
+     * @param tripId ID del viaje
+     * @return Lista de transferencias (como mucho miembros - 1)
+     * @throws ResourceNotFoundException si el viaje no existe
+     */
+    @Transactional(readOnly = true)
+    public List<SettlementTransferDTO> getTripSettlement(Long tripId) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+
+        List<TripBalance> balances = tripBalanceRepository.findByTripIdWithUser(tripId);
+        int n = balances.size();
+        long[] cents = new long[n];
+        for (int i = 0; i < n; i++) {
+            cents[i] = balances.get(i).getBalance().movePointRight(2).longValueExact();
+        }
+
+        int[] from = new int[n];
+        int[] to = new int[n];
+        long[] amounts = new long[n];
+        int count = settle(cents, from, to, amounts);
+
+        List<SettlementTransferDTO> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SettlementTransferDTO dto = new SettlementTransferDTO();
+            dto.setFrom(mapUser(balances.get(from[i]).getUser()));
+            dto.setTo(mapUser(balances.get(to[i]).getUser()));
+            dto.setAmount(BigDecimal.valueOf(amounts[i], 2));
+            transfers.add(dto);
+        }
+        return transfers;
+    }
+
+    /**
+     * Empareja deudores y acreedores con dos montículos: en cada paso el mayor deudor
+     * paga al mayor acreedor el mínimo de ambos importes, de modo que al menos uno de
+     * los dos queda a cero. Genera como mucho n - 1 transferencias en O(n log n).
+     *
+     * @param cents Saldos netos en céntimos (deben sumar cero); no se modifica
+     * @param from Salida: índice del deudor de cada transferencia (longitud mínima n)
+     * @param to Salida: índice del acreedor de cada transferencia (longitud mínima n)
+     * @param amounts Salida: importe en céntimos de cada transferencia (longitud mínima n)
+     * @return Número de transferencias escritas en los arrays de salida
+     */
+    static int settle(long[] cents, int[] from, int[] to, long[] amounts) {
+        int n = cents.length;
+        long[] remaining = cents.clone();
+        IndexHeap creditors = new IndexHeap(n, remaining, false);
+        IndexHeap debtors = new IndexHeap(n, remaining, true);
+        for (int i = 0; i < n; i++) {
+            if (remaining[i] > 0) {
+                creditors.add(i);
+            } else if (remaining[i] < 0) {
+                debtors.add(i);
+            }
+        }
+        creditors.heapify();
+        debtors.heapify();
+
+        int count = 0;
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.poll();
+            int debtor = debtors.poll();
+            long amount = Math.min(remaining[creditor], -remaining[debtor]);
+
+            from[count] = debtor;
+            to[count] = creditor;
+            amounts[count] = amount;
+            count++;
+
+            remaining[creditor] -= amount;
+            remaining[debtor] += amount;
+            if (remaining[creditor] > 0) {
+                creditors.push(creditor);
+            }
+            if (remaining[debtor] < 0) {
+                debtors.push(debtor);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Mapea User a UserDTO (solo datos públicos).
+     */
+    private UserDTO mapUser(User user) {
+        UserDTO dto = new UserDTO();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        return dto;
+    }
+
+    /**
+     * Montículo binario de índices ordenado por el importe absoluto pendiente.
+     * Trabaja sobre arrays primitivos para no crear objetos por miembro.
+     */
+    private static final class IndexHeap {
+
+        private final int[] heap;
+        private final long[] keys;
+        private final boolean negate;
+        private int size;
+
+        IndexHeap(int capacity, long[] keys, boolean negate) {
+            this.heap = new int[capacity];
+            this.keys = keys;
+            this.negate = negate;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int index) {
+            heap[size++] = index;
+        }
+
+        void heapify() {
+            for (int i = (size >>> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        void push(int index) {
+            heap[size] = index;
+            siftUp(size++);
+        }
+
+        int poll() {
+            int top = heap[0];
+            heap[0] = heap[--size];
+            if (size > 0) {
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private long key(int index) {
+            return negate ? -keys[index] : keys[index];
+        }
+
+        private void siftUp(int pos) {
+            int item = heap[pos];
+            long itemKey = key(item);
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (key(heap[parent]) >= itemKey) {
+                    break;
+                }
+                heap[pos] = heap[parent];
+                pos = parent;
+            }
+            heap[pos] = item;
+        }
+
+        private void siftDown(int pos) {
+            int item = heap[pos];
+            long itemKey = key(item);
+            int half = size >>> 1;
+            while (pos < half) {
+                int child = 2 * pos + 1;
+                int right = child + 1;
+                if (right < size && key(heap[right]) > key(heap[child])) {
+                    child = right;
+                }
+                if (itemKey >= key(heap[child])) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                pos = child;
+            }
+            heap[pos] = item;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.repository.TripBalanceLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reconciliación en segundo plano del libro de saldos (tabla trip_balances) con las divisiones
+ * pendientes, por si se hubiera desviado (p. ej. por cambios manuales en la base de datos).
+ *
+ * No es transaccional a propósito, como PurgeService: cada viaje se reconcilia en su propia
+ * transacción (TripBalanceService.reconcileTrip) con su fila bloqueada, así que los bloqueos
+ * duran poco y los cambios de gastos en curso no se pisan con la corrección.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripBalanceReconciler {
+
+    private final TripBalanceLedgerRepository tripBalanceLedgerRepository;
+    private final TripBalanceService tripBalanceService;
+
+    /**
+     * Reconcilia todos los viajes con divisiones pendientes o saldos distintos de cero.
+     * Se ejecuta cada noche; la expresión cron se puede cambiar con app.balance.reconcile-cron.
+     *
+     * @return Número de saldos corregidos
+     */
+    @Scheduled(cron = "${app.balance.reconcile-cron:0 45 3 * * *}")
+    public int reconcileBalances() {
+        int corrected = 0;
+        for (Long tripId : tripBalanceLedgerRepository.findTripIdsToReconcile()) {
+            corrected += tripBalanceService.reconcileTrip(tripId);
+        }
+        if (corrected > 0) {
+            log.warn("Libro de saldos corregido: {} saldos", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Rellena el libro al arrancar solo si está vacío pese a haber divisiones pendientes
+     * (base de datos anterior al libro, ya que Flyway no se ejecuta fuera de los tests).
+     * En cualquier otro caso espera a la ejecución nocturna.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (tripBalanceLedgerRepository.isLedgerMissing()) {
+            log.info("Libro de saldos vacío con divisiones pendientes: se rellena a partir de los gastos");
+            reconcileBalances();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripBalanceDTO;
+import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.TripBalance;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripBalanceLedgerRepository;
+import com.mapmyjourney.backend.repository.TripBalanceRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio para el libro de saldos de los viajes (tabla trip_balances).
+ * Mantiene una fila por (viaje, miembro) que se actualiza en la misma transacción
+ * que los gastos y divisiones, de forma que leer los saldos cuesta O(miembros).
+ *
+ * Cada división pendiente de pago suma su monto al saldo de quien pagó el gasto
+ * y lo resta del saldo del participante. Las divisiones pagadas y las del propio
+ * pagador no afectan al saldo.
+ */
+@Service
+@RequiredArgsConstructor
+public class TripBalanceService {
+
+    private final TripBalanceRepository tripBalanceRepository;
+    private final TripBalanceLedgerRepository tripBalanceLedgerRepository;
+    private final TripRepository tripRepository;
+    private final UserBalanceService userBalanceService;
+
+    /**
+     * Obtiene los saldos netos de todos los miembros de un viaje.
+     *
+     * @param tripId ID del viaje
+     * @return Lista de saldos, de mayor a menor
+     */
+    @Transactional(readOnly = true)
+    public List<TripBalanceDTO> getTripBalances(Long tripId) {
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+
+        List<TripBalanceDTO> result = new ArrayList<>();
+        for (TripBalance balance : tripBalanceRepository.findByTripIdWithUser(tripId)) {
+            result.add(mapToDTO(tripId, balance.getUser(), balance.getBalance()));
+        }
+        for (User member : tripBalanceRepository.findMembersWithoutBalance(tripId)) {
+            result.add(mapToDTO(tripId, member, BigDecimal.ZERO));
+        }
+
+        return result;
+    }
+
+    /**
+     * Aplica al libro de saldos la contribución de las divisiones de un gasto.
+     *
+     * @param expense Gasto (se usan su viaje y quien lo pagó)
+     * @param splits Divisiones del gasto
+     * @param sign 1 para sumar la contribución, -1 para revertirla
+     */
+    @Transactional
+    public void applyExpense(Expense expense, Collection<ExpenseSplit> splits, int sign) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        accumulateExpense(deltas, expense, splits, sign);
+        applyDeltas(expense.getTrip().getId(), deltas);
+    }
+
+    /**
+     * Aplica al libro de saldos la contribución de una única división.
+     *
+     * @param split División (con su gasto cargado)
+     * @param sign 1 para sumar la contribución, -1 para revertirla
+     */
+    @Transactional
+    public void applySplit(ExpenseSplit split, int sign) {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        Expense expense = split.getExpense();
+        accumulate(deltas, expense.getPaidBy().getId(), split.getParticipant().getId(),
+                split.getAmountInBase(), split.isPaid(), sign);
+        applyDeltas(expense.getTrip().getId(), deltas);
+    }
+
+    /**
+     * Acumula en el mapa la contribución de todas las divisiones de un gasto.
+     * Permite combinar reversión y aplicación en un único conjunto de UPDATEs.
+     */
+    public void accumulateExpense(Map<Long, BigDecimal> deltas, Expense expense,
+                                  Collection<ExpenseSplit> splits, int sign) {
+        Long payerId = expense.getPaidBy().getId();
+        for (ExpenseSplit split : splits) {
+            accumulate(deltas, payerId, split.getParticipant().getId(), split.getAmountInBase(), split.isPaid(), sign);
+        }
+    }
+
+    /**
+     * Acumula en el mapa la contribución de una división a los saldos.
+     * Las divisiones pagadas o del propio pagador no contribuyen.
+     */
+    public void accumulate(Map<Long, BigDecimal> deltas, Long payerId, Long participantId,
+                           BigDecimal amount, boolean paid, int sign) {
+        if (paid || payerId.equals(participantId)) {
+            return;
+        }
+        BigDecimal signed = sign < 0 ? amount.negate() : amount;
+        deltas.merge(payerId, signed, BigDecimal::add);
+        deltas.merge(participantId, signed.negate(), BigDecimal::add);
+    }
+
+    /**
+     * Aplica los incrementos acumulados con un upsert por miembro afectado, en un único lote:
+     * la fila se crea la primera vez que el miembro aparece en el libro sin carrera entre
+     * transacciones concurrentes.
+     * La posición global de todos los miembros del mapa se descarta de la caché al confirmar,
+     * también la de los que tienen incremento cero: su saldo neto no cambia, pero sí lo que
+     * deben o les deben a otros.
+     */
+    @Transactional
+    public void applyDeltas(Long tripId, Map<Long, BigDecimal> deltas) {
+        tripBalanceLedgerRepository.addToBalances(tripId, deltas, LocalDateTime.now());
+        userBalanceService.evictAfterCommit(deltas.keySet());
+    }
+
+    /**
+     * Bloquea la fila del viaje hasta el final de la transacción, como hace cada escritura
+     * del libro de saldos (ver TripBalanceLedgerRepository.lockTrip).
+     */
+    public void lockTrip(Long tripId) {
+        tripBalanceLedgerRepository.lockTrip(tripId);
+    }
+
+    /**
+     * Pone a cero el libro de saldos de un viaje.
+     * Solo es correcto cuando ya no queda ninguna división pendiente en el viaje.
+     */
+    @Transactional
+    public void resetTrip(Long tripId) {
+        tripBalanceLedgerRepository.lockTrip(tripId);
+        tripBalanceRepository.resetBalances(tripId, LocalDateTime.now());
+        userBalanceService.evictAfterCommit(tripBalanceRepository.findUserIdsByTripId(tripId));
+    }
+
+    /**
+     * Reconcilia el libro de saldos de un viaje con sus divisiones pendientes.
+     * Bloquea la fila del viaje, calcula los saldos esperados con una única agregación
+     * y suma a cada miembro la diferencia con lo registrado (creando las filas que falten).
+     * Los viajes eliminados se omiten.
+     *
+     * @param tripId ID del viaje
+     * @return Número de miembros cuyo saldo se ha corregido
+     */
+    @Transactional
+    public int reconcileTrip(Long tripId) {
+        if (!tripRepository.findByIdForUpdate(tripId).isPresent()) {
+            return 0;
+        }
+
+        Map<Long, BigDecimal> expected = tripBalanceLedgerRepository.sumPendingBalances(tripId);
+        Map<Long, BigDecimal> corrections = new HashMap<>();
+        for (Map.Entry<Long, BigDecimal> entry : tripBalanceLedgerRepository.findBalances(tripId).entrySet()) {
+            corrections.put(entry.getKey(), entry.getValue().negate());
+        }
+        for (Map.Entry<Long, BigDecimal> entry : expected.entrySet()) {
+            corrections.merge(entry.getKey(), entry.getValue(), BigDecimal::add);
+        }
+        corrections.values().removeIf(delta -> delta.signum() == 0);
+
+        tripBalanceLedgerRepository.addToBalances(tripId, corrections, LocalDateTime.now());
+        return corrections.size();
+    }
+
+    /**
+     * Mapea un saldo a TripBalanceDTO.
+     */
+    private TripBalanceDTO mapToDTO(Long tripId, User user, BigDecimal balance) {
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setName(user.getName());
+        userDTO.setEmail(user.getEmail());
+
+        TripBalanceDTO dto = new TripBalanceDTO();
+        dto.setTripId(tripId);
+        dto.setUser(userDTO);
+        dto.setBalance(balance);
+        return dto;
+    }
+}
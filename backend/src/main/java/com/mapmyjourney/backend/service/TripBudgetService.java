@@ -0,0 +1,127 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripBudgetDTO;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.repository.TripRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Servicio para el presupuesto de los viajes.
+ * Mantiene el total gastado de cada viaje (trips.spent) con incrementos atómicos
+ * dentro de las transacciones de los gastos, de modo que consultar el presupuesto
+ * no requiere sumar todos los gastos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TripBudgetService {
+
+    private final TripRepository tripRepository;
+
+    /**
+     * Suma un incremento al total gastado de un viaje y avanza su versión de gastos.
+     * Debe llamarse dentro de la transacción que crea, modifica o elimina el gasto.
+     *
+     * @param tripId ID del viaje
+     * @param delta Incremento (negativo al eliminar o reducir un gasto; cero si solo cambian otros datos)
+     */
+    @Transactional
+    public void addSpent(Long tripId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            tripRepository.bumpExpenseVersion(tripId);
+            return;
+        }
+        tripRepository.addToSpent(tripId, delta);
+    }
+
+    /**
+     * Avanza la versión de gastos de un viaje cuando cambian sus divisiones sin cambiar el total gastado.
+     *
+     * @param tripId ID del viaje
+     */
+    @Transactional
+    public void markExpensesChanged(Long tripId) {
+        tripRepository.bumpExpenseVersion(tripId);
+    }
+
+    /**
+     * Obtiene el estado del presupuesto de un viaje.
+     *
+     * @param tripId ID del viaje
+     * @return Presupuesto, gastado, restante, porcentaje usado y ritmo de gasto diario
+     * @throws ResourceNotFoundException si el viaje no existe
+     */
+    @Transactional(readOnly = true)
+    public TripBudgetDTO getTripBudget(Long tripId) {
+        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        if (!tripOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        return buildBudget(tripOptional.get(), LocalDate.now());
+    }
+
+    /**
+     * Recalcula el total gastado de los viajes a partir de sus gastos,
+     * por si el contador se hubiera desviado (p. ej. por cambios manuales en la base de datos).
+     * Se ejecuta cada noche; la expresión cron se puede cambiar con app.budget.reconcile-cron.
+     *
+     * @return Número de viajes corregidos
+     */
+    @Scheduled(cron = "${app.budget.reconcile-cron:0 30 3 * * *}")
+    @Transactional
+    public int reconcileSpent() {
+        int corrected = tripRepository.reconcileSpent();
+        if (corrected > 0) {
+            log.warn("Total gastado corregido en {} viajes", corrected);
+        }
+        return corrected;
+    }
+
+    /**
+     * Calcula el estado del presupuesto de un viaje en una fecha dada.
+     */
+    TripBudgetDTO buildBudget(Trip trip, LocalDate today) {
+        BigDecimal spent = trip.getSpent() != null ? trip.getSpent() : BigDecimal.ZERO;
+        BigDecimal budget = trip.getBudget();
+
+        long totalDays = ChronoUnit.DAYS.between(trip.getStartDate(), trip.getEndDate()) + 1;
+        long elapsedDays = ChronoUnit.DAYS.between(trip.getStartDate(), today) + 1;
+        elapsedDays = Math.max(0, Math.min(totalDays, elapsedDays));
+
+        // Antes de empezar el viaje el gasto se reparte como si fuera el primer día
+        BigDecimal dailyBurnRate = spent.divide(BigDecimal.valueOf(Math.max(1, elapsedDays)), 2, RoundingMode.HALF_UP);
+
+        TripBudgetDTO dto = new TripBudgetDTO();
+        dto.setTripId(trip.getId());
+        dto.setCurrency(trip.getBaseCurrency());
+        dto.setBudget(budget);
+        dto.setSpent(spent);
+        dto.setTotalDays(totalDays);
+        dto.setElapsedDays(elapsedDays);
+        dto.setDailyBurnRate(dailyBurnRate);
+
+        if (budget != null && budget.signum() > 0) {
+            BigDecimal remaining = budget.subtract(spent);
+            dto.setRemaining(remaining);
+            dto.setPercentageUsed(spent.multiply(BigDecimal.valueOf(100)).divide(budget, 2, RoundingMode.HALF_UP));
+
+            long remainingDays = totalDays - elapsedDays;
+            if (remainingDays > 0) {
+                dto.setDailyAllowance(remaining.max(BigDecimal.ZERO)
+                        .divide(BigDecimal.valueOf(remainingDays), 2, RoundingMode.HALF_UP));
+            }
+        }
+        return dto;
+    }
+}
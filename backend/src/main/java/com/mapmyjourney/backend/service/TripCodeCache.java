@@ -0,0 +1,178 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.cache.BloomFilter;
+import com.mapmyjourney.backend.cache.LruCache;
+import com.mapmyjourney.backend.dto.TripDTO;
+import com.mapmyjourney.backend.repository.TripRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Caché de búsquedas de viajes por código de invitación.
+ *
+ * Tiene tres niveles, de más barato a más caro:
+ * un filtro de Bloom con todos los códigos existentes, que descarta sin SQL los códigos inventados;
+ * una caché negativa de caducidad corta para los códigos que pasan el filtro pero no existen;
+ * y una caché acotada de código a viaje para los enlaces de invitación más compartidos.
+ *
+ * El filtro se construye al arrancar, antes de que el servidor acepte peticiones, se reconstruye
+ * periódicamente y cada viaje nuevo de esta instancia se añade en cuanto se crea. Los viajes creados
+ * por otras instancias no pasan por registerCode, así que antes de descartar un código que no pasa
+ * el filtro se añaden los códigos creados desde la última sincronización (ver syncNewCodes):
+ * el filtro nunca da falsos negativos. Un filtro de Bloom no admite borrados: el código de un viaje
+ * eliminado sigue pasando el filtro hasta la próxima reconstrucción y lo frena la caché negativa.
+ */
+@Slf4j
+@Service
+public class TripCodeCache {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final TripRepository tripRepository;
+    private final LruCache<String, TripDTO> trips;
+    private final LruCache<String, Boolean> missing;
+    private final long expectedCodes;
+    private final Duration syncOverlap;
+    private volatile BloomFilter codes;
+
+    /**
+     * Los viajes creados desde esta fecha pueden no estar en el filtro.
+     */
+    private LocalDateTime syncedSince;
+
+    /**
+     * Momento (System.nanoTime) en que empezó la última sincronización.
+     */
+    private long syncStartedAt;
+
+    public TripCodeCache(TripRepository tripRepository,
+                         @Value("${app.cache.trip-codes.max-entries:10000}") int maxEntries,
+                         @Value("${app.cache.trip-codes.ttl:PT5M}") Duration ttl,
+                         @Value("${app.cache.trip-codes.negative-ttl:PT30S}") Duration negativeTtl,
+                         @Value("${app.cache.trip-codes.expected-codes:100000}") long expectedCodes,
+                         @Value("${app.cache.trip-codes.sync-overlap:PT1M}") Duration syncOverlap) {
+        this.tripRepository = tripRepository;
+        this.trips = new LruCache<>(maxEntries, ttl);
+        this.missing = new LruCache<>(maxEntries, negativeTtl);
+        this.expectedCodes = expectedCodes;
+        this.syncOverlap = syncOverlap;
+    }
+
+    /**
+     * Construye el filtro con todos los códigos guardados. Se dimensiona al doble de los
+     * códigos actuales (o a lo configurado, si es mayor) para admitir viajes nuevos sin
+     * que crezca la tasa de falsos positivos.
+     *
+     * Se repite cada app.cache.trip-codes.rebuild-interval para descartar los códigos de viajes
+     * eliminados y redimensionar el filtro según crecen los viajes.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.cache.trip-codes.rebuild-interval:PT1H}",
+               initialDelayString = "${app.cache.trip-codes.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        long startedAt = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now().minus(syncOverlap);
+        List<String> existing = tripRepository.findAllTripCodes();
+        BloomFilter filter = new BloomFilter(Math.max(expectedCodes, existing.size() * 2L), FALSE_POSITIVE_RATE);
+        for (String code : existing) {
+            filter.put(code);
+        }
+        codes = filter;
+        syncedSince = since;
+        syncStartedAt = startedAt;
+        log.info("Filtro de códigos de invitación construido con {} códigos", existing.size());
+    }
+
+    /**
+     * Añade al filtro los códigos de los viajes creados desde la última sincronización, a menos que
+     * otra sincronización haya empezado después de la búsqueda (entonces ya los incluye).
+     *
+     * La fecha de corte se adelanta app.cache.trip-codes.sync-overlap respecto al inicio de cada
+     * sincronización para cubrir viajes que aún no se habían confirmado y la diferencia de reloj
+     * entre instancias.
+     *
+     * @param tripCode Código buscado
+     * @param requestedAt Momento (System.nanoTime) en que empezó la búsqueda
+     * @return true si el código pasa el filtro tras sincronizarlo
+     */
+    private synchronized boolean syncNewCodes(String tripCode, long requestedAt) {
+        if (syncStartedAt - requestedAt < 0) {
+            long startedAt = System.nanoTime();
+            LocalDateTime since = LocalDateTime.now().minus(syncOverlap);
+            for (String code : tripRepository.findTripCodesCreatedSince(syncedSince)) {
+                codes.put(code);
+            }
+            syncedSince = since;
+            syncStartedAt = startedAt;
+        }
+        return codes.mightContain(tripCode);
+    }
+
+    /**
+     * Busca un viaje por código usando las cachés y, si hace falta, el cargador.
+     *
+     * @param tripCode Código de invitación
+     * @param loader Búsqueda en base de datos; devuelve null si el código no existe
+     * @return Viaje, o null si el código no existe
+     */
+    public TripDTO find(String tripCode, Function<String, TripDTO> loader) {
+        long requestedAt = System.nanoTime();
+        if (missing.get(tripCode) != null) {
+            return null;
+        }
+        BloomFilter filter = codes;
+        if (filter != null && !filter.mightContain(tripCode) && !syncNewCodes(tripCode, requestedAt)) {
+            missing.put(tripCode, Boolean.TRUE);
+            return null;
+        }
+
+        TripDTO trip = trips.computeIfAbsent(tripCode, loader);
+        if (trip == null) {
+            missing.put(tripCode, Boolean.TRUE);
+        }
+        return trip;
+    }
+
+    /**
+     * Registra el código de un viaje nuevo. Se añade al filtro en el acto (un código aún sin
+     * confirmar solo provoca un falso positivo) y se quita de la caché negativa al confirmar.
+     */
+    public void registerCode(String tripCode) {
+        BloomFilter filter = codes;
+        if (filter != null) {
+            filter.put(tripCode);
+        }
+        afterCompletion(() -> missing.invalidate(tripCode));
+    }
+
+    /**
+     * Descarta el viaje guardado para un código cuando la transacción actual termine
+     * (tras actualizar o eliminar el viaje).
+     */
+    public void evictAfterCommit(String tripCode) {
+        afterCompletion(() -> trips.invalidate(tripCode));
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.cache.LruCache;
+import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resuelve a qué viaje pertenece un gasto y a qué gasto una división, guardando el resultado en memoria.
+ * Un gasto nunca cambia de viaje ni una división de gasto, así que las entradas no caducan:
+ * solo se expulsan por tamaño. Los IDs que no existen no se guardan.
+ */
+@Service
+public class TripIdResolver {
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final LruCache<Long, Long> tripIdByExpense;
+    private final LruCache<Long, Long> expenseIdBySplit;
+
+    public TripIdResolver(ExpenseRepository expenseRepository,
+                          ExpenseSplitRepository expenseSplitRepository,
+                          @Value("${app.cache.trip-ids.max-entries:50000}") int maxEntries) {
+        this.expenseRepository = expenseRepository;
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.tripIdByExpense = new LruCache<>(maxEntries);
+        this.expenseIdBySplit = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Obtiene el ID del viaje de un gasto.
+     *
+     * @param expenseId ID del gasto
+     * @return ID del viaje, o null si el gasto no existe
+     */
+    public Long getTripIdForExpense(Long expenseId) {
+        return tripIdByExpense.computeIfAbsent(expenseId,
+                id -> expenseRepository.findTripIdById(id).orElse(null));
+    }
+
+    /**
+     * Obtiene el ID del gasto de una división.
+     *
+     * @param splitId ID de la división
+     * @return ID del gasto, o null si la división no existe
+     */
+    public Long getExpenseIdForSplit(Long splitId) {
+        return expenseIdBySplit.computeIfAbsent(splitId,
+                id -> expenseSplitRepository.findExpenseIdById(id).orElse(null));
+    }
+}
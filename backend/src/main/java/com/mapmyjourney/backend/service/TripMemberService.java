@@ -1,5 +1,9 @@
 package com.mapmyjourney.backend.service;
 
+import com.mapmyjourney.backend.dto.MemberInviteBatchRequestDTO;
+import com.mapmyjourney.backend.dto.MemberInviteBatchResponseDTO;
+import com.mapmyjourney.backend.dto.MemberInviteDTO;
+import com.mapmyjourney.backend.dto.MemberInviteResultDTO;
 import com.mapmyjourney.backend.dto.TripMemberDTO;
 import com.mapmyjourney.backend.dto.UserDTO;
 import com.mapmyjourney.backend.exception.ValidationException;
@@ -8,6 +12,7 @@ import com.mapmyjourney.backend.model.Trip;
 import com.mapmyjourney.backend.model.TripMember;
 import com.mapmyjourney.backend.model.User;
 import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.TripMemberBatchRepository;
 import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.TripRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
@@ -17,8 +22,13 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Servicio para gestionar la membresía de usuarios en viajes.
@@ -31,6 +41,8 @@ public class TripMemberService {
     private final TripMemberRepository tripMemberRepository;
     private final TripRepository tripRepository;
     private final UserRepository userRepository;
+    private final TripMembershipCache tripMembershipCache;
+    private final TripMemberBatchRepository tripMemberBatchRepository;
 
     /**
      * Agrega un nuevo miembro a un viaje.
@@ -71,9 +83,92 @@ public class TripMemberService {
                 .build();
 
         TripMember savedMember = tripMemberRepository.save(newMember);
+        tripMembershipCache.evictAfterCommit(tripId, userId);
         return mapToDTO(savedMember);
     }
 
+    /**
+     * Agrega varios miembros a un viaje a partir de sus emails.
+     * Los usuarios se buscan con una sola consulta, las pertenencias existentes con otra
+     * y los miembros nuevos se insertan en un único lote JDBC. Un email desconocido,
+     * repetido o que ya es miembro se informa en su resultado sin rechazar el resto.
+     *
+     * @param tripId ID del viaje
+     * @param request DTO con los emails y roles
+     * @return Resultado por invitación, en el orden de la petición
+     * @throws ResourceNotFoundException si el viaje no existe
+     */
+    @Transactional
+    public MemberInviteBatchResponseDTO inviteMembers(Long tripId, MemberInviteBatchRequestDTO request) {
+        // Se bloquea el viaje como en los demás cambios de miembros
+        Trip trip = lockTrip(tripId);
+
+        List<MemberInviteDTO> invitations = request.getInvitations();
+        Set<String> emails = new LinkedHashSet<>();
+        for (MemberInviteDTO invitation : invitations) {
+            emails.add(invitation.getEmail().trim());
+        }
+
+        Map<String, User> usersByEmail = new HashMap<>();
+        for (User user : userRepository.findAllByEmailIn(emails)) {
+            usersByEmail.put(user.getEmail(), user);
+        }
+        Set<Long> existingMemberIds = new HashSet<>();
+        if (!usersByEmail.isEmpty()) {
+            List<Long> userIds = new ArrayList<>();
+            for (User user : usersByEmail.values()) {
+                userIds.add(user.getId());
+            }
+            existingMemberIds.addAll(tripMemberRepository.findUserIdsByTripIdAndUserIdIn(tripId, userIds));
+        }
+
+        List<MemberInviteResultDTO> results = new ArrayList<>(invitations.size());
+        List<TripMember> newMembers = new ArrayList<>();
+        List<MemberInviteResultDTO> pending = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < invitations.size(); i++) {
+            MemberInviteDTO invitation = invitations.get(i);
+            String email = invitation.getEmail().trim();
+            MemberInviteResultDTO result = new MemberInviteResultDTO();
+            result.setIndex(i);
+            result.setEmail(email);
+            results.add(result);
+
+            User user = usersByEmail.get(email);
+            if (!seen.add(email)) {
+                result.setError("Email repetido en la petición");
+            } else if (user == null) {
+                result.setError("Usuario no encontrado");
+            } else if (existingMemberIds.contains(user.getId())) {
+                result.setError("El usuario ya es miembro de este viaje");
+            } else {
+                newMembers.add(TripMember.builder()
+                        .trip(trip)
+                        .user(user)
+                        .role(invitation.getRole() != null ? invitation.getRole() : TripMemberRole.VIEWER)
+                        .joinedAt(now)
+                        .build());
+                pending.add(result);
+            }
+        }
+
+        tripMemberBatchRepository.batchInsertMembers(newMembers);
+
+        List<Long> addedUserIds = new ArrayList<>();
+        for (int i = 0; i < newMembers.size(); i++) {
+            TripMember member = newMembers.get(i);
+            MemberInviteResultDTO result = pending.get(i);
+            result.setAdded(true);
+            result.setMember(mapToDTO(member));
+            addedUserIds.add(member.getUser().getId());
+        }
+        tripMembershipCache.evictAfterCommit(tripId, addedUserIds);
+
+        return new MemberInviteBatchResponseDTO(newMembers.size(), invitations.size() - newMembers.size(), results);
+    }
+
     /**
      * Obtiene un miembro específico de un viaje.
      * 
@@ -124,6 +219,8 @@ public class TripMemberService {
      */
     @Transactional
     public TripMemberDTO changeMemberRole(Long tripId, Long userId, TripMemberRole newRole) {
+        lockTrip(tripId);
+
         Optional<TripMember> memberOptional = tripMemberRepository.findByTripIdAndUserId(tripId, userId);
         if (!memberOptional.isPresent()) {
             throw new ResourceNotFoundException("El usuario no es miembro de este viaje");
@@ -133,17 +230,12 @@ public class TripMemberService {
         
         // No se puede quitar el rol OWNER si es el único owner
         if (member.getRole() == TripMemberRole.OWNER && newRole != TripMemberRole.OWNER) {
-            List<TripMember> owners = tripMemberRepository.findAllByTripId(tripId).stream()
-                    .filter(m -> m.getRole() == TripMemberRole.OWNER)
-                    .toList();
-            
-            if (owners.size() <= 1) {
-                throw new ValidationException("No se puede remover el único propietario del viaje");
-            }
+            verifyNotLastOwner(tripId);
         }
 
         member.setRole(newRole);
         TripMember updatedMember = tripMemberRepository.save(member);
+        tripMembershipCache.evictAfterCommit(tripId, userId);
         return mapToDTO(updatedMember);
     }
 
@@ -155,6 +247,8 @@ public class TripMemberService {
      */
     @Transactional
     public void removeMemberFromTrip(Long tripId, Long userId) {
+        lockTrip(tripId);
+
         Optional<TripMember> memberOptional = tripMemberRepository.findByTripIdAndUserId(tripId, userId);
         if (!memberOptional.isPresent()) {
             throw new ResourceNotFoundException("El usuario no es miembro de este viaje");
@@ -164,45 +258,100 @@ public class TripMemberService {
 
         // No se puede remover el único owner
         if (member.getRole() == TripMemberRole.OWNER) {
-            List<TripMember> owners = tripMemberRepository.findAllByTripId(tripId).stream()
-                    .filter(m -> m.getRole() == TripMemberRole.OWNER)
-                    .toList();
-            
-            if (owners.size() <= 1) {
-                throw new ValidationException("No se puede remover el único propietario del viaje");
+            verifyNotLastOwner(tripId);
+        }
+
+        tripMemberRepository.delete(member);
+        tripMembershipCache.evictAfterCommit(tripId, userId);
+    }
+
+    /**
+     * Saca de un viaje a un usuario que elimina su cuenta. A diferencia de removeMemberFromTrip
+     * nunca se rechaza: si era el único propietario, la propiedad pasa al EDITOR que lleva más
+     * tiempo en el viaje o, si no hay ninguno, al miembro más antiguo. Se ejecuta con el viaje
+     * bloqueado, así que el recuento de miembros y propietarios no compite con otros cambios.
+     *
+     * @param tripId ID del viaje
+     * @param userId ID del usuario eliminado
+     * @return true si el viaje se ha quedado sin miembros (hay que eliminarlo)
+     */
+    @Transactional
+    public boolean removeDeletedUser(Long tripId, Long userId) {
+        Optional<Trip> tripOptional = tripRepository.findByIdForUpdate(tripId);
+        Optional<TripMember> memberOptional = tripMemberRepository.findByTripIdAndUserId(tripId, userId);
+        if (!memberOptional.isPresent()) {
+            return false;
+        }
+        TripMember member = memberOptional.get();
+
+        // Un viaje ya eliminado solo espera a que PurgeService lo borre: basta con salir de él
+        boolean lastMember = tripOptional.isPresent() && tripMemberRepository.countByTripId(tripId) <= 1;
+        if (tripOptional.isPresent() && !lastMember && member.getRole() == TripMemberRole.OWNER
+                && tripMemberRepository.countByTripIdAndRole(tripId, TripMemberRole.OWNER) <= 1) {
+            Optional<TripMember> successor = tripMemberRepository
+                    .findFirstByTripIdAndUserIdNotAndRoleOrderByJoinedAtAscIdAsc(tripId, userId, TripMemberRole.EDITOR);
+            if (!successor.isPresent()) {
+                successor = tripMemberRepository.findFirstByTripIdAndUserIdNotOrderByJoinedAtAscIdAsc(tripId, userId);
             }
+            TripMember newOwner = successor.get();
+            newOwner.setRole(TripMemberRole.OWNER);
+            tripMemberRepository.save(newOwner);
+            tripMembershipCache.evictAfterCommit(tripId, newOwner.getUser().getId());
         }
 
         tripMemberRepository.delete(member);
+        tripMembershipCache.evictAfterCommit(tripId, userId);
+        return lastMember;
     }
 
     /**
-     * Verifica si un usuario es miembro de un viaje.
+     * Bloquea la fila del viaje hasta el final de la transacción. Todos los cambios de rol y bajas
+     * de un mismo viaje se ejecutan así de uno en uno, y el recuento de propietarios que hace cada
+     * uno ya incluye los cambios confirmados por el anterior.
+     */
+    private Trip lockTrip(Long tripId) {
+        Optional<Trip> tripOptional = tripRepository.findByIdForUpdate(tripId);
+        if (!tripOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        return tripOptional.get();
+    }
+
+    /**
+     * Verifica que el viaje tiene otro propietario además del que se va a degradar o eliminar.
+     * Debe llamarse con el viaje bloqueado (lockTrip).
+     */
+    private void verifyNotLastOwner(Long tripId) {
+        if (tripMemberRepository.countByTripIdAndRole(tripId, TripMemberRole.OWNER) <= 1) {
+            throw new ValidationException("No se puede remover el único propietario del viaje");
+        }
+    }
+
+    /**
+     * Verifica si un usuario es miembro de un viaje (desde la caché de pertenencias).
      * 
      * @param tripId ID del viaje
      * @param userId ID del usuario
      * @return true si es miembro, false en caso contrario
      */
-    @Transactional(readOnly = true)
     public boolean isMemberOfTrip(Long tripId, Long userId) {
-        return tripMemberRepository.findByTripIdAndUserId(tripId, userId).isPresent();
+        return tripMembershipCache.isMember(tripId, userId);
     }
 
     /**
-     * Verifica si un usuario tiene un rol específico en un viaje.
+     * Verifica si un usuario tiene un rol específico en un viaje (desde la caché de pertenencias).
      * 
      * @param tripId ID del viaje
      * @param userId ID del usuario
      * @param role Rol a verificar
      * @return true si el usuario tiene el rol, false en caso contrario
      */
-    @Transactional(readOnly = true)
     public boolean hasRole(Long tripId, Long userId, TripMemberRole role) {
-        Optional<TripMember> memberOptional = tripMemberRepository.findByTripIdAndUserId(tripId, userId);
-        if (!memberOptional.isPresent()) {
+        Optional<TripMemberRole> memberRole = tripMembershipCache.getRole(tripId, userId);
+        if (!memberRole.isPresent()) {
             return false;
         }
-        return memberOptional.get().getRole() == role;
+        return memberRole.get() == role;
     }
 
     /**
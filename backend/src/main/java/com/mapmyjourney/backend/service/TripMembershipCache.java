@@ -0,0 +1,149 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.cache.LruCache;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria del rol de cada usuario en cada viaje, para comprobar la pertenencia
+ * en cada petición sin ir a la base de datos.
+ *
+ * También guarda los "no es miembro", así que toda alta, cambio de rol o baja de un miembro
+ * debe llamar a evictAfterCommit. Las entradas se descartan cuando la transacción se confirma;
+ * un contador de generación evita que una lectura concurrente con ese cambio vuelva a guardar
+ * el rol anterior. La caducidad solo acota el desfase entre varias instancias del backend.
+ */
+@Service
+public class TripMembershipCache {
+
+    private final TripMemberRepository tripMemberRepository;
+    private final LruCache<Key, Optional<TripMemberRole>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public TripMembershipCache(TripMemberRepository tripMemberRepository,
+                               @Value("${app.cache.trip-membership.max-entries:50000}") int maxEntries,
+                               @Value("${app.cache.trip-membership.ttl:PT5M}") Duration ttl) {
+        this.tripMemberRepository = tripMemberRepository;
+        this.cache = new LruCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Obtiene el rol del usuario en el viaje, consultándolo solo la primera vez.
+     *
+     * @param tripId ID del viaje
+     * @param userId ID del usuario
+     * @return Rol del usuario, o vacío si no es miembro (o el viaje no existe)
+     */
+    public Optional<TripMemberRole> getRole(Long tripId, Long userId) {
+        if (tripId == null || userId == null) {
+            return Optional.empty();
+        }
+        Key key = new Key(tripId, userId);
+        Optional<TripMemberRole> cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long before = generation.get();
+        Optional<TripMemberRole> role = tripMemberRepository.findRoleByTripIdAndUserId(tripId, userId);
+        // Si entretanto se ha descartado alguna entrada, el rol leído puede ser el anterior al cambio
+        if (generation.get() == before) {
+            cache.put(key, role);
+        }
+        return role;
+    }
+
+    /**
+     * Verifica si el usuario es miembro del viaje.
+     */
+    public boolean isMember(Long tripId, Long userId) {
+        return getRole(tripId, userId).isPresent();
+    }
+
+    /**
+     * Verifica si el usuario tiene en el viaje, como mínimo, el rol indicado
+     * (OWNER incluye EDITOR y EDITOR incluye VIEWER).
+     */
+    public boolean hasPermission(Long tripId, Long userId, TripMemberRole required) {
+        Optional<TripMemberRole> role = getRole(tripId, userId);
+        return role.isPresent() && role.get().hasPermission(required);
+    }
+
+    /**
+     * Descarta el rol de un usuario en un viaje cuando la transacción actual se confirme.
+     */
+    public void evictAfterCommit(Long tripId, Long userId) {
+        evictAfterCommit(tripId, List.of(userId));
+    }
+
+    /**
+     * Descarta los roles de varios usuarios en un viaje cuando la transacción actual se confirme
+     * (o en el acto si no hay transacción).
+     *
+     * @param tripId ID del viaje
+     * @param userIds IDs de los usuarios afectados
+     */
+    public void evictAfterCommit(Long tripId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        // Se invalida ya la generación para que ninguna lectura en curso guarde el rol actual
+        generation.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(tripId, ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evict(tripId, ids);
+            }
+        });
+    }
+
+    private void evict(Long tripId, List<Long> userIds) {
+        generation.incrementAndGet();
+        for (Long userId : userIds) {
+            cache.invalidate(new Key(tripId, userId));
+        }
+    }
+
+    private static final class Key {
+        private final Long tripId;
+        private final Long userId;
+
+        private Key(Long tripId, Long userId) {
+            this.tripId = tripId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return tripId.equals(other.tripId) && userId.equals(other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tripId, userId);
+        }
+    }
+}
@@ -1,21 +1,38 @@
 package com.mapmyjourney.backend.service;
 
+import com.mapmyjourney.backend.dto.TripCloneRequestDTO;
 import com.mapmyjourney.backend.dto.TripCreateRequestDTO;
 import com.mapmyjourney.backend.dto.TripDTO;
+import com.mapmyjourney.backend.dto.TripSummaryDTO;
+import com.mapmyjourney.backend.dto.TripSummaryPageDTO;
 import com.mapmyjourney.backend.exception.ValidationException;
 import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.model.Activity;
 import com.mapmyjourney.backend.model.Trip;
 import com.mapmyjourney.backend.model.TripMember;
 import com.mapmyjourney.backend.model.User;
 import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.ActivityRepository;
+import com.mapmyjourney.backend.repository.TripCloneRepository;
 import com.mapmyjourney.backend.repository.TripRepository;
+import com.mapmyjourney.backend.repository.TripBalanceRepository;
 import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,9 +40,20 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TripService {
 
+    /**
+     * Tamaño máximo de página en el listado de resúmenes de viajes.
+     */
+    public static final int MAX_SUMMARY_PAGE_SIZE = 100;
+
     private final TripRepository tripRepository;
     private final TripMemberRepository tripMemberRepository;
     private final UserRepository userRepository;
+    private final TripBalanceRepository tripBalanceRepository;
+    private final UserBalanceService userBalanceService;
+    private final ActivityRepository activityRepository;
+    private final TripMembershipCache tripMembershipCache;
+    private final TripCodeCache tripCodeCache;
+    private final TripCloneRepository tripCloneRepository;
 
     /**
      * Crea un nuevo viaje.
@@ -54,6 +82,9 @@ public class TripService {
         trip.setEndDate(request.getEndDate());
         // El presupuesto ahora es obligatorio (validado en DTO)
         trip.setBudget(request.getBudget());
+        if (request.getBaseCurrency() != null) {
+            trip.setBaseCurrency(FxRateService.normalizeCurrency(request.getBaseCurrency()));
+        }
         trip.setTripCode(generateTripCode());
 
         Trip savedTrip = tripRepository.save(trip);
@@ -65,6 +96,66 @@ public class TripService {
         owner.setRole(TripMemberRole.OWNER);
 
         tripMemberRepository.save(owner);
+        tripMembershipCache.evictAfterCommit(savedTrip.getId(), creatorUserId);
+        tripCodeCache.registerCode(savedTrip.getTripCode());
+
+        return mapToDTO(savedTrip);
+    }
+
+    /**
+     * Crea un viaje nuevo a partir de otro, con las fechas desplazadas.
+     * Las actividades (y, si se pide, los miembros) se copian en la base de datos con
+     * INSERT ... SELECT, así que el coste no depende del número de actividades.
+     * Quien clona es OWNER del viaje nuevo; los gastos no se copian.
+     *
+     * @param tripId ID del viaje original
+     * @param request Fecha de inicio, título opcional y si se copian los miembros
+     * @param userId ID del usuario que clona el viaje
+     * @return DTO del viaje nuevo
+     */
+    @Transactional
+    public TripDTO cloneTrip(Long tripId, TripCloneRequestDTO request, Long userId) {
+        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        if (!tripOptional.isPresent()) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
+        }
+        Trip source = tripOptional.get();
+
+        Optional<User> creatorOptional = userRepository.findById(userId);
+        if (!creatorOptional.isPresent()) {
+            throw new ResourceNotFoundException("Usuario no encontrado");
+        }
+
+        // Mismo número de días que el original
+        long days = ChronoUnit.DAYS.between(source.getStartDate(), source.getEndDate());
+
+        Trip trip = new Trip();
+        trip.setTitle(request.getTitle() != null ? request.getTitle() : source.getTitle());
+        trip.setDestination(source.getDestination());
+        trip.setDescription(source.getDescription());
+        trip.setImageUrl(source.getImageUrl());
+        trip.setStartDate(request.getStartDate());
+        trip.setEndDate(request.getStartDate().plusDays(days));
+        trip.setBudget(source.getBudget());
+        trip.setBaseCurrency(source.getBaseCurrency());
+        trip.setTripCode(generateTripCode());
+        Trip savedTrip = tripRepository.save(trip);
+
+        TripMember owner = new TripMember();
+        owner.setTrip(savedTrip);
+        owner.setUser(creatorOptional.get());
+        owner.setRole(TripMemberRole.OWNER);
+        // Las copias por SQL necesitan el viaje ya escrito
+        tripMemberRepository.saveAndFlush(owner);
+
+        tripCloneRepository.copyActivities(tripId, savedTrip.getId(), savedTrip.getStartDate());
+
+        List<Long> memberIds = List.of(userId);
+        if (request.isCopyMembers() && tripCloneRepository.copyMembers(tripId, savedTrip.getId(), userId) > 0) {
+            memberIds = tripCloneRepository.findMemberUserIds(savedTrip.getId());
+        }
+        tripMembershipCache.evictAfterCommit(savedTrip.getId(), memberIds);
+        tripCodeCache.registerCode(savedTrip.getTripCode());
 
         return mapToDTO(savedTrip);
     }
@@ -93,6 +184,56 @@ public class TripService {
             .toList();
     }
 
+    /**
+     * Obtiene una página de resúmenes de los viajes del usuario para el listado de viajes.
+     * Usa un número fijo de consultas por página, sea cual sea el número de viajes:
+     * la página con sus agregados, el total para la paginación y las próximas actividades.
+     *
+     * @param userId ID del usuario
+     * @param page Número de página (desde 0)
+     * @param size Viajes por página (1..MAX_SUMMARY_PAGE_SIZE)
+     * @return Página de resúmenes, del viaje más reciente al más antiguo
+     * @throws ValidationException si la página o el tamaño no son válidos
+     */
+    @Transactional(readOnly = true)
+    public TripSummaryPageDTO getUserTripSummaries(Long userId, int page, int size) {
+        if (page < 0) {
+            throw new ValidationException("La página no puede ser negativa");
+        }
+        if (size < 1 || size > MAX_SUMMARY_PAGE_SIZE) {
+            throw new ValidationException("El tamaño de página debe estar entre 1 y " + MAX_SUMMARY_PAGE_SIZE);
+        }
+
+        Page<Object[]> rows = tripRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+        Map<Long, TripSummaryDTO> summaries = new LinkedHashMap<>();
+        for (Object[] row : rows.getContent()) {
+            TripSummaryDTO summary = TripSummaryDTO.builder()
+                    .id((Long) row[0])
+                    .title((String) row[1])
+                    .destination((String) row[2])
+                    .imageUrl((String) row[3])
+                    .startDate((LocalDate) row[4])
+                    .endDate((LocalDate) row[5])
+                    .budget((BigDecimal) row[6])
+                    .baseCurrency((String) row[7])
+                    .totalSpent((BigDecimal) row[8])
+                    .currentUserRole((TripMemberRole) row[9])
+                    .memberCount(((Number) row[10]).longValue())
+                    .balance(row[11] != null ? (BigDecimal) row[11] : BigDecimal.ZERO)
+                    .build();
+            summaries.put(summary.getId(), summary);
+        }
+
+        if (!summaries.isEmpty()) {
+            for (Activity activity : activityRepository.findNextByTripIds(summaries.keySet(), LocalDate.now())) {
+                summaries.get(activity.getTrip().getId()).setNextActivity(ActivityService.convertToDTO(activity));
+            }
+        }
+
+        return new TripSummaryPageDTO(new ArrayList<>(summaries.values()), page, size,
+                rows.getTotalElements(), rows.getTotalPages());
+    }
+
     /**
      * Agrega un usuario a un viaje con rol VIEWER.
      */
@@ -123,43 +264,38 @@ public class TripService {
         newMember.setRole(TripMemberRole.VIEWER);
 
         tripMemberRepository.save(newMember);
+        tripMembershipCache.evictAfterCommit(tripId, userId);
     }
 
     /**
      * Obtiene un viaje por su código (para invitaciones).
+     * Pasa por la caché de códigos: los códigos que no existen normalmente no llegan a la base de datos.
      */
     @Transactional(readOnly = true)
     public TripDTO getTripByCode(String tripCode) {
-        Optional<Trip> tripOptional = tripRepository.findByTripCode(tripCode);
-        if (!tripOptional.isPresent()) {
+        TripDTO trip = tripCodeCache.find(tripCode, code -> tripRepository.findByTripCode(code)
+                .map(this::mapToDTO)
+                .orElse(null));
+        if (trip == null) {
             throw new ResourceNotFoundException("Viaje no encontrado");
         }
         
-        return mapToDTO(tripOptional.get());
+        return trip;
     }
 
     /**
      * Verifica que un usuario pertenece a un viaje.
+     * Usa la caché de pertenencias; solo consulta si el viaje existe cuando el usuario no es miembro.
      */
     @Transactional(readOnly = true)
     public void verifyUserInTrip(Long tripId, Long userId) {
-        Optional<Trip> tripOptional = tripRepository.findById(tripId);
-        if (!tripOptional.isPresent()) {
-            throw new ResourceNotFoundException("Viaje no encontrado");
-        }
-        Trip trip = tripOptional.get();
-
-        boolean isMember = false;
-        for (TripMember member : trip.getMembers()) {
-            if (member.getUser().getId().equals(userId)) {
-                isMember = true;
-                break;
-            }
+        if (tripMembershipCache.isMember(tripId, userId)) {
+            return;
         }
-
-        if (!isMember) {
-            throw new ValidationException("No eres miembro de este viaje");
+        if (!tripRepository.existsById(tripId)) {
+            throw new ResourceNotFoundException("Viaje no encontrado");
         }
+        throw new ValidationException("No eres miembro de este viaje");
     }
 
     /**
@@ -197,6 +333,7 @@ public class TripService {
         trip.setBudget(request.getBudget());
 
         Trip updatedTrip = tripRepository.save(trip);
+        tripCodeCache.evictAfterCommit(updatedTrip.getTripCode());
         return mapToDTO(updatedTrip);
     }
 
@@ -219,7 +356,42 @@ public class TripService {
             throw new ValidationException("No tienes permisos para eliminar este viaje");
         }
 
-        tripRepository.delete(trip);
+        markDeleted(trip);
+    }
+
+    /**
+     * Elimina un viaje que se ha quedado sin miembros al eliminar la cuenta del último
+     * (ver UserService.deleteUser). Si ya estaba eliminado no hace nada.
+     *
+     * @param tripId ID del viaje
+     */
+    @Transactional
+    public void deleteAbandonedTrip(Long tripId) {
+        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        if (tripOptional.isPresent()) {
+            markDeleted(tripOptional.get());
+        }
+    }
+
+    /**
+     * Marca un viaje como eliminado y descarta lo que las cachés guardan de él al confirmar.
+     */
+    private void markDeleted(Trip trip) {
+        Long tripId = trip.getId();
+
+        // Los gastos del viaje desaparecen de la posición global de quienes tenían saldo en él
+        userBalanceService.evictAfterCommit(tripBalanceRepository.findUserIdsByTripId(tripId));
+        List<Long> memberIds = new ArrayList<>();
+        for (TripMember member : trip.getMembers()) {
+            memberIds.add(member.getUser().getId());
+        }
+        tripMembershipCache.evictAfterCommit(tripId, memberIds);
+        tripCodeCache.evictAfterCommit(trip.getTripCode());
+
+        // Solo se marca como eliminado (deja de verse en todas las consultas);
+        // PurgeService borra después sus gastos, actividades y miembros por tramos
+        trip.setDeletedAt(LocalDateTime.now());
+        tripRepository.save(trip);
     }
 
     /**
@@ -242,6 +414,7 @@ public class TripService {
         dto.setStartDate(trip.getStartDate());
         dto.setEndDate(trip.getEndDate());
         dto.setBudget(trip.getBudget());
+        dto.setBaseCurrency(trip.getBaseCurrency());
         dto.setTripCode(trip.getTripCode());
         dto.setCreatedAt(trip.getCreatedAt());
         dto.setUpdatedAt(trip.getUpdatedAt());
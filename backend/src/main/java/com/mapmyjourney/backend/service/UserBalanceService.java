@@ -0,0 +1,124 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.cache.LruCache;
+import com.mapmyjourney.backend.dto.CounterpartyBalanceDTO;
+import com.mapmyjourney.backend.dto.UserBalancesDTO;
+import com.mapmyjourney.backend.dto.UserDTO;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Servicio para la posición neta de un usuario en todos sus viajes.
+ * Se calcula con una única consulta agregada sobre las divisiones pendientes y se guarda
+ * en una caché por usuario. El libro de saldos (TripBalanceService) descarta la entrada de
+ * cada usuario cuyo saldo cambia, una vez confirmada la transacción; la caducidad solo
+ * acota lo que una lectura concurrente con esa confirmación pueda dejar desactualizado.
+ */
+@Service
+public class UserBalanceService {
+
+    private final ExpenseSplitRepository expenseSplitRepository;
+    private final LruCache<Long, UserBalancesDTO> cache;
+
+    public UserBalanceService(ExpenseSplitRepository expenseSplitRepository,
+                              @Value("${app.cache.user-balances.max-entries:10000}") int maxEntries,
+                              @Value("${app.cache.user-balances.ttl:PT10M}") Duration ttl) {
+        this.expenseSplitRepository = expenseSplitRepository;
+        this.cache = new LruCache<>(maxEntries, ttl);
+    }
+
+    /**
+     * Obtiene quién debe al usuario y a quién debe él, sumando todos sus viajes.
+     *
+     * @param userId ID del usuario
+     * @return Saldos por persona y moneda, y neto por moneda
+     */
+    @Transactional(readOnly = true)
+    public UserBalancesDTO getUserBalances(Long userId) {
+        UserBalancesDTO cached = cache.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        UserBalancesDTO balances = computeBalances(userId);
+        cache.put(userId, balances);
+        return balances;
+    }
+
+    /**
+     * Descarta de la caché las posiciones de los usuarios indicados cuando la transacción
+     * actual se confirme (o en el acto si no hay transacción). Descartarlas antes permitiría
+     * que una lectura concurrente volviese a guardar los datos anteriores al cambio.
+     *
+     * @param userIds IDs de los usuarios afectados
+     */
+    public void evictAfterCommit(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(userIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(ids);
+            }
+        });
+    }
+
+    private void evict(List<Long> userIds) {
+        for (Long userId : userIds) {
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * Calcula la posición neta de un usuario con una consulta GROUP BY.
+     */
+    private UserBalancesDTO computeBalances(Long userId) {
+        List<CounterpartyBalanceDTO> owedToMe = new ArrayList<>();
+        List<CounterpartyBalanceDTO> owedByMe = new ArrayList<>();
+        Map<String, BigDecimal> netByCurrency = new TreeMap<>();
+
+        for (Object[] row : expenseSplitRepository.sumNetPendingByCounterparty(userId)) {
+            String currency = (String) row[3];
+            BigDecimal net = (BigDecimal) row[4];
+            if (net.signum() == 0) {
+                continue;
+            }
+
+            UserDTO counterparty = new UserDTO();
+            counterparty.setId((Long) row[0]);
+            counterparty.setName((String) row[1]);
+            counterparty.setEmail((String) row[2]);
+
+            if (net.signum() > 0) {
+                owedToMe.add(new CounterpartyBalanceDTO(counterparty, currency, net));
+            } else {
+                owedByMe.add(new CounterpartyBalanceDTO(counterparty, currency, net.negate()));
+            }
+            netByCurrency.merge(currency, net, BigDecimal::add);
+        }
+
+        owedToMe.sort(Comparator.comparing(CounterpartyBalanceDTO::getAmount).reversed());
+        owedByMe.sort(Comparator.comparing(CounterpartyBalanceDTO::getAmount).reversed());
+
+        return new UserBalancesDTO(userId, owedToMe, owedByMe, netByCurrency);
+    }
+}
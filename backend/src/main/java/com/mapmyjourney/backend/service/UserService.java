@@ -7,6 +7,7 @@ import com.mapmyjourney.backend.dto.LoginResponseDTO;
 import com.mapmyjourney.backend.exception.DuplicateResourceException;
 import com.mapmyjourney.backend.exception.ResourceNotFoundException;
 import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
 import com.mapmyjourney.backend.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
@@ -17,7 +18,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +33,9 @@ public class UserService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final PasswordEncoder passwordEncoder;
+    private final TripMemberRepository tripMemberRepository;
+    private final TripMemberService tripMemberService;
+    private final TripService tripService;
 
     /**
      * 1. Registra un nuevo usuario.
@@ -232,6 +241,10 @@ public class UserService {
 
     /**
      * 5. Elimina un usuario.
+     * Sale en el acto de todos sus viajes y sus datos personales se anonimizan; la fila se
+     * conserva mientras algún gasto lo referencie y después la borra PurgeService.
+     * Si era el único propietario de un viaje la propiedad pasa a otro miembro, y los viajes
+     * de los que era el último miembro se eliminan (ver TripMemberService.removeDeletedUser).
      * 
      * @param userId ID del usuario a eliminar
      * @throws ResourceNotFoundException si el usuario no existe
@@ -241,7 +254,22 @@ public class UserService {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
         
-        userRepository.delete(user);
+        // Se sale de cada viaje con su fila bloqueada, en orden de ID para no interbloquearse
+        // con otra baja; el viaje que se queda sin miembros se elimina
+        List<Long> tripIds = new ArrayList<>(tripMemberRepository.findTripIdsByUserId(userId));
+        Collections.sort(tripIds);
+        for (Long tripId : tripIds) {
+            if (tripMemberService.removeDeletedUser(tripId, userId)) {
+                tripService.deleteAbandonedTrip(tripId);
+            }
+        }
+
+        user.setName("Usuario eliminado");
+        user.setEmail("deleted-" + userId + "@deleted.invalid");
+        user.setPasswordHash("!" + UUID.randomUUID());
+        user.setProfilePicture(null);
+        user.setDeletedAt(LocalDateTime.now());
+        userRepository.save(user);
     }
 
     /**
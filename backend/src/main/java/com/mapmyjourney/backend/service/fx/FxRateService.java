@@ -0,0 +1,153 @@
+package com.mapmyjourney.backend.service.fx;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.service.split.CentsAllocation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Servicio de conversión de monedas.
+ * Carga al arrancar los tipos de cambio de un fichero local (app.fx.rates-file, con el formato
+ * histórico del BCE) en una {@link FxRateTable}, y calcula los montos en la moneda base del viaje
+ * cuando se escriben los gastos. Las lecturas (saldos, presupuesto, estadísticas) usan esos montos
+ * ya convertidos y nunca consultan tipos de cambio.
+ */
+@Slf4j
+@Service
+public class FxRateService {
+
+    private final FxRateTable table;
+
+    @Autowired
+    public FxRateService(ResourceLoader resourceLoader,
+                         @Value("${app.fx.rates-file:classpath:fx/eurofxref-hist.csv}") String ratesFile) {
+        this(loadTable(resourceLoader.getResource(ratesFile)));
+    }
+
+    public FxRateService(FxRateTable table) {
+        this.table = table;
+    }
+
+    private static FxRateTable loadTable(Resource resource) {
+        if (!resource.exists()) {
+            log.warn("No se encontró el fichero de tipos de cambio {}: solo se admitirán gastos en la moneda base del viaje",
+                    resource.getDescription());
+            return FxRateTable.empty();
+        }
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            FxRateTable table = FxRateTable.load(reader);
+            log.info("Tipos de cambio cargados: {} monedas entre {} y {}",
+                    table.getCurrencyCount(), table.getFirstDay(), table.getLastDay());
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el fichero de tipos de cambio", e);
+        }
+    }
+
+    /**
+     * Obtiene el tipo para convertir de una moneda a otra en una fecha.
+     *
+     * @return Tipo tal que destino = origen × tipo
+     * @throws ValidationException si no hay cotización para alguna de las monedas en esa fecha
+     */
+    public BigDecimal getRate(String from, String to, LocalDate date) {
+        BigDecimal rate = table.conversionRate(from, to, date);
+        if (rate == null) {
+            throw new ValidationException("No hay tipo de cambio de " + from + " a " + to + " para el " + date);
+        }
+        return rate;
+    }
+
+    /**
+     * Calcula y asigna los montos en la moneda base del viaje de un gasto y sus divisiones.
+     * Si el gasto no tiene moneda se le asigna la del viaje. El monto base de las divisiones
+     * se reparte en céntimos de forma proporcional a sus montos, así que siempre suma
+     * exactamente el monto base del gasto.
+     *
+     * @param expense Gasto con viaje, monto, moneda y fecha
+     * @param splits Divisiones del gasto (pueden estar vacías)
+     * @throws ValidationException si no hay tipo de cambio para la fecha del gasto
+     */
+    public void applyBaseAmounts(Expense expense, List<ExpenseSplit> splits) {
+        String baseCurrency = expense.getTrip().getBaseCurrency();
+        if (expense.getCurrency() == null) {
+            expense.setCurrency(baseCurrency);
+        }
+        BigDecimal rate = getRate(expense.getCurrency(), baseCurrency, expense.getExpenseDate());
+        expense.setFxRate(rate);
+
+        expense.setBaseAmount(toBase(expense.getAmount(), rate));
+        applySplitBaseAmounts(expense, splits);
+    }
+
+    /**
+     * Reparte el monto base ya calculado de un gasto entre sus divisiones, en céntimos y
+     * de forma proporcional a sus montos, sin volver a consultar el tipo de cambio.
+     *
+     * @param expense Gasto con tipo de cambio y monto base asignados
+     * @param splits Divisiones del gasto (sus montos deben sumar el monto del gasto)
+     */
+    public void applySplitBaseAmounts(Expense expense, List<ExpenseSplit> splits) {
+        if (expense.getFxRate() == null || expense.getFxRate().compareTo(BigDecimal.ONE) == 0) {
+            for (ExpenseSplit split : splits) {
+                split.setBaseAmount(split.getAmount());
+            }
+            return;
+        }
+        if (splits.isEmpty()) {
+            return;
+        }
+
+        int n = splits.size();
+        long[] cents = new long[n];
+        for (int i = 0; i < n; i++) {
+            cents[i] = CentsAllocation.toCents(splits.get(i).getAmount());
+        }
+        CentsAllocation.allocateWeighted(CentsAllocation.toCents(expense.getAmountInBase()), cents, n, cents);
+        for (int i = 0; i < n; i++) {
+            splits.get(i).setBaseAmount(BigDecimal.valueOf(cents[i], 2));
+        }
+    }
+
+    /**
+     * Normaliza un código de moneda (mayúsculas) y comprueba que es un código ISO 4217.
+     *
+     * @throws ValidationException si el código no es una moneda válida
+     */
+    public static String normalizeCurrency(String code) {
+        String normalized = code.trim().toUpperCase(Locale.ROOT);
+        try {
+            return Currency.getInstance(normalized).getCurrencyCode();
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Moneda no válida: " + code);
+        }
+    }
+
+    /**
+     * Convierte un monto a la moneda base con el tipo del gasto, redondeado al céntimo.
+     */
+    public static BigDecimal toBase(BigDecimal amount, BigDecimal rate) {
+        if (rate == null || rate.compareTo(BigDecimal.ONE) == 0) {
+            return amount;
+        }
+        return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
+}
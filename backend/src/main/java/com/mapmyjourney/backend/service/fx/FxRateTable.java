@@ -0,0 +1,208 @@
+package com.mapmyjourney.backend.service.fx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabla de tipos de cambio en memoria, indexada por (moneda, día).
+ *
+ * Los tipos se guardan en un único long[] en millonésimas, con una fila por moneda
+ * y una columna por día entre el primero y el último del fichero. Los días sin cotización
+ * (fines de semana, festivos) se rellenan al cargar con el último tipo anterior, de modo
+ * que una consulta es un acceso al array sin búsquedas ni objetos intermedios.
+ *
+ * Todos los tipos son unidades de la moneda por 1 EUR (formato de referencia del BCE),
+ * así que la conversión entre dos monedas cualesquiera pasa por el euro.
+ */
+public final class FxRateTable {
+
+    /**
+     * Moneda de referencia de los tipos del fichero.
+     */
+    public static final String PIVOT = "EUR";
+
+    /**
+     * Decimales con los que se guardan los tipos (millonésimas).
+     */
+    static final int RATE_SCALE = 6;
+
+    /**
+     * Decimales del tipo de conversión entre dos monedas.
+     */
+    public static final int CONVERSION_SCALE = 10;
+
+    private static final MathContext DIVISION = MathContext.DECIMAL64;
+
+    private final Map<String, Integer> currencies;
+    private final LocalDate firstDay;
+    private final int days;
+    private final long[] rates;
+
+    private FxRateTable(Map<String, Integer> currencies, LocalDate firstDay, int days, long[] rates) {
+        this.currencies = currencies;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.rates = rates;
+    }
+
+    /**
+     * Tabla sin tipos: solo permite conversiones a la misma moneda.
+     */
+    public static FxRateTable empty() {
+        return new FxRateTable(Map.of(), null, 0, new long[0]);
+    }
+
+    /**
+     * Carga la tabla desde un CSV con el formato histórico del BCE (eurofxref-hist.csv):
+     * cabecera "Date,USD,JPY,..." y una fila por día con los tipos por 1 EUR.
+     * Los valores vacíos o "N/A" se consideran sin cotización.
+     *
+     * @param reader Contenido del fichero (no se cierra)
+     * @return Tabla cargada
+     * @throws IllegalArgumentException si el formato no es válido
+     */
+    public static FxRateTable load(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String headerLine = lines.readLine();
+        if (headerLine == null) {
+            return empty();
+        }
+        String[] header = headerLine.split(",");
+
+        // Índice de cada columna de moneda (las columnas vacías del final se ignoran)
+        Map<String, Integer> currencies = new HashMap<>();
+        int[] columnToCurrency = new int[header.length];
+        Arrays.fill(columnToCurrency, -1);
+        for (int column = 1; column < header.length; column++) {
+            String code = header[column].trim().toUpperCase(Locale.ROOT);
+            if (!code.isEmpty() && !code.equals(PIVOT) && !currencies.containsKey(code)) {
+                columnToCurrency[column] = currencies.size();
+                currencies.put(code, currencies.size());
+            }
+        }
+
+        List<LocalDate> dates = new ArrayList<>();
+        List<long[]> values = new ArrayList<>();
+        LocalDate min = null;
+        LocalDate max = null;
+        String line;
+        int lineNumber = 1;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            LocalDate date;
+            try {
+                date = LocalDate.parse(fields[0].trim());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Fecha inválida en la línea " + lineNumber + " del fichero de tipos de cambio");
+            }
+            long[] row = new long[currencies.size()];
+            for (int column = 1; column < fields.length && column < header.length; column++) {
+                int currency = columnToCurrency[column];
+                String value = fields[column].trim();
+                if (currency >= 0 && !value.isEmpty() && !value.equalsIgnoreCase("N/A")) {
+                    row[currency] = new BigDecimal(value).movePointRight(RATE_SCALE)
+                            .setScale(0, RoundingMode.HALF_UP).longValueExact();
+                }
+            }
+            dates.add(date);
+            values.add(row);
+            min = min == null || date.isBefore(min) ? date : min;
+            max = max == null || date.isAfter(max) ? date : max;
+        }
+        if (dates.isEmpty()) {
+            return empty();
+        }
+
+        int days = Math.toIntExact(ChronoUnit.DAYS.between(min, max) + 1);
+        long[] rates = new long[Math.multiplyExact(currencies.size(), days)];
+        for (int i = 0; i < dates.size(); i++) {
+            int day = (int) ChronoUnit.DAYS.between(min, dates.get(i));
+            long[] row = values.get(i);
+            for (int currency = 0; currency < row.length; currency++) {
+                rates[currency * days + day] = row[currency];
+            }
+        }
+
+        // Rellenar los días sin cotización con el último tipo conocido
+        for (int currency = 0; currency < currencies.size(); currency++) {
+            int offset = currency * days;
+            for (int day = 1; day < days; day++) {
+                if (rates[offset + day] == 0) {
+                    rates[offset + day] = rates[offset + day - 1];
+                }
+            }
+        }
+        return new FxRateTable(Map.copyOf(currencies), min, days, rates);
+    }
+
+    /**
+     * Tipo de una moneda por 1 EUR en una fecha.
+     * Las fechas posteriores al último día del fichero usan el último tipo conocido.
+     *
+     * @return Tipo, o null si la moneda no está o no hay cotización en esa fecha o antes
+     */
+    public BigDecimal rate(String currency, LocalDate date) {
+        if (PIVOT.equals(currency)) {
+            return BigDecimal.ONE;
+        }
+        Integer index = currencies.get(currency);
+        if (index == null || date.isBefore(firstDay)) {
+            return null;
+        }
+        long day = Math.min(ChronoUnit.DAYS.between(firstDay, date), days - 1);
+        long value = rates[index * days + (int) day];
+        return value != 0 ? BigDecimal.valueOf(value, RATE_SCALE) : null;
+    }
+
+    /**
+     * Tipo para convertir de una moneda a otra en una fecha: destino = origen × tipo.
+     *
+     * @return Tipo con CONVERSION_SCALE decimales, o null si falta alguna de las dos cotizaciones
+     */
+    public BigDecimal conversionRate(String from, String to, LocalDate date) {
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal fromRate = rate(from, date);
+        BigDecimal toRate = rate(to, date);
+        if (fromRate == null || toRate == null) {
+            return null;
+        }
+        return toRate.divide(fromRate, DIVISION).setScale(CONVERSION_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Número de monedas de la tabla, sin contar el euro.
+     */
+    public int getCurrencyCount() {
+        return currencies.size();
+    }
+
+    /**
+     * Primer y último día con tipos, o null si la tabla está vacía.
+     */
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public LocalDate getLastDay() {
+        return firstDay != null ? firstDay.plusDays(days - 1L) : null;
+    }
+}
@@ -0,0 +1,224 @@
+package com.mapmyjourney.backend.service.receipt;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Almacén de recibos en el sistema de ficheros local, direccionado por contenido.
+ *
+ * Cada fichero se guarda con el hash SHA-256 de su contenido como nombre
+ * (raíz/ab/abcd...), así que subir dos veces el mismo recibo solo ocupa disco una vez
+ * y un fichero guardado nunca cambia. Las subidas se escriben por canales NIO a un
+ * fichero temporal mientras se calcula el hash, sin cargar el fichero en memoria,
+ * y se mueven a su ruta definitiva de forma atómica.
+ */
+@Slf4j
+@Component
+public class ReceiptStore {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int SNIFF_BYTES = 8;
+
+    private final Path root;
+    private final Path tmpDir;
+    private final Path thumbnailDir;
+    private final long maxSize;
+
+    public ReceiptStore(@Value("${app.receipts.dir:data/receipts}") String dir,
+                        @Value("${app.receipts.max-size:10485760}") long maxSize) {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.tmpDir = root.resolve("tmp");
+        this.thumbnailDir = root.resolve("thumbnails");
+        this.maxSize = maxSize;
+        try {
+            Files.createDirectories(tmpDir);
+            Files.createDirectories(thumbnailDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de recibos " + root, e);
+        }
+    }
+
+    /**
+     * Guarda un recibo leyendo el flujo hasta el final.
+     *
+     * @param in Contenido del recibo (no se cierra)
+     * @return Hash, tipo de contenido detectado y tamaño
+     * @throws ValidationException si está vacío, supera el tamaño máximo o no es JPEG, PNG ni PDF
+     */
+    public StoredReceipt store(InputStream in) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            long size = 0;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(in, digest));
+                 FileChannel target = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                // Se pide un byte más del máximo para detectar ficheros demasiado grandes
+                long transferred;
+                while (size <= maxSize && (transferred = target.transferFrom(source, size, maxSize + 1 - size)) > 0) {
+                    size += transferred;
+                }
+            }
+            if (size == 0) {
+                throw new ValidationException("El recibo está vacío");
+            }
+            if (size > maxSize) {
+                throw new ValidationException("El recibo supera el tamaño máximo de " + maxSize + " bytes");
+            }
+
+            String contentType = detectContentType(tmp);
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = path(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(tmp, target);
+            }
+            return new StoredReceipt(hash, contentType, size, target);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo guardar el recibo", e);
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Mueve el temporal a su ruta definitiva. Si otra subida del mismo contenido
+     * ha llegado antes, el fichero ya está y el temporal simplemente se descarta.
+     */
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Mismo hash, mismo contenido
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmp, target);
+            } catch (FileAlreadyExistsException ignored) {
+                // Mismo hash, mismo contenido
+            }
+        }
+    }
+
+    /**
+     * Detecta el tipo de contenido por los primeros bytes del fichero.
+     */
+    private String detectContentType(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SNIFF_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int read;
+            do {
+                read = channel.read(header);
+            } while (read > 0 && header.hasRemaining());
+        }
+        byte[] b = header.array();
+        int n = header.position();
+        if (n >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (n >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G'
+                && b[4] == 0x0D && b[5] == 0x0A && b[6] == 0x1A && b[7] == 0x0A) {
+            return "image/png";
+        }
+        if (n >= 5 && b[0] == '%' && b[1] == 'P' && b[2] == 'D' && b[3] == 'F' && b[4] == '-') {
+            return "application/pdf";
+        }
+        throw new ValidationException("Formato de recibo no admitido: solo JPEG, PNG o PDF");
+    }
+
+    /**
+     * Ruta del recibo con ese hash.
+     *
+     * @throws IllegalArgumentException si el hash no es un SHA-256 en hexadecimal
+     */
+    public Path path(String hash) {
+        checkHash(hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    /**
+     * Ruta de la miniatura (JPEG) del recibo con ese hash.
+     */
+    public Path thumbnailPath(String hash) {
+        checkHash(hash);
+        return thumbnailDir.resolve(hash.substring(0, 2)).resolve(hash + ".jpg");
+    }
+
+    /**
+     * Crea un fichero temporal en el almacén, en el mismo sistema de ficheros
+     * que los definitivos para poder moverlo de forma atómica.
+     */
+    Path createTempFile(String prefix) throws IOException {
+        return Files.createTempFile(tmpDir, prefix, ".part");
+    }
+
+    private void checkHash(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Hash de recibo no válido");
+        }
+    }
+
+    /**
+     * Escribe un tramo de un fichero en un flujo de salida con FileChannel.transferTo.
+     * Nunca se carga el fichero en memoria: el JDK copia el tramo por bloques y, si el
+     * destino es un canal de socket, delega la copia en el sistema operativo.
+     *
+     * @param file Fichero a enviar
+     * @param position Primer byte del tramo
+     * @param count Número de bytes del tramo
+     * @param out Flujo de salida (no se cierra)
+     */
+    public static void transferTo(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long offset = position;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(offset, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                offset += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el fichero temporal {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.mapmyjourney.backend.service.receipt;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Genera en segundo plano las miniaturas JPEG de los recibos que son imágenes.
+ *
+ * Usa un pool de hilos fijo con una cola acotada: si la cola está llena la miniatura
+ * no se encola y se vuelve a pedir la próxima vez que alguien la solicite, de modo que
+ * una ráfaga de subidas nunca acumula trabajo ni memoria sin límite.
+ *
+ * Las imágenes nunca se decodifican a tamaño completo: se descartan las que declaran más de
+ * app.receipts.thumbnail.max-pixels píxeles y el resto se lee submuestreado (ver read).
+ */
+@Slf4j
+@Component
+public class ReceiptThumbnailer {
+
+    /**
+     * Lado mayor de la miniatura, en píxeles.
+     */
+    static final int MAX_DIMENSION = 320;
+
+    private final ReceiptStore receiptStore;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+
+    public ReceiptThumbnailer(ReceiptStore receiptStore,
+                              @Value("${app.receipts.thumbnail.threads:2}") int threads,
+                              @Value("${app.receipts.thumbnail.queue-size:100}") int queueSize,
+                              @Value("${app.receipts.thumbnail.max-pixels:50000000}") long maxPixels) {
+        this.receiptStore = receiptStore;
+        this.maxPixels = maxPixels;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "receipt-thumbnail-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Encola la generación de la miniatura si el recibo es una imagen y aún no la tiene.
+     *
+     * @param hash Hash del recibo
+     * @param contentType Tipo de contenido del recibo
+     * @return true si la miniatura ya existe o se ha encolado
+     */
+    public boolean submit(String hash, String contentType) {
+        if (!isImage(contentType)) {
+            return false;
+        }
+        if (Files.exists(receiptStore.thumbnailPath(hash))) {
+            return true;
+        }
+        try {
+            executor.execute(() -> generate(hash));
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Cola de miniaturas llena, se descarta la del recibo {}", hash);
+            return false;
+        }
+    }
+
+    public static boolean isImage(String contentType) {
+        return "image/jpeg".equals(contentType) || "image/png".equals(contentType);
+    }
+
+    /**
+     * Genera la miniatura de un recibo. Se escribe en un temporal y se mueve al final,
+     * así que una miniatura a medio escribir nunca es visible.
+     */
+    void generate(String hash) {
+        Path target = receiptStore.thumbnailPath(hash);
+        if (Files.exists(target)) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            BufferedImage source = read(hash);
+            if (source == null) {
+                return;
+            }
+            tmp = receiptStore.createTempFile("thumbnail-");
+            ImageIO.write(scale(source), "jpg", tmp.toFile());
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo generar la miniatura del recibo {}", hash, e);
+        } finally {
+            ReceiptStore.deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Lee la imagen de un recibo sin decodificarla entera. La cabecera puede declarar un tamaño
+     * enorme con muy pocos bytes, así que primero se comprueban sus dimensiones contra maxPixels
+     * y después se submuestrea para que el lado mayor decodificado quede cerca de MAX_DIMENSION.
+     *
+     * @return La imagen submuestreada, o null si no es legible o supera maxPixels
+     */
+    BufferedImage read(String hash) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(receiptStore.path(hash).toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                log.warn("El recibo {} no es una imagen legible", hash);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("El recibo {} declara {}x{} píxeles (máximo {}), no se genera la miniatura",
+                            hash, width, height, maxPixels);
+                    return null;
+                }
+
+                int step = Math.max(1, Math.max(width, height) / MAX_DIMENSION);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Reduce la imagen para que su lado mayor sea MAX_DIMENSION, sobre fondo blanco
+     * (JPEG no admite transparencia).
+     */
+    static BufferedImage scale(BufferedImage source) {
+        double factor = Math.min(1.0, (double) MAX_DIMENSION / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
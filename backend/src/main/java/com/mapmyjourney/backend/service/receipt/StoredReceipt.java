@@ -0,0 +1,28 @@
+package com.mapmyjourney.backend.service.receipt;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.file.Path;
+
+/**
+ * Fichero de recibo guardado en el almacén local.
+ */
+@Getter
+@RequiredArgsConstructor
+public class StoredReceipt {
+
+    /**
+     * Hash SHA-256 del contenido en hexadecimal (también es el nombre del fichero).
+     */
+    private final String hash;
+
+    private final String contentType;
+
+    private final long size;
+
+    /**
+     * Ruta del fichero en el almacén.
+     */
+    private final Path path;
+}
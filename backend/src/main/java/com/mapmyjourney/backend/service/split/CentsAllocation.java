@@ -0,0 +1,101 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reparto de céntimos enteros proporcional a unos pesos, sin crear objetos.
+ *
+ * Se usa redondeo acumulado: el participante i recibe
+ * floor(T * C(i) / W) - floor(T * C(i-1) / W), donde C(i) es la suma de los pesos hasta i.
+ * Las cuotas suman exactamente T y cada una se separa menos de un céntimo de la cuota exacta
+ * T * w(i) / W, la misma garantía que el método del mayor resto, pero en una sola pasada
+ * y sin ordenar restos.
+ */
+public final class CentsAllocation {
+
+    private CentsAllocation() {
+    }
+
+    /**
+     * Reparte amountCents a partes iguales entre n participantes.
+     * Los céntimos sobrantes quedan repartidos a lo largo de la lista, no acumulados al principio.
+     */
+    public static void allocateEqual(long amountCents, int n, long[] out) {
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            long cumulative = Math.multiplyExact(amountCents, (long) (i + 1)) / n;
+            out[i] = cumulative - previous;
+            previous = cumulative;
+        }
+    }
+
+    /**
+     * Reparte amountCents de forma proporcional a los pesos.
+     * Puede usarse in situ (weights == out).
+     *
+     * @param amountCents Monto total en céntimos
+     * @param weights Pesos no negativos (al menos uno positivo)
+     * @param n Número de participantes
+     * @param out Reparto resultante
+     */
+    public static void allocateWeighted(long amountCents, long[] weights, int n, long[] out) {
+        long totalWeight = 0;
+        for (int i = 0; i < n; i++) {
+            totalWeight = Math.addExact(totalWeight, weights[i]);
+        }
+        if (totalWeight <= 0) {
+            throw new ValidationException("La suma de las partes debe ser mayor a 0");
+        }
+
+        long cumulativeWeight = 0;
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            cumulativeWeight += weights[i];
+            long cumulative = Math.multiplyExact(amountCents, cumulativeWeight) / totalWeight;
+            out[i] = cumulative - previous;
+            previous = cumulative;
+        }
+    }
+
+    /**
+     * Convierte un monto a céntimos.
+     *
+     * @throws ValidationException si tiene más de 2 decimales
+     */
+    public static long toCents(BigDecimal amount) {
+        try {
+            return amount.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ValidationException("El monto no puede tener más de 2 decimales");
+        }
+    }
+
+    /**
+     * Obtiene el valor indicado para cada participante en splitAmounts.
+     *
+     * @throws ValidationException si falta algún participante o sobra alguna entrada
+     */
+    static BigDecimal requireValue(Map<Long, BigDecimal> splitAmounts, Long participantId) {
+        BigDecimal value = splitAmounts != null ? splitAmounts.get(participantId) : null;
+        if (value == null) {
+            throw new ValidationException("Falta el valor de la división para el participante " + participantId);
+        }
+        if (value.signum() <= 0) {
+            throw new ValidationException("El valor de la división debe ser mayor a 0 (participante " + participantId + ")");
+        }
+        return value;
+    }
+
+    /**
+     * Comprueba que splitAmounts no contiene usuarios que no participan en el gasto.
+     */
+    static void requireNoExtraValues(Map<Long, BigDecimal> splitAmounts, List<Long> participantIds) {
+        if (splitAmounts != null && splitAmounts.size() != participantIds.size()) {
+            throw new ValidationException("Hay valores de división para usuarios que no participan en el gasto");
+        }
+    }
+}
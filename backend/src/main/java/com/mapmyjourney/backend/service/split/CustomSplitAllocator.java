@@ -0,0 +1,50 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * División personalizada por partes: splitAmounts contiene las partes de cada participante
+ * (hasta 2 decimales). Ej: {1: 2, 2: 1, 3: 1} reparte 100€ en 50€ + 25€ + 25€.
+ */
+@Component
+public class CustomSplitAllocator implements SplitAllocator {
+
+    /**
+     * Límite de la suma de partes (en centésimas) para que monto x partes no desborde un long.
+     */
+    private static final long MAX_TOTAL_WEIGHT = 100_000_000L;
+
+    @Override
+    public ExpenseSplitType getType() {
+        return ExpenseSplitType.CUSTOM;
+    }
+
+    @Override
+    public void allocate(long amountCents, List<Long> participantIds, Map<Long, BigDecimal> splitAmounts, long[] out) {
+        CentsAllocation.requireNoExtraValues(splitAmounts, participantIds);
+
+        int n = participantIds.size();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            BigDecimal share = CentsAllocation.requireValue(splitAmounts, participantIds.get(i));
+            try {
+                out[i] = share.movePointRight(2).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new ValidationException("Las partes no pueden tener más de 2 decimales");
+            }
+            total += out[i];
+            if (total > MAX_TOTAL_WEIGHT) {
+                throw new ValidationException("La suma de las partes es demasiado grande");
+            }
+        }
+
+        // Las partes (en centésimas) se sustituyen in situ por los céntimos
+        CentsAllocation.allocateWeighted(amountCents, out, n, out);
+    }
+}
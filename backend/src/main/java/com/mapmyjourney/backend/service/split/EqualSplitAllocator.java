@@ -0,0 +1,26 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * División equitativa: 100€ entre 3 personas = 33,34€ + 33,33€ + 33,33€.
+ * Ignora splitAmounts.
+ */
+@Component
+public class EqualSplitAllocator implements SplitAllocator {
+
+    @Override
+    public ExpenseSplitType getType() {
+        return ExpenseSplitType.EQUAL;
+    }
+
+    @Override
+    public void allocate(long amountCents, List<Long> participantIds, Map<Long, BigDecimal> splitAmounts, long[] out) {
+        CentsAllocation.allocateEqual(amountCents, participantIds.size(), out);
+    }
+}
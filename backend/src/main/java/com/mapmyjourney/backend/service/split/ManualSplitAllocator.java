@@ -0,0 +1,37 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * División manual: splitAmounts contiene el monto exacto de cada participante
+ * y deben sumar exactamente el monto del gasto. No hay redondeo.
+ */
+@Component
+public class ManualSplitAllocator implements SplitAllocator {
+
+    @Override
+    public ExpenseSplitType getType() {
+        return ExpenseSplitType.MANUAL;
+    }
+
+    @Override
+    public void allocate(long amountCents, List<Long> participantIds, Map<Long, BigDecimal> splitAmounts, long[] out) {
+        CentsAllocation.requireNoExtraValues(splitAmounts, participantIds);
+
+        long total = 0;
+        for (int i = 0; i < participantIds.size(); i++) {
+            out[i] = CentsAllocation.toCents(CentsAllocation.requireValue(splitAmounts, participantIds.get(i)));
+            total += out[i];
+        }
+        if (total != amountCents) {
+            throw new ValidationException("La suma de las divisiones (" + BigDecimal.valueOf(total, 2)
+                    + ") debe coincidir con el monto del gasto (" + BigDecimal.valueOf(amountCents, 2) + ")");
+        }
+    }
+}
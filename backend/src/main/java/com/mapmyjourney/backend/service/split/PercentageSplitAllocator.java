@@ -0,0 +1,50 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * División por porcentaje: splitAmounts contiene el porcentaje de cada participante
+ * (hasta 2 decimales) y deben sumar exactamente 100.
+ */
+@Component
+public class PercentageSplitAllocator implements SplitAllocator {
+
+    /**
+     * 100% expresado en centésimas de punto.
+     */
+    private static final long FULL = 10_000;
+
+    @Override
+    public ExpenseSplitType getType() {
+        return ExpenseSplitType.PERCENTAGE;
+    }
+
+    @Override
+    public void allocate(long amountCents, List<Long> participantIds, Map<Long, BigDecimal> splitAmounts, long[] out) {
+        CentsAllocation.requireNoExtraValues(splitAmounts, participantIds);
+
+        int n = participantIds.size();
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            BigDecimal percentage = CentsAllocation.requireValue(splitAmounts, participantIds.get(i));
+            try {
+                out[i] = percentage.movePointRight(2).longValueExact();
+            } catch (ArithmeticException e) {
+                throw new ValidationException("Los porcentajes no pueden tener más de 2 decimales");
+            }
+            total += out[i];
+        }
+        if (total != FULL) {
+            throw new ValidationException("Los porcentajes deben sumar 100");
+        }
+
+        // Los pesos (centésimas de punto) se sustituyen in situ por los céntimos
+        CentsAllocation.allocateWeighted(amountCents, out, n, out);
+    }
+}
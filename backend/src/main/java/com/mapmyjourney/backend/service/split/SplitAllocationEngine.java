@@ -0,0 +1,77 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motor de reparto de gastos: elige la estrategia según el tipo de división
+ * y garantiza que la suma de las divisiones es exactamente el monto del gasto.
+ */
+@Component
+public class SplitAllocationEngine {
+
+    private final Map<ExpenseSplitType, SplitAllocator> allocators = new EnumMap<>(ExpenseSplitType.class);
+
+    public SplitAllocationEngine(List<SplitAllocator> allocators) {
+        for (SplitAllocator allocator : allocators) {
+            if (this.allocators.put(allocator.getType(), allocator) != null) {
+                throw new IllegalStateException("Hay dos estrategias de reparto para " + allocator.getType());
+            }
+        }
+    }
+
+    /**
+     * Indica si hay una estrategia registrada para el tipo de división.
+     */
+    public boolean supports(ExpenseSplitType type) {
+        return type != null && allocators.containsKey(type);
+    }
+
+    /**
+     * Reparte un monto entre los participantes.
+     *
+     * @param type Tipo de división
+     * @param amount Monto del gasto (hasta 2 decimales)
+     * @param participantIds IDs de los participantes, sin repetir
+     * @param splitAmounts Datos de la división por participante (según el tipo)
+     * @return Céntimos de cada participante, en el orden de participantIds
+     * @throws ValidationException si el tipo no está soportado, los datos no son válidos
+     *         o a algún participante le correspondería 0
+     */
+    public long[] allocate(ExpenseSplitType type, BigDecimal amount, List<Long> participantIds,
+                           Map<Long, BigDecimal> splitAmounts) {
+        long[] cents = new long[participantIds.size()];
+        allocate(type, amount, participantIds, splitAmounts, cents);
+        return cents;
+    }
+
+    /**
+     * Variante que escribe el reparto en un array proporcionado por quien llama.
+     */
+    public void allocate(ExpenseSplitType type, BigDecimal amount, List<Long> participantIds,
+                         Map<Long, BigDecimal> splitAmounts, long[] out) {
+        SplitAllocator allocator = type != null ? allocators.get(type) : null;
+        if (allocator == null) {
+            throw new ValidationException("Tipo de división no soportado: " + type);
+        }
+        if (participantIds.isEmpty()) {
+            throw new ValidationException("Debe haber al menos un participante");
+        }
+
+        long amountCents = CentsAllocation.toCents(amount);
+        allocator.allocate(amountCents, participantIds, splitAmounts, out);
+
+        for (int i = 0; i < participantIds.size(); i++) {
+            if (out[i] <= 0) {
+                throw new ValidationException("El monto es demasiado pequeño para repartirlo: al participante "
+                        + participantIds.get(i) + " le correspondería 0");
+            }
+        }
+    }
+}
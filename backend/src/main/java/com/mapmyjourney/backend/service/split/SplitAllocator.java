@@ -0,0 +1,32 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estrategia de reparto de un gasto para un tipo de división.
+ * Cada implementación es un bean de Spring; {@link SplitAllocationEngine}
+ * las registra por su tipo, de modo que un tipo nuevo solo requiere un bean nuevo.
+ */
+public interface SplitAllocator {
+
+    /**
+     * Tipo de división que resuelve esta estrategia.
+     */
+    ExpenseSplitType getType();
+
+    /**
+     * Reparte el monto entre los participantes, en céntimos.
+     * Al volver, out[i] contiene los céntimos del participante i y la suma de out es amountCents.
+     *
+     * @param amountCents Monto total en céntimos
+     * @param participantIds IDs de los participantes, sin repetir
+     * @param splitAmounts Datos de la división por participante (porcentaje, monto o parte, según el tipo)
+     * @param out Array de al menos participantIds.size() posiciones donde se escribe el reparto
+     * @throws com.mapmyjourney.backend.exception.ValidationException si los datos no son válidos para el tipo
+     */
+    void allocate(long amountCents, List<Long> participantIds, Map<Long, BigDecimal> splitAmounts, long[] out);
+}
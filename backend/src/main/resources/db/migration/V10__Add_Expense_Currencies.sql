@@ -0,0 +1,13 @@
+-- Gastos en varias monedas: cada viaje tiene una moneda base y cada gasto guarda
+-- su moneda, el tipo de cambio aplicado y el monto convertido a la moneda base del viaje
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS base_currency VARCHAR(3) DEFAULT 'EUR' NOT NULL;
+
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS currency VARCHAR(3) DEFAULT 'EUR' NOT NULL;
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS fx_rate DECIMAL(18,10) DEFAULT 1 NOT NULL;
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS base_amount DECIMAL(12,2);
+ALTER TABLE expense_splits ADD COLUMN IF NOT EXISTS base_amount DECIMAL(12,2);
+
+-- Los gastos existentes ya estaban en la moneda base
+UPDATE expenses SET base_amount = amount WHERE base_amount IS NULL;
+UPDATE expense_splits SET base_amount = amount WHERE base_amount IS NULL;
@@ -0,0 +1,5 @@
+-- Recibos guardados por el propio backend: hash SHA-256 del contenido (nombre del fichero
+-- en el almacén) y tipo de contenido detectado al subirlo
+
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS receipt_hash VARCHAR(64);
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS receipt_content_type VARCHAR(100);
@@ -0,0 +1,8 @@
+-- Borrado lógico de viajes y usuarios: se marcan con deleted_at al eliminarlos y un proceso
+-- en segundo plano borra después sus datos por tramos
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_trips_deleted_at ON trips(deleted_at);
+CREATE INDEX IF NOT EXISTS idx_users_deleted_at ON users(deleted_at);
@@ -0,0 +1,27 @@
+-- Libro de saldos por viaje: una fila por (viaje, miembro)
+-- Saldo = divisiones pendientes que le deben - divisiones pendientes que debe
+
+CREATE SEQUENCE IF NOT EXISTS trip_balances_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS trip_balances (
+    id BIGINT PRIMARY KEY DEFAULT nextval('trip_balances_id_seq'),
+    trip_id BIGINT NOT NULL REFERENCES trips(id) ON DELETE CASCADE,
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    balance DECIMAL(12,2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    CONSTRAINT uk_trip_balance_member UNIQUE (trip_id, user_id)
+);
+
+-- Carga inicial a partir de las divisiones pendientes existentes
+INSERT INTO trip_balances (trip_id, user_id, balance)
+SELECT movements.trip_id, movements.user_id, SUM(movements.amount)
+FROM (
+    SELECT e.trip_id, e.paid_by_user_id AS user_id, s.amount
+    FROM expense_splits s JOIN expenses e ON e.id = s.expense_id
+    WHERE s.paid = FALSE AND s.participant_user_id <> e.paid_by_user_id
+    UNION ALL
+    SELECT e.trip_id, s.participant_user_id AS user_id, -s.amount
+    FROM expense_splits s JOIN expenses e ON e.id = s.expense_id
+    WHERE s.paid = FALSE AND s.participant_user_id <> e.paid_by_user_id
+) movements
+GROUP BY movements.trip_id, movements.user_id;
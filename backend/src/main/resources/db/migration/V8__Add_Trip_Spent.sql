@@ -0,0 +1,7 @@
+-- Total gastado por viaje, mantenido con UPDATE trips SET spent = spent + delta
+-- en las mismas transacciones que crean, modifican o eliminan gastos
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS spent DECIMAL(12,2) DEFAULT 0 NOT NULL;
+
+-- Carga inicial a partir de los gastos existentes
+UPDATE trips SET spent = COALESCE((SELECT SUM(e.amount) FROM expenses e WHERE e.trip_id = trips.id), 0);
@@ -0,0 +1,4 @@
+-- Versión de los gastos de cada viaje: aumenta con cada cambio en sus gastos o divisiones
+-- y permite reutilizar resultados calculados (estadísticas) mientras no cambie
+
+ALTER TABLE trips ADD COLUMN IF NOT EXISTS expense_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,88 @@
+package com.mapmyjourney.backend.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para LruCache
+ */
+public class LruCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedEntry() {
+        // Arrange
+        LruCache<Long, String> cache = new LruCache<>(2);
+        cache.put(1L, "uno");
+        cache.put(2L, "dos");
+
+        // Act: al leer la 1 pasa a ser la más reciente, así que se expulsa la 2
+        cache.get(1L);
+        cache.put(3L, "tres");
+
+        // Assert
+        assertEquals(2, cache.size());
+        assertEquals("uno", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals("tres", cache.get(3L));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        // Arrange
+        MutableClock clock = new MutableClock();
+        LruCache<Long, String> cache = new LruCache<>(10, Duration.ofSeconds(30), clock);
+        cache.put(1L, "uno");
+
+        // Act & Assert
+        clock.advance(Duration.ofSeconds(29));
+        assertEquals("uno", cache.get(1L));
+        clock.advance(Duration.ofSeconds(1));
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testComputeIfAbsentLoadsOnce() {
+        // Arrange
+        LruCache<Long, String> cache = new LruCache<>(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.computeIfAbsent(1L, key -> "valor-" + loads.incrementAndGet());
+        String value = cache.computeIfAbsent(1L, key -> "valor-" + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("valor-1", value);
+        assertEquals(1, loads.get());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.mapmyjourney.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mapmyjourney.backend.config.GlobalExceptionHandler;
+import com.mapmyjourney.backend.dto.ExpenseBatchItemResultDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchRequestDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchResponseDTO;
+import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.service.ExpenseCsvService;
+import com.mapmyjourney.backend.service.ExpenseService;
+import com.mapmyjourney.backend.service.ExpenseStatsService;
+import com.mapmyjourney.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests del controlador de gastos con MockMvc (sin contexto de Spring).
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseControllerTest {
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private ExpenseStatsService expenseStatsService;
+
+    @Mock
+    private ExpenseCsvService expenseCsvService;
+
+    @Mock
+    private UserService userService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseController controller = new ExpenseController(expenseService, expenseStatsService,
+                expenseCsvService, userService, new ObjectMapper().findAndRegisterModules());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ana@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBatchWithInvalidItemReachesServiceAndReturnsMultiStatus() throws Exception {
+        // Arrange
+        when(userService.getUserIdByEmail("ana@example.com")).thenReturn(1L);
+        ExpenseDTO created = new ExpenseDTO();
+        created.setId(10L);
+        ExpenseBatchResponseDTO response = ExpenseBatchResponseDTO.builder()
+                .created(1)
+                .failed(1)
+                .atomic(false)
+                .results(List.of(
+                        ExpenseBatchItemResultDTO.builder().index(0).created(true).expense(created).build(),
+                        ExpenseBatchItemResultDTO.builder().index(1).created(false)
+                                .error("El monto debe ser mayor a 0").build()))
+                .build();
+        when(expenseService.createExpenses(eq(1L), any(ExpenseBatchRequestDTO.class), eq(1L))).thenReturn(response);
+
+        // El segundo gasto tiene monto 0, descripción vacía y no tiene fecha
+        String body = "{\"atomic\": false, \"expenses\": ["
+                + "{\"description\": \"Cena\", \"amount\": 60.00, \"expenseDate\": \"2024-07-02\","
+                + " \"splitType\": \"EQUAL\", \"participantUserIds\": [1, 2]},"
+                + "{\"description\": \"\", \"amount\": 0, \"splitType\": \"EQUAL\", \"participantUserIds\": [1]}"
+                + "]}";
+
+        // Act & Assert
+        mockMvc.perform(post("/trips/1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].expense.id").value(10))
+                .andExpect(jsonPath("$.results[1].error").value("El monto debe ser mayor a 0"));
+        verify(expenseService).createExpenses(eq(1L),
+                argThat(request -> request.getExpenses().size() == 2), eq(1L));
+    }
+
+    @Test
+    void testEmptyBatchIsRejected() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/trips/1/expenses/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"expenses\": []}"))
+                .andExpect(status().isBadRequest());
+        verify(expenseService, never()).createExpenses(anyLong(), any(), anyLong());
+    }
+}
@@ -0,0 +1,170 @@
+package com.mapmyjourney.backend.controller;
+
+import com.mapmyjourney.backend.config.GlobalExceptionHandler;
+import com.mapmyjourney.backend.service.ExpenseReceiptService;
+import com.mapmyjourney.backend.service.UserService;
+import com.mapmyjourney.backend.service.receipt.ReceiptStore;
+import com.mapmyjourney.backend.service.receipt.StoredReceipt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests del controlador de recibos con MockMvc (sin contexto de Spring): ETag, Range y 416.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseReceiptControllerTest {
+
+    private static final String PDF = "%PDF-1.4\nrecibo de prueba\n%%EOF";
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ExpenseReceiptService expenseReceiptService;
+
+    @Mock
+    private UserService userService;
+
+    private MockMvc mockMvc;
+    private StoredReceipt receipt;
+    private String etag;
+
+    @BeforeEach
+    void setUp() {
+        ReceiptStore receiptStore = new ReceiptStore(dir.toString(), 1024);
+        receipt = receiptStore.store(new ByteArrayInputStream(PDF.getBytes(StandardCharsets.US_ASCII)));
+        etag = "\"" + receipt.getHash() + "\"";
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new ExpenseReceiptController(expenseReceiptService, userService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("ana@example.com", null, List.of()));
+        when(userService.getUserIdByEmail("ana@example.com")).thenReturn(1L);
+        when(expenseReceiptService.getReceipt(5L, 1L)).thenReturn(receipt);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testDownloadReturnsWholeFileWithETag() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/expenses/5/receipt"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, PDF.length()))
+                .andExpect(content().contentType("application/pdf"))
+                .andExpect(content().string(PDF));
+    }
+
+    @Test
+    void testDownloadWithMatchingETagReturnsNotModified() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testDownloadWithOtherETagReturnsFile() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.IF_NONE_MATCH, "\"otro\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(PDF));
+    }
+
+    @Test
+    void testDownloadRangeReturnsPartialContent() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.RANGE, "bytes=1-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/" + PDF.length()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+                .andExpect(content().string("PDF"));
+    }
+
+    @Test
+    void testDownloadSuffixRangeReturnsLastBytes() throws Exception {
+        // Act
+        MvcResult result = mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.RANGE, "bytes=-5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        int length = PDF.length();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes " + (length - 5) + "-" + (length - 1) + "/" + length))
+                .andExpect(content().string("%%EOF"));
+    }
+
+    @Test
+    void testDownloadRangeStartingPastEndReturnsRangeNotSatisfiable() throws Exception {
+        // Act & Assert: HttpRange acepta bytes=500- aunque el recibo sea más corto
+        mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.RANGE, "bytes=500-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PDF.length()));
+    }
+
+    @Test
+    void testDownloadRangeStartingAtLengthReturnsRangeNotSatisfiable() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.RANGE, "bytes=" + PDF.length() + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PDF.length()));
+    }
+
+    @Test
+    void testDownloadMalformedRangeReturnsRangeNotSatisfiable() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/expenses/5/receipt").header(HttpHeaders.RANGE, "bytes=9-2"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + PDF.length()));
+        verify(expenseReceiptService).getReceipt(5L, 1L);
+    }
+}
@@ -0,0 +1,153 @@
+package com.mapmyjourney.backend.security;
+
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.service.TripIdResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TripAccessInterceptor
+ */
+@ExtendWith(MockitoExtension.class)
+public class TripAccessInterceptorTest {
+
+    @Mock
+    private TripAccessEvaluator tripAccessEvaluator;
+
+    @Mock
+    private TripIdResolver tripIdResolver;
+
+    private TripAccessInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new TripAccessInterceptor(tripAccessEvaluator, tripIdResolver);
+    }
+
+    @TripAccess
+    static class SampleController {
+        public void read() {
+        }
+
+        @TripAccess(role = TripMemberRole.EDITOR)
+        public void write() {
+        }
+    }
+
+    static class PublicController {
+        public void open() {
+        }
+    }
+
+    private static HandlerMethod handler(Object bean, String method) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(method));
+    }
+
+    private static MockHttpServletRequest request(Map<String, String> variables) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, variables);
+        return request;
+    }
+
+    @Test
+    void testMethodAnnotationOverridesClassRole() throws Exception {
+        // Arrange
+        when(tripAccessEvaluator.hasPermission(1L, TripMemberRole.EDITOR)).thenReturn(true);
+
+        // Act
+        boolean proceed = interceptor.preHandle(request(Map.of("tripId", "1")), new MockHttpServletResponse(),
+                handler(new SampleController(), "write"));
+
+        // Assert
+        assertTrue(proceed);
+        verify(tripAccessEvaluator).hasPermission(1L, TripMemberRole.EDITOR);
+    }
+
+    @Test
+    void testResolvesTripFromExpenseAndRejectsNonMember() throws Exception {
+        // Arrange
+        when(tripIdResolver.getTripIdForExpense(7L)).thenReturn(3L);
+        when(tripAccessEvaluator.hasPermission(3L, TripMemberRole.VIEWER)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () ->
+                interceptor.preHandle(request(Map.of("expenseId", "7")), new MockHttpServletResponse(),
+                        handler(new SampleController(), "read")));
+    }
+
+    @Test
+    void testUnknownExpenseIsNotFound() throws Exception {
+        // Arrange
+        when(tripIdResolver.getTripIdForExpense(99L)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                interceptor.preHandle(request(Map.of("expenseId", "99")), new MockHttpServletResponse(),
+                        handler(new SampleController(), "read")));
+        verifyNoInteractions(tripAccessEvaluator);
+    }
+
+    @Test
+    void testExpenseFromAnotherTripIsNotFound() throws Exception {
+        // Arrange: el gasto 7 es del viaje 3, pero la ruta usa el viaje 1 del usuario
+        when(tripIdResolver.getTripIdForExpense(7L)).thenReturn(3L);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                interceptor.preHandle(request(Map.of("tripId", "1", "expenseId", "7")), new MockHttpServletResponse(),
+                        handler(new SampleController(), "read")));
+        verifyNoInteractions(tripAccessEvaluator);
+    }
+
+    @Test
+    void testSplitFromAnotherExpenseIsNotFound() throws Exception {
+        // Arrange: la división 5 es del gasto 8, pero la ruta usa el gasto 7
+        when(tripIdResolver.getExpenseIdForSplit(5L)).thenReturn(8L);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                interceptor.preHandle(request(Map.of("expenseId", "7", "splitId", "5")), new MockHttpServletResponse(),
+                        handler(new SampleController(), "read")));
+        verifyNoInteractions(tripAccessEvaluator);
+    }
+
+    @Test
+    void testSplitOfExpenseChecksTripOfExpense() throws Exception {
+        // Arrange
+        when(tripIdResolver.getExpenseIdForSplit(5L)).thenReturn(7L);
+        when(tripIdResolver.getTripIdForExpense(7L)).thenReturn(3L);
+        when(tripAccessEvaluator.hasPermission(3L, TripMemberRole.EDITOR)).thenReturn(true);
+
+        // Act
+        boolean proceed = interceptor.preHandle(request(Map.of("expenseId", "7", "splitId", "5")),
+                new MockHttpServletResponse(), handler(new SampleController(), "write"));
+
+        // Assert
+        assertTrue(proceed);
+    }
+
+    @Test
+    void testHandlersWithoutAnnotationAreNotChecked() throws Exception {
+        // Act
+        boolean proceed = interceptor.preHandle(request(Map.of("tripId", "1")), new MockHttpServletResponse(),
+                handler(new PublicController(), "open"));
+
+        // Assert
+        assertTrue(proceed);
+        verifyNoInteractions(tripAccessEvaluator, tripIdResolver);
+    }
+}
@@ -0,0 +1,248 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseImportResultDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
+import com.mapmyjourney.backend.repository.ExpenseStreamRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.fx.FxRateTable;
+import com.mapmyjourney.backend.service.split.CustomSplitAllocator;
+import com.mapmyjourney.backend.service.split.EqualSplitAllocator;
+import com.mapmyjourney.backend.service.split.ManualSplitAllocator;
+import com.mapmyjourney.backend.service.split.PercentageSplitAllocator;
+import com.mapmyjourney.backend.service.split.SplitAllocationEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ExpenseCsvService
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseCsvServiceTest {
+
+    @Mock
+    private ExpenseStreamRepository expenseStreamRepository;
+
+    @Mock
+    private ExpenseBatchRepository expenseBatchRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
+    @Spy
+    private TripBalanceService tripBalanceService = new TripBalanceService(null, null, null, null);
+
+    @Mock
+    private TripBudgetService tripBudgetService;
+
+    @Spy
+    private ExpenseValidator expenseValidator = new ExpenseValidator();
+
+    @Spy
+    private SplitAllocationEngine splitAllocationEngine = new SplitAllocationEngine(List.of(
+            new EqualSplitAllocator(), new PercentageSplitAllocator(),
+            new ManualSplitAllocator(), new CustomSplitAllocator()));
+
+    @Spy
+    private FxRateService fxRateService = new FxRateService(FxRateTable.empty());
+
+    @InjectMocks
+    private ExpenseCsvService expenseCsvService;
+
+    private Trip testTrip;
+
+    @BeforeEach
+    void setUp() {
+        testTrip = new Trip();
+        testTrip.setId(1L);
+        testTrip.setTitle("Viaje a Lisboa");
+        testTrip.setStartDate(LocalDate.of(2025, 7, 1));
+        testTrip.setEndDate(LocalDate.of(2025, 7, 10));
+    }
+
+    private User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Usuario " + id);
+        user.setEmail(email);
+        return user;
+    }
+
+    private InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportTripExpensesWritesHeaderAndRows() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<String[]> consumer = invocation.getArgument(1);
+            consumer.accept(new String[] {"1", "2025-07-01", "Cena", "30.00", "EQUAL"});
+            consumer.accept(new String[] {"2", "2025-07-02", "Taxi", "12.50", "EQUAL"});
+            return null;
+        }).when(expenseStreamRepository).streamFlatRows(eq(1L), any(Consumer.class));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        expenseCsvService.exportTripExpenses(1L, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, lines.length);
+        assertEquals(ExpenseCsvService.BOM + String.join(",", ExpenseStreamRepository.FLAT_COLUMNS), lines[0]);
+        assertEquals("1,2025-07-01,Cena,30.00,EQUAL", lines[1]);
+        assertEquals("2,2025-07-02,Taxi,12.50,EQUAL", lines[2]);
+    }
+
+    @Test
+    void testWriteRowQuotesAndEscapesFields() throws Exception {
+        // Arrange
+        StringWriter writer = new StringWriter();
+
+        // Act
+        ExpenseCsvService.writeRow(writer, new String[] {"Cena, vino", "Bar \"El Puerto\"", "línea\nnueva", null, ""});
+
+        // Assert
+        assertEquals("\"Cena, vino\",\"Bar \"\"El Puerto\"\"\",\"línea\nnueva\",,\r\n", writer.toString());
+    }
+
+    @Test
+    void testWriteRowNeutralizesFormulas() throws Exception {
+        // Arrange
+        StringWriter writer = new StringWriter();
+
+        // Act
+        ExpenseCsvService.writeRow(writer, new String[] {"=HYPERLINK(\"x\")", "@SUM(A1)", "-12.50"});
+
+        // Assert: los números negativos no se tocan
+        assertEquals("\"'=HYPERLINK(\"\"x\"\")\",'@SUM(A1),-12.50\r\n", writer.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportTripExpensesInsertsValidRowsInChunks() throws Exception {
+        // Arrange: bloques de 2 registros; el segundo registro ocupa dos líneas del fichero
+        ReflectionTestUtils.setField(expenseCsvService, "importBatchSize", 2);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(
+                user(1L, "ana@example.com"), user(2L, "luis@example.com")));
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+        String content = ExpenseCsvService.BOM + "date,description,amount,paid_by,participants,split_type,split_amounts\r\n"
+                + "2025-07-01,Taxi,20.00,,ana@example.com;luis@example.com,,\r\n"
+                + "2025-07-02,\"Cena, con vino\nen el puerto\",30.00,LUIS@example.com,ana@example.com;luis@example.com,MANUAL,10;20\r\n"
+                + "2025-07-03,Museo,15.00,,ana@example.com;marta@example.com,,\r\n"
+                + "\r\n"
+                + "2025-07-04,Hotel,100.00,,ana@example.com,,\r\n";
+
+        // Act
+        ExpenseImportResultDTO result = expenseCsvService.importTripExpenses(1L, csv(content), 1L);
+
+        // Assert
+        assertEquals(4, result.getRows());
+        assertEquals(3, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(5, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getError().contains("marta@example.com"));
+
+        ArgumentCaptor<List<Expense>> expenses = ArgumentCaptor.forClass(List.class);
+        verify(expenseBatchRepository, times(2)).batchInsertExpenses(expenses.capture());
+        assertEquals(2, expenses.getAllValues().get(0).size());
+        assertEquals(1, expenses.getAllValues().get(1).size());
+        Expense dinner = expenses.getAllValues().get(0).get(1);
+        assertEquals("Cena, con vino\nen el puerto", dinner.getDescription());
+        assertEquals(2L, dinner.getPaidBy().getId());
+        verify(expenseBatchRepository, times(2)).batchInsertSplits(anyList());
+        verify(tripBalanceService, times(1)).applyDeltas(eq(1L), anyMap());
+        verify(tripBudgetService).addSpent(1L, new BigDecimal("150.00"));
+    }
+
+    @Test
+    void testImportTripExpensesReportsInvalidValuesPerLine() throws Exception {
+        // Arrange
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(user(1L, "ana@example.com")));
+        String content = "description,amount,date,participants\n"
+                + "Taxi,abc,2025-07-01,ana@example.com\n"
+                + "Taxi,10.00,01/07/2025,ana@example.com\n"
+                + "Taxi,10.00,2025-08-01,ana@example.com\n";
+
+        // Act
+        ExpenseImportResultDTO result = expenseCsvService.importTripExpenses(1L, csv(content), 1L);
+
+        // Assert: nada que insertar ni que aplicar al libro de saldos
+        assertEquals(0, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(2L, 3L, 4L), result.getErrors().stream().map(e -> e.getLine()).toList());
+        verify(expenseBatchRepository, never()).batchInsertExpenses(anyList());
+        verifyNoInteractions(tripBudgetService);
+    }
+
+    @Test
+    void testImportTripExpensesRejectsMissingColumns() {
+        // Arrange
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(user(1L, "ana@example.com")));
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> expenseCsvService.importTripExpenses(1L, csv("date,description\n2025-07-01,Taxi\n"), 1L));
+        assertTrue(exception.getMessage().contains("amount"));
+    }
+
+    @Test
+    void testImportTripExpensesRejectsUnclosedQuotes() {
+        // Arrange
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(user(1L, "ana@example.com")));
+        String content = "date,description,amount,participants\n2025-07-01,\"Taxi,10.00,ana@example.com\n";
+
+        // Act & Assert
+        assertThrows(ValidationException.class,
+                () -> expenseCsvService.importTripExpenses(1L, csv(content), 1L));
+    }
+
+    @Test
+    void testImportTripExpensesNonMemberDenied() {
+        // Arrange
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(user(1L, "ana@example.com")));
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class,
+                () -> expenseCsvService.importTripExpenses(1L, csv("date\n"), 99L));
+        verifyNoInteractions(expenseBatchRepository);
+    }
+}
@@ -0,0 +1,196 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.dto.ExpensePageDTO;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
+import com.mapmyjourney.backend.repository.ExpenseStreamRepository;
+import com.mapmyjourney.backend.repository.TripBalanceLedgerRepository;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.split.CustomSplitAllocator;
+import com.mapmyjourney.backend.service.split.EqualSplitAllocator;
+import com.mapmyjourney.backend.service.split.ManualSplitAllocator;
+import com.mapmyjourney.backend.service.split.PercentageSplitAllocator;
+import com.mapmyjourney.backend.service.split.SplitAllocationEngine;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de regresión del número de consultas al listar los gastos de un viaje.
+ * Usa las estadísticas de Hibernate sobre una base H2 en memoria.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({ExpenseService.class, ExpenseCsvService.class, ExpenseValidator.class, TripBalanceService.class, TripBudgetService.class,
+        ExpenseBatchRepository.class, ExpenseStreamRepository.class, TripBalanceLedgerRepository.class, SqlDialectSupport.class,
+        SplitAllocationEngine.class, EqualSplitAllocator.class, PercentageSplitAllocator.class,
+        ManualSplitAllocator.class, CustomSplitAllocator.class, FxRateService.class, UserBalanceService.class})
+public class ExpenseServiceQueryCountTest {
+
+    private static final int EXPENSES = 100;
+    private static final int PARTICIPANTS = 5;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseCsvService expenseCsvService;
+
+    private Long tripId;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < PARTICIPANTS; i++) {
+            User user = new User();
+            user.setName("Usuario " + i);
+            user.setEmail("usuario" + i + "@example.com");
+            user.setPasswordHash("hash");
+            users.add(entityManager.persist(user));
+        }
+
+        Trip trip = new Trip();
+        trip.setTitle("Viaje a Roma");
+        trip.setDestination("Roma");
+        trip.setTripCode("ROMA2024");
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        tripId = entityManager.persist(trip).getId();
+
+        for (int i = 0; i < EXPENSES; i++) {
+            Expense expense = new Expense();
+            expense.setTrip(trip);
+            expense.setPaidBy(users.get(i % PARTICIPANTS));
+            expense.setDescription("Gasto " + i);
+            expense.setAmount(new BigDecimal("50.00"));
+            expense.setExpenseDate(LocalDate.of(2024, 5, 1 + i % 10));
+            expense.setSplitType(ExpenseSplitType.EQUAL);
+            entityManager.persist(expense);
+
+            for (User user : users) {
+                ExpenseSplit split = new ExpenseSplit();
+                split.setExpense(expense);
+                split.setParticipant(user);
+                split.setAmount(new BigDecimal("10.00"));
+                entityManager.persist(split);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testGetTripExpensesUsesConstantNumberOfQueries() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        List<ExpenseDTO> expenses = expenseService.getTripExpenses(tripId);
+
+        // Assert
+        assertEquals(EXPENSES, expenses.size());
+        for (ExpenseDTO expense : expenses) {
+            assertNotNull(expense.getPaidBy().getName());
+            assertEquals(PARTICIPANTS, expense.getSplits().size());
+        }
+        assertEquals(1, statistics.getPrepareStatementCount(),
+                "Listar los gastos del viaje ha vuelto a lanzar consultas por gasto");
+    }
+
+    @Test
+    void testGetTripExpensesPageWalksWholeTripWithKeyset() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        // Act
+        do {
+            statistics.clear();
+            ExpensePageDTO page = expenseService.getTripExpensesPage(tripId, 30, cursor);
+            assertTrue(statistics.getPrepareStatementCount() <= 3,
+                    "Cada página debe resolverse con un número constante de consultas");
+            for (ExpenseDTO expense : page.getItems()) {
+                assertTrue(seen.add(expense.getId()), "Gasto repetido entre páginas: " + expense.getId());
+                assertEquals(PARTICIPANTS, expense.getSplits().size());
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(EXPENSES, seen.size());
+        assertEquals(4, pages);
+    }
+
+    @Test
+    void testStreamTripExpensesEmitsEveryExpenseOnce() {
+        // Arrange
+        List<ExpenseDTO> streamed = new ArrayList<>();
+
+        // Act
+        expenseService.streamTripExpenses(tripId, streamed::add);
+
+        // Assert
+        assertEquals(EXPENSES, streamed.size());
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < streamed.size(); i++) {
+            ExpenseDTO expense = streamed.get(i);
+            assertTrue(ids.add(expense.getId()));
+            assertEquals(PARTICIPANTS, expense.getSplits().size());
+            if (i > 0) {
+                assertFalse(expense.getExpenseDate().isAfter(streamed.get(i - 1).getExpenseDate()));
+            }
+        }
+    }
+
+    @Test
+    void testExportCsvWritesOneRowPerSplit() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        expenseCsvService.exportTripExpenses(tripId, out);
+
+        // Assert: cabecera más una fila por división
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1 + EXPENSES * PARTICIPANTS, lines.length);
+        assertTrue(lines[0].startsWith(ExpenseCsvService.BOM + "expense_id,expense_date,description"));
+        assertTrue(lines[1].contains(",50.00,EUR,50.00,EQUAL,"));
+    }
+}
@@ -1,25 +1,42 @@
 package com.mapmyjourney.backend.service;
 
+import com.mapmyjourney.backend.dto.ExpenseBatchRequestDTO;
+import com.mapmyjourney.backend.dto.ExpenseBatchResponseDTO;
 import com.mapmyjourney.backend.dto.ExpenseCreateRequestDTO;
 import com.mapmyjourney.backend.dto.ExpenseDTO;
+import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
 import com.mapmyjourney.backend.exception.ResourceNotFoundException;
 import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
 import com.mapmyjourney.backend.model.Trip;
 import com.mapmyjourney.backend.model.User;
 import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
 import com.mapmyjourney.backend.repository.ExpenseRepository;
 import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.TripRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.fx.FxRateTable;
+import com.mapmyjourney.backend.service.split.CustomSplitAllocator;
+import com.mapmyjourney.backend.service.split.EqualSplitAllocator;
+import com.mapmyjourney.backend.service.split.ManualSplitAllocator;
+import com.mapmyjourney.backend.service.split.PercentageSplitAllocator;
+import com.mapmyjourney.backend.service.split.SplitAllocationEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,12 +55,35 @@ public class ExpenseServiceTest {
     @Mock
     private ExpenseSplitRepository expenseSplitRepository;
 
+    @Mock
+    private ExpenseBatchRepository expenseBatchRepository;
+
     @Mock
     private TripRepository tripRepository;
 
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TripBalanceService tripBalanceService;
+
+    @Mock
+    private TripBudgetService tripBudgetService;
+
+    @Spy
+    private ExpenseValidator expenseValidator = new ExpenseValidator();
+
+    @Spy
+    private SplitAllocationEngine splitAllocationEngine = new SplitAllocationEngine(List.of(
+            new EqualSplitAllocator(), new PercentageSplitAllocator(),
+            new ManualSplitAllocator(), new CustomSplitAllocator()));
+
+    @Spy
+    private FxRateService fxRateService = new FxRateService(FxRateTable.empty());
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -120,6 +160,8 @@ public class ExpenseServiceTest {
 
         // Assert
         verify(expenseRepository, times(1)).delete(any(Expense.class));
+        verify(tripBalanceService, times(1)).applyExpense(eq(testExpense), any(), eq(-1));
+        verify(tripBudgetService, times(1)).addSpent(1L, new BigDecimal("-100.00"));
     }
 
     @Test
@@ -132,4 +174,151 @@ public class ExpenseServiceTest {
             expenseService.deleteExpense(999L, 1L);
         });
     }
+
+    /**
+     * Un gasto compartido por 40 personas carga todos los participantes con una consulta
+     * y escribe sus divisiones en un único lote de INSERTs.
+     */
+    @Test
+    void testCreateExpenseLoadsParticipantsOnceAndInsertsSplitsInOneBatch() {
+        // Arrange
+        List<Long> participantIds = new ArrayList<>();
+        List<User> participants = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            participantIds.add(id);
+            User participant = new User();
+            participant.setId(id);
+            participants.add(participant);
+        }
+        createRequest.setParticipantUserIds(participantIds);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(expenseRepository.saveAndFlush(any(Expense.class))).thenReturn(testExpense);
+        when(userRepository.findAllById(participantIds)).thenReturn(participants);
+        when(expenseBatchRepository.batchInsertSplits(anyList())).thenReturn(40);
+
+        // Act
+        ExpenseDTO result = expenseService.createExpense(1L, createRequest, 1L);
+
+        // Assert
+        verify(userRepository, times(1)).findAllById(participantIds);
+        verify(userRepository, times(1)).findById(anyLong());
+        verify(expenseSplitRepository, never()).save(any());
+        verify(expenseBatchRepository, times(1)).batchInsertSplits(argThat(splits -> splits.size() == 40));
+        // La respuesta incluye las divisiones recién creadas
+        assertEquals(40, result.getSplits().size());
+    }
+
+    @Test
+    void testCreateExpenseRejectsAllUnknownParticipantsAtOnce() {
+        // Arrange
+        createRequest.setParticipantUserIds(List.of(1L, 98L, 99L));
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.findAllById(List.of(1L, 98L, 99L))).thenReturn(List.of(testUser));
+
+        // Act & Assert
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class, () -> {
+            expenseService.createExpense(1L, createRequest, 1L);
+        });
+        assertTrue(ex.getMessage().contains("[98, 99]"));
+        verify(expenseRepository, never()).saveAndFlush(any());
+        verify(expenseBatchRepository, never()).batchInsertSplits(anyList());
+    }
+
+    @Test
+    void testCreateExpensesBatchSkipsInvalidItems() {
+        // Arrange
+        User member = new User();
+        member.setId(2L);
+        createRequest.setParticipantUserIds(List.of(1L, 2L));
+
+        ExpenseCreateRequestDTO invalidAmount = new ExpenseCreateRequestDTO(
+                "Taxi", BigDecimal.ZERO, LocalDate.of(2024, 7, 2), ExpenseSplitType.EQUAL, null, List.of(1L), null, null);
+        ExpenseCreateRequestDTO notMember = new ExpenseCreateRequestDTO(
+                "Museo", new BigDecimal("30.00"), LocalDate.of(2024, 7, 3), ExpenseSplitType.EQUAL, null, List.of(1L, 7L), null, null);
+
+        ExpenseBatchRequestDTO request = new ExpenseBatchRequestDTO(List.of(createRequest, invalidAmount, notMember), false);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(testUser, member));
+
+        // Act
+        ExpenseBatchResponseDTO response = expenseService.createExpenses(1L, request, 1L);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getFailed());
+        assertTrue(response.getResults().get(0).isCreated());
+        assertEquals("El monto debe ser mayor a 0", response.getResults().get(1).getError());
+        assertTrue(response.getResults().get(2).getError().contains("[7]"));
+        verify(expenseBatchRepository, times(1)).batchInsertExpenses(argThat(expenses -> expenses.size() == 1));
+        verify(expenseBatchRepository, times(1)).batchInsertSplits(argThat(splits -> splits.size() == 2));
+        verify(tripBalanceService, times(1)).applyDeltas(eq(1L), anyMap());
+        verify(tripBudgetService, times(1)).addSpent(1L, new BigDecimal("100.00"));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testCreateExpensesBatchReportsMissingDateAndReturnsSplitIds() {
+        // Arrange
+        createRequest.setParticipantUserIds(List.of(1L));
+        ExpenseCreateRequestDTO noDate = new ExpenseCreateRequestDTO(
+                "Taxi", new BigDecimal("12.00"), null, ExpenseSplitType.EQUAL, null, List.of(1L), null, null);
+
+        ExpenseBatchRequestDTO request = new ExpenseBatchRequestDTO(List.of(createRequest, noDate), false);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(testUser));
+        when(expenseBatchRepository.batchInsertSplits(anyList())).thenAnswer(invocation -> {
+            List<ExpenseSplit> splits = invocation.getArgument(0);
+            for (int i = 0; i < splits.size(); i++) {
+                splits.get(i).setId(100L + i);
+            }
+            return splits.size();
+        });
+
+        // Act
+        ExpenseBatchResponseDTO response = expenseService.createExpenses(1L, request, 1L);
+
+        // Assert
+        assertEquals(1, response.getCreated());
+        assertEquals("La fecha del gasto es obligatoria", response.getResults().get(1).getError());
+        for (ExpenseSplitDTO split : response.getResults().get(0).getExpense().getSplits()) {
+            assertNotNull(split.getId());
+        }
+    }
+
+    @Test
+    void testCreateExpensesAtomicBatchWritesNothingOnError() {
+        // Arrange
+        createRequest.setParticipantUserIds(List.of(1L));
+        ExpenseCreateRequestDTO outOfTrip = new ExpenseCreateRequestDTO(
+                "Hotel", new BigDecimal("200.00"), LocalDate.of(2024, 8, 1), ExpenseSplitType.EQUAL, null, List.of(1L), null, null);
+
+        ExpenseBatchRequestDTO request = new ExpenseBatchRequestDTO(List.of(createRequest, outOfTrip), true);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(testUser));
+
+        // Act
+        ExpenseBatchResponseDTO response = expenseService.createExpenses(1L, request, 1L);
+
+        // Assert
+        assertEquals(0, response.getCreated());
+        assertEquals(2, response.getFailed());
+        assertFalse(response.getResults().get(0).isCreated());
+        assertNotNull(response.getResults().get(0).getError());
+        verifyNoInteractions(expenseBatchRepository, tripBalanceService);
+    }
+
+    @Test
+    void testCreateExpensesRejectsNonMemberCreator() {
+        // Arrange
+        ExpenseBatchRequestDTO request = new ExpenseBatchRequestDTO(List.of(createRequest), false);
+        when(tripRepository.findById(1L)).thenReturn(Optional.of(testTrip));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of());
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> {
+            expenseService.createExpenses(1L, request, 1L);
+        });
+    }
 }
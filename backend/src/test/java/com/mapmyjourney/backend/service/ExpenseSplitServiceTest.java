@@ -0,0 +1,404 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.CreateSplitRequestDTO;
+import com.mapmyjourney.backend.dto.CreditorDebtDTO;
+import com.mapmyjourney.backend.dto.DebtSummaryDTO;
+import com.mapmyjourney.backend.dto.ExpenseSplitDTO;
+import com.mapmyjourney.backend.dto.SettleResultDTO;
+import com.mapmyjourney.backend.exception.AccessDeniedException;
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.ExpenseBatchRepository;
+import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import com.mapmyjourney.backend.repository.UserRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import com.mapmyjourney.backend.service.fx.FxRateTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para las liquidaciones masivas y el reemplazo de divisiones de ExpenseSplitService
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseSplitServiceTest {
+
+    @Mock
+    private ExpenseSplitRepository expenseSplitRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
+    @Spy
+    private TripBalanceService tripBalanceService = new TripBalanceService(null, null, null, null);
+
+    @Mock
+    private TripBudgetService tripBudgetService;
+
+    @Mock
+    private ExpenseBatchRepository expenseBatchRepository;
+
+    @Spy
+    private FxRateService fxRateService = new FxRateService(FxRateTable.empty());
+
+    @Mock
+    private TripMembershipCache tripMembershipCache;
+
+    @InjectMocks
+    private ExpenseSplitService expenseSplitService;
+
+    @Test
+    void testSettleSplitsRunsOneUpdateAndRevertsLedger() {
+        // Arrange: en el viaje 1, el usuario 2 debe 30 al 1; la división del propio pagador no cuenta
+        List<Long> splitIds = List.of(10L, 11L, 12L, 13L);
+        when(expenseSplitRepository.lockUnpaidByIds(splitIds)).thenReturn(splitIds);
+        when(expenseSplitRepository.sumUnpaidByIds(splitIds)).thenReturn(List.of(
+                new Object[] {1L, 1L, 2L, new BigDecimal("30.00"), 3L},
+                new Object[] {1L, 1L, 1L, new BigDecimal("10.00"), 1L}));
+        when(expenseSplitRepository.markPaidByIds(splitIds)).thenReturn(4);
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+        doReturn(List.of()).when(tripBalanceService).getTripBalances(1L);
+
+        // Act
+        SettleResultDTO result = expenseSplitService.settleSplits(splitIds, 1L);
+
+        // Assert
+        assertEquals(4, result.getSettledSplits());
+        assertEquals(new BigDecimal("40.00"), result.getSettledAmount());
+        verify(tripBalanceService).applyDeltas(1L, Map.of(
+                1L, new BigDecimal("-30.00"),
+                2L, new BigDecimal("30.00")));
+        verify(expenseSplitRepository, never()).save(any());
+    }
+
+    @Test
+    void testSettleSplitsFailsWhenSplitsChangeConcurrently() {
+        // Arrange
+        List<Long> splitIds = List.of(10L, 11L);
+        when(expenseSplitRepository.lockUnpaidByIds(splitIds)).thenReturn(splitIds);
+        when(expenseSplitRepository.sumUnpaidByIds(splitIds)).thenReturn(List.<Object[]>of(
+                new Object[] {1L, 1L, 2L, new BigDecimal("20.00"), 2L}));
+        when(expenseSplitRepository.markPaidByIds(splitIds)).thenReturn(1);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            expenseSplitService.settleSplits(splitIds, 1L);
+        });
+        verify(tripBalanceService, never()).applyDeltas(anyLong(), anyMap());
+    }
+
+    @Test
+    void testSettleSplitsRejectsWholeSetWhenUserCannotSettleOne() {
+        // Arrange: el usuario 2 participa en la primera división pero no en la del viaje 5, donde es VIEWER
+        List<Long> splitIds = List.of(10L, 20L);
+        when(expenseSplitRepository.lockUnpaidByIds(splitIds)).thenReturn(splitIds);
+        when(expenseSplitRepository.sumUnpaidByIds(splitIds)).thenReturn(List.of(
+                new Object[] {1L, 1L, 2L, new BigDecimal("30.00"), 1L},
+                new Object[] {5L, 3L, 4L, new BigDecimal("15.00"), 1L}));
+        when(tripMembershipCache.hasPermission(5L, 2L, TripMemberRole.EDITOR)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> {
+            expenseSplitService.settleSplits(splitIds, 2L);
+        });
+        verify(expenseSplitRepository, never()).markPaidByIds(any());
+        verify(tripBalanceService, never()).applyDeltas(anyLong(), anyMap());
+    }
+
+    @Test
+    void testSettleSplitsAllowsTripEditor() {
+        // Arrange
+        List<Long> splitIds = List.of(20L);
+        when(expenseSplitRepository.lockUnpaidByIds(splitIds)).thenReturn(splitIds);
+        when(expenseSplitRepository.sumUnpaidByIds(splitIds)).thenReturn(List.<Object[]>of(
+                new Object[] {5L, 3L, 4L, new BigDecimal("15.00"), 1L}));
+        when(tripMembershipCache.hasPermission(5L, 2L, TripMemberRole.EDITOR)).thenReturn(true);
+        when(expenseSplitRepository.markPaidByIds(splitIds)).thenReturn(1);
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+        doReturn(List.of()).when(tripBalanceService).getTripBalances(5L);
+
+        // Act
+        SettleResultDTO result = expenseSplitService.settleSplits(splitIds, 2L);
+
+        // Assert
+        assertEquals(1, result.getSettledSplits());
+    }
+
+    @Test
+    void testSettleBetweenRequiresDebtorOrCreditor() {
+        // Arrange
+        when(tripRepository.existsById(1L)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            expenseSplitService.settleBetween(1L, 2L, 3L, 4L);
+        });
+        verify(expenseSplitRepository, never()).lockUnpaidBetween(anyLong(), anyLong(), anyLong());
+    }
+
+    private User user(long id) {
+        return User.builder().id(id).name("Usuario " + id).email("u" + id + "@example.com").build();
+    }
+
+    private ExpenseSplit split(long id, Expense expense, User participant, String amount) {
+        return ExpenseSplit.builder().id(id).expense(expense).participant(participant)
+                .amount(new BigDecimal(amount)).baseAmount(new BigDecimal(amount)).paid(false).build();
+    }
+
+    private Expense expense(User payer, String amount) {
+        Trip trip = new Trip();
+        trip.setId(1L);
+        return Expense.builder().id(5L).trip(trip).paidBy(payer).amount(new BigDecimal(amount))
+                .fxRate(BigDecimal.ONE).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReplaceSplitsAppliesDiffInThreeBatches() {
+        // Arrange: el 2 se mantiene, el 3 pasa de 30 a 40, el 4 sale y entra el 5
+        User payer = user(1L);
+        User u2 = user(2L);
+        User u3 = user(3L);
+        User u4 = user(4L);
+        User u5 = user(5L);
+        Expense expense = expense(payer, "100.00");
+        when(expenseRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(expense));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(payer, u2, u3, u4, u5));
+        when(expenseSplitRepository.findByExpenseId(5L)).thenReturn(List.of(
+                split(20L, expense, u2, "30.00"),
+                split(30L, expense, u3, "30.00"),
+                split(40L, expense, u4, "40.00")));
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+        List<CreateSplitRequestDTO> request = List.of(
+                new CreateSplitRequestDTO(2L, new BigDecimal("30.00"), null),
+                new CreateSplitRequestDTO(3L, new BigDecimal("40.00"), null),
+                new CreateSplitRequestDTO(5L, new BigDecimal("30.00"), null));
+
+        // Act
+        List<ExpenseSplitDTO> result = expenseSplitService.replaceSplits(5L, request, 1L);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals(20L, result.get(0).getId());
+        verify(expenseBatchRepository).batchDeleteSplits(List.of(40L));
+        ArgumentCaptor<List<ExpenseSplit>> updates = ArgumentCaptor.forClass(List.class);
+        verify(expenseBatchRepository).batchUpdateSplits(updates.capture());
+        assertEquals(1, updates.getValue().size());
+        assertEquals(30L, updates.getValue().get(0).getId());
+        ArgumentCaptor<List<ExpenseSplit>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(expenseBatchRepository).batchInsertSplits(inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals(5L, inserts.getValue().get(0).getParticipant().getId());
+        verify(tripBalanceService).applyDeltas(1L, Map.of(
+                1L, new BigDecimal("0.00"),
+                3L, new BigDecimal("-10.00"),
+                4L, new BigDecimal("40.00"),
+                5L, new BigDecimal("-30.00")));
+        verify(tripBudgetService).markExpensesChanged(1L);
+        verify(expenseSplitRepository, never()).save(any());
+    }
+
+    @Test
+    void testReplaceSplitsRejectsTotalDifferentFromExpense() {
+        // Arrange
+        User payer = user(1L);
+        when(expenseRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(expense(payer, "100.00")));
+        when(tripMemberRepository.findUsersByTripId(1L)).thenReturn(List.of(payer, user(2L)));
+        List<CreateSplitRequestDTO> request = List.of(
+                new CreateSplitRequestDTO(1L, new BigDecimal("50.00"), null),
+                new CreateSplitRequestDTO(2L, new BigDecimal("40.00"), null));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            expenseSplitService.replaceSplits(5L, request, 1L);
+        });
+        verifyNoInteractions(expenseBatchRepository);
+    }
+
+    @Test
+    void testReplaceSplitsRequiresPayer() {
+        // Arrange
+        when(expenseRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(expense(user(1L), "100.00")));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            expenseSplitService.replaceSplits(5L, List.of(), 2L);
+        });
+        verifyNoInteractions(expenseBatchRepository);
+    }
+
+    @Test
+    void testMarkAsPaidSkipsLedgerWhenAnotherRequestAlreadyPaid() {
+        // Arrange: la entidad leída aún dice pendiente, pero otra petición ya la ha pagado
+        ExpenseSplit pending = split(10L, expense(user(1L), "30.00"), user(2L), "30.00");
+        when(expenseSplitRepository.findById(10L)).thenReturn(Optional.of(pending));
+        when(expenseSplitRepository.updatePaidIfChanged(10L, true)).thenReturn(0);
+
+        // Act
+        ExpenseSplitDTO result = expenseSplitService.markAsPaid(10L);
+
+        // Assert
+        assertTrue(result.isPaid());
+        verify(tripBalanceService, never()).applySplit(any(), anyInt());
+        verify(expenseSplitRepository, never()).save(any());
+    }
+
+    @Test
+    void testMarkAsPaidAppliesLedgerWhenItChangesTheState() {
+        // Arrange: la entidad leída está desfasada (pagada), pero la actualización condicional sí cambia el estado
+        ExpenseSplit stale = split(10L, expense(user(1L), "30.00"), user(2L), "30.00");
+        stale.setPaid(true);
+        when(expenseSplitRepository.findById(10L)).thenReturn(Optional.of(stale));
+        when(expenseSplitRepository.updatePaidIfChanged(10L, true)).thenReturn(1);
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+
+        // Act
+        expenseSplitService.markAsPaid(10L);
+
+        // Assert
+        verify(tripBalanceService).applyDeltas(1L, Map.of(
+                1L, new BigDecimal("-30.00"),
+                2L, new BigDecimal("30.00")));
+    }
+
+    @Test
+    void testMarkAsUnpaidSkipsLedgerWhenAlreadyPending() {
+        // Arrange
+        ExpenseSplit split = split(10L, expense(user(1L), "30.00"), user(2L), "30.00");
+        split.setPaid(true);
+        when(expenseSplitRepository.findById(10L)).thenReturn(Optional.of(split));
+        when(expenseSplitRepository.updatePaidIfChanged(10L, false)).thenReturn(0);
+
+        // Act
+        ExpenseSplitDTO result = expenseSplitService.markAsUnpaid(10L);
+
+        // Assert
+        assertFalse(result.isPaid());
+        verify(tripBalanceService, never()).applySplit(any(), anyInt());
+    }
+
+    @Test
+    void testSettleSplitsSumsAndMarksOnlyLockedSplits() {
+        // Arrange: la división 11 ya estaba pagada y no se bloquea
+        List<Long> splitIds = List.of(10L, 11L, 12L);
+        List<Long> lockedIds = List.of(10L, 12L);
+        when(expenseSplitRepository.lockUnpaidByIds(splitIds)).thenReturn(lockedIds);
+        when(expenseSplitRepository.sumUnpaidByIds(lockedIds)).thenReturn(List.<Object[]>of(
+                new Object[] {1L, 1L, 2L, new BigDecimal("25.00"), 2L}));
+        when(expenseSplitRepository.markPaidByIds(lockedIds)).thenReturn(2);
+        doNothing().when(tripBalanceService).applyDeltas(anyLong(), anyMap());
+        doReturn(List.of()).when(tripBalanceService).getTripBalances(1L);
+
+        // Act
+        SettleResultDTO result = expenseSplitService.settleSplits(splitIds, 1L);
+
+        // Assert
+        assertEquals(2, result.getSettledSplits());
+        verify(expenseSplitRepository, never()).sumUnpaidByIds(splitIds);
+        verify(expenseSplitRepository, never()).markPaidByIds(splitIds);
+    }
+
+    @Test
+    void testSettleTripLocksSplitsBeforeTripAndSums() {
+        // Arrange
+        when(tripRepository.existsById(1L)).thenReturn(true);
+        when(tripMemberRepository.findByTripIdAndUserId(1L, 1L)).thenReturn(Optional.of(
+                TripMember.builder().role(TripMemberRole.OWNER).build()));
+        when(expenseSplitRepository.sumUnpaidByTripId(1L)).thenReturn(List.<Object[]>of(
+                new Object[] {new BigDecimal("40.00"), 2L}));
+        when(expenseSplitRepository.markPaidByTripId(1L)).thenReturn(2);
+        doNothing().when(tripBalanceService).lockTrip(1L);
+        doNothing().when(tripBalanceService).resetTrip(1L);
+        doReturn(List.of()).when(tripBalanceService).getTripBalances(1L);
+
+        // Act
+        SettleResultDTO result = expenseSplitService.settleTrip(1L, 1L);
+
+        // Assert
+        assertEquals(2, result.getSettledSplits());
+        InOrder order = inOrder(expenseSplitRepository, tripBalanceService);
+        order.verify(expenseSplitRepository).lockUnpaidByTripId(1L);
+        order.verify(tripBalanceService).lockTrip(1L);
+        order.verify(expenseSplitRepository).sumUnpaidByTripId(1L);
+        order.verify(expenseSplitRepository).markPaidByTripId(1L);
+        order.verify(tripBalanceService).resetTrip(1L);
+    }
+
+    @Test
+    void testGetTotalPendingDebtReturnsOneTotalPerCurrency() {
+        // Arrange
+        when(expenseSplitRepository.sumPendingDebtByCurrency(1L)).thenReturn(List.of(
+                new Object[] {"USD", new BigDecimal("12.00")},
+                new Object[] {"EUR", new BigDecimal("30.50")}));
+
+        // Act
+        Map<String, BigDecimal> total = expenseSplitService.getTotalPendingDebt(1L);
+
+        // Assert
+        assertEquals(List.of("EUR", "USD"), List.copyOf(total.keySet()));
+        assertEquals(new BigDecimal("30.50"), total.get("EUR"));
+        assertEquals(new BigDecimal("12.00"), total.get("USD"));
+    }
+
+    @Test
+    void testGetDebtSummaryKeepsCurrenciesApart() {
+        // Arrange: Bea es acreedora en un viaje en EUR y en otro en USD
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(expenseSplitRepository.sumPendingDebtByTripAndCreditor(1L)).thenReturn(List.of(
+                new Object[] {10L, "Roma", "EUR", 2L, "Bea", "bea@example.com", new BigDecimal("20.00")},
+                new Object[] {10L, "Roma", "EUR", 3L, "Carlos", "carlos@example.com", new BigDecimal("5.00")},
+                new Object[] {20L, "Nueva York", "USD", 2L, "Bea", "bea@example.com", new BigDecimal("50.00")}));
+
+        // Act
+        DebtSummaryDTO summary = expenseSplitService.getDebtSummary(1L);
+
+        // Assert
+        assertEquals(new BigDecimal("25.00"), summary.getTotalByCurrency().get("EUR"));
+        assertEquals(new BigDecimal("50.00"), summary.getTotalByCurrency().get("USD"));
+        assertEquals(2, summary.getTrips().size());
+        assertEquals("EUR", summary.getTrips().get(0).getCurrency());
+        assertEquals(new BigDecimal("25.00"), summary.getTrips().get(0).getTotal());
+        assertEquals("USD", summary.getTrips().get(1).getCurrency());
+
+        // Bea aparece una vez por moneda, sin sumar euros y dólares
+        List<CreditorDebtDTO> creditors = summary.getCreditors();
+        assertEquals(3, creditors.size());
+        assertEquals("Bea", creditors.get(0).getCreditor().getName());
+        assertEquals("EUR", creditors.get(0).getCurrency());
+        assertEquals(new BigDecimal("20.00"), creditors.get(0).getAmount());
+        assertEquals("Carlos", creditors.get(1).getCreditor().getName());
+        assertEquals("USD", creditors.get(2).getCurrency());
+        assertEquals(new BigDecimal("50.00"), creditors.get(2).getAmount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.ExpenseStatsDTO;
+import com.mapmyjourney.backend.exception.ResourceNotFoundException;
+import com.mapmyjourney.backend.repository.ExpenseRepository;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para ExpenseStatsService
+ */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseStatsServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseSplitRepository expenseSplitRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
+    private ExpenseStatsService expenseStatsService;
+
+    @BeforeEach
+    void setUp() {
+        expenseStatsService = new ExpenseStatsService(expenseRepository, expenseSplitRepository,
+                tripRepository, tripMemberRepository, 10);
+    }
+
+    private void stubAggregates() {
+        when(expenseRepository.sumByTripIdGroupByDate(1L)).thenReturn(List.of(
+                new Object[] {LocalDate.of(2025, 7, 1), new BigDecimal("60.00"), 2L},
+                new Object[] {LocalDate.of(2025, 7, 2), new BigDecimal("30.00"), 1L}));
+        when(expenseRepository.sumByTripIdGroupByPayer(1L)).thenReturn(Collections.singletonList(
+                new Object[] {1L, "Test User", "test@example.com", new BigDecimal("90.00"), 3L}));
+        when(expenseSplitRepository.sumByTripIdGroupByParticipant(1L)).thenReturn(List.of(
+                new Object[] {1L, "Test User", "test@example.com", new BigDecimal("45.00"), 3L},
+                new Object[] {2L, "Other User", "other@example.com", new BigDecimal("45.00"), 3L}));
+        when(tripMemberRepository.countByTripId(1L)).thenReturn(4L);
+    }
+
+    @Test
+    void testGetTripStatsAggregatesRows() {
+        // Arrange
+        when(tripRepository.findExpenseVersionById(1L)).thenReturn(Optional.of(3L));
+        stubAggregates();
+
+        // Act
+        ExpenseStatsDTO stats = expenseStatsService.getTripStats(1L);
+
+        // Assert
+        assertEquals(3L, stats.getVersion());
+        assertEquals(new BigDecimal("90.00"), stats.getTotal());
+        assertEquals(3, stats.getExpenseCount());
+        assertEquals(4, stats.getMemberCount());
+        assertEquals(new BigDecimal("22.50"), stats.getAveragePerPerson());
+        assertEquals(2, stats.getPerDay().size());
+        assertEquals(LocalDate.of(2025, 7, 1), stats.getPerDay().get(0).getDate());
+        assertEquals(1L, stats.getPerPayer().get(0).getUser().getId());
+        assertEquals(2, stats.getPerMemberShare().size());
+    }
+
+    @Test
+    void testGetTripStatsReusesCachedResultWhileVersionIsUnchanged() {
+        // Arrange
+        when(tripRepository.findExpenseVersionById(1L)).thenReturn(Optional.of(3L), Optional.of(3L), Optional.of(4L));
+        stubAggregates();
+
+        // Act
+        ExpenseStatsDTO first = expenseStatsService.getTripStats(1L);
+        ExpenseStatsDTO second = expenseStatsService.getTripStats(1L);
+        ExpenseStatsDTO third = expenseStatsService.getTripStats(1L);
+
+        // Assert: la segunda consulta no repite las agregaciones; la tercera ve una versión nueva
+        assertSame(first, second);
+        assertEquals(4L, third.getVersion());
+        verify(expenseRepository, times(2)).sumByTripIdGroupByDate(1L);
+        verify(expenseSplitRepository, times(2)).sumByTripIdGroupByParticipant(1L);
+    }
+
+    @Test
+    void testGetTripStatsUpdatesAverageWhenMembersChange() {
+        // Arrange: se une un quinto miembro sin que cambien los gastos (ni la versión)
+        when(tripRepository.findExpenseVersionById(1L)).thenReturn(Optional.of(3L));
+        stubAggregates();
+        when(tripMemberRepository.countByTripId(1L)).thenReturn(4L, 5L, 5L);
+
+        // Act
+        ExpenseStatsDTO first = expenseStatsService.getTripStats(1L);
+        ExpenseStatsDTO second = expenseStatsService.getTripStats(1L);
+        ExpenseStatsDTO third = expenseStatsService.getTripStats(1L);
+
+        // Assert: la media se ajusta sin repetir las agregaciones
+        assertEquals(new BigDecimal("22.50"), first.getAveragePerPerson());
+        assertEquals(5, second.getMemberCount());
+        assertEquals(new BigDecimal("18.00"), second.getAveragePerPerson());
+        assertEquals(new BigDecimal("90.00"), second.getTotal());
+        assertSame(second, third);
+        verify(expenseRepository, times(1)).sumByTripIdGroupByDate(1L);
+        verify(expenseSplitRepository, times(1)).sumByTripIdGroupByParticipant(1L);
+    }
+
+    @Test
+    void testGetTripStatsWithoutMembersHasZeroAverage() {
+        // Arrange
+        when(tripRepository.findExpenseVersionById(1L)).thenReturn(Optional.of(0L));
+        when(expenseRepository.sumByTripIdGroupByDate(1L)).thenReturn(Collections.emptyList());
+        when(expenseRepository.sumByTripIdGroupByPayer(1L)).thenReturn(Collections.emptyList());
+        when(expenseSplitRepository.sumByTripIdGroupByParticipant(1L)).thenReturn(Collections.emptyList());
+        when(tripMemberRepository.countByTripId(1L)).thenReturn(0L);
+
+        // Act
+        ExpenseStatsDTO stats = expenseStatsService.getTripStats(1L);
+
+        // Assert
+        assertEquals(BigDecimal.ZERO, stats.getTotal());
+        assertEquals(BigDecimal.ZERO, stats.getAveragePerPerson());
+    }
+
+    @Test
+    void testGetTripStatsTripNotFound() {
+        // Arrange
+        when(tripRepository.findExpenseVersionById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> expenseStatsService.getTripStats(99L));
+        verifyNoInteractions(expenseRepository);
+    }
+}
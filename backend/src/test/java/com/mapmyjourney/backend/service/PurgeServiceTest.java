@@ -0,0 +1,186 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.model.Activity;
+import com.mapmyjourney.backend.model.ActivityType;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.PurgeRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests del borrado lógico de viajes y usuarios y de su purga por tramos, sobre una base H2 en memoria.
+ * El tamaño de tramo es pequeño para que cada tabla necesite varias sentencias DELETE.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.purge.chunk-size=3"
+})
+@Import({PurgeService.class, PurgeRepository.class})
+public class PurgeServiceTest {
+
+    private static final int EXPENSES = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PurgeService purgeService;
+
+    private Long deletedTripId;
+    private Long liveTripId;
+    private Long referencedUserId;
+    private Long unreferencedUserId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(user("Ana", "ana@example.com", null));
+        User referenced = entityManager.persist(user("Usuario eliminado", "deleted-1@deleted.invalid", LocalDateTime.now()));
+        User unreferenced = entityManager.persist(user("Usuario eliminado", "deleted-2@deleted.invalid", LocalDateTime.now()));
+        referencedUserId = referenced.getId();
+        unreferencedUserId = unreferenced.getId();
+
+        Trip deleted = entityManager.persist(trip("BORRADO1", LocalDateTime.now()));
+        deletedTripId = deleted.getId();
+        entityManager.persist(member(deleted, owner));
+        for (int i = 0; i < EXPENSES; i++) {
+            Expense expense = entityManager.persist(expense(deleted, owner, i));
+            entityManager.persist(split(expense, owner));
+            entityManager.persist(split(expense, unreferenced));
+        }
+        for (int i = 0; i < 4; i++) {
+            entityManager.persist(activity(deleted, i));
+        }
+
+        // El usuario eliminado pagó un gasto de un viaje activo: debe conservarse anonimizado
+        Trip live = entityManager.persist(trip("VIVO0001", null));
+        liveTripId = live.getId();
+        entityManager.persist(member(live, owner));
+        Expense expense = entityManager.persist(expense(live, referenced, 0));
+        entityManager.persist(split(expense, owner));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String name, String email, LocalDateTime deletedAt) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        user.setDeletedAt(deletedAt);
+        return user;
+    }
+
+    private static Trip trip(String code, LocalDateTime deletedAt) {
+        Trip trip = new Trip();
+        trip.setTitle("Viaje " + code);
+        trip.setDestination("Roma");
+        trip.setTripCode(code);
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        trip.setDeletedAt(deletedAt);
+        return trip;
+    }
+
+    private static TripMember member(Trip trip, User user) {
+        TripMember member = new TripMember();
+        member.setTrip(trip);
+        member.setUser(user);
+        member.setRole(TripMemberRole.OWNER);
+        return member;
+    }
+
+    private static Expense expense(Trip trip, User paidBy, int index) {
+        Expense expense = new Expense();
+        expense.setTrip(trip);
+        expense.setPaidBy(paidBy);
+        expense.setDescription("Gasto " + index);
+        expense.setAmount(new BigDecimal("20.00"));
+        expense.setExpenseDate(LocalDate.of(2024, 5, 1));
+        expense.setSplitType(ExpenseSplitType.EQUAL);
+        return expense;
+    }
+
+    private static ExpenseSplit split(Expense expense, User participant) {
+        ExpenseSplit split = new ExpenseSplit();
+        split.setExpense(expense);
+        split.setParticipant(participant);
+        split.setAmount(new BigDecimal("10.00"));
+        return split;
+    }
+
+    private static Activity activity(Trip trip, int index) {
+        Activity activity = new Activity();
+        activity.setTrip(trip);
+        activity.setTitle("Actividad " + index);
+        activity.setType(ActivityType.ACTIVITY);
+        activity.setStartTime("10:00");
+        activity.setDuration(60);
+        activity.setDayIndex(0);
+        activity.setActivityDate(LocalDate.of(2024, 5, 1));
+        return activity;
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, args);
+    }
+
+    @Test
+    void testDeletedTripIsHiddenBeforePurge() {
+        // Assert
+        assertFalse(tripRepository.findById(deletedTripId).isPresent());
+        assertFalse(tripRepository.existsById(deletedTripId));
+        assertTrue(tripRepository.findById(liveTripId).isPresent());
+        assertEquals(EXPENSES, count("SELECT COUNT(*) FROM expenses WHERE trip_id = ?", deletedTripId));
+    }
+
+    @Test
+    void testPurgeDeletesTripAndDependentRowsInChunks() {
+        // Act
+        int purged = purgeService.purgeDeletedTrips();
+
+        // Assert
+        assertEquals(1, purged);
+        assertEquals(0, count("SELECT COUNT(*) FROM trips WHERE id = ?", deletedTripId));
+        assertEquals(0, count("SELECT COUNT(*) FROM expenses WHERE trip_id = ?", deletedTripId));
+        assertEquals(0, count("SELECT COUNT(*) FROM activities WHERE trip_id = ?", deletedTripId));
+        assertEquals(0, count("SELECT COUNT(*) FROM trip_members WHERE trip_id = ?", deletedTripId));
+        assertEquals(1, count("SELECT COUNT(*) FROM expenses WHERE trip_id = ?", liveTripId));
+        assertEquals(1, count("SELECT COUNT(*) FROM expense_splits"));
+    }
+
+    @Test
+    void testPurgeKeepsDeletedUsersStillReferencedByExpenses() {
+        // Act
+        purgeService.purge();
+
+        // Assert: el usuario solo aparecía en el viaje purgado, así que ya se puede borrar
+        assertEquals(0, count("SELECT COUNT(*) FROM users WHERE id = ?", unreferencedUserId));
+        assertEquals(1, count("SELECT COUNT(*) FROM users WHERE id = ?", referencedUserId));
+    }
+}
@@ -0,0 +1,134 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.SettlementTransferDTO;
+import com.mapmyjourney.backend.model.TripBalance;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripBalanceRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SettlementService
+ */
+@ExtendWith(MockitoExtension.class)
+public class SettlementServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementServiceTest.class);
+
+    @Mock
+    private TripBalanceRepository tripBalanceRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @InjectMocks
+    private SettlementService settlementService;
+
+    @Test
+    void testGetTripSettlementProducesMinimalTransfers() {
+        // Arrange: A debe 30, B debe 12.10, C recibe 42.10
+        User a = User.builder().id(1L).name("Ana").email("ana@example.com").build();
+        User b = User.builder().id(2L).name("Bea").email("bea@example.com").build();
+        User c = User.builder().id(3L).name("Carlos").email("carlos@example.com").build();
+        when(tripRepository.existsById(1L)).thenReturn(true);
+        when(tripBalanceRepository.findByTripIdWithUser(1L)).thenReturn(List.of(
+                TripBalance.builder().user(c).balance(new BigDecimal("42.10")).build(),
+                TripBalance.builder().user(a).balance(new BigDecimal("-30.00")).build(),
+                TripBalance.builder().user(b).balance(new BigDecimal("-12.10")).build()));
+
+        // Act
+        List<SettlementTransferDTO> transfers = settlementService.getTripSettlement(1L);
+
+        // Assert
+        assertEquals(2, transfers.size());
+        assertEquals(1L, transfers.get(0).getFrom().getId());
+        assertEquals(3L, transfers.get(0).getTo().getId());
+        assertEquals(new BigDecimal("30.00"), transfers.get(0).getAmount());
+        assertEquals(2L, transfers.get(1).getFrom().getId());
+        assertEquals(new BigDecimal("12.10"), transfers.get(1).getAmount());
+    }
+
+    /**
+     * 10.000 miembros con saldos generados a partir de 1.000.000 de divisiones:
+     * el emparejamiento debe saldar todas las deudas con menos transferencias que miembros.
+     */
+    @Test
+    void testSettleTenThousandMembersFromOneMillionSplits() {
+        int members = 10_000;
+        long[] cents = new long[members];
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            int payer = random.nextInt(members);
+            int participant = random.nextInt(members);
+            long amount = 1 + random.nextInt(100_000);
+            cents[payer] += amount;
+            cents[participant] -= amount;
+        }
+
+        int[] from = new int[members];
+        int[] to = new int[members];
+        long[] amounts = new long[members];
+        int count = SettlementService.settle(cents, from, to, amounts);
+
+        // Todas las transferencias son positivas y dejan todos los saldos a cero
+        long[] check = cents.clone();
+        for (int i = 0; i < count; i++) {
+            assertTrue(amounts[i] > 0);
+            check[from[i]] += amounts[i];
+            check[to[i]] -= amounts[i];
+        }
+        for (long remaining : check) {
+            assertEquals(0L, remaining);
+        }
+        assertTrue(count < members);
+    }
+
+    /**
+     * Benchmark (solo con mvn test -Pbenchmark): emparejamiento de 10.000 miembros con saldos
+     * generados a partir de 1.000.000 de divisiones. Muestra en el log el mejor de 5 tiempos;
+     * el objetivo es que se quede en pocos milisegundos.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkSettleTenThousandMembersFromOneMillionSplits() {
+        int members = 10_000;
+        long[] cents = new long[members];
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++) {
+            int payer = random.nextInt(members);
+            int participant = random.nextInt(members);
+            long amount = 1 + random.nextInt(100_000);
+            cents[payer] += amount;
+            cents[participant] -= amount;
+        }
+
+        int[] from = new int[members];
+        int[] to = new int[members];
+        long[] amounts = new long[members];
+        long bestNanos = Long.MAX_VALUE;
+        int count = 0;
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            count = SettlementService.settle(cents, from, to, amounts);
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+        }
+
+        log.info("Settlement de {} miembros: {} transferencias en {} ms (mejor de 5)",
+                members, count, String.format("%.2f", bestNanos / 1_000_000.0));
+        assertTrue(count < members);
+    }
+}
@@ -0,0 +1,175 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.repository.TripBalanceLedgerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la reconciliación del libro de saldos sobre una base H2 en memoria,
+ * con el SQL real (agregación, bloqueo del viaje y upsert).
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({TripBalanceReconciler.class, TripBalanceService.class, TripBalanceLedgerRepository.class,
+        SqlDialectSupport.class, UserBalanceService.class})
+public class TripBalanceReconcilerTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TripBalanceLedgerRepository tripBalanceLedgerRepository;
+
+    @Autowired
+    private TripBalanceReconciler tripBalanceReconciler;
+
+    private Long tripId;
+    private Long anaId;
+    private Long beaId;
+    private Long carlosId;
+
+    @BeforeEach
+    void setUp() {
+        User ana = entityManager.persist(user("Ana", "ana@example.com"));
+        User bea = entityManager.persist(user("Bea", "bea@example.com"));
+        User carlos = entityManager.persist(user("Carlos", "carlos@example.com"));
+        anaId = ana.getId();
+        beaId = bea.getId();
+        carlosId = carlos.getId();
+
+        // Ana paga 30 entre los tres: Bea y Carlos le deben 10 cada uno; Bea ya pagó otra división de 5
+        Trip trip = entityManager.persist(trip());
+        tripId = trip.getId();
+        Expense dinner = entityManager.persist(expense(trip, ana));
+        entityManager.persist(split(dinner, ana, "10.00", false));
+        entityManager.persist(split(dinner, bea, "10.00", false));
+        entityManager.persist(split(dinner, carlos, "10.00", false));
+        entityManager.persist(split(dinner, bea, "5.00", true));
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String name, String email) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    private static Trip trip() {
+        Trip trip = new Trip();
+        trip.setTitle("Viaje a Roma");
+        trip.setDestination("Roma");
+        trip.setTripCode("ROMA2024");
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        return trip;
+    }
+
+    private static Expense expense(Trip trip, User paidBy) {
+        Expense expense = new Expense();
+        expense.setTrip(trip);
+        expense.setPaidBy(paidBy);
+        expense.setDescription("Cena");
+        expense.setAmount(new BigDecimal("35.00"));
+        expense.setExpenseDate(LocalDate.of(2024, 5, 1));
+        expense.setSplitType(ExpenseSplitType.MANUAL);
+        return expense;
+    }
+
+    private static ExpenseSplit split(Expense expense, User participant, String amount, boolean paid) {
+        ExpenseSplit split = new ExpenseSplit();
+        split.setExpense(expense);
+        split.setParticipant(participant);
+        split.setAmount(new BigDecimal(amount));
+        split.setPaid(paid);
+        return split;
+    }
+
+    private void insertBalance(Long userId, String balance) {
+        tripBalanceLedgerRepository.addToBalances(tripId, Map.of(userId, new BigDecimal(balance)), LocalDateTime.now());
+    }
+
+    private void assertBalance(Long userId, String expected) {
+        BigDecimal balance = tripBalanceLedgerRepository.findBalances(tripId).get(userId);
+        assertNotNull(balance, "Falta la fila del usuario " + userId);
+        assertEquals(0, new BigDecimal(expected).compareTo(balance), "Saldo del usuario " + userId);
+    }
+
+    @Test
+    void testReconcileCorrectsDriftAndCreatesMissingRows() {
+        // Arrange: Ana tiene 5 de más, Bea está al día y Carlos no tiene fila
+        insertBalance(anaId, "25.00");
+        insertBalance(beaId, "-10.00");
+
+        // Act
+        int corrected = tripBalanceReconciler.reconcileBalances();
+
+        // Assert
+        assertEquals(2, corrected);
+        assertBalance(anaId, "20.00");
+        assertBalance(beaId, "-10.00");
+        assertBalance(carlosId, "-10.00");
+    }
+
+    @Test
+    void testUpsertAddsToExistingRow() {
+        // Act
+        insertBalance(beaId, "-10.00");
+        insertBalance(beaId, "4.50");
+
+        // Assert
+        assertBalance(beaId, "-5.50");
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM trip_balances WHERE trip_id = ? AND user_id = ?", Integer.class, tripId, beaId));
+    }
+
+    @Test
+    void testBackfillOnStartupFillsEmptyLedger() {
+        // Act
+        tripBalanceReconciler.backfillOnStartup();
+
+        // Assert
+        assertBalance(anaId, "20.00");
+        assertBalance(beaId, "-10.00");
+        assertBalance(carlosId, "-10.00");
+    }
+
+    @Test
+    void testBackfillOnStartupSkipsLedgerWithRows() {
+        // Arrange: el libro ya tiene filas, aunque estén desviadas; se corrigen por la noche
+        insertBalance(anaId, "1.00");
+
+        // Act
+        tripBalanceReconciler.backfillOnStartup();
+
+        // Assert
+        assertBalance(anaId, "1.00");
+        assertNull(tripBalanceLedgerRepository.findBalances(tripId).get(beaId));
+    }
+}
@@ -0,0 +1,116 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.repository.TripBalanceLedgerRepository;
+import com.mapmyjourney.backend.repository.TripBalanceRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TripBalanceService
+ */
+@ExtendWith(MockitoExtension.class)
+public class TripBalanceServiceTest {
+
+    @Mock
+    private TripBalanceRepository tripBalanceRepository;
+
+    @Mock
+    private TripBalanceLedgerRepository tripBalanceLedgerRepository;
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @Mock
+    private UserBalanceService userBalanceService;
+
+    @InjectMocks
+    private TripBalanceService tripBalanceService;
+
+    @Test
+    void testAccumulateIgnoresPaidAndSelfSplits() {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+
+        tripBalanceService.accumulate(deltas, 1L, 1L, new BigDecimal("25.00"), false, 1);
+        tripBalanceService.accumulate(deltas, 1L, 2L, new BigDecimal("25.00"), true, 1);
+
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    void testAccumulateRevertAndApplyCancelOut() {
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+
+        tripBalanceService.accumulate(deltas, 1L, 2L, new BigDecimal("25.00"), false, -1);
+        tripBalanceService.accumulate(deltas, 1L, 2L, new BigDecimal("30.00"), false, 1);
+
+        assertEquals(0, new BigDecimal("5.00").compareTo(deltas.get(1L)));
+        assertEquals(0, new BigDecimal("-5.00").compareTo(deltas.get(2L)));
+    }
+
+    @Test
+    void testApplyDeltasUpsertsInOneCallAndEvictsAllMembers() {
+        // Arrange
+        Map<Long, BigDecimal> deltas = new HashMap<>();
+        deltas.put(1L, new BigDecimal("40.00"));
+        deltas.put(2L, new BigDecimal("-40.00"));
+        deltas.put(3L, new BigDecimal("0.00"));
+
+        // Act
+        tripBalanceService.applyDeltas(10L, deltas);
+
+        // Assert
+        verify(tripBalanceLedgerRepository, times(1)).addToBalances(eq(10L), eq(deltas), any());
+        verify(tripBalanceRepository, never()).save(any());
+        // El miembro con incremento cero también se descarta de la caché global
+        verify(userBalanceService).evictAfterCommit(Set.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void testReconcileTripAddsDifferenceWithExpectedBalances() {
+        // Arrange: el libro tiene al usuario 3 con 5 de más y no tiene fila para el usuario 2
+        when(tripRepository.findByIdForUpdate(10L)).thenReturn(Optional.of(new Trip()));
+        when(tripBalanceLedgerRepository.sumPendingBalances(10L)).thenReturn(Map.of(
+                1L, new BigDecimal("30.00"),
+                2L, new BigDecimal("-30.00")));
+        when(tripBalanceLedgerRepository.findBalances(10L)).thenReturn(Map.of(
+                1L, new BigDecimal("30.00"),
+                3L, new BigDecimal("5.00")));
+
+        // Act
+        int corrected = tripBalanceService.reconcileTrip(10L);
+
+        // Assert
+        assertEquals(2, corrected);
+        verify(tripBalanceLedgerRepository).addToBalances(eq(10L), eq(Map.of(
+                2L, new BigDecimal("-30.00"),
+                3L, new BigDecimal("-5.00"))), any());
+    }
+
+    @Test
+    void testReconcileTripSkipsDeletedTrip() {
+        // Arrange
+        when(tripRepository.findByIdForUpdate(10L)).thenReturn(Optional.empty());
+
+        // Act
+        int corrected = tripBalanceService.reconcileTrip(10L);
+
+        // Assert
+        assertEquals(0, corrected);
+        verifyNoInteractions(tripBalanceLedgerRepository);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripBudgetDTO;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TripBudgetService
+ */
+@ExtendWith(MockitoExtension.class)
+public class TripBudgetServiceTest {
+
+    @Mock
+    private TripRepository tripRepository;
+
+    @InjectMocks
+    private TripBudgetService tripBudgetService;
+
+    private Trip testTrip;
+
+    @BeforeEach
+    void setUp() {
+        testTrip = new Trip();
+        testTrip.setId(1L);
+        testTrip.setStartDate(LocalDate.of(2024, 7, 1));
+        testTrip.setEndDate(LocalDate.of(2024, 7, 10));
+        testTrip.setBudget(new BigDecimal("1000.00"));
+        testTrip.setSpent(new BigDecimal("400.00"));
+    }
+
+    @Test
+    void testBuildBudgetMidTrip() {
+        // Act: cuarto día de un viaje de diez
+        TripBudgetDTO budget = tripBudgetService.buildBudget(testTrip, LocalDate.of(2024, 7, 4));
+
+        // Assert
+        assertEquals(10, budget.getTotalDays());
+        assertEquals(4, budget.getElapsedDays());
+        assertEquals(new BigDecimal("600.00"), budget.getRemaining());
+        assertEquals(new BigDecimal("40.00"), budget.getPercentageUsed());
+        assertEquals(new BigDecimal("100.00"), budget.getDailyBurnRate());
+        assertEquals(new BigDecimal("100.00"), budget.getDailyAllowance());
+    }
+
+    @Test
+    void testBuildBudgetAfterTripEnds() {
+        // Act
+        TripBudgetDTO budget = tripBudgetService.buildBudget(testTrip, LocalDate.of(2024, 8, 1));
+
+        // Assert
+        assertEquals(10, budget.getElapsedDays());
+        assertEquals(new BigDecimal("40.00"), budget.getDailyBurnRate());
+        assertNull(budget.getDailyAllowance());
+    }
+
+    @Test
+    void testAddSpentWithZeroDeltaOnlyBumpsVersion() {
+        // Act
+        tripBudgetService.addSpent(1L, BigDecimal.ZERO);
+        tripBudgetService.addSpent(1L, new BigDecimal("25.50"));
+
+        // Assert
+        verify(tripRepository, times(1)).addToSpent(anyLong(), any());
+        verify(tripRepository).addToSpent(1L, new BigDecimal("25.50"));
+        verify(tripRepository, times(1)).bumpExpenseVersion(1L);
+    }
+}
@@ -0,0 +1,151 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripDTO;
+import com.mapmyjourney.backend.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TripCodeCache
+ */
+@ExtendWith(MockitoExtension.class)
+public class TripCodeCacheTest {
+
+    @Mock
+    private TripRepository tripRepository;
+
+    private TripCodeCache tripCodeCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        tripCodeCache = new TripCodeCache(tripRepository, 100, Duration.ofMinutes(5), Duration.ofSeconds(30), 1000,
+                Duration.ofMinutes(1));
+        loads = new AtomicInteger();
+    }
+
+    private TripDTO load(String code) {
+        loads.incrementAndGet();
+        if (!"ABC12345".equals(code)) {
+            return null;
+        }
+        TripDTO trip = new TripDTO();
+        trip.setId(1L);
+        trip.setTripCode(code);
+        return trip;
+    }
+
+    @Test
+    void testUnknownCodeIsRejectedByFilterWithoutLoading() {
+        // Arrange
+        when(tripRepository.findAllTripCodes()).thenReturn(List.of("ABC12345"));
+        tripCodeCache.rebuild();
+
+        // Act
+        TripDTO found = tripCodeCache.find("ABC12345", this::load);
+        TripDTO again = tripCodeCache.find("ABC12345", this::load);
+        TripDTO unknown = tripCodeCache.find("ZZZ99999", this::load);
+
+        // Assert
+        assertEquals(1L, found.getId());
+        assertSame(found, again);
+        assertNull(unknown);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testMissingCodeIsNegativelyCachedUntilRegistered() {
+        // Act: sin filtro construido, la primera búsqueda fallida va a la base de datos
+        assertNull(tripCodeCache.find("NEW00001", this::load));
+        assertNull(tripCodeCache.find("NEW00001", this::load));
+        tripCodeCache.registerCode("NEW00001");
+        tripCodeCache.find("NEW00001", this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testRegisteredCodePassesFilter() {
+        // Arrange
+        when(tripRepository.findAllTripCodes()).thenReturn(List.of());
+        tripCodeCache.rebuild();
+
+        // Act
+        tripCodeCache.registerCode("ABC12345");
+        TripDTO found = tripCodeCache.find("ABC12345", this::load);
+
+        // Assert
+        assertNotNull(found);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testCodeCreatedByAnotherInstanceIsFoundAfterSync() {
+        // Arrange: el viaje se crea en otra instancia después de construir el filtro
+        when(tripRepository.findAllTripCodes()).thenReturn(List.of());
+        tripCodeCache.rebuild();
+        when(tripRepository.findTripCodesCreatedSince(any(LocalDateTime.class))).thenReturn(List.of("ABC12345"));
+
+        // Act
+        TripDTO found = tripCodeCache.find("ABC12345", this::load);
+        TripDTO again = tripCodeCache.find("ABC12345", this::load);
+
+        // Assert: una sola sincronización y el código ya pasa el filtro
+        assertNotNull(found);
+        assertSame(found, again);
+        assertEquals(1, loads.get());
+        verify(tripRepository, times(1)).findTripCodesCreatedSince(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testSyncStartsFromLastSyncMinusOverlap() {
+        // Arrange
+        when(tripRepository.findAllTripCodes()).thenReturn(List.of("ABC12345"));
+        LocalDateTime before = LocalDateTime.now();
+        tripCodeCache.rebuild();
+
+        // Act
+        assertNull(tripCodeCache.find("ZZZ99999", this::load));
+        assertNull(tripCodeCache.find("YYY88888", this::load));
+
+        // Assert: la primera sincronización parte de la reconstrucción menos el solapamiento
+        // y la segunda de la primera sincronización, también menos el solapamiento
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(tripRepository, times(2)).findTripCodesCreatedSince(since.capture());
+        LocalDateTime first = since.getAllValues().get(0);
+        LocalDateTime second = since.getAllValues().get(1);
+        assertFalse(first.isBefore(before.minusMinutes(1)));
+        assertTrue(first.isBefore(before));
+        assertFalse(second.isBefore(first));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void testUnknownCodeIsNegativelyCachedAfterSync() {
+        // Arrange
+        when(tripRepository.findAllTripCodes()).thenReturn(List.of());
+        tripCodeCache.rebuild();
+
+        // Act
+        assertNull(tripCodeCache.find("ZZZ99999", this::load));
+        assertNull(tripCodeCache.find("ZZZ99999", this::load));
+
+        // Assert: la segunda búsqueda la frena la caché negativa, sin volver a sincronizar
+        verify(tripRepository, times(1)).findTripCodesCreatedSince(any(LocalDateTime.class));
+        assertEquals(0, loads.get());
+    }
+}
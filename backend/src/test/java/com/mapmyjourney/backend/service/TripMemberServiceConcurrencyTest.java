@@ -0,0 +1,182 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.repository.TripRepository;
+import com.mapmyjourney.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de concurrencia de la protección del último propietario de TripMemberService.
+ * Lanza a la vez, desde varios hilos con su propia transacción, cambios de rol y bajas de todos
+ * los propietarios de un viaje, y comprueba que siempre queda exactamente uno.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:owner-guard;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false"
+})
+public class TripMemberServiceConcurrencyTest {
+
+    private static final int OWNERS = 8;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private TripMemberService tripMemberService;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TripMemberRepository tripMemberRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        tripMemberRepository.deleteAll();
+        tripRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testConcurrentDemotionsNeverLeaveTripWithoutOwner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // Arrange
+            List<Long> ownerIds = new ArrayList<>();
+            Long tripId = createTripWithOwners(ownerIds);
+
+            // Act
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (Long ownerId : ownerIds) {
+                tasks.add(() -> {
+                    tripMemberService.changeMemberRole(tripId, ownerId, TripMemberRole.EDITOR);
+                    return null;
+                });
+            }
+            int rejected = runConcurrently(tasks);
+
+            // Assert
+            assertEquals(1, rejected, "Solo debe rechazarse la degradación del último propietario");
+            assertEquals(1, tripMemberRepository.countByTripIdAndRole(tripId, TripMemberRole.OWNER));
+            assertEquals(OWNERS, tripMemberRepository.countByTripId(tripId));
+        }
+    }
+
+    @Test
+    void testConcurrentRemovalsAndDemotionsNeverLeaveTripWithoutOwner() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            // Arrange
+            List<Long> ownerIds = new ArrayList<>();
+            Long tripId = createTripWithOwners(ownerIds);
+
+            // Act: la mitad de los propietarios se degradan y la otra mitad salen del viaje
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < ownerIds.size(); i++) {
+                Long ownerId = ownerIds.get(i);
+                if (i % 2 == 0) {
+                    tasks.add(() -> {
+                        tripMemberService.changeMemberRole(tripId, ownerId, TripMemberRole.VIEWER);
+                        return null;
+                    });
+                } else {
+                    tasks.add(() -> {
+                        tripMemberService.removeMemberFromTrip(tripId, ownerId);
+                        return null;
+                    });
+                }
+            }
+            int rejected = runConcurrently(tasks);
+
+            // Assert
+            assertEquals(1, rejected, "Solo debe rechazarse el cambio sobre el último propietario");
+            assertEquals(1, tripMemberRepository.countByTripIdAndRole(tripId, TripMemberRole.OWNER));
+        }
+    }
+
+    /**
+     * Crea un viaje con OWNERS propietarios y deja sus IDs en ownerIds.
+     */
+    private Long createTripWithOwners(List<Long> ownerIds) {
+        int n = sequence.incrementAndGet();
+        Trip trip = new Trip();
+        trip.setTitle("Viaje " + n);
+        trip.setDestination("Roma");
+        trip.setTripCode(String.format("OWNR%04d", n));
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        trip = tripRepository.save(trip);
+
+        for (int i = 0; i < OWNERS; i++) {
+            User user = new User();
+            user.setName("Propietario " + i);
+            user.setEmail("owner" + n + "-" + i + "@example.com");
+            user.setPasswordHash("hash");
+            user = userRepository.save(user);
+            ownerIds.add(user.getId());
+
+            tripMemberRepository.save(TripMember.builder()
+                    .trip(trip)
+                    .user(user)
+                    .role(TripMemberRole.OWNER)
+                    .build());
+        }
+        return trip.getId();
+    }
+
+    /**
+     * Ejecuta las tareas a la vez (todas esperan a una misma señal de salida)
+     * y devuelve cuántas se rechazaron con ValidationException.
+     */
+    private int runConcurrently(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            int rejected = 0;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(ValidationException.class, e.getCause());
+                    rejected++;
+                }
+            }
+            return rejected;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
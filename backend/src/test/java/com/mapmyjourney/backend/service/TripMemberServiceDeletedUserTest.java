@@ -0,0 +1,176 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.repository.TripMemberBatchRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la salida de los viajes de un usuario que elimina su cuenta sobre una base H2 en memoria.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({TripMemberService.class, TripMemberBatchRepository.class, SqlDialectSupport.class, TripMembershipCache.class})
+public class TripMemberServiceDeletedUserTest {
+
+    private static final LocalDateTime JOINED = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TripMemberService tripMemberService;
+
+    @Autowired
+    private TripMemberRepository tripMemberRepository;
+
+    private Trip trip;
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = entityManager.persist(user("owner@example.com"));
+
+        trip = new Trip();
+        trip.setTitle("Viaje a Roma");
+        trip.setDestination("Roma");
+        trip.setTripCode("ROMA2024");
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        trip = entityManager.persist(trip);
+
+        member(owner, TripMemberRole.OWNER, 0);
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName("Usuario");
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    private User member(String email, TripMemberRole role, int daysAfterOwner) {
+        User user = entityManager.persist(user(email));
+        member(user, role, daysAfterOwner);
+        return user;
+    }
+
+    private void member(User user, TripMemberRole role, int daysAfterOwner) {
+        entityManager.persist(TripMember.builder()
+                .trip(trip)
+                .user(user)
+                .role(role)
+                .joinedAt(JOINED.plusDays(daysAfterOwner))
+                .build());
+    }
+
+    private TripMemberRole roleOf(User user) {
+        return tripMemberRepository.findByTripIdAndUserId(trip.getId(), user.getId()).get().getRole();
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testLastOwnerHandsOverToOldestEditor() {
+        // Arrange: el VIEWER lleva más tiempo, pero se prefiere un EDITOR
+        User viewer = member("viewer@example.com", TripMemberRole.VIEWER, 1);
+        User newerEditor = member("editor2@example.com", TripMemberRole.EDITOR, 3);
+        User olderEditor = member("editor1@example.com", TripMemberRole.EDITOR, 2);
+        flushAndClear();
+
+        // Act
+        boolean empty = tripMemberService.removeDeletedUser(trip.getId(), owner.getId());
+        flushAndClear();
+
+        // Assert
+        assertFalse(empty);
+        assertTrue(tripMemberRepository.findByTripIdAndUserId(trip.getId(), owner.getId()).isEmpty());
+        assertEquals(TripMemberRole.OWNER, roleOf(olderEditor));
+        assertEquals(TripMemberRole.EDITOR, roleOf(newerEditor));
+        assertEquals(TripMemberRole.VIEWER, roleOf(viewer));
+        assertEquals(1, tripMemberRepository.countByTripIdAndRole(trip.getId(), TripMemberRole.OWNER));
+    }
+
+    @Test
+    void testLastOwnerHandsOverToOldestMemberWithoutEditors() {
+        // Arrange
+        User newerViewer = member("viewer2@example.com", TripMemberRole.VIEWER, 2);
+        User olderViewer = member("viewer1@example.com", TripMemberRole.VIEWER, 1);
+        flushAndClear();
+
+        // Act
+        boolean empty = tripMemberService.removeDeletedUser(trip.getId(), owner.getId());
+        flushAndClear();
+
+        // Assert
+        assertFalse(empty);
+        assertEquals(TripMemberRole.OWNER, roleOf(olderViewer));
+        assertEquals(TripMemberRole.VIEWER, roleOf(newerViewer));
+    }
+
+    @Test
+    void testOwnerWithAnotherOwnerLeavesRolesUnchanged() {
+        // Arrange
+        User otherOwner = member("owner2@example.com", TripMemberRole.OWNER, 2);
+        User editor = member("editor@example.com", TripMemberRole.EDITOR, 1);
+        flushAndClear();
+
+        // Act
+        boolean empty = tripMemberService.removeDeletedUser(trip.getId(), owner.getId());
+        flushAndClear();
+
+        // Assert
+        assertFalse(empty);
+        assertEquals(TripMemberRole.OWNER, roleOf(otherOwner));
+        assertEquals(TripMemberRole.EDITOR, roleOf(editor));
+        assertEquals(2, tripMemberRepository.countByTripId(trip.getId()));
+    }
+
+    @Test
+    void testLastMemberLeavesTripEmpty() {
+        // Arrange
+        flushAndClear();
+
+        // Act
+        boolean empty = tripMemberService.removeDeletedUser(trip.getId(), owner.getId());
+        flushAndClear();
+
+        // Assert
+        assertTrue(empty);
+        assertEquals(0, tripMemberRepository.countByTripId(trip.getId()));
+    }
+
+    @Test
+    void testUserWhoIsNotMemberIsIgnored() {
+        // Arrange
+        User stranger = entityManager.persist(user("stranger@example.com"));
+        flushAndClear();
+
+        // Act
+        boolean empty = tripMemberService.removeDeletedUser(trip.getId(), stranger.getId());
+
+        // Assert
+        assertFalse(empty);
+        assertEquals(1, tripMemberRepository.countByTripId(trip.getId()));
+    }
+}
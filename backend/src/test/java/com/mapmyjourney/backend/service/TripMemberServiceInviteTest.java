@@ -0,0 +1,136 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.MemberInviteBatchRequestDTO;
+import com.mapmyjourney.backend.dto.MemberInviteBatchResponseDTO;
+import com.mapmyjourney.backend.dto.MemberInviteDTO;
+import com.mapmyjourney.backend.dto.MemberInviteResultDTO;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.repository.TripMemberBatchRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la invitación de miembros por lotes sobre una base H2 en memoria.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({TripMemberService.class, TripMemberBatchRepository.class, SqlDialectSupport.class, TripMembershipCache.class})
+public class TripMemberServiceInviteTest {
+
+    private static final int INVITEES = 200;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TripMemberService tripMemberService;
+
+    @Autowired
+    private TripMemberRepository tripMemberRepository;
+
+    private Long tripId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = entityManager.persist(user("owner@example.com"));
+        for (int i = 0; i < INVITEES; i++) {
+            entityManager.persist(user("user" + i + "@example.com"));
+        }
+
+        Trip trip = new Trip();
+        trip.setTitle("Viaje a Roma");
+        trip.setDestination("Roma");
+        trip.setTripCode("ROMA2024");
+        trip.setStartDate(LocalDate.of(2024, 5, 1));
+        trip.setEndDate(LocalDate.of(2024, 5, 10));
+        tripId = entityManager.persist(trip).getId();
+
+        entityManager.persist(TripMember.builder().trip(trip).user(owner).role(TripMemberRole.OWNER).build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("Usuario");
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    @Test
+    void testInviteMembersAddsAllUsersWithConstantNumberOfQueries() {
+        // Arrange
+        List<MemberInviteDTO> invitations = new ArrayList<>();
+        for (int i = 0; i < INVITEES; i++) {
+            invitations.add(new MemberInviteDTO("user" + i + "@example.com", i % 2 == 0 ? TripMemberRole.EDITOR : null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        MemberInviteBatchResponseDTO response = tripMemberService.inviteMembers(
+                tripId, new MemberInviteBatchRequestDTO(invitations));
+
+        // Assert: bloqueo del viaje, usuarios por email y pertenencias existentes (el lote va por JDBC)
+        assertEquals(3, statistics.getPrepareStatementCount(),
+                "Invitar miembros ha vuelto a lanzar consultas por email");
+        assertEquals(INVITEES, response.getAdded());
+        assertEquals(0, response.getFailed());
+        assertEquals(INVITEES + 1, tripMemberRepository.countByTripId(tripId));
+        assertEquals(INVITEES / 2, tripMemberRepository.countByTripIdAndRole(tripId, TripMemberRole.EDITOR));
+        for (MemberInviteResultDTO result : response.getResults()) {
+            assertTrue(result.isAdded());
+            assertNotNull(result.getMember().getId());
+        }
+    }
+
+    @Test
+    void testInviteMembersReportsOutcomePerEmail() {
+        // Arrange
+        List<MemberInviteDTO> invitations = List.of(
+                new MemberInviteDTO("user0@example.com", TripMemberRole.VIEWER),
+                new MemberInviteDTO("owner@example.com", TripMemberRole.VIEWER),
+                new MemberInviteDTO("nadie@example.com", TripMemberRole.VIEWER),
+                new MemberInviteDTO(" user0@example.com ", TripMemberRole.EDITOR));
+
+        // Act
+        MemberInviteBatchResponseDTO response = tripMemberService.inviteMembers(
+                tripId, new MemberInviteBatchRequestDTO(invitations));
+
+        // Assert
+        assertEquals(1, response.getAdded());
+        assertEquals(3, response.getFailed());
+        List<MemberInviteResultDTO> results = response.getResults();
+        assertTrue(results.get(0).isAdded());
+        assertEquals(TripMemberRole.VIEWER, results.get(0).getMember().getRole());
+        assertEquals("El usuario ya es miembro de este viaje", results.get(1).getError());
+        assertEquals("Usuario no encontrado", results.get(2).getError());
+        assertEquals("Email repetido en la petición", results.get(3).getError());
+        assertEquals(2, tripMemberRepository.countByTripId(tripId));
+    }
+}
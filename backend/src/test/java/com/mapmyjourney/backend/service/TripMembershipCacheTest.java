@@ -0,0 +1,88 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para TripMembershipCache
+ */
+@ExtendWith(MockitoExtension.class)
+public class TripMembershipCacheTest {
+
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
+    private TripMembershipCache tripMembershipCache;
+
+    @BeforeEach
+    void setUp() {
+        tripMembershipCache = new TripMembershipCache(tripMemberRepository, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void testGetRoleQueriesOnlyOnce() {
+        // Arrange
+        when(tripMemberRepository.findRoleByTripIdAndUserId(1L, 2L)).thenReturn(Optional.of(TripMemberRole.EDITOR));
+
+        // Act
+        boolean member = tripMembershipCache.isMember(1L, 2L);
+        boolean canEdit = tripMembershipCache.hasPermission(1L, 2L, TripMemberRole.EDITOR);
+        boolean canManage = tripMembershipCache.hasPermission(1L, 2L, TripMemberRole.OWNER);
+
+        // Assert
+        assertTrue(member);
+        assertTrue(canEdit);
+        assertFalse(canManage);
+        verify(tripMemberRepository, times(1)).findRoleByTripIdAndUserId(1L, 2L);
+    }
+
+    @Test
+    void testNonMemberIsCachedUntilEvicted() {
+        // Arrange
+        when(tripMemberRepository.findRoleByTripIdAndUserId(1L, 3L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(TripMemberRole.VIEWER));
+
+        // Act
+        boolean before = tripMembershipCache.isMember(1L, 3L);
+        boolean cached = tripMembershipCache.isMember(1L, 3L);
+        tripMembershipCache.evictAfterCommit(1L, List.of(3L));
+        boolean after = tripMembershipCache.isMember(1L, 3L);
+
+        // Assert: sin transacción activa, la entrada se descarta en el acto
+        assertFalse(before);
+        assertFalse(cached);
+        assertTrue(after);
+        verify(tripMemberRepository, times(2)).findRoleByTripIdAndUserId(1L, 3L);
+    }
+
+    @Test
+    void testEvictOnlyAffectsGivenTripAndUser() {
+        // Arrange
+        when(tripMemberRepository.findRoleByTripIdAndUserId(1L, 2L)).thenReturn(Optional.of(TripMemberRole.OWNER));
+        when(tripMemberRepository.findRoleByTripIdAndUserId(2L, 2L)).thenReturn(Optional.of(TripMemberRole.VIEWER));
+        tripMembershipCache.getRole(1L, 2L);
+        tripMembershipCache.getRole(2L, 2L);
+
+        // Act
+        tripMembershipCache.evictAfterCommit(1L, 2L);
+        tripMembershipCache.getRole(1L, 2L);
+        tripMembershipCache.getRole(2L, 2L);
+
+        // Assert
+        verify(tripMemberRepository, times(2)).findRoleByTripIdAndUserId(1L, 2L);
+        verify(tripMemberRepository, times(1)).findRoleByTripIdAndUserId(2L, 2L);
+    }
+}
@@ -0,0 +1,155 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripCloneRequestDTO;
+import com.mapmyjourney.backend.dto.TripDTO;
+import com.mapmyjourney.backend.model.Activity;
+import com.mapmyjourney.backend.model.ActivityType;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.ActivityRepository;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.repository.TripCloneRepository;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de la clonación de viajes con INSERT ... SELECT sobre una base H2 en memoria.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@Import({TripService.class, UserBalanceService.class, FxRateService.class, TripMembershipCache.class,
+        TripCodeCache.class, TripCloneRepository.class, SqlDialectSupport.class})
+public class TripServiceCloneTest {
+
+    private static final int ACTIVITIES = 300;
+    private static final LocalDate SOURCE_START = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TripService tripService;
+
+    @Autowired
+    private ActivityRepository activityRepository;
+
+    @Autowired
+    private TripMemberRepository tripMemberRepository;
+
+    private Long tripId;
+    private Long organizerId;
+    private Long guideId;
+
+    @BeforeEach
+    void setUp() {
+        User organizer = entityManager.persist(user("org@example.com"));
+        User guide = entityManager.persist(user("guia@example.com"));
+        organizerId = organizer.getId();
+        guideId = guide.getId();
+
+        Trip trip = new Trip();
+        trip.setTitle("Ruta Andalucía");
+        trip.setDestination("Sevilla");
+        trip.setTripCode("PLANTILL");
+        trip.setStartDate(SOURCE_START);
+        trip.setEndDate(SOURCE_START.plusDays(9));
+        tripId = entityManager.persist(trip).getId();
+
+        entityManager.persist(TripMember.builder().trip(trip).user(organizer).role(TripMemberRole.OWNER).build());
+        entityManager.persist(TripMember.builder().trip(trip).user(guide).role(TripMemberRole.EDITOR).build());
+
+        for (int i = 0; i < ACTIVITIES; i++) {
+            int dayIndex = i % 10;
+            entityManager.persist(Activity.builder()
+                    .trip(trip)
+                    .title("Actividad " + i)
+                    .type(ActivityType.ACTIVITY)
+                    .startTime("10:00")
+                    .duration(60)
+                    .dayIndex(dayIndex)
+                    .activityDate(SOURCE_START.plusDays(dayIndex))
+                    .orderIndex(i / 10)
+                    .isCompleted(i % 3 == 0)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setName("Usuario");
+        user.setEmail(email);
+        user.setPasswordHash("hash");
+        return user;
+    }
+
+    @Test
+    void testCloneTripCopiesActivitiesWithShiftedDates() {
+        // Arrange
+        LocalDate newStart = LocalDate.of(2025, 3, 10);
+
+        // Act
+        TripDTO clone = tripService.cloneTrip(tripId, new TripCloneRequestDTO(newStart, "Grupo B", false), organizerId);
+
+        // Assert
+        assertNotEquals(tripId, clone.getId());
+        assertEquals("Grupo B", clone.getTitle());
+        assertEquals(newStart, clone.getStartDate());
+        assertEquals(newStart.plusDays(9), clone.getEndDate());
+
+        List<Activity> activities = activityRepository.findAll().stream()
+                .filter(a -> a.getTrip().getId().equals(clone.getId()))
+                .toList();
+        assertEquals(ACTIVITIES, activities.size());
+        Set<String> ids = new HashSet<>();
+        for (Activity activity : activities) {
+            assertTrue(ids.add(activity.getId()), "UUID repetido: " + activity.getId());
+            assertEquals(newStart.plusDays(activity.getDayIndex()), activity.getActivityDate());
+            assertFalse(activity.getIsCompleted());
+        }
+        assertEquals(ACTIVITIES, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM activities WHERE trip_id = ?", Integer.class, tripId));
+
+        assertEquals(1, tripMemberRepository.countByTripId(clone.getId()));
+        assertEquals(TripMemberRole.OWNER,
+                tripMemberRepository.findRoleByTripIdAndUserId(clone.getId(), organizerId).orElseThrow());
+    }
+
+    @Test
+    void testCloneTripCopiesMembersWhenRequested() {
+        // Act: clona el guía, que pasa a ser OWNER; el organizador conserva su rol
+        TripDTO clone = tripService.cloneTrip(tripId,
+                new TripCloneRequestDTO(LocalDate.of(2025, 6, 1), null, true), guideId);
+
+        // Assert
+        assertEquals("Ruta Andalucía", clone.getTitle());
+        assertEquals(2, tripMemberRepository.countByTripId(clone.getId()));
+        assertEquals(TripMemberRole.OWNER,
+                tripMemberRepository.findRoleByTripIdAndUserId(clone.getId(), guideId).orElseThrow());
+        assertEquals(TripMemberRole.OWNER,
+                tripMemberRepository.findRoleByTripIdAndUserId(clone.getId(), organizerId).orElseThrow());
+    }
+}
@@ -6,6 +6,7 @@ import com.mapmyjourney.backend.exception.ResourceNotFoundException;
 import com.mapmyjourney.backend.exception.ValidationException;
 import com.mapmyjourney.backend.model.Trip;
 import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripCloneRepository;
 import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.TripRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
@@ -39,6 +40,15 @@ public class TripServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private TripMembershipCache tripMembershipCache;
+
+    @Mock
+    private TripCodeCache tripCodeCache;
+
+    @Mock
+    private TripCloneRepository tripCloneRepository;
+
     @InjectMocks
     private TripService tripService;
 
@@ -85,6 +95,8 @@ public class TripServiceTest {
         assertEquals("Viaje a Paris", createdTrip.getTitle());
         verify(userRepository, times(1)).findById(1L);
         verify(tripRepository, times(1)).save(any(Trip.class));
+        verify(tripMembershipCache).evictAfterCommit(1L, 1L);
+        verify(tripCodeCache).registerCode("ABC12345");
     }
 
     @Test
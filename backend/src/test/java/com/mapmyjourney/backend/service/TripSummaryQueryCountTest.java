@@ -0,0 +1,204 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.TripSummaryDTO;
+import com.mapmyjourney.backend.dto.TripSummaryPageDTO;
+import com.mapmyjourney.backend.model.Activity;
+import com.mapmyjourney.backend.model.ActivityType;
+import com.mapmyjourney.backend.model.Trip;
+import com.mapmyjourney.backend.model.TripBalance;
+import com.mapmyjourney.backend.model.TripMember;
+import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.model.enums.TripMemberRole;
+import com.mapmyjourney.backend.repository.SqlDialectSupport;
+import com.mapmyjourney.backend.repository.TripCloneRepository;
+import com.mapmyjourney.backend.service.fx.FxRateService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de regresión del número de consultas al listar los resúmenes de viajes de un usuario
+ * con 500 viajes. Usa las estadísticas de Hibernate sobre una base H2 en memoria.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({TripService.class, UserBalanceService.class, FxRateService.class, TripMembershipCache.class,
+        TripCodeCache.class, TripCloneRepository.class, SqlDialectSupport.class})
+public class TripSummaryQueryCountTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TripSummaryQueryCountTest.class);
+
+    private static final int TRIPS = 500;
+    private static final int PAGE_SIZE = 100;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TripService tripService;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setName("Ana");
+        user.setEmail("ana@example.com");
+        user.setPasswordHash("hash");
+        userId = entityManager.persist(user).getId();
+
+        User friend = new User();
+        friend.setName("Bea");
+        friend.setEmail("bea@example.com");
+        friend.setPasswordHash("hash");
+        entityManager.persist(friend);
+
+        LocalDate today = LocalDate.now();
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(TRIPS);
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = new Trip();
+            trip.setTitle("Viaje " + i);
+            trip.setDestination("Destino " + i);
+            trip.setTripCode("CODE" + i);
+            trip.setStartDate(today.minusDays(1));
+            trip.setEndDate(today.plusDays(10));
+            trip.setCreatedAt(createdAt.plusDays(i));
+            entityManager.persist(trip);
+
+            entityManager.persist(member(trip, user, TripMemberRole.OWNER));
+            entityManager.persist(member(trip, friend, TripMemberRole.EDITOR));
+
+            // Solo los viajes pares tienen saldo; los impares deben devolver cero
+            if (i % 2 == 0) {
+                TripBalance balance = new TripBalance();
+                balance.setTrip(trip);
+                balance.setUser(user);
+                balance.setBalance(new BigDecimal("12.50"));
+                entityManager.persist(balance);
+            }
+
+            entityManager.persist(activity(trip, "Ayer", today.minusDays(1), "09:00"));
+            entityManager.persist(activity(trip, "Museo", today.plusDays(1), "10:00"));
+            entityManager.persist(activity(trip, "Cena", today.plusDays(1), "21:00"));
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static TripMember member(Trip trip, User user, TripMemberRole role) {
+        TripMember member = new TripMember();
+        member.setTrip(trip);
+        member.setUser(user);
+        member.setRole(role);
+        return member;
+    }
+
+    private static Activity activity(Trip trip, String title, LocalDate date, String startTime) {
+        Activity activity = new Activity();
+        activity.setTrip(trip);
+        activity.setTitle(title);
+        activity.setType(ActivityType.ACTIVITY);
+        activity.setStartTime(startTime);
+        activity.setDuration(60);
+        activity.setDayIndex(0);
+        activity.setActivityDate(date);
+        return activity;
+    }
+
+    @Test
+    void testGetUserTripSummariesUsesConstantNumberOfQueriesPerPage() {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Set<Long> seen = new HashSet<>();
+
+        // Act
+        for (int page = 0; page < TRIPS / PAGE_SIZE; page++) {
+            statistics.clear();
+            TripSummaryPageDTO result = tripService.getUserTripSummaries(userId, page, PAGE_SIZE);
+            assertTrue(statistics.getPrepareStatementCount() <= 3,
+                    "Cada página debe resolverse con un número constante de consultas");
+
+            assertEquals(TRIPS, result.getTotalElements());
+            assertEquals(PAGE_SIZE, result.getItems().size());
+            for (TripSummaryDTO summary : result.getItems()) {
+                assertTrue(seen.add(summary.getId()), "Viaje repetido entre páginas: " + summary.getId());
+                assertEquals(TripMemberRole.OWNER, summary.getCurrentUserRole());
+                assertEquals(2, summary.getMemberCount());
+                assertNotNull(summary.getBalance());
+                assertNotNull(summary.getNextActivity());
+                assertEquals("Museo", summary.getNextActivity().getTitle());
+            }
+        }
+
+        // Assert
+        assertEquals(TRIPS, seen.size());
+    }
+
+    @Test
+    void testGetUserTripSummariesOrdersByMostRecentAndFillsBalance() {
+        // Act
+        TripSummaryPageDTO result = tripService.getUserTripSummaries(userId, 0, 2);
+
+        // Assert: el viaje 499 es el más reciente y no tiene saldo; el 498 sí
+        assertEquals(TRIPS / 2, result.getTotalPages());
+        assertEquals("Viaje 499", result.getItems().get(0).getTitle());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.getItems().get(0).getBalance()));
+        assertEquals("Viaje 498", result.getItems().get(1).getTitle());
+        assertEquals(new BigDecimal("12.50"), result.getItems().get(1).getBalance());
+    }
+
+    /**
+     * Benchmark (solo con mvn test -Pbenchmark): tiempo de recorrer las 5 páginas de resúmenes
+     * de un usuario con 500 viajes. Muestra en el log el mejor de 5 recorridos y el tiempo por página,
+     * vaciando el contexto de persistencia entre recorridos para no medir la caché de primer nivel.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkGetUserTripSummariesForFiveHundredTrips() {
+        int pages = TRIPS / PAGE_SIZE;
+        long bestNanos = Long.MAX_VALUE;
+        int items = 0;
+        for (int run = 0; run < 6; run++) {
+            entityManager.clear();
+            items = 0;
+            long start = System.nanoTime();
+            for (int page = 0; page < pages; page++) {
+                items += tripService.getUserTripSummaries(userId, page, PAGE_SIZE).getItems().size();
+            }
+            long elapsed = System.nanoTime() - start;
+            // El primer recorrido solo calienta el JIT y la caché de sentencias
+            if (run > 0) {
+                bestNanos = Math.min(bestNanos, elapsed);
+            }
+        }
+
+        log.info("Resúmenes de {} viajes en {} páginas: {} ms ({} ms/página, mejor de 5)", TRIPS, pages,
+                String.format("%.2f", bestNanos / 1_000_000.0),
+                String.format("%.2f", bestNanos / 1_000_000.0 / pages));
+        assertEquals(TRIPS, items);
+    }
+}
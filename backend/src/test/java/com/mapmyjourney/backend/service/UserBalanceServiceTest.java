@@ -0,0 +1,73 @@
+package com.mapmyjourney.backend.service;
+
+import com.mapmyjourney.backend.dto.UserBalancesDTO;
+import com.mapmyjourney.backend.repository.ExpenseSplitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para UserBalanceService
+ */
+@ExtendWith(MockitoExtension.class)
+public class UserBalanceServiceTest {
+
+    @Mock
+    private ExpenseSplitRepository expenseSplitRepository;
+
+    private UserBalanceService userBalanceService;
+
+    @BeforeEach
+    void setUp() {
+        userBalanceService = new UserBalanceService(expenseSplitRepository, 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void testGetUserBalancesSplitsByDirection() {
+        // Arrange
+        when(expenseSplitRepository.sumNetPendingByCounterparty(1L)).thenReturn(List.of(
+                new Object[] {2L, "Bea", "bea@example.com", "EUR", new BigDecimal("25.00")},
+                new Object[] {3L, "Carlos", "carlos@example.com", "EUR", new BigDecimal("-40.00")},
+                new Object[] {4L, "Dani", "dani@example.com", "EUR", new BigDecimal("60.00")},
+                new Object[] {2L, "Bea", "bea@example.com", "USD", new BigDecimal("-10.00")},
+                new Object[] {5L, "Eva", "eva@example.com", "EUR", new BigDecimal("0.00")}));
+
+        // Act
+        UserBalancesDTO result = userBalanceService.getUserBalances(1L);
+
+        // Assert
+        assertEquals(2, result.getOwedToMe().size());
+        assertEquals(4L, result.getOwedToMe().get(0).getUser().getId());
+        assertEquals(2L, result.getOwedToMe().get(1).getUser().getId());
+        assertEquals(2, result.getOwedByMe().size());
+        assertEquals(new BigDecimal("40.00"), result.getOwedByMe().get(0).getAmount());
+        assertEquals("USD", result.getOwedByMe().get(1).getCurrency());
+        assertEquals(Map.of("EUR", new BigDecimal("45.00"), "USD", new BigDecimal("-10.00")),
+                result.getNetByCurrency());
+    }
+
+    @Test
+    void testGetUserBalancesIsCachedUntilEvicted() {
+        // Arrange
+        when(expenseSplitRepository.sumNetPendingByCounterparty(1L)).thenReturn(List.of());
+
+        // Act
+        userBalanceService.getUserBalances(1L);
+        userBalanceService.getUserBalances(1L);
+        userBalanceService.evictAfterCommit(List.of(1L, 2L));
+        userBalanceService.getUserBalances(1L);
+
+        // Assert: sin transacción activa, la entrada se descarta en el acto
+        verify(expenseSplitRepository, times(2)).sumNetPendingByCounterparty(1L);
+    }
+}
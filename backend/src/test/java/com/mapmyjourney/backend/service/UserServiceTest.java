@@ -5,11 +5,13 @@ import com.mapmyjourney.backend.dto.UserCreateRequestDTO;
 import com.mapmyjourney.backend.dto.UserDTO;
 import com.mapmyjourney.backend.exception.DuplicateResourceException;
 import com.mapmyjourney.backend.model.User;
+import com.mapmyjourney.backend.repository.TripMemberRepository;
 import com.mapmyjourney.backend.repository.UserRepository;
 import com.mapmyjourney.backend.security.JwtTokenProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,6 +20,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +45,15 @@ public class UserServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private TripMemberRepository tripMemberRepository;
+
+    @Mock
+    private TripMemberService tripMemberService;
+
+    @Mock
+    private TripService tripService;
+
     @InjectMocks
     private UserService userService;
 
@@ -135,4 +147,41 @@ public class UserServiceTest {
             userService.authenticate("nonexistent@example.com", "Password123456");
         });
     }
+
+    @Test
+    void testDeleteUserAnonymizesAndLeavesTrips() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(tripMemberRepository.findTripIdsByUserId(1L)).thenReturn(List.of(20L, 10L));
+
+        // Act
+        userService.deleteUser(1L);
+
+        // Assert: sale de cada viaje en orden de ID y ninguno se queda vacío
+        InOrder inOrder = inOrder(tripMemberService);
+        inOrder.verify(tripMemberService).removeDeletedUser(10L, 1L);
+        inOrder.verify(tripMemberService).removeDeletedUser(20L, 1L);
+        verify(tripService, never()).deleteAbandonedTrip(anyLong());
+        verify(userRepository).save(existingUser);
+        verify(userRepository, never()).delete(any(User.class));
+        assertNotNull(existingUser.getDeletedAt());
+        assertEquals("deleted-1@deleted.invalid", existingUser.getEmail());
+        assertNotEquals("hashedPassword", existingUser.getPasswordHash());
+    }
+
+    @Test
+    void testDeleteUserDeletesTripsLeftWithoutMembers() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existingUser));
+        when(tripMemberRepository.findTripIdsByUserId(1L)).thenReturn(List.of(10L, 20L));
+        when(tripMemberService.removeDeletedUser(10L, 1L)).thenReturn(true);
+        when(tripMemberService.removeDeletedUser(20L, 1L)).thenReturn(false);
+
+        // Act
+        userService.deleteUser(1L);
+
+        // Assert
+        verify(tripService).deleteAbandonedTrip(10L);
+        verify(tripService, never()).deleteAbandonedTrip(20L);
+    }
 }
@@ -0,0 +1,98 @@
+package com.mapmyjourney.backend.service.fx;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.Expense;
+import com.mapmyjourney.backend.model.ExpenseSplit;
+import com.mapmyjourney.backend.model.Trip;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para FxRateService
+ */
+public class FxRateServiceTest {
+
+    private FxRateService fxRateService;
+
+    private Trip trip;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fxRateService = new FxRateService(FxRateTable.load(new StringReader(
+                "Date,USD\n2025-07-01,1.2000\n")));
+        trip = new Trip();
+        trip.setBaseCurrency("EUR");
+    }
+
+    private Expense expense(String currency, String amount) {
+        Expense expense = new Expense();
+        expense.setTrip(trip);
+        expense.setCurrency(currency);
+        expense.setAmount(new BigDecimal(amount));
+        expense.setExpenseDate(LocalDate.of(2025, 7, 1));
+        return expense;
+    }
+
+    private ExpenseSplit split(String amount) {
+        ExpenseSplit split = new ExpenseSplit();
+        split.setAmount(new BigDecimal(amount));
+        return split;
+    }
+
+    @Test
+    void testApplyBaseAmountsConvertsAndKeepsSplitTotal() {
+        // Arrange: 100 USD a 1,20 USD/EUR son 83,33 EUR, repartidos en tres
+        Expense expense = expense("USD", "100.00");
+        List<ExpenseSplit> splits = List.of(split("33.34"), split("33.33"), split("33.33"));
+
+        // Act
+        fxRateService.applyBaseAmounts(expense, splits);
+
+        // Assert
+        assertEquals(new BigDecimal("0.8333333333"), expense.getFxRate());
+        assertEquals(new BigDecimal("83.33"), expense.getBaseAmount());
+        BigDecimal total = splits.stream().map(ExpenseSplit::getBaseAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(new BigDecimal("83.33"), total);
+    }
+
+    @Test
+    void testApplyBaseAmountsDefaultsToTripCurrency() {
+        // Arrange
+        Expense expense = expense(null, "45.50");
+        List<ExpenseSplit> splits = List.of(split("45.50"));
+
+        // Act
+        fxRateService.applyBaseAmounts(expense, splits);
+
+        // Assert
+        assertEquals("EUR", expense.getCurrency());
+        assertEquals(BigDecimal.ONE, expense.getFxRate());
+        assertEquals(new BigDecimal("45.50"), expense.getBaseAmount());
+        assertEquals(new BigDecimal("45.50"), splits.get(0).getBaseAmount());
+    }
+
+    @Test
+    void testApplyBaseAmountsWithoutRateFails() {
+        // Arrange
+        Expense expense = expense("GBP", "10.00");
+
+        // Act & Assert
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> fxRateService.applyBaseAmounts(expense, List.of()));
+        assertTrue(exception.getMessage().contains("GBP"));
+    }
+
+    @Test
+    void testNormalizeCurrency() {
+        // Act & Assert
+        assertEquals("USD", FxRateService.normalizeCurrency(" usd "));
+        assertThrows(ValidationException.class, () -> FxRateService.normalizeCurrency("ABC"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.mapmyjourney.backend.service.fx;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para FxRateTable
+ */
+public class FxRateTableTest {
+
+    // Formato del BCE: días en orden descendente, columna final vacía y N/A sin cotización
+    private static final String RATES = "Date,USD,JPY,GBP,\n"
+            + "2025-07-04,1.1750,170.00,0.8600,\n"
+            + "2025-07-03,1.1800,169.50,N/A,\n"
+            + "2025-07-01,1.1700,169.00,0.8580,\n";
+
+    private FxRateTable load() throws Exception {
+        return FxRateTable.load(new StringReader(RATES));
+    }
+
+    @Test
+    void testRateLooksUpCurrencyAndDay() throws Exception {
+        // Arrange
+        FxRateTable table = load();
+
+        // Act & Assert
+        assertEquals(3, table.getCurrencyCount());
+        assertEquals(LocalDate.of(2025, 7, 1), table.getFirstDay());
+        assertEquals(LocalDate.of(2025, 7, 4), table.getLastDay());
+        assertEquals(0, new BigDecimal("1.18").compareTo(table.rate("USD", LocalDate.of(2025, 7, 3))));
+        assertEquals(0, BigDecimal.ONE.compareTo(table.rate("EUR", LocalDate.of(2020, 1, 1))));
+    }
+
+    @Test
+    void testMissingDaysUsePreviousRate() throws Exception {
+        // Arrange
+        FxRateTable table = load();
+
+        // Act & Assert: el 2 de julio no cotiza y el 3 la libra viene como N/A
+        assertEquals(0, new BigDecimal("1.17").compareTo(table.rate("USD", LocalDate.of(2025, 7, 2))));
+        assertEquals(0, new BigDecimal("0.858").compareTo(table.rate("GBP", LocalDate.of(2025, 7, 3))));
+        // Después del último día se usa el último tipo conocido
+        assertEquals(0, new BigDecimal("170").compareTo(table.rate("JPY", LocalDate.of(2025, 12, 31))));
+    }
+
+    @Test
+    void testRateIsNullOutsideTable() throws Exception {
+        // Arrange
+        FxRateTable table = load();
+
+        // Act & Assert
+        assertNull(table.rate("USD", LocalDate.of(2025, 6, 30)));
+        assertNull(table.rate("CHF", LocalDate.of(2025, 7, 1)));
+        assertNull(FxRateTable.empty().rate("USD", LocalDate.of(2025, 7, 1)));
+    }
+
+    @Test
+    void testConversionRateCrossesThroughEuro() throws Exception {
+        // Arrange
+        FxRateTable table = load();
+        LocalDate date = LocalDate.of(2025, 7, 1);
+
+        // Act
+        BigDecimal usdToEur = table.conversionRate("USD", "EUR", date);
+        BigDecimal usdToJpy = table.conversionRate("USD", "JPY", date);
+
+        // Assert
+        assertEquals(new BigDecimal("0.8547008547"), usdToEur);
+        assertEquals(new BigDecimal("144.4444444444"), usdToJpy);
+        assertEquals(BigDecimal.ONE, table.conversionRate("USD", "USD", date));
+    }
+}
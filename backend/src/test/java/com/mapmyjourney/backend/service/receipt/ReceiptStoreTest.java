@@ -0,0 +1,108 @@
+package com.mapmyjourney.backend.service.receipt;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReceiptStore y ReceiptThumbnailer
+ */
+public class ReceiptStoreTest {
+
+    private static final byte[] PDF = "%PDF-1.4\nrecibo de prueba\n%%EOF".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private ReceiptStore receiptStore;
+
+    @BeforeEach
+    void setUp() {
+        receiptStore = new ReceiptStore(dir.toString(), 1024);
+    }
+
+    private long countFiles() throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void testStoreDeduplicatesByContent() throws Exception {
+        // Act
+        StoredReceipt first = receiptStore.store(new ByteArrayInputStream(PDF));
+        StoredReceipt second = receiptStore.store(new ByteArrayInputStream(PDF));
+
+        // Assert
+        assertEquals(first.getHash(), second.getHash());
+        assertEquals("application/pdf", first.getContentType());
+        assertEquals(PDF.length, first.getSize());
+        assertArrayEquals(PDF, Files.readAllBytes(receiptStore.path(first.getHash())));
+        // Un único fichero y ningún temporal
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    void testStoreRejectsTooLargeAndUnknownFiles() throws Exception {
+        // Arrange
+        byte[] large = new byte[2048];
+        System.arraycopy(PDF, 0, large, 0, PDF.length);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> receiptStore.store(new ByteArrayInputStream(large)));
+        assertThrows(ValidationException.class, () -> receiptStore.store(new ByteArrayInputStream("hola".getBytes())));
+        assertThrows(ValidationException.class, () -> receiptStore.store(new ByteArrayInputStream(new byte[0])));
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void testPathRejectsInvalidHash() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> receiptStore.path("../../etc/passwd"));
+    }
+
+    @Test
+    void testTransferToWritesRequestedRange() throws Exception {
+        // Arrange
+        StoredReceipt stored = receiptStore.store(new ByteArrayInputStream(PDF));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        ReceiptStore.transferTo(stored.getPath(), 1, 3, out);
+
+        // Assert
+        assertEquals("PDF", out.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testThumbnailIsScaledDown() throws Exception {
+        // Arrange
+        ReceiptStore store = new ReceiptStore(dir.toString(), 1024 * 1024);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB), "png", png);
+        StoredReceipt stored = store.store(new ByteArrayInputStream(png.toByteArray()));
+        ReceiptThumbnailer thumbnailer = new ReceiptThumbnailer(store, 1, 1, 50_000_000);
+
+        // Act
+        thumbnailer.generate(stored.getHash());
+
+        // Assert
+        assertEquals("image/png", stored.getContentType());
+        BufferedImage thumbnail = ImageIO.read(store.thumbnailPath(stored.getHash()).toFile());
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION, thumbnail.getWidth());
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION / 2, thumbnail.getHeight());
+        thumbnailer.shutdown();
+    }
+}
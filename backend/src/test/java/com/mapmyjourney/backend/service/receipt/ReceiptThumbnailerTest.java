@@ -0,0 +1,149 @@
+package com.mapmyjourney.backend.service.receipt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReceiptThumbnailer
+ */
+public class ReceiptThumbnailerTest {
+
+    private static final long MAX_PIXELS = 10_000_000;
+
+    @TempDir
+    Path dir;
+
+    private ReceiptStore receiptStore;
+    private ReceiptThumbnailer thumbnailer;
+
+    @BeforeEach
+    void setUp() {
+        receiptStore = new ReceiptStore(dir.toString(), 1024 * 1024);
+        thumbnailer = new ReceiptThumbnailer(receiptStore, 1, 1, MAX_PIXELS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailer.shutdown();
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * PNG válido de 1x1 cuya cabecera IHDR declara otras dimensiones (con su CRC recalculado).
+     */
+    private static byte[] pngDeclaring(int width, int height) throws Exception {
+        byte[] png = png(1, 1);
+        // Firma (8) + longitud (4) + "IHDR" (4): el ancho y el alto empiezan en el byte 16
+        ByteBuffer buffer = ByteBuffer.wrap(png);
+        buffer.putInt(16, width);
+        buffer.putInt(20, height);
+        CRC32 crc = new CRC32();
+        crc.update(png, 12, 17);
+        buffer.putInt(29, (int) crc.getValue());
+        return png;
+    }
+
+    private StoredReceipt store(byte[] content) {
+        return receiptStore.store(new ByteArrayInputStream(content));
+    }
+
+    @Test
+    void testReadSubsamplesLargeImage() throws Exception {
+        // Arrange
+        StoredReceipt stored = store(png(3200, 1600));
+
+        // Act
+        BufferedImage source = thumbnailer.read(stored.getHash());
+
+        // Assert: se decodifica una de cada 10 filas y columnas, no la imagen completa
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION, source.getWidth());
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION / 2, source.getHeight());
+    }
+
+    @Test
+    void testReadKeepsSmallImage() throws Exception {
+        // Arrange
+        StoredReceipt stored = store(png(200, 100));
+
+        // Act
+        BufferedImage source = thumbnailer.read(stored.getHash());
+
+        // Assert
+        assertEquals(200, source.getWidth());
+        assertEquals(100, source.getHeight());
+    }
+
+    @Test
+    void testGenerateSkipsImageDeclaringTooManyPixels() throws Exception {
+        // Arrange: unos pocos bytes que anuncian 100.000 x 100.000 píxeles
+        StoredReceipt stored = store(pngDeclaring(100_000, 100_000));
+
+        // Act
+        thumbnailer.generate(stored.getHash());
+
+        // Assert
+        assertEquals("image/png", stored.getContentType());
+        assertNull(thumbnailer.read(stored.getHash()));
+        assertFalse(Files.exists(receiptStore.thumbnailPath(stored.getHash())));
+    }
+
+    @Test
+    void testGenerateSkipsImageAboveConfiguredLimit() throws Exception {
+        // Arrange
+        StoredReceipt stored = store(png(200, 100));
+        ReceiptThumbnailer limited = new ReceiptThumbnailer(receiptStore, 1, 1, 10_000);
+
+        // Act
+        limited.generate(stored.getHash());
+
+        // Assert
+        assertFalse(Files.exists(receiptStore.thumbnailPath(stored.getHash())));
+        limited.shutdown();
+    }
+
+    @Test
+    void testGenerateSkipsNonImage() throws Exception {
+        // Arrange
+        StoredReceipt stored = store("%PDF-1.4\nrecibo de prueba\n%%EOF".getBytes(StandardCharsets.US_ASCII));
+
+        // Act
+        thumbnailer.generate(stored.getHash());
+
+        // Assert
+        assertNull(thumbnailer.read(stored.getHash()));
+        assertFalse(Files.exists(receiptStore.thumbnailPath(stored.getHash())));
+    }
+
+    @Test
+    void testGenerateWritesThumbnailOfLargeImage() throws Exception {
+        // Arrange
+        StoredReceipt stored = store(png(3200, 1600));
+
+        // Act
+        thumbnailer.generate(stored.getHash());
+
+        // Assert
+        BufferedImage thumbnail = ImageIO.read(receiptStore.thumbnailPath(stored.getHash()).toFile());
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION, thumbnail.getWidth());
+        assertEquals(ReceiptThumbnailer.MAX_DIMENSION / 2, thumbnail.getHeight());
+    }
+}
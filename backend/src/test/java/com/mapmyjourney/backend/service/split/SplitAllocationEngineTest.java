@@ -0,0 +1,217 @@
+package com.mapmyjourney.backend.service.split;
+
+import com.mapmyjourney.backend.exception.ValidationException;
+import com.mapmyjourney.backend.model.enums.ExpenseSplitType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SplitAllocationEngine
+ */
+public class SplitAllocationEngineTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SplitAllocationEngineTest.class);
+
+    private SplitAllocationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new SplitAllocationEngine(List.of(
+                new EqualSplitAllocator(), new PercentageSplitAllocator(),
+                new ManualSplitAllocator(), new CustomSplitAllocator()));
+    }
+
+    @Test
+    void testEqualSplitSumsExactlyToAmount() {
+        // Act
+        long[] cents = engine.allocate(ExpenseSplitType.EQUAL, new BigDecimal("100.00"), List.of(1L, 2L, 3L), null);
+
+        // Assert
+        assertEquals(10000, sum(cents));
+        for (long share : cents) {
+            assertTrue(share == 3333 || share == 3334);
+        }
+    }
+
+    @Test
+    void testEqualSplitRejectsZeroShares() {
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            engine.allocate(ExpenseSplitType.EQUAL, new BigDecimal("0.01"), List.of(1L, 2L), null);
+        });
+    }
+
+    @Test
+    void testPercentageSplit() {
+        // Arrange
+        Map<Long, BigDecimal> percentages = new HashMap<>();
+        percentages.put(1L, new BigDecimal("33.33"));
+        percentages.put(2L, new BigDecimal("33.33"));
+        percentages.put(3L, new BigDecimal("33.34"));
+
+        // Act
+        long[] cents = engine.allocate(ExpenseSplitType.PERCENTAGE, new BigDecimal("10.00"), List.of(1L, 2L, 3L), percentages);
+
+        // Assert
+        assertEquals(1000, sum(cents));
+    }
+
+    @Test
+    void testPercentageSplitMustSumOneHundred() {
+        // Arrange
+        Map<Long, BigDecimal> percentages = Map.of(1L, new BigDecimal("50"), 2L, new BigDecimal("40"));
+
+        // Act & Assert
+        ValidationException ex = assertThrows(ValidationException.class, () -> {
+            engine.allocate(ExpenseSplitType.PERCENTAGE, new BigDecimal("10.00"), List.of(1L, 2L), percentages);
+        });
+        assertEquals("Los porcentajes deben sumar 100", ex.getMessage());
+    }
+
+    @Test
+    void testManualSplitMustMatchAmount() {
+        // Arrange
+        Map<Long, BigDecimal> amounts = Map.of(1L, new BigDecimal("60.00"), 2L, new BigDecimal("39.99"));
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            engine.allocate(ExpenseSplitType.MANUAL, new BigDecimal("100.00"), List.of(1L, 2L), amounts);
+        });
+    }
+
+    @Test
+    void testManualSplitKeepsExactAmounts() {
+        // Arrange
+        Map<Long, BigDecimal> amounts = Map.of(1L, new BigDecimal("60.01"), 2L, new BigDecimal("39.99"));
+
+        // Act
+        long[] cents = engine.allocate(ExpenseSplitType.MANUAL, new BigDecimal("100.00"), List.of(1L, 2L), amounts);
+
+        // Assert
+        assertArrayEquals(new long[] {6001, 3999}, cents);
+    }
+
+    @Test
+    void testCustomSplitByShares() {
+        // Arrange
+        Map<Long, BigDecimal> shares = Map.of(1L, new BigDecimal("2"), 2L, BigDecimal.ONE, 3L, BigDecimal.ONE);
+
+        // Act
+        long[] cents = engine.allocate(ExpenseSplitType.CUSTOM, new BigDecimal("100.00"), List.of(1L, 2L, 3L), shares);
+
+        // Assert
+        assertArrayEquals(new long[] {5000, 2500, 2500}, cents);
+    }
+
+    @Test
+    void testSplitRejectsValuesForNonParticipants() {
+        // Arrange
+        Map<Long, BigDecimal> shares = Map.of(1L, BigDecimal.ONE, 2L, BigDecimal.ONE, 9L, BigDecimal.ONE);
+
+        // Act & Assert
+        assertThrows(ValidationException.class, () -> {
+            engine.allocate(ExpenseSplitType.CUSTOM, new BigDecimal("100.00"), List.of(1L, 2L), shares);
+        });
+    }
+
+    /**
+     * Cada cuota se separa menos de un céntimo de la cuota exacta y la suma es siempre el monto.
+     */
+    @Test
+    void testWeightedAllocationStaysWithinOneCentOfExactShare() {
+        long[] weights = {7, 1, 3, 13, 2, 9, 5};
+        long totalWeight = 40;
+        long[] out = new long[weights.length];
+
+        for (long amountCents = 1000; amountCents < 1100; amountCents++) {
+            CentsAllocation.allocateWeighted(amountCents, weights.clone(), weights.length, out);
+            assertEquals(amountCents, sum(out));
+            for (int i = 0; i < weights.length; i++) {
+                double exact = (double) amountCents * weights[i] / totalWeight;
+                assertTrue(Math.abs(out[i] - exact) < 1.0);
+            }
+        }
+    }
+
+    /**
+     * El reparto entre grupos de 2 a 1.000 participantes siempre suma el monto exacto.
+     */
+    @Test
+    void testAllocationSumsToAmountForGroupSizes() {
+        int[] groupSizes = {2, 10, 100, 1_000};
+        BigDecimal amount = new BigDecimal("12345.67");
+
+        for (int size : groupSizes) {
+            List<Long> participantIds = new ArrayList<>(size);
+            Map<Long, BigDecimal> shares = new HashMap<>();
+            for (long id = 1; id <= size; id++) {
+                participantIds.add(id);
+                shares.put(id, BigDecimal.valueOf(id % 5 + 1));
+            }
+            long[] out = new long[size];
+
+            engine.allocate(ExpenseSplitType.EQUAL, amount, participantIds, null, out);
+            assertEquals(1234567, sum(out));
+
+            engine.allocate(ExpenseSplitType.CUSTOM, amount, participantIds, shares, out);
+            assertEquals(1234567, sum(out));
+        }
+    }
+
+    /**
+     * Benchmark (solo con mvn test -Pbenchmark): tiempo por reparto EQUAL y CUSTOM entre
+     * 2, 10, 100 y 1.000 participantes, en ns/op, tras un calentamiento para que actúe el JIT.
+     */
+    @Test
+    @Tag("benchmark")
+    void benchmarkAllocationForGroupSizes() {
+        int[] groupSizes = {2, 10, 100, 1_000};
+        BigDecimal amount = new BigDecimal("12345.67");
+        int iterations = 20_000;
+
+        for (int size : groupSizes) {
+            List<Long> participantIds = new ArrayList<>(size);
+            Map<Long, BigDecimal> shares = new HashMap<>();
+            for (long id = 1; id <= size; id++) {
+                participantIds.add(id);
+                shares.put(id, BigDecimal.valueOf(id % 5 + 1));
+            }
+            long[] out = new long[size];
+
+            for (ExpenseSplitType type : new ExpenseSplitType[] {ExpenseSplitType.EQUAL, ExpenseSplitType.CUSTOM}) {
+                Map<Long, BigDecimal> values = type == ExpenseSplitType.CUSTOM ? shares : null;
+                for (int i = 0; i < iterations; i++) {
+                    engine.allocate(type, amount, participantIds, values, out);
+                }
+
+                long start = System.nanoTime();
+                for (int i = 0; i < iterations; i++) {
+                    engine.allocate(type, amount, participantIds, values, out);
+                }
+                long nanosPerOp = (System.nanoTime() - start) / iterations;
+
+                log.info("Reparto {} entre {} participantes: {} ns/op", type, size, nanosPerOp);
+                assertEquals(1234567, sum(out));
+            }
+        }
+    }
+
+    private long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+}